@@ -17,6 +17,7 @@
 
 package io.ocsf.translator.event.event;
 
+import io.ocsf.utils.FieldPath;
 import io.ocsf.utils.Json;
 import io.ocsf.utils.Maps;
 
@@ -50,6 +51,7 @@ public class Event
   public boolean isEmpty() {return data.isEmpty();}
 
   private final Map<String, Object> data;
+  private final long                start;
 
   /**
    * The End of Stream event.
@@ -68,7 +70,20 @@ public class Event
    */
   public Event(final Map<String, Object> data)
   {
-    this.data = data;
+    this(data, 0);
+  }
+
+  /**
+   * Constructs a new event using the provided data and processing start time.
+   *
+   * @param data  the event data
+   * @param start the time when the processing of the event started, as returned by
+   *              {@link System#nanoTime()}, or 0 if unknown
+   */
+  public Event(final Map<String, Object> data, final long start)
+  {
+    this.data  = data;
+    this.start = start;
   }
 
   @SuppressWarnings("unchecked")
@@ -86,6 +101,12 @@ public class Event
     return (T) Maps.getIn(data, path);
   }
 
+  @SuppressWarnings("unchecked")
+  public <T> T getIn(final FieldPath path)
+  {
+    return (T) Maps.getIn(data, path);
+  }
+
   @SuppressWarnings("unchecked")
   public <T> T getIn(final String... path)
   {
@@ -120,6 +141,14 @@ public class Event
     return this != EOS;
   }
 
+  /**
+   * Returns the time when the processing of the event started, used to measure the end-to-end
+   * latency.
+   *
+   * @return the start time as returned by {@link System#nanoTime()}, or 0 if unknown
+   */
+  public long start() {return start;}
+
   /**
    * Returns the map containing the event data.
    *
@@ -17,11 +17,30 @@
 
 package io.ocsf.translator.event.event;
 
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * A bounded blocking queue of events.
+ * <p>
+ * The queue is an array-based ring guarded by a single lock, as
+ * <code>java.util.concurrent.ArrayBlockingQueue</code>. {@link #drainTo(Collection, int)} and
+ * {@link #putAll(Collection)} move a whole batch under one lock acquisition, and the draining
+ * stops after an 'eos' marker event.
+ */
 public class EventQueue<T extends Event> implements Source<T>, Sink<T>
 {
-  private final ArrayBlockingQueue<T> queue;
+  private final Object[] items;
+
+  // the index of the next event to take, and the number of queued events, guarded by the lock
+  private int head;
+  private int count;
+
+  private final ReentrantLock lock     = new ReentrantLock();
+  private final Condition     notEmpty = lock.newCondition();
+  private final Condition     notFull  = lock.newCondition();
 
   /**
    * Creates a BlockingQueue with the given (fixed) capacity and default access policy.
@@ -30,7 +49,10 @@ public class EventQueue<T extends Event> implements Source<T>, Sink<T>
    */
   public EventQueue(final int capacity)
   {
-    this.queue = new ArrayBlockingQueue<>(capacity);
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+    this.items = new Object[capacity];
   }
 
   /**
@@ -38,18 +60,146 @@ public class EventQueue<T extends Event> implements Source<T>, Sink<T>
    */
   public EventQueue()
   {
-    this.queue = new ArrayBlockingQueue<>(8);
+    this(8);
+  }
+
+  @Override
+  public void put(final T t) throws InterruptedException
+  {
+    Objects.requireNonNull(t);
+
+    lock.lockInterruptibly();
+    try
+    {
+      while (count == items.length)
+        notFull.await();
+
+      enqueue(t);
+      notEmpty.signal();
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putAll(final Collection<? extends T> batch) throws InterruptedException
+  {
+    if (batch.isEmpty())
+      return;
+
+    lock.lockInterruptibly();
+    try
+    {
+      for (final T t : batch)
+      {
+        Objects.requireNonNull(t);
+
+        while (count == items.length)
+        {
+          // let the consumers take the events put so far
+          notEmpty.signalAll();
+          notFull.await();
+        }
+
+        enqueue(t);
+      }
+
+      if (batch.size() == 1)
+        notEmpty.signal();
+      else
+        notEmpty.signalAll();
+    }
+    finally
+    {
+      lock.unlock();
+    }
   }
 
   @Override
-  public void put(final T t) throws InterruptedException {queue.put(t);}
+  public T take() throws InterruptedException
+  {
+    lock.lockInterruptibly();
+    try
+    {
+      while (count == 0)
+        notEmpty.await();
+
+      final T t = dequeue();
+      notFull.signal();
+      return t;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
 
   @Override
-  public T take() throws InterruptedException {return queue.take();}
+  public int drainTo(final Collection<? super T> batch, final int max)
+    throws InterruptedException
+  {
+    lock.lockInterruptibly();
+    try
+    {
+      while (count == 0)
+        notEmpty.await();
+
+      int n = 0;
+      T   t;
+      do
+      {
+        t = dequeue();
+        batch.add(t);
+        ++n;
+      }
+      while (n < max && count > 0 && t.isNotEos());
+
+      if (n == 1)
+        notFull.signal();
+      else
+        notFull.signalAll();
+
+      return n;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
 
   @Override
   public int available()
   {
-    return queue.size();
+    lock.lock();
+    try
+    {
+      return count;
+    }
+    finally
+    {
+      lock.unlock();
+    }
+  }
+
+  private void enqueue(final T t)
+  {
+    final int tail = head + count;
+    items[tail < items.length ? tail : tail - items.length] = t;
+    ++count;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T dequeue()
+  {
+    final T t = (T) items[head];
+    items[head] = null;
+
+    if (++head == items.length)
+      head = 0;
+    --count;
+
+    return t;
   }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.event.event;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free queue backed by a preallocated ring buffer. It is an alternative to
+ * {@link EventQueue} for the hand-offs between the pipeline threads.
+ * <p>
+ * Each slot has a sequence number that tells whether the slot is ready to be written or read, so
+ * the producers and consumers only contend on the slot they claim. With a single producer, the
+ * producer claims the slots without a compare-and-set.
+ * <p>
+ * A thread that finds the queue full or empty waits according to the {@link WaitStrategy}.
+ */
+public class RingQueue<T extends Event> implements Source<T>, Sink<T>
+{
+  /**
+   * How a thread waits for a slot to become available.
+   */
+  public enum WaitStrategy
+  {
+    /**
+     * Spins on the CPU. The lowest latency, but a waiting thread uses a full core.
+     */
+    BusySpin,
+
+    /**
+     * Spins a little, then yields the CPU to the other threads.
+     */
+    Yield,
+
+    /**
+     * Spins a little, yields, then parks the thread for increasingly longer periods. It uses the
+     * least CPU when the queue is idle.
+     */
+    Park
+  }
+
+  private static final int SpinTries  = 100;
+  private static final int YieldTries = 100;
+
+  // the maximum park time when waiting
+  private static final long MaxParkNanos = 1_000_000;
+
+  private final Object[]        buffer;
+  private final AtomicLongArray sequences;
+  private final int             mask;
+  private final boolean         singleProducer;
+  private final WaitStrategy    strategy;
+
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Creates a multi-producer queue that parks the waiting threads.
+   *
+   * @param capacity the capacity of this queue, rounded up to a power of 2, at least 2
+   */
+  public RingQueue(final int capacity)
+  {
+    this(capacity, false, WaitStrategy.Park);
+  }
+
+  /**
+   * Creates a new queue.
+   *
+   * @param capacity       the capacity of this queue, rounded up to a power of 2, at least 2
+   * @param singleProducer true if only one thread puts events in this queue
+   * @param strategy       the wait strategy for a full or an empty queue
+   */
+  public RingQueue(final int capacity, final boolean singleProducer, final WaitStrategy strategy)
+  {
+    if (capacity <= 0 || capacity > 1 << 30)
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+    // the slot sequences need at least two slots to tell a written slot from a free one
+    final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+
+    this.buffer         = new Object[size];
+    this.sequences      = new AtomicLongArray(size);
+    this.mask           = size - 1;
+    this.singleProducer = singleProducer;
+    this.strategy       = strategy;
+
+    for (int i = 0; i < size; ++i)
+      sequences.set(i, i);
+  }
+
+  @Override
+  public void put(final T t) throws InterruptedException
+  {
+    for (int tries = 0; !offer(t); )
+      tries = await(tries);
+  }
+
+  @Override
+  public T take() throws InterruptedException
+  {
+    T t;
+    for (int tries = 0; (t = poll()) == null; )
+      tries = await(tries);
+
+    return t;
+  }
+
+  @Override
+  public int drainTo(final Collection<? super T> batch, final int max)
+    throws InterruptedException
+  {
+    T t = take();
+    batch.add(t);
+
+    int n = 1;
+    while (n < max && t.isNotEos() && (t = poll()) != null)
+    {
+      batch.add(t);
+      ++n;
+    }
+
+    return n;
+  }
+
+  @Override
+  public int available()
+  {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  /**
+   * Returns the capacity of this queue.
+   *
+   * @return the number of slots
+   */
+  public int capacity() {return buffer.length;}
+
+  /**
+   * Inserts the event if there is a free slot.
+   *
+   * @param t the event
+   * @return true if the event was inserted, false if the queue is full
+   */
+  public boolean offer(final T t)
+  {
+    if (t == null)
+      throw new NullPointerException();
+
+    long pos = tail.get();
+    for (; ; )
+    {
+      final int  i   = (int) pos & mask;
+      final long dif = sequences.get(i) - pos;
+
+      if (dif == 0)
+      {
+        if (singleProducer)
+        {
+          tail.lazySet(pos + 1);
+          break;
+        }
+
+        if (tail.compareAndSet(pos, pos + 1))
+          break;
+
+        pos = tail.get();
+      }
+      else if (dif < 0)
+      {
+        // the slot has not been read yet: the queue is full
+        return false;
+      }
+      else
+      {
+        pos = tail.get();
+      }
+    }
+
+    final int i = (int) pos & mask;
+    buffer[i] = t;
+    sequences.set(i, pos + 1);
+    return true;
+  }
+
+  /**
+   * Removes the next event, if any.
+   *
+   * @return the next event or null if the queue is empty
+   */
+  @SuppressWarnings("unchecked")
+  public T poll()
+  {
+    long pos = head.get();
+    for (; ; )
+    {
+      final int  i   = (int) pos & mask;
+      final long dif = sequences.get(i) - (pos + 1);
+
+      if (dif == 0)
+      {
+        if (head.compareAndSet(pos, pos + 1))
+          break;
+
+        pos = head.get();
+      }
+      else if (dif < 0)
+      {
+        // the slot has not been written yet: the queue is empty
+        return null;
+      }
+      else
+      {
+        pos = head.get();
+      }
+    }
+
+    final int i = (int) pos & mask;
+    final T   t = (T) buffer[i];
+    buffer[i] = null;
+    sequences.set(i, pos + mask + 1);
+    return t;
+  }
+
+  /*
+   * Waits once according to the wait strategy, returns the number of tries for the next wait.
+   */
+  private int await(final int tries) throws InterruptedException
+  {
+    if (Thread.interrupted())
+      throw new InterruptedException();
+
+    if (strategy == WaitStrategy.BusySpin || tries < SpinTries)
+    {
+      Thread.onSpinWait();
+    }
+    else if (strategy == WaitStrategy.Yield || tries < SpinTries + YieldTries)
+    {
+      Thread.yield();
+    }
+    else
+    {
+      // back off exponentially up to the maximum park time
+      final int shift = Math.min(tries - SpinTries - YieldTries, 20);
+      LockSupport.parkNanos(Math.min(1_000L << shift, MaxParkNanos));
+    }
+
+    return tries < Integer.MAX_VALUE ? tries + 1 : tries;
+  }
+}
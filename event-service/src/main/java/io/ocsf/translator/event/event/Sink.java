@@ -17,7 +17,21 @@
 
 package io.ocsf.translator.event.event;
 
+import java.util.Collection;
+
 public interface Sink<T extends Event>
 {
   void put(final T t) throws InterruptedException;
+
+  /**
+   * Puts all events of the batch in order, waiting for space if necessary.
+   *
+   * @param batch the events to put
+   * @throws InterruptedException if interrupted while waiting
+   */
+  default void putAll(final Collection<? extends T> batch) throws InterruptedException
+  {
+    for (final T t : batch)
+      put(t);
+  }
 }
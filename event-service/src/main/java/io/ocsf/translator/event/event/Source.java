@@ -17,9 +17,27 @@
 
 package io.ocsf.translator.event.event;
 
+import java.util.Collection;
+
 public interface Source<T extends Event>
 {
   T take() throws InterruptedException;
 
   int available();
+
+  /**
+   * Waits for at least one event, then moves up to <code>max</code> events to the batch. The
+   * draining stops after an 'eos' marker event, the following events stay in the source.
+   *
+   * @param batch the collection to add the events to
+   * @param max   the maximum number of events to move, must be positive
+   * @return the number of events added to the batch
+   * @throws InterruptedException if interrupted while waiting
+   */
+  default int drainTo(final Collection<? super T> batch, final int max)
+    throws InterruptedException
+  {
+    batch.add(take());
+    return 1;
+  }
 }
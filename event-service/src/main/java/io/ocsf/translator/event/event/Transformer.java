@@ -20,10 +20,16 @@ package io.ocsf.translator.event.event;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public abstract class Transformer implements Runnable
 {
   private static final Logger logger = LogManager.getLogger(Transformer.class);
 
+  // the maximum number of events taken from the source at once
+  private static final int BatchSize = 64;
+
   private final String        name;
   private final Source<Event> source;
   private final Sink<Event>   sink;
@@ -44,6 +50,14 @@ public abstract class Transformer implements Runnable
    */
   protected abstract Event process(final Event data) throws InterruptedException;
 
+  /**
+   * This method is called when the source has no more events, before the <code>eos</code> event
+   * is sent to the sink. It is not called when the main thread is interrupted.
+   *
+   * @throws InterruptedException the Transformer's main thread has been interrupted
+   */
+  protected void ended() throws InterruptedException {}
+
   /**
    * This method is called when the Transformer's main thread has been terminated.
    */
@@ -57,13 +71,45 @@ public abstract class Transformer implements Runnable
   {
     logger.info("{}: main thread started", this);
 
+    final List<Event> batch  = new ArrayList<>(BatchSize);
+    final List<Event> output = new ArrayList<>(BatchSize);
+
+    // the index of the next event of the batch to process
+    int next = 0;
+
     try
     {
-      for (Event event = source.take(); event.isNotEos(); event = source.take())
+      for (boolean eos = false; !eos; )
       {
-        put(process(event));
+        batch.clear();
+        next = 0;
+        source.drainTo(batch, BatchSize);
+
+        for (final int size = batch.size(); next < size; ++next)
+        {
+          final Event event = batch.get(next);
+          if (event.isEos())
+          {
+            // the source stops draining at 'eos', the events after it stay queued
+            eos = true;
+            ++next;
+            break;
+          }
+
+          final Event out = process(event);
+          if (out != null)
+            output.add(out);
+        }
+
+        if (!output.isEmpty())
+        {
+          sink.putAll(output);
+          output.clear();
+        }
       }
 
+      ended();
+
       // send the eos marker event down the pipe
       sink.put(Event.eos());
     }
@@ -71,10 +117,13 @@ public abstract class Transformer implements Runnable
     {
       logger.info("{}: main thread has been interrupted", this);
 
+      // the events taken from the source, but not processed or not sent to the sink
+      final int taken     = batch.size() - next + output.size();
       final int available = source.available();
-      if (available > 0)
+      if (taken + available > 0)
       {
-        logger.warn("{}: the source has {} unprocessed events", this, available);
+        logger.warn("{}: {} unprocessed events, {} taken from the source and {} in the source",
+                    this, taken + available, taken, available);
       }
     }
     finally
@@ -91,12 +140,6 @@ public abstract class Transformer implements Runnable
     }
   }
 
-  private final void put(final Event event) throws InterruptedException
-  {
-    if (event != null)
-      sink.put(event);
-  }
-
   @Override
   public String toString() {return name;}
 }
@@ -21,6 +21,7 @@ import io.ocsf.translator.event.event.Event;
 import io.ocsf.translator.event.event.Sink;
 import io.ocsf.translator.event.event.Source;
 import io.ocsf.translator.event.event.Transformer;
+import io.ocsf.translator.svc.metrics.EventMetrics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -42,19 +43,43 @@ public class EventNormalizer extends Transformer
   @Override
   protected Event process(final Event data)
   {
+    return process(translators, data);
+  }
+
+  public static Event process(final TranslatorsManager translators, final Event data)
+  {
+    final EventMetrics          metrics = EventMetrics.get();
+    final EventMetrics.Counters stage   =
+      metrics.stage(EventMetrics.Translate, data.get(Splunk.CIM_SOURCE_TYPE));
+
+    stage.in();
+
+    final long start = System.nanoTime();
     try
     {
       final Map<String, Object> event = translators.translate(data.data());
+
+      final long end = System.nanoTime();
+      metrics.latency(EventMetrics.TranslateLatency).record(end - start);
+
       if (event != null)
       {
-        return new Event(event);
+        if (data.start() != 0)
+          metrics.latency(EventMetrics.EndToEndLatency).record(end - data.start());
+
+        stage.out();
+        return new Event(event, data.start());
       }
+
+      metrics.failure(TranslatorException.Reason.UnsupportedEvent);
     }
     catch (final Exception e)
     {
-      logger.warn("{} unable to normalize event: {}", this, data, e);
+      metrics.failure(TranslatorException.Reason.TranslatorError);
+      logger.warn("{} unable to normalize event: {}", translators, data, e);
     }
 
+    stage.failed();
     return null;
   }
 }
@@ -22,6 +22,7 @@ import io.ocsf.translator.event.event.Event;
 import io.ocsf.translator.event.event.Sink;
 import io.ocsf.translator.event.event.Source;
 import io.ocsf.translator.event.event.Transformer;
+import io.ocsf.translator.svc.metrics.EventMetrics;
 import io.ocsf.utils.parsers.Parser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -45,20 +46,44 @@ public class EventParser extends Transformer
   @Override
   protected Event process(final Event event)
   {
-    return process(parser, event, Event::new);
+    return process(parser, event);
+  }
+
+  /**
+   * Parses the raw data of the event. The parsed event keeps the processing start time of the
+   * event, or the time the parsing started.
+   *
+   * @param parser the source type parser
+   * @param event  the raw event
+   * @return the parsed event or null
+   */
+  public static Event process(final Parser parser, final Event event)
+  {
+    final long start = event.start() != 0 ? event.start() : System.nanoTime();
+
+    return process(parser, event, data -> new Event(data, start));
   }
 
   public static <T> T process(
     final Parser parser, final Event event,
     final Function<Map<String, Object>, T> normalize)
   {
+    final EventMetrics          metrics = EventMetrics.get();
+    final EventMetrics.Counters stage   =
+      metrics.stage(EventMetrics.Parse, event.get(Splunk.SOURCE_TYPE));
+
+    stage.in();
+
     final String raw = event.get(Splunk.RAW_EVENT);
 
     if (raw != null)
     {
+      final long start = System.nanoTime();
       try
       {
         final Map<String, Object> parsed = parser.parse(raw);
+        metrics.latency(EventMetrics.ParseLatency).since(start);
+
         if (parsed != null)
         {
           Maps.putIn(parsed, Splunk.CUSTOMER_ID, event.get(Splunk.TENANT));
@@ -66,15 +91,24 @@ public class EventParser extends Transformer
 
 //          parsed.put(Event.RAW_EVENT, raw);
 
+          stage.out();
           return normalize.apply(parsed);
         }
+
+        metrics.failure(TranslatorException.Reason.UnsupportedEvent);
       }
       catch (final Exception e)
       {
+        metrics.failure(TranslatorException.Reason.ParserError);
         logger.warn("{} unable to parse event: {}", parser, event, e);
       }
     }
+    else
+    {
+      metrics.failure(TranslatorException.Reason.MissingRawData);
+    }
 
+    stage.failed();
     return null;
   }
 }
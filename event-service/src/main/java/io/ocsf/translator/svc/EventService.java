@@ -18,6 +18,8 @@
 package io.ocsf.translator.svc;
 
 import io.ocsf.parsers.Parsers;
+import io.ocsf.schema.Schema;
+import io.ocsf.translator.svc.metrics.EventMetrics;
 import io.ocsf.utils.FuzzyHashMap;
 import io.ocsf.utils.Maps;
 import io.ocsf.utils.parsers.Parser;
@@ -35,6 +37,10 @@ public class EventService
   private final FuzzyHashMap<Parser>             parsers;
   private final FuzzyHashMap<TranslatorsManager> normalizers;
 
+  // the schema enrichment of the translated events, or null
+  private final Schema  schema;
+  private final boolean inPlace;
+
   /**
    * Creates a new event service that parses and translates events in a blocking call;
    *
@@ -42,9 +48,26 @@ public class EventService
    * @throws IOException when unable to read the rule files from the given folder
    */
   public EventService(final String rules) throws IOException
+  {
+    this(rules, null, false);
+  }
+
+  /**
+   * Creates a new event service that parses, translates, and enriches events in a blocking call.
+   *
+   * @param rules   the rules folder
+   * @param schema  the schema used to enrich the translated events, or null
+   * @param inPlace true to enrich the translated events in place, see
+   *                {@link Schema#enrichInPlace(Map)}
+   * @throws IOException when unable to read the rule files from the given folder
+   */
+  public EventService(final String rules, final Schema schema, final boolean inPlace)
+    throws IOException
   {
     this.parsers     = Parsers.parsers();
     this.normalizers = TranslatorsLoader.load(rules);
+    this.schema      = schema;
+    this.inPlace     = inPlace;
   }
 
   /**
@@ -55,6 +78,25 @@ public class EventService
    * @throws TranslatorException when unable to translate the input data
    */
   public Map<String, Object> process(final Map<String, Object> data) throws TranslatorException
+  {
+    final EventMetrics metrics = EventMetrics.get();
+    final long         start   = System.nanoTime();
+
+    try
+    {
+      final Map<String, Object> translated = process(metrics, data);
+      metrics.latency(EventMetrics.EndToEndLatency).since(start);
+      return translated;
+    }
+    catch (final TranslatorException e)
+    {
+      metrics.failure(e.getReason());
+      throw e;
+    }
+  }
+
+  private Map<String, Object> process(final EventMetrics metrics, final Map<String, Object> data)
+    throws TranslatorException
   {
     final String source = (String) data.get(Splunk.SOURCE_TYPE);
 
@@ -85,7 +127,9 @@ public class EventService
     final Map<String, Object> parsed;
     try
     {
+      final long start = System.nanoTime();
       parsed = parser.parse(raw);
+      metrics.latency(EventMetrics.ParseLatency).since(start);
     }
     catch (final Exception e)
     {
@@ -103,7 +147,9 @@ public class EventService
     final Map<String, Object> translated;
     try
     {
+      final long start = System.nanoTime();
       translated = translators.translate(parsed);
+      metrics.latency(EventMetrics.TranslateLatency).since(start);
     }
     catch (final Exception e)
     {
@@ -115,6 +161,11 @@ public class EventService
       throw new TranslatorException(TranslatorException.Reason.UnsupportedEvent);
     }
 
+    if (schema != null)
+    {
+      return inPlace ? schema.enrichInPlace(translated) : schema.enrich(translated);
+    }
+
     return translated; // finally, it is all good
   }
 }
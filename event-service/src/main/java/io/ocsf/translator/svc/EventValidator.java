@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.schema.Dictionary;
+import io.ocsf.schema.SchemaValidator;
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.Sink;
+import io.ocsf.translator.event.event.Source;
+import io.ocsf.translator.event.event.Transformer;
+import io.ocsf.translator.svc.metrics.EventMetrics;
+import io.ocsf.utils.FieldPath;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The EventValidator validates the translated events with the schema, in-process. The valid events
+ * are sent to the sink, and the invalid events to the <code>invalid</code> sink, together with
+ * their validation result, or the error if the event could not be validated. Both sinks get the
+ * <code>eos</code> event at the end of the stream.
+ */
+public class EventValidator extends Transformer
+{
+  private static final Logger logger = LogManager.getLogger(EventValidator.class);
+
+  /**
+   * The fields of the invalid events: the translated event, and its validation result or the
+   * validator error.
+   */
+  public static final String EVENT      = "event";
+  public static final String VALIDATION = "validation";
+  public static final String ERROR      = "error";
+
+  // the translators keep the out-of-band source type in the unmapped data
+  private static final FieldPath SourceType =
+    FieldPath.of(Dictionary.UNMAPPED + '.' + Splunk.CIM_SOURCE_TYPE);
+
+  private final SchemaValidator validator;
+  private final Sink<Event>     invalid;
+
+  /**
+   * Creates a new event validator.
+   *
+   * @param validator the schema validator
+   * @param source    the source of the translated events
+   * @param sink      the sink for the valid events
+   * @param invalid   the sink for the invalid events
+   */
+  public EventValidator(
+    final SchemaValidator validator,
+    final Source<Event> source,
+    final Sink<Event> sink,
+    final Sink<Event> invalid)
+  {
+    super(EventValidator.class.getName(), source, sink);
+    this.validator = validator;
+    this.invalid   = invalid;
+  }
+
+  @Override
+  protected Event process(final Event data) throws InterruptedException
+  {
+    final EventMetrics          metrics = EventMetrics.get();
+    final EventMetrics.Counters stage   = metrics.stage(EventMetrics.Validate, sourceType(data));
+
+    stage.in();
+
+    try
+    {
+      final Map<String, Object> result = validator.validate(data.data());
+      final int                 errors = (Integer) result.get(SchemaValidator.ERROR_COUNT);
+
+      if (errors == 0)
+      {
+        stage.out();
+        return data;
+      }
+
+      final Map<String, Object> event = new LinkedHashMap<>();
+      event.put(EVENT, data.data());
+      event.put(VALIDATION, result);
+
+      metrics.failure(TranslatorException.Reason.InvalidEvent);
+      invalid.put(new Event(event, data.start()));
+    }
+    catch (final RuntimeException e)
+    {
+      // a validator failure is not an invalid event
+      metrics.failure(TranslatorException.Reason.ValidatorError);
+      logger.warn("Unable to validate event: {}", data, e);
+
+      final Map<String, Object> event = new LinkedHashMap<>();
+      event.put(EVENT, data.data());
+      event.put(ERROR, e.toString());
+
+      invalid.put(new Event(event, data.start()));
+    }
+
+    stage.failed();
+    return null;
+  }
+
+  @Override
+  protected void ended() throws InterruptedException
+  {
+    // the consumers of the invalid events wait for the end of the stream too
+    invalid.put(Event.eos());
+  }
+
+  private static String sourceType(final Event data)
+  {
+    final String type = data.get(Splunk.CIM_SOURCE_TYPE);
+    return type != null ? type : data.getIn(SourceType);
+  }
+}
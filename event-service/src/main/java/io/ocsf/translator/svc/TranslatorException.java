@@ -29,7 +29,9 @@ public class TranslatorException extends Exception
     NoTranslator("No event translator"),
     ParserError("unable to parse the event"),
     TranslatorError("unable to translate the event"),
-    UnsupportedEvent("Unsupported event");
+    UnsupportedEvent("Unsupported event"),
+    InvalidEvent("Invalid event"),
+    ValidatorError("unable to validate the event");
 
     private final String desc;
 
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.translator.Translator;
+import io.ocsf.utils.FieldPath;
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.Token;
+import io.ocsf.utils.Tree;
+import io.ocsf.utils.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hash index of translators on the field tested by their top-level <code>when</code> condition.
+ * <p>
+ * A condition such as <code>EventID = 4688</code>, <code>EventID in [4624, 4625]</code>, or
+ * <code>EventID = 4688 and Channel = 'Security'</code> discriminates the events on the value of
+ * <code>EventID</code>. The index maps the values of the discriminating field to the translators,
+ * so only the candidate translators are tried for a given event. The translators with conditions
+ * that cannot be indexed are always tried.
+ * <p>
+ * The index is a pre-filter: the candidates still evaluate their own conditions, thus the index
+ * keys may match more translators than the conditions do, but never fewer. The candidates are
+ * returned in the order the translators were added.
+ */
+final class TranslatorIndex
+{
+  private static final Translator[] Empty = new Translator[0];
+
+  private static final class Entry
+  {
+    private final int        order;
+    private final Translator translator;
+
+    private Entry(final int order, final Translator translator)
+    {
+      this.order      = order;
+      this.translator = translator;
+    }
+  }
+
+  // the discriminating fields, and for each field, its values to the translators
+  private final FieldPath[]                     fields;
+  private final List<Map<String, List<Entry>>> buckets;
+
+  // the translators that cannot be indexed
+  private final List<Entry> unindexed;
+
+  // cached candidate arrays, keyed by bucket: each one is merged with the unindexed translators
+  private final Map<List<Entry>, Translator[]> merged = new IdentityHashMap<>();
+  private final Translator[]                   fallback;
+
+  private TranslatorIndex(
+    final Map<FieldPath, Map<String, List<Entry>>> index, final List<Entry> unindexed)
+  {
+    this.fields    = index.keySet().toArray(new FieldPath[0]);
+    this.buckets   = new ArrayList<>(index.values());
+    this.unindexed = unindexed;
+    this.fallback  = translators(unindexed);
+
+    for (final Map<String, List<Entry>> bucket : buckets)
+      for (final List<Entry> entries : bucket.values())
+        merged.computeIfAbsent(entries, e -> translators(merge(e, unindexed)));
+  }
+
+  /**
+   * Builds a new index.
+   *
+   * @param translators the translators, in order, with their parsed conditions. The condition is
+   *                    <code>null</code> when the translator cannot be indexed.
+   * @return the translators index
+   */
+  static TranslatorIndex build(final Collection<Tuple<Translator, Tree>> translators)
+  {
+    final Map<FieldPath, Map<String, List<Entry>>> index     = new LinkedHashMap<>();
+    final List<Entry>                              unindexed = new ArrayList<>();
+
+    int order = 0;
+    for (final Tuple<Translator, Tree> t : translators)
+    {
+      final Entry entry = new Entry(order++, t.name);
+
+      final Tuple<FieldPath, Set<String>> discriminator =
+        t.value != null ? discriminator(t.value) : null;
+
+      if (discriminator == null)
+      {
+        unindexed.add(entry);
+      }
+      else
+      {
+        final Map<String, List<Entry>> bucket =
+          index.computeIfAbsent(discriminator.name, k -> new HashMap<>());
+
+        for (final String key : discriminator.value)
+          bucket.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+      }
+    }
+
+    return new TranslatorIndex(index, unindexed);
+  }
+
+  /**
+   * Returns the translators that may translate the given data, in the order they were added.
+   *
+   * @param data the data to be translated
+   * @return the candidate translators
+   */
+  Translator[] candidates(final Map<String, Object> data)
+  {
+    List<Entry> found = null;
+    List<Entry> more  = null;
+
+    for (int i = 0; i < fields.length; ++i)
+    {
+      final Object value = Maps.getIn(data, fields[i]);
+      if (value != null)
+      {
+        final Map<String, List<Entry>> bucket = buckets.get(i);
+
+        for (final String key : keys(value))
+        {
+          final List<Entry> entries = bucket.get(key);
+          if (entries != null)
+          {
+            if (found == null)
+              found = entries;
+            else if (found != entries)
+              more = more == null ? merge(found, entries) : merge(more, entries);
+          }
+        }
+      }
+    }
+
+    if (more != null)
+      return translators(merge(more, unindexed));
+
+    return found != null ? merged.get(found) : fallback;
+  }
+
+  /*
+   * Returns the discriminating field and its values of the given condition, or null if the
+   * condition cannot be indexed.
+   */
+  static Tuple<FieldPath, Set<String>> discriminator(final Tree node)
+  {
+    switch (node.op.token)
+    {
+      case Token.EQ:
+        return equal(node);
+
+      case Token.IN:
+        return in(node);
+
+      case Token.AND:
+      {
+        // either side of 'and' narrows down the candidates
+        final Tuple<FieldPath, Set<String>> left = discriminator(node.left);
+        return left != null ? left : discriminator(node.right);
+      }
+
+      case Token.OR:
+      {
+        // both sides must test the same field
+        final Tuple<FieldPath, Set<String>> left = discriminator(node.left);
+        if (left != null)
+        {
+          final Tuple<FieldPath, Set<String>> right = discriminator(node.right);
+          if (right != null && left.name.equals(right.name))
+          {
+            final Set<String> keys = new HashSet<>(left.value);
+            keys.addAll(right.value);
+            return new Tuple<>(left.name, keys);
+          }
+        }
+        return null;
+      }
+
+      default:
+        return null;
+    }
+  }
+
+  private static Tuple<FieldPath, Set<String>> equal(final Tree node)
+  {
+    if (node.left == null || node.right == null || !node.left.op.isField())
+      return null;
+
+    final Token value = node.right.op;
+    switch (value.token)
+    {
+      case Token.STRING:
+        return new Tuple<>(node.left.op.path(), Set.of(normalize(value.value())));
+
+      case Token.NUM:
+        // a long value is compared as an int with an int field: only the int values are indexed
+        return value.value instanceof Integer ?
+               new Tuple<>(node.left.op.path(), Set.of(value.value.toString())) :
+               null;
+
+      default:
+        return null;
+    }
+  }
+
+  private static Tuple<FieldPath, Set<String>> in(final Tree node)
+  {
+    if (node.left == null || node.right == null || !node.left.op.isField() ||
+        node.right.op.token != Token.SET)
+      return null;
+
+    final Set<Object> values = node.right.op.value();
+    final Set<String> keys   = new HashSet<>(values.size());
+
+    for (final Object value : values)
+    {
+      // the 'in' operator tests the set membership: the values are equal
+      if (value == null)
+        return null;
+
+      keys.add(normalize(value.toString()));
+    }
+
+    return new Tuple<>(node.left.op.path(), keys);
+  }
+
+  /*
+   * Returns the index keys of a field value: its string value, and its integer value for the
+   * numeric comparisons.
+   */
+  private static Collection<String> keys(final Object value)
+  {
+    final String key = normalize(value.toString());
+
+    if (value instanceof String)
+    {
+      try
+      {
+        final String n = Long.toString(Long.parseLong((String) value));
+        if (!n.equals(key))
+          return Arrays.asList(key, n);
+      }
+      catch (final NumberFormatException ignore)
+      {
+        // not a number
+      }
+    }
+    else if (value instanceof Double || value instanceof Float)
+    {
+      final double d = ((Number) value).doubleValue();
+      if (d == Math.rint(d) && !Double.isInfinite(d))
+        return Arrays.asList(key, Long.toString((long) d));
+    }
+
+    return List.of(key);
+  }
+
+  /*
+   * Folds the case the same way as String.compareToIgnoreCase, used by the '=' operator.
+   */
+  private static String normalize(final String s)
+  {
+    final char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; ++i)
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+
+    return new String(chars);
+  }
+
+  private static List<Entry> merge(final List<Entry> l1, final List<Entry> l2)
+  {
+    if (l2.isEmpty())
+      return l1;
+
+    final List<Entry> list = new ArrayList<>(l1.size() + l2.size());
+
+    int i = 0, j = 0;
+    while (i < l1.size() && j < l2.size())
+    {
+      final Entry e1 = l1.get(i);
+      final Entry e2 = l2.get(j);
+
+      if (e1.order < e2.order)
+      {
+        list.add(e1);
+        ++i;
+      }
+      else if (e1.order > e2.order)
+      {
+        list.add(e2);
+        ++j;
+      }
+      else
+      {
+        list.add(e1);
+        ++i;
+        ++j;
+      }
+    }
+
+    while (i < l1.size()) list.add(l1.get(i++));
+    while (j < l2.size()) list.add(l2.get(j++));
+
+    return list;
+  }
+
+  private static Translator[] translators(final List<Entry> entries)
+  {
+    if (entries.isEmpty())
+      return Empty;
+
+    final Translator[] array = new Translator[entries.size()];
+    for (int i = 0; i < array.length; ++i)
+      array[i] = entries.get(i).translator;
+
+    return array;
+  }
+}
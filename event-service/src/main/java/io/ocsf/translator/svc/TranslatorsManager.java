@@ -21,18 +21,32 @@ import io.ocsf.schema.Dictionary;
 import io.ocsf.schema.Utils;
 import io.ocsf.translator.Translator;
 import io.ocsf.translator.TranslatorBuilder;
+import io.ocsf.translator.TranslatorProfile;
+import io.ocsf.utils.BooleanExpression;
 import io.ocsf.utils.Files;
+import io.ocsf.utils.InvalidExpressionException;
 import io.ocsf.utils.Maps;
+import io.ocsf.utils.Tree;
+import io.ocsf.utils.Tuple;
+import io.ocsf.utils.parsers.Parser;
 import io.ocsf.utils.parsers.ParserException;
+import io.ocsf.utils.parsers.Projection;
+import io.ocsf.utils.parsers.RawJson;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * The TranslatorsManager class manages a group of related event translators. The class's primary
@@ -45,10 +59,32 @@ public final class TranslatorsManager
 {
   private static final Logger logger = LogManager.getLogger(TranslatorsManager.class);
 
+  private static final String Predicate = "when";
+  private static final String Parser    = "parser";
+  private static final String Parsers   = "parsers";
+  private static final String RuleSet   = "ruleset";
+
   private final Path home;
 
+  private final TranslatorBuilder.Backend backend;
+
+  // true if the rules are built with a profile
+  private final boolean profiling;
+
+  private final Map<String, TranslatorProfile> profiles = new LinkedHashMap<>();
+
   private final Map<String, Translator> translators = new LinkedHashMap<>();
 
+  // The top-level 'when' conditions of the translators that can be indexed
+  private final Map<String, Tree> conditions = new HashMap<>();
+
+  // The index of the translators, built on first use after the translators have changed. The
+  // translate methods can be called from several threads, hence volatile.
+  private volatile TranslatorIndex index;
+
+  // The source fields used by the translators, built on first use like the index
+  private volatile Projection projection;
+
   // This translator is used by the 'translate(data)' function when none of the named translators
   // translates the given data. It is set to the translator that does not have a 'when' clause.
   private Translator translator;
@@ -64,10 +100,38 @@ public final class TranslatorsManager
   }
 
   public TranslatorsManager(final Path path)
+  {
+    this(path, TranslatorBuilder.Backend.Interpreter);
+  }
+
+  /**
+   * Creates a new collections of translators.
+   *
+   * @param path    the home folder of the translator's rules
+   * @param backend the execution backend of the translation rules
+   */
+  public TranslatorsManager(final Path path, final TranslatorBuilder.Backend backend)
+  {
+    this(path, backend, false);
+  }
+
+  /**
+   * Creates a new collections of translators.
+   *
+   * @param path      the home folder of the translator's rules
+   * @param backend   the execution backend of the translation rules
+   * @param profiling true to record the rule-level profile of each translator, see
+   *                  {@link #profile(String)}
+   */
+  public TranslatorsManager(
+    final Path path, final TranslatorBuilder.Backend backend, final boolean profiling)
   {
     Objects.requireNonNull(path, "path is a required parameter");
+    Objects.requireNonNull(backend, "backend is a required parameter");
 
-    this.home = path;
+    this.home      = path;
+    this.backend   = backend;
+    this.profiling = profiling;
   }
 
   public int size()
@@ -114,30 +178,158 @@ public final class TranslatorsManager
     final String name, final Path path, final TranslatorBuilder.JsonReader reader)
     throws IOException
   {
-    put(name, TranslatorBuilder.build(home, reader, Maps.typecast(reader.read(validate(path)))));
+    final Map<String, Object> rule = Maps.typecast(reader.read(validate(path)));
+
+    put(name, build(name, reader, rule), condition(rule));
   }
 
   public void addRule(
     final String name, final TranslatorBuilder.JsonReader reader, final Map<String, Object> rule)
     throws IOException
   {
-    put(name, TranslatorBuilder.build(home, reader, rule));
+    put(name, build(name, reader, rule), condition(rule));
+  }
+
+  /**
+   * Returns the rule-level profile of the given translator.
+   *
+   * @param name the name of the translator
+   * @return the profile, or null if the translator does not exist or profiling is disabled
+   */
+  public TranslatorProfile profile(final String name)
+  {
+    return profiles.get(name);
+  }
+
+  /**
+   * Returns the rule-level profiles of all translators, in the order they were added.
+   *
+   * @return the profiles, empty if profiling is disabled
+   */
+  public Map<String, TranslatorProfile> profiles()
+  {
+    return Collections.unmodifiableMap(profiles);
+  }
+
+  private Translator build(
+    final String name, final TranslatorBuilder.JsonReader reader, final Map<String, Object> rule)
+    throws IOException
+  {
+    if (!profiling)
+      return TranslatorBuilder.build(home, reader, rule, backend);
+
+    final TranslatorProfile profile    = new TranslatorProfile();
+    final Translator        translator =
+      TranslatorBuilder.build(home, reader, rule, backend, profile);
+
+    profiles.put(name, profile);
+    return translator;
   }
 
   public void put(final String name, final Translator translator)
   {
-    if (translator.isDefault())
+    put(name, translator, null);
+  }
+
+  /**
+   * Returns the source fields used by all translators. The parser of the events may skip the
+   * other fields, see {@link Parser#project(Projection)}. The skipped fields are parsed
+   * when they are added to the <code>unmapped</code> data of the translated events.
+   *
+   * @return the source fields, or {@link Projection#All} if a translator may use any field
+   */
+  public Projection projection()
+  {
+    Projection projection = this.projection;
+    if (projection == null)
+      this.projection = projection = buildProjection();
+
+    return projection;
+  }
+
+  /**
+   * Returns a parser that parses only the source fields used by the translators, see
+   * {@link #projection()}. The parser is projected again when the translators change.
+   *
+   * @param parser the event parser
+   * @return the parser using the projection of the translators
+   */
+  public Parser project(final Parser parser)
+  {
+    return new ProjectedParser(parser);
+  }
+
+  private Projection buildProjection()
+  {
+    final Set<String> fields = new HashSet<>();
+
+    for (final Translator t : translators.values())
     {
-      if (translators.put(name, translator) != null)
-        logger.warn("Translator {} has been overwritten", name);
+      if (t.fields() == null)
+        return Projection.All;
+
+      fields.addAll(t.fields());
     }
-    else
+
+    if (translator != null)
+    {
+      if (translator.fields() == null)
+        return Projection.All;
+
+      fields.addAll(translator.fields());
+    }
+
+    return Projection.of(fields);
+  }
+
+  private void put(final String name, final Translator translator, final Tree condition)
+  {
+    if (translator.isDefault())
     {
       if (this.translator != null)
         logger.warn("The default translator {} has been overwritten", name);
 
       this.translator = translator;
     }
+    else
+    {
+      if (translators.put(name, translator) != null)
+        logger.warn("Translator {} has been overwritten", name);
+
+      if (condition != null)
+        conditions.put(name, condition);
+      else
+        conditions.remove(name);
+
+      index = null;
+    }
+
+    projection = null;
+  }
+
+  /*
+   * Returns the top-level condition of the given rule if the rule can be indexed. The rules with
+   * parsers or rulesets cannot be indexed, since they change or translate the data even when the
+   * condition is false.
+   */
+  private static Tree condition(final Map<String, Object> rule)
+  {
+    final Object when = rule.get(Predicate);
+
+    if (when instanceof String && !rule.containsKey(Parser) && !rule.containsKey(Parsers) &&
+        !rule.containsKey(RuleSet))
+    {
+      try
+      {
+        return BooleanExpression.parse((String) when);
+      }
+      catch (final InvalidExpressionException e)
+      {
+        logger.warn("Invalid condition: {}", when, e);
+      }
+    }
+
+    return null;
   }
 
   /**
@@ -188,7 +380,7 @@ public final class TranslatorsManager
   {
     if (data != null)
     {
-      for (final Translator t : translators.values())
+      for (final Translator t : index().candidates(data))
       {
         final Map<String, Object> translated = translate(t, data);
         if (translated != null)
@@ -213,6 +405,21 @@ public final class TranslatorsManager
     return home.getFileName().toString();
   }
 
+  private TranslatorIndex index()
+  {
+    TranslatorIndex index = this.index;
+    if (index == null)
+    {
+      final List<Tuple<Translator, Tree>> list = new ArrayList<>(translators.size());
+
+      translators.forEach((name, t) -> list.add(new Tuple<>(t, conditions.get(name))));
+
+      this.index = index = TranslatorIndex.build(list);
+    }
+
+    return index;
+  }
+
   private static Map<String, Object> translate(
     final Translator translator, final Map<String, Object> data)
   {
@@ -224,7 +431,8 @@ public final class TranslatorsManager
 
     if (!data.isEmpty())
     {
-      translated.put(Dictionary.UNMAPPED, data);
+      // the fields skipped by the parser must not leak out of the translated event
+      translated.put(Dictionary.UNMAPPED, RawJson.resolve(data));
     }
 
     return Utils.addUuid(translated);
@@ -238,4 +446,39 @@ public final class TranslatorsManager
 
     return validate(home, path);
   }
+
+  /*
+   * The parser of the source fields used by the translators. The parser is projected on the first
+   * event after a change of the projection.
+   */
+  private final class ProjectedParser implements Parser
+  {
+    private final Parser parser;
+
+    // the projection and the projected parser, replaced together
+    private volatile Tuple<Projection, Parser> projected;
+
+    private ProjectedParser(final Parser parser)
+    {
+      this.parser = parser;
+    }
+
+    @Override
+    public Map<String, Object> parse(final String text) throws Exception
+    {
+      final Projection projection = projection();
+
+      Tuple<Projection, Parser> projected = this.projected;
+      if (projected == null || projected.name != projection)
+        this.projected = projected = new Tuple<>(projection, parser.project(projection));
+
+      return projected.value.parse(text);
+    }
+
+    @Override
+    public String toString()
+    {
+      return parser.toString();
+    }
+  }
 }
@@ -19,7 +19,9 @@ package io.ocsf.translator.svc.concurrent;
 
 import io.ocsf.translator.svc.EventProcessor;
 import io.ocsf.translator.svc.Splunk;
+import io.ocsf.translator.svc.TranslatorException;
 import io.ocsf.translator.svc.TranslatorsManager;
+import io.ocsf.translator.svc.metrics.EventMetrics;
 import io.ocsf.utils.FuzzyHashMap;
 import io.ocsf.translator.event.event.Event;
 import io.ocsf.translator.event.event.EventQueue;
@@ -32,6 +34,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 /**
  * The EventDemuxer serves as a helper class designed to de-multiplex the incoming raw event stream
@@ -46,17 +49,34 @@ import java.util.Map;
  * In summary, the EventDemuxer significantly enhances the event processing pipeline by
  * intelligently distributing events based on their type, thereby offering a more elegant and
  * efficient solution for managing event streams.
+ * <p>
+ * By default, each source type gets its own parser and normalizer threads. When created with
+ * {@link EventWorkers}, the events of all source types are processed by the shared workers
+ * instead. When created with {@link EventPartitions}, the events are processed by ordered lanes
+ * that keep the order of the events with the same key.
  */
 public class EventDemuxer extends Transformer
 {
   private static final Logger logger = LogManager.getLogger(EventDemuxer.class);
 
+  // the metrics name of the events pending in the shared workers
+  private static final String WorkersQueue = "event-workers";
+
   private final FuzzyHashMap<Parser>             parsers;
   private final FuzzyHashMap<TranslatorsManager> normalizers;
 
   // translated events sink
-  private final Sink<Event>                    eventSink;
-  private final Map<String, EventQueue<Event>> queues;
+  private final Sink<Event>              eventSink;
+  private final Map<String, Sink<Event>> queues;
+
+  // the shared workers and the permits for the events they have not processed yet, or null
+  private final EventWorkers workers;
+  private final Semaphore    pending;
+
+  // the ordered lanes, or null
+  private final EventPartitions partitions;
+
+  private final EventMetrics metrics;
 
   /**
    * Creates a new event demuxer.
@@ -73,12 +93,74 @@ public class EventDemuxer extends Transformer
     final Source<Event> source,
     final Sink<Event> sink,
     final Sink<Event> raw)
+  {
+    this(parsers, normalizers, source, sink, raw, (EventWorkers) null);
+  }
+
+  /**
+   * Creates a new event demuxer that processes the events with the given shared workers.
+   *
+   * @param parsers     the parsers registered with the source type
+   * @param normalizers the normalizers registered with the source type
+   * @param source      the source of the input events
+   * @param sink        the sink for the parsed and translated events
+   * @param raw         the sink for events that were not translated
+   * @param workers     the shared workers, or null to use dedicated threads per source type
+   */
+  public EventDemuxer(
+    final FuzzyHashMap<Parser> parsers,
+    final FuzzyHashMap<TranslatorsManager> normalizers,
+    final Source<Event> source,
+    final Sink<Event> sink,
+    final Sink<Event> raw,
+    final EventWorkers workers)
+  {
+    this(parsers, normalizers, source, sink, raw, workers, null);
+  }
+
+  /**
+   * Creates a new event demuxer that processes the events with the given ordered lanes. The events
+   * with the same key are parsed, translated and sent to the sink in the order they were received.
+   *
+   * @param parsers     the parsers registered with the source type
+   * @param normalizers the normalizers registered with the source type
+   * @param source      the source of the input events
+   * @param sink        the sink for the parsed and translated events
+   * @param raw         the sink for events that were not translated
+   * @param partitions  the ordered lanes, or null to use dedicated threads per source type
+   */
+  public EventDemuxer(
+    final FuzzyHashMap<Parser> parsers,
+    final FuzzyHashMap<TranslatorsManager> normalizers,
+    final Source<Event> source,
+    final Sink<Event> sink,
+    final Sink<Event> raw,
+    final EventPartitions partitions)
+  {
+    this(parsers, normalizers, source, sink, raw, null, partitions);
+  }
+
+  private EventDemuxer(
+    final FuzzyHashMap<Parser> parsers,
+    final FuzzyHashMap<TranslatorsManager> normalizers,
+    final Source<Event> source,
+    final Sink<Event> sink,
+    final Sink<Event> raw,
+    final EventWorkers workers,
+    final EventPartitions partitions)
   {
     super(EventDemuxer.class.getName(), source, raw);
 
     this.parsers     = parsers;
     this.normalizers = normalizers;
     this.eventSink   = sink;
+    this.workers     = workers;
+    this.pending     = workers != null ? new Semaphore(workers.maxPending()) : null;
+    this.partitions  = partitions;
+    this.metrics     = EventMetrics.get();
+
+    if (workers != null)
+      metrics.queue(WorkersQueue, () -> workers.maxPending() - pending.availablePermits());
 
     final int size = parsers.size() + 1;
     this.queues = new HashMap<>(size);
@@ -87,22 +169,29 @@ public class EventDemuxer extends Transformer
   @Override
   protected Event process(final Event data) throws InterruptedException
   {
-    final String source = data.get(Splunk.SOURCE_TYPE);
+    final String                source = data.get(Splunk.SOURCE_TYPE);
+    final EventMetrics.Counters stage  = metrics.stage(EventMetrics.Demux, source);
+
+    stage.in();
+
     if (source != null)
     {
       final Sink<Event> sink = sink(source);
       if (sink != null)
       {
         sink.put(data);
+        stage.out();
         return null;
       }
     }
     else
     {
+      metrics.failure(TranslatorException.Reason.MissingSourceType);
       logger.warn("Missing source type in: {}", data);
     }
 
     // return the events that cannot be parsed and translated
+    stage.failed();
     return data;
   }
 
@@ -112,9 +201,32 @@ public class EventDemuxer extends Transformer
     super.terminated();
     try
     {
-      for (final EventQueue<Event> queue : queues.values())
+      if (workers != null)
+      {
+        // wait for the workers to process the pending events, then send one 'eos' event per
+        // source type, like the dedicated threads do
+        pending.acquire(workers.maxPending());
+        pending.release(workers.maxPending());
+        metrics.removeQueue(WorkersQueue);
+
+        for (int i = queues.size(); i > 0; --i)
+          eventSink.put(Event.eos());
+      }
+      else if (partitions != null)
       {
-        queue.put(Event.eos());
+        // wait for the lanes to process their events, then send one 'eos' event per source type
+        partitions.stop();
+
+        for (int i = queues.size(); i > 0; --i)
+          eventSink.put(Event.eos());
+      }
+      else
+      {
+        for (final Map.Entry<String, Sink<Event>> queue : queues.entrySet())
+        {
+          queue.getValue().put(Event.eos());
+          metrics.removeQueue(queue.getKey());
+        }
       }
     }
     catch (final InterruptedException ex)
@@ -137,9 +249,29 @@ public class EventDemuxer extends Transformer
 
       if (parser != null && normalizer != null)
       {
-        final EventQueue<Event> queue = new EventQueue<>();
+        final Sink<Event> queue;
+
+        if (workers != null)
+        {
+          queue = new EventLane(
+            source, normalizer.project(parser), normalizer, eventSink, workers, pending);
+        }
+        else if (partitions != null)
+        {
+          // start the lanes with the first source type, the lanes look up the parser and the
+          // translators themselves
+          if (queues.isEmpty())
+            partitions.start(parsers, normalizers, eventSink);
 
-        new EventProcessor(parser, normalizer, queue, eventSink).start();
+          queue = partitions::put;
+        }
+        else
+        {
+          final EventQueue<Event> q = new EventQueue<>();
+          new EventProcessor(normalizer.project(parser), normalizer, q, eventSink).start();
+          metrics.queue(source, q::available);
+          queue = q;
+        }
 
         queues.put(source, queue);
 
@@ -148,10 +280,15 @@ public class EventDemuxer extends Transformer
       else
       {
         if (parser == null)
+        {
+          metrics.failure(TranslatorException.Reason.NoParser);
           logger.warn("Missing event parser for source type: {}", source);
-
-        if (normalizer == null)
+        }
+        else
+        {
+          metrics.failure(TranslatorException.Reason.NoTranslator);
           logger.warn("Missing event normalizer for source type: {}", source);
+        }
         return null;
       }
     }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.concurrent;
+
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.Sink;
+import io.ocsf.translator.svc.EventNormalizer;
+import io.ocsf.translator.svc.EventParser;
+import io.ocsf.translator.svc.TranslatorsManager;
+import io.ocsf.utils.parsers.Parser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The events of a single source type, waiting to be parsed and normalized by the shared workers.
+ * <p>
+ * The lane runs at most <code>perSourceLimit</code> drain tasks at the same time. A drain task
+ * processes a batch of events and then gives the worker back to the pool, so the other source
+ * types get their turn.
+ */
+final class EventLane implements Sink<Event>
+{
+  private static final Logger logger = LogManager.getLogger(EventLane.class);
+
+  // the number of events processed by a drain task before it gives the worker back
+  private static final int Batch = 64;
+
+  private final String             name;
+  private final Parser             parser;
+  private final TranslatorsManager translators;
+  private final Sink<Event>        sink;
+  private final EventWorkers       workers;
+  private final Semaphore          pending;
+
+  private final Queue<Event>  events = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger active = new AtomicInteger();
+
+  /**
+   * Creates a new lane.
+   *
+   * @param name        the source type
+   * @param parser      the source type parser
+   * @param translators the source type translators
+   * @param sink        the sink for the parsed and translated events
+   * @param workers     the shared workers
+   * @param pending     the permits for the pending events, a permit is acquired for each event
+   *                    put in the lane, and released when the event has been processed
+   */
+  EventLane(
+    final String name,
+    final Parser parser,
+    final TranslatorsManager translators,
+    final Sink<Event> sink,
+    final EventWorkers workers,
+    final Semaphore pending)
+  {
+    this.name        = name;
+    this.parser      = parser;
+    this.translators = translators;
+    this.sink        = sink;
+    this.workers     = workers;
+    this.pending     = pending;
+  }
+
+  @Override
+  public void put(final Event event) throws InterruptedException
+  {
+    pending.acquire();
+    events.add(event);
+
+    try
+    {
+      schedule();
+    }
+    catch (final RejectedExecutionException e)
+    {
+      // the workers are closed, the event is not processed
+      if (events.remove(event))
+        pending.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {return name;}
+
+  private void schedule()
+  {
+    for (int n = active.get(); n < workers.perSourceLimit() && !events.isEmpty(); n = active.get())
+    {
+      if (active.compareAndSet(n, n + 1))
+      {
+        try
+        {
+          workers.execute(this::drain);
+        }
+        catch (final RejectedExecutionException e)
+        {
+          active.decrementAndGet();
+          throw e;
+        }
+        return;
+      }
+    }
+  }
+
+  private void drain()
+  {
+    try
+    {
+      Event event;
+      for (int i = 0; i < Batch && (event = events.poll()) != null; ++i)
+      {
+        try
+        {
+          process(event);
+        }
+        finally
+        {
+          pending.release();
+        }
+      }
+    }
+    finally
+    {
+      active.decrementAndGet();
+
+      // pick up the events added while this task was finishing
+      try
+      {
+        schedule();
+      }
+      catch (final RejectedExecutionException e)
+      {
+        drop();
+      }
+    }
+  }
+
+  // the workers are closed, drops the events that are not processed
+  private void drop()
+  {
+    int count = 0;
+    while (events.poll() != null)
+    {
+      pending.release();
+      ++count;
+    }
+
+    if (count > 0)
+      logger.warn("{}: the workers are closed, {} events have been dropped", this, count);
+  }
+
+  private void process(final Event event)
+  {
+    try
+    {
+      final Event parsed = EventParser.process(parser, event);
+      if (parsed != null)
+      {
+        final Event normalized = EventNormalizer.process(translators, parsed);
+        if (normalized != null)
+          sink.put(normalized);
+      }
+    }
+    catch (final InterruptedException e)
+    {
+      logger.warn("{}: interrupted, the event has been dropped: {}", this, event);
+
+      // restore the interrupted flag
+      Thread.currentThread().interrupt();
+    }
+    catch (final RuntimeException e)
+    {
+      logger.warn("{}: unable to process event: {}", this, event, e);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.concurrent;
+
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.Sink;
+import io.ocsf.translator.svc.Splunk;
+import io.ocsf.translator.svc.TranslatorsManager;
+import io.ocsf.translator.svc.metrics.EventMetrics;
+import io.ocsf.utils.FuzzyHashMap;
+import io.ocsf.utils.parsers.Parser;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A fixed number of ordered lanes that parse and normalize the events in parallel, while keeping
+ * the order of the events with the same key.
+ * <p>
+ * Each event is hashed on its key onto one of the lanes. A lane has its own queue and thread, and
+ * processes its events one at a time, so the events with the same key leave the lane in the order
+ * they arrived. The events with different keys can be processed in any order.
+ * <p>
+ * The default key is the tenant and the source type of the event.
+ */
+public final class EventPartitions
+{
+  /**
+   * The default key: the tenant and the source type of the event.
+   */
+  public static final Function<Event, Object> DefaultKey =
+    event -> event.get(Splunk.TENANT) + "/" + event.get(Splunk.SOURCE_TYPE);
+
+  /**
+   * The default capacity of the lane queues.
+   */
+  public static final int DefaultCapacity = 256;
+
+  private final int                     count;
+  private final int                     capacity;
+  private final Function<Event, Object> key;
+
+  private volatile PartitionLane[] lanes;
+
+  // the metrics the lane queues are registered with
+  private EventMetrics metrics;
+
+  /**
+   * Creates ordered lanes that use the default key.
+   *
+   * @param count the number of lanes
+   */
+  public EventPartitions(final int count)
+  {
+    this(count, DefaultCapacity, DefaultKey);
+  }
+
+  /**
+   * Creates ordered lanes.
+   *
+   * @param count    the number of lanes
+   * @param capacity the capacity of each lane queue, the demuxer blocks when a lane is full
+   * @param key      returns the key of an event, the events with equal keys are processed in
+   *                 order
+   */
+  public EventPartitions(final int count, final int capacity, final Function<Event, Object> key)
+  {
+    if (count <= 0)
+      throw new IllegalArgumentException("Invalid number of lanes: " + count);
+
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Invalid lane capacity: " + capacity);
+
+    this.count    = count;
+    this.capacity = capacity;
+    this.key      = key;
+  }
+
+  /**
+   * Returns the number of lanes.
+   *
+   * @return the number of lanes
+   */
+  public int lanes() {return count;}
+
+  /**
+   * Returns the number of events waiting in the queue of the given lane.
+   *
+   * @param lane the lane index, from 0 to {@link #lanes()} - 1
+   * @return the queue depth, 0 when the lanes are not running
+   */
+  public int depth(final int lane)
+  {
+    final PartitionLane[] lanes = this.lanes;
+    return lanes != null ? lanes[lane].depth() : 0;
+  }
+
+  /**
+   * Returns the number of events waiting in the queue of each lane.
+   *
+   * @return the queue depths, indexed by lane
+   */
+  public int[] depths()
+  {
+    final int[] depths = new int[count];
+    for (int i = 0; i < count; ++i)
+      depths[i] = depth(i);
+
+    return depths;
+  }
+
+  /**
+   * Returns the lane of the event.
+   *
+   * @param event the event
+   * @return the lane index
+   */
+  public int lane(final Event event)
+  {
+    final int h = Objects.hashCode(key.apply(event));
+
+    // spread the high bits, the keys are often strings with a common prefix
+    return Math.floorMod(h ^ (h >>> 16), count);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "EventPartitions{lanes=" + count + ", capacity=" + capacity + '}';
+  }
+
+  /*
+   * Starts the lane threads.
+   */
+  synchronized void start(
+    final FuzzyHashMap<Parser> parsers,
+    final FuzzyHashMap<TranslatorsManager> normalizers,
+    final Sink<Event> sink)
+  {
+    if (lanes != null)
+      throw new IllegalStateException(this + " already started");
+
+    this.metrics = EventMetrics.get();
+
+    final PartitionLane[] lanes = new PartitionLane[count];
+    for (int i = 0; i < count; ++i)
+    {
+      lanes[i] = new PartitionLane("event-lane-" + i, capacity, parsers, normalizers, sink);
+      lanes[i].start();
+      metrics.queue(lanes[i].getName(), lanes[i]::depth);
+    }
+
+    this.lanes = lanes;
+  }
+
+  void put(final Event event) throws InterruptedException
+  {
+    lanes[lane(event)].put(event);
+  }
+
+  /*
+   * Sends the 'eos' event to each lane and waits for the lanes to process their events.
+   */
+  void stop() throws InterruptedException
+  {
+    final PartitionLane[] lanes = this.lanes;
+    if (lanes != null)
+    {
+      for (final PartitionLane lane : lanes)
+        lane.put(Event.eos());
+
+      for (final PartitionLane lane : lanes)
+      {
+        lane.join();
+        metrics.removeQueue(lane.getName());
+      }
+    }
+  }
+}
@@ -37,11 +37,54 @@ public class EventService implements Runnable
     final Source<Event> in,
     final Sink<Event> out,
     final Sink<Event> raw) throws IOException
+  {
+    this(rules, in, out, raw, (EventWorkers) null);
+  }
+
+  /**
+   * Creates an event service that parses and translates the events with the given shared workers.
+   *
+   * @param rules   the rules folder
+   * @param in      the source of the input events
+   * @param out     the sink for the parsed and translated events
+   * @param raw     the sink for events that were not translated
+   * @param workers the shared workers, or null to use dedicated threads per source type
+   * @throws IOException when unable to read the rule files from the given folder
+   */
+  public EventService(
+    final String rules,
+    final Source<Event> in,
+    final Sink<Event> out,
+    final Sink<Event> raw,
+    final EventWorkers workers) throws IOException
+  {
+    final FuzzyHashMap<Parser>             parsers      = Parsers.parsers();
+    final FuzzyHashMap<TranslatorsManager> transformers = TranslatorsLoader.load(rules);
+
+    demuxer = new EventDemuxer(parsers, transformers, in, out, raw, workers);
+  }
+
+  /**
+   * Creates an event service that parses and translates the events with the given ordered lanes.
+   *
+   * @param rules      the rules folder
+   * @param in         the source of the input events
+   * @param out        the sink for the parsed and translated events
+   * @param raw        the sink for events that were not translated
+   * @param partitions the ordered lanes, the events with the same key are sent to the sink in order
+   * @throws IOException when unable to read the rule files from the given folder
+   */
+  public EventService(
+    final String rules,
+    final Source<Event> in,
+    final Sink<Event> out,
+    final Sink<Event> raw,
+    final EventPartitions partitions) throws IOException
   {
     final FuzzyHashMap<Parser>             parsers      = Parsers.parsers();
     final FuzzyHashMap<TranslatorsManager> transformers = TranslatorsLoader.load(rules);
 
-    demuxer = new EventDemuxer(parsers, transformers, in, out, raw);
+    demuxer = new EventDemuxer(parsers, transformers, in, out, raw, partitions);
   }
 
   /**
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A shared pool of worker threads that parse and normalize the events of all source types.
+ * <p>
+ * Any free worker can process an event of any source type, so a busy source type can use all
+ * workers, while the idle source types do not hold any threads. The number of workers that
+ * process the events of a single source type at the same time is limited by the per-source limit.
+ * <p>
+ * The events of a source type are processed in order only when the per-source limit is 1.
+ */
+public final class EventWorkers implements AutoCloseable
+{
+  /**
+   * The default maximum number of events accepted by a demuxer and not yet processed.
+   */
+  public static final int DefaultMaxPending = 1024;
+
+  private final ForkJoinPool pool;
+  private final int          threads;
+  private final int          perSourceLimit;
+  private final int          maxPending;
+
+  /**
+   * Creates a worker pool with one worker per available processor. A single source type can use
+   * all workers.
+   */
+  public EventWorkers()
+  {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a worker pool with the given number of workers. A single source type can use all
+   * workers.
+   *
+   * @param threads the number of worker threads
+   */
+  public EventWorkers(final int threads)
+  {
+    this(threads, threads, DefaultMaxPending);
+  }
+
+  /**
+   * Creates a worker pool.
+   *
+   * @param threads        the number of worker threads
+   * @param perSourceLimit the maximum number of workers processing the events of a single source
+   *                       type at the same time
+   * @param maxPending     the maximum number of events accepted by a demuxer and not yet
+   *                       processed, the demuxer blocks when this limit is reached
+   */
+  public EventWorkers(final int threads, final int perSourceLimit, final int maxPending)
+  {
+    if (threads <= 0)
+      throw new IllegalArgumentException("Invalid number of threads: " + threads);
+
+    if (perSourceLimit <= 0)
+      throw new IllegalArgumentException("Invalid per-source limit: " + perSourceLimit);
+
+    if (maxPending <= 0)
+      throw new IllegalArgumentException("Invalid max pending events: " + maxPending);
+
+    this.threads        = threads;
+    this.perSourceLimit = perSourceLimit;
+    this.maxPending     = maxPending;
+
+    // the async mode uses FIFO scheduling for the tasks that are never joined
+    this.pool = new ForkJoinPool(threads, EventWorkers::newThread, null, true);
+  }
+
+  public int threads() {return threads;}
+
+  public int perSourceLimit() {return perSourceLimit;}
+
+  public int maxPending() {return maxPending;}
+
+  /**
+   * Stops accepting new work and waits for the submitted work to complete. If interrupted while
+   * waiting, returns with the interrupted flag set, and the submitted work completes in the
+   * background.
+   */
+  @Override
+  public void close()
+  {
+    pool.shutdown();
+    try
+    {
+      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+    catch (final InterruptedException e)
+    {
+      // restore the interrupted flag
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return "EventWorkers{threads=" + threads + ", perSourceLimit=" + perSourceLimit + '}';
+  }
+
+  void execute(final Runnable task)
+  {
+    pool.execute(task);
+  }
+
+  private static ForkJoinWorkerThread newThread(final ForkJoinPool pool)
+  {
+    final ForkJoinWorkerThread thread =
+      ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+
+    thread.setName("event-worker-" + thread.getPoolIndex());
+    return thread;
+  }
+}
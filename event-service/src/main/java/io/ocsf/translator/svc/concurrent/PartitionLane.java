@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.concurrent;
+
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.EventQueue;
+import io.ocsf.translator.event.event.Sink;
+import io.ocsf.translator.svc.EventNormalizer;
+import io.ocsf.translator.svc.EventParser;
+import io.ocsf.translator.svc.Splunk;
+import io.ocsf.translator.svc.TranslatorsManager;
+import io.ocsf.utils.FuzzyHashMap;
+import io.ocsf.utils.parsers.Parser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered lane: a queue and a thread that parses and normalizes the queued events one at a
+ * time, in the order they were queued.
+ * <p>
+ * A lane processes the events of any source type; it looks up the parser and the translators of a
+ * source type once, and keeps them for the following events.
+ */
+final class PartitionLane extends Thread
+{
+  private static final Logger logger = LogManager.getLogger(PartitionLane.class);
+
+  // the maximum number of events taken from the queue at once
+  private static final int Batch = 64;
+
+  private final EventQueue<Event>                queue;
+  private final FuzzyHashMap<Parser>             parsers;
+  private final FuzzyHashMap<TranslatorsManager> normalizers;
+  private final Sink<Event>                      sink;
+
+  // the parser and the translators of each source type, used only by the lane thread
+  private final Map<String, Processor> processors = new HashMap<>();
+
+  PartitionLane(
+    final String name,
+    final int capacity,
+    final FuzzyHashMap<Parser> parsers,
+    final FuzzyHashMap<TranslatorsManager> normalizers,
+    final Sink<Event> sink)
+  {
+    super(name);
+
+    this.queue       = new EventQueue<>(capacity);
+    this.parsers     = parsers;
+    this.normalizers = normalizers;
+    this.sink        = sink;
+  }
+
+  void put(final Event event) throws InterruptedException
+  {
+    queue.put(event);
+  }
+
+  int depth() {return queue.available();}
+
+  @Override
+  public void run()
+  {
+    logger.info("{}: lane thread started", this);
+
+    final List<Event> batch  = new ArrayList<>(Batch);
+    final List<Event> output = new ArrayList<>(Batch);
+
+    try
+    {
+      for (boolean eos = false; !eos; )
+      {
+        batch.clear();
+        queue.drainTo(batch, Batch);
+
+        for (final Event event : batch)
+        {
+          if (event.isEos())
+          {
+            eos = true;
+            break;
+          }
+
+          final Event out = process(event);
+          if (out != null)
+            output.add(out);
+        }
+
+        if (!output.isEmpty())
+        {
+          sink.putAll(output);
+          output.clear();
+        }
+      }
+    }
+    catch (final InterruptedException e)
+    {
+      // the processing does not wait, only the processed events waiting for the sink are lost
+      final int taken = output.size();
+      final int depth = depth();
+      logger.info("{}: lane thread has been interrupted, {} unprocessed events, " +
+                  "{} taken from the queue and {} in the queue",
+                  this, taken + depth, taken, depth);
+
+      // restore the interrupted flag
+      Thread.currentThread().interrupt();
+    }
+
+    logger.info("{}: lane thread terminated", this);
+  }
+
+  @Override
+  public String toString() {return getName();}
+
+  private Event process(final Event event)
+  {
+    try
+    {
+      final Processor processor = processor(event.get(Splunk.SOURCE_TYPE));
+      if (processor != null)
+      {
+        final Event parsed = EventParser.process(processor.parser, event);
+        if (parsed != null)
+          return EventNormalizer.process(processor.translators, parsed);
+      }
+    }
+    catch (final RuntimeException e)
+    {
+      logger.warn("{}: unable to process event: {}", this, event, e);
+    }
+
+    return null;
+  }
+
+  private Processor processor(final String source)
+  {
+    Processor processor = processors.get(source);
+
+    if (processor == null && source != null)
+    {
+      final Parser             parser      = parsers.get(source);
+      final TranslatorsManager translators = normalizers.get(source);
+
+      // the demuxer sends only the events with both a parser and translators
+      if (parser != null && translators != null)
+      {
+        processor = new Processor(translators.project(parser), translators);
+        processors.put(source, processor);
+      }
+    }
+
+    return processor;
+  }
+
+  private static final class Processor
+  {
+    private final Parser             parser;
+    private final TranslatorsManager translators;
+
+    private Processor(final Parser parser, final TranslatorsManager translators)
+    {
+      this.parser      = parser;
+      this.translators = translators;
+    }
+  }
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.metrics;
+
+import io.ocsf.translator.svc.TranslatorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The event service metrics: the events in, out and failed per stage and source type, the queue
+ * depths, the latency histograms, and the failures per {@link TranslatorException.Reason}.
+ * <p>
+ * The source types come from the events, so each stage counts at most <code>maxSources</code>
+ * source types, the events of the other source types are counted as <code>other</code>.
+ * <p>
+ * The pipeline stages record into the shared instance returned by {@link #get()}. The metrics can
+ * be read as a {@link Map} with {@link #snapshot()}, or in the Prometheus text format with
+ * {@link #toPrometheus()}.
+ */
+public final class EventMetrics
+{
+  /**
+   * The stage names.
+   */
+  public static final String Demux     = "demux";
+  public static final String Parse     = "parse";
+  public static final String Translate = "translate";
+  public static final String Validate  = "validate";
+
+  /**
+   * The latency histogram names. The end-to-end latency starts when the event is parsed, or earlier
+   * if the event was created with a start time, and ends when the event is translated.
+   */
+  public static final String ParseLatency     = "parse";
+  public static final String TranslateLatency = "translate";
+  public static final String EndToEndLatency  = "end_to_end";
+
+  /**
+   * The default maximum number of source types per stage.
+   */
+  public static final int MaxSources = 256;
+
+  // the source type of the events without one
+  private static final String Unknown = "unknown";
+
+  // the source type of the events beyond the maximum number of source types
+  private static final String Other = "other";
+
+  private static volatile EventMetrics metrics = new EventMetrics();
+
+  /**
+   * Returns the metrics used by the event service.
+   *
+   * @return the shared metrics
+   */
+  public static EventMetrics get() {return metrics;}
+
+  /**
+   * Sets the metrics used by the event service.
+   *
+   * @param metrics the new metrics
+   */
+  public static void set(final EventMetrics metrics)
+  {
+    EventMetrics.metrics = metrics;
+  }
+
+  /**
+   * The event counters of a stage and source type.
+   */
+  public static final class Counters
+  {
+    private final LongAdder in     = new LongAdder();
+    private final LongAdder out    = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public void in() {in.increment();}
+
+    public void out() {out.increment();}
+
+    public void failed() {failed.increment();}
+
+    public long inCount() {return in.sum();}
+
+    public long outCount() {return out.sum();}
+
+    public long failedCount() {return failed.sum();}
+
+    Map<String, Object> snapshot()
+    {
+      final Map<String, Object> map = new LinkedHashMap<>();
+      map.put("in", inCount());
+      map.put("out", outCount());
+      map.put("failed", failedCount());
+      return map;
+    }
+  }
+
+  private final ConcurrentMap<String, ConcurrentMap<String, Counters>> stages =
+    new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, IntSupplier>      queues    = new ConcurrentHashMap<>();
+
+  private final Map<TranslatorException.Reason, LongAdder> failures =
+    new EnumMap<>(TranslatorException.Reason.class);
+
+  private final int maxSources;
+
+  public EventMetrics()
+  {
+    this(MaxSources);
+  }
+
+  /**
+   * Creates the metrics with the given maximum number of source types per stage.
+   *
+   * @param maxSources the maximum number of source types per stage, not counting
+   *                   <code>other</code>
+   */
+  public EventMetrics(final int maxSources)
+  {
+    this.maxSources = maxSources;
+
+    // the map is never modified after this, so it can be read concurrently
+    for (final TranslatorException.Reason reason : TranslatorException.Reason.values())
+      failures.put(reason, new LongAdder());
+  }
+
+  /**
+   * Returns the event counters of the given stage and source type.
+   *
+   * @param stage  the stage name
+   * @param source the source type, or null if unknown
+   * @return the counters, the <code>other</code> counters if the stage already counts the
+   * maximum number of source types
+   */
+  public Counters stage(final String stage, final String source)
+  {
+    final ConcurrentMap<String, Counters> counters =
+      stages.computeIfAbsent(stage, k -> new ConcurrentHashMap<>());
+
+    final String   key = source != null ? source : Unknown;
+    final Counters c   = counters.get(key);
+    if (c != null)
+      return c;
+
+    // the size may be exceeded by a few concurrent new source types, it is still bounded
+    return counters.computeIfAbsent(
+      counters.size() < maxSources ? key : Other, k -> new Counters());
+  }
+
+  /**
+   * Returns the latency histogram with the given name.
+   *
+   * @param name the histogram name
+   * @return the histogram
+   */
+  public LatencyHistogram latency(final String name)
+  {
+    final LatencyHistogram h = latencies.get(name);
+    return h != null ? h : latencies.computeIfAbsent(name, k -> new LatencyHistogram());
+  }
+
+  /**
+   * Counts a failure.
+   *
+   * @param reason the failure reason
+   */
+  public void failure(final TranslatorException.Reason reason)
+  {
+    failures.get(reason).increment();
+  }
+
+  /**
+   * Returns the number of failures with the given reason.
+   *
+   * @param reason the failure reason
+   * @return the failure count
+   */
+  public long failures(final TranslatorException.Reason reason)
+  {
+    return failures.get(reason).sum();
+  }
+
+  /**
+   * Registers a queue, its depth is read when taking a snapshot.
+   *
+   * @param name  the queue name
+   * @param depth returns the number of events in the queue
+   */
+  public void queue(final String name, final IntSupplier depth)
+  {
+    queues.put(name, depth);
+  }
+
+  /**
+   * Unregisters a queue.
+   *
+   * @param name the queue name
+   */
+  public void removeQueue(final String name)
+  {
+    queues.remove(name);
+  }
+
+  /**
+   * Returns the current values of all metrics.
+   *
+   * @return a map with the <code>stages</code>, <code>queues</code>, <code>latencies</code> and
+   * <code>failures</code> entries
+   */
+  public Map<String, Object> snapshot()
+  {
+    final Map<String, Object> stages = new TreeMap<>();
+    this.stages.forEach((stage, counters) -> {
+      final Map<String, Object> sources = new TreeMap<>();
+      counters.forEach((source, c) -> sources.put(source, c.snapshot()));
+      stages.put(stage, sources);
+    });
+
+    final Map<String, Object> queues = new TreeMap<>();
+    this.queues.forEach((name, depth) -> queues.put(name, depth.getAsInt()));
+
+    final Map<String, Object> latencies = new TreeMap<>();
+    this.latencies.forEach((name, h) -> latencies.put(name, h.snapshot()));
+
+    final Map<String, Object> failures = new LinkedHashMap<>();
+    this.failures.forEach((reason, count) -> failures.put(reason.name(), count.sum()));
+
+    final Map<String, Object> map = new LinkedHashMap<>();
+    map.put("stages", stages);
+    map.put("queues", queues);
+    map.put("latencies", latencies);
+    map.put("failures", failures);
+    return map;
+  }
+
+  /**
+   * Returns the metrics in the Prometheus text exposition format.
+   *
+   * @return the metrics as text
+   */
+  public String toPrometheus()
+  {
+    final StringBuilder sb = new StringBuilder(1024);
+    try
+    {
+      writePrometheus(sb);
+    }
+    catch (final IOException e)
+    {
+      // a StringBuilder does not throw
+      throw new UncheckedIOException(e);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the metrics in the Prometheus text exposition format.
+   *
+   * @param out the output
+   * @throws IOException if unable to write
+   */
+  public void writePrometheus(final Appendable out) throws IOException
+  {
+    out.append("# TYPE ocsf_events_total counter\n");
+    for (final Map.Entry<String, ConcurrentMap<String, Counters>> stage :
+      new TreeMap<>(stages).entrySet())
+    {
+      for (final Map.Entry<String, Counters> source : new TreeMap<>(stage.getValue()).entrySet())
+      {
+        final Counters c = source.getValue();
+        events(out, stage.getKey(), source.getKey(), "in", c.inCount());
+        events(out, stage.getKey(), source.getKey(), "out", c.outCount());
+        events(out, stage.getKey(), source.getKey(), "failed", c.failedCount());
+      }
+    }
+
+    out.append("# TYPE ocsf_queue_depth gauge\n");
+    for (final Map.Entry<String, IntSupplier> queue : new TreeMap<>(queues).entrySet())
+    {
+      out.append("ocsf_queue_depth{queue=\"");
+      label(out, queue.getKey());
+      out.append("\"} ").append(Integer.toString(queue.getValue().getAsInt())).append('\n');
+    }
+
+    out.append("# TYPE ocsf_latency_seconds summary\n");
+    for (final Map.Entry<String, LatencyHistogram> latency : new TreeMap<>(latencies).entrySet())
+    {
+      final LatencyHistogram h = latency.getValue();
+
+      for (final double q : LatencyHistogram.Quantiles)
+      {
+        out.append("ocsf_latency_seconds{stage=\"");
+        label(out, latency.getKey());
+        out.append("\",quantile=\"").append(Double.toString(q)).append("\"} ")
+           .append(seconds(h.quantile(q))).append('\n');
+      }
+
+      out.append("ocsf_latency_seconds_sum{stage=\"");
+      label(out, latency.getKey());
+      out.append("\"} ").append(seconds(h.sum())).append('\n');
+
+      out.append("ocsf_latency_seconds_count{stage=\"");
+      label(out, latency.getKey());
+      out.append("\"} ").append(Long.toString(h.count())).append('\n');
+    }
+
+    out.append("# TYPE ocsf_failures_total counter\n");
+    for (final Map.Entry<TranslatorException.Reason, LongAdder> failure : failures.entrySet())
+    {
+      out.append("ocsf_failures_total{reason=\"").append(failure.getKey().name()).append("\"} ")
+         .append(Long.toString(failure.getValue().sum())).append('\n');
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return snapshot().toString();
+  }
+
+  private static void events(
+    final Appendable out, final String stage, final String source, final String result,
+    final long count) throws IOException
+  {
+    out.append("ocsf_events_total{stage=\"");
+    label(out, stage);
+    out.append("\",source_type=\"");
+    label(out, source);
+    out.append("\",result=\"").append(result).append("\"} ")
+       .append(Long.toString(count)).append('\n');
+  }
+
+  private static String seconds(final long nanos)
+  {
+    return Double.toString(nanos / 1e9);
+  }
+
+  // escapes a label value: backslash, double-quote and line feed
+  private static void label(final Appendable out, final String value) throws IOException
+  {
+    for (int i = 0, len = value.length(); i < len; ++i)
+    {
+      final char c = value.charAt(i);
+      switch (c)
+      {
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        default:
+          out.append(c);
+      }
+    }
+  }
+}
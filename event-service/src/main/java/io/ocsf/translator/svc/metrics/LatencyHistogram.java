@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Each power of 2 range is split in 8 linear sub-buckets, so a recorded value is off by at most
+ * 12.5%, and the whole range of long values fits in a few hundred counters. Recording a value takes
+ * a couple of bit operations and an atomic increment; it does not allocate.
+ */
+public final class LatencyHistogram
+{
+  // the number of linear sub-buckets in each power of 2 range: 2^SubBits
+  private static final int SubBits  = 3;
+  private static final int SubCount = 1 << SubBits;
+  private static final int SubMask  = SubCount - 1;
+
+  // enough buckets for Long.MAX_VALUE
+  private static final int Buckets = (64 - SubBits) * SubCount;
+
+  /**
+   * The quantiles reported in the snapshot.
+   */
+  static final double[] Quantiles     = {0.5, 0.9, 0.99, 0.999};
+  static final String[] QuantileNames = {"p50", "p90", "p99", "p999"};
+
+  private final AtomicLongArray counts = new AtomicLongArray(Buckets);
+  private final LongAdder       count  = new LongAdder();
+  private final LongAdder       sum    = new LongAdder();
+  private final LongAccumulator max    = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency in nanoseconds, negative values are recorded as 0
+   */
+  public void record(final long nanos)
+  {
+    final long v = Math.max(0, nanos);
+
+    counts.incrementAndGet(bucket(v));
+    count.increment();
+    sum.add(v);
+    max.accumulate(v);
+  }
+
+  /**
+   * Records the time elapsed since the given start time.
+   *
+   * @param start the start time, as returned by {@link System#nanoTime()}
+   */
+  public void since(final long start)
+  {
+    record(System.nanoTime() - start);
+  }
+
+  public long count() {return count.sum();}
+
+  public long sum() {return sum.sum();}
+
+  public long max() {return max.get();}
+
+  /**
+   * Returns an upper bound of the latency at the given quantile.
+   *
+   * @param q the quantile, between 0 and 1
+   * @return the latency in nanoseconds, 0 when no latency has been recorded
+   */
+  public long quantile(final double q)
+  {
+    final long total = count();
+    if (total == 0)
+      return 0;
+
+    final long target = Math.max(1, (long) Math.ceil(q * total));
+
+    long seen = 0;
+    for (int i = 0; i < Buckets; ++i)
+    {
+      seen += counts.get(i);
+      if (seen >= target)
+        return Math.min(upper(i), max());
+    }
+
+    return max();
+  }
+
+  /**
+   * Returns the count, sum, max and the quantiles of the recorded latencies, in nanoseconds.
+   *
+   * @return the histogram snapshot
+   */
+  public Map<String, Object> snapshot()
+  {
+    final Map<String, Object> map = new LinkedHashMap<>();
+
+    map.put("count", count());
+    map.put("sum", sum());
+    map.put("max", max());
+
+    for (int i = 0; i < Quantiles.length; ++i)
+      map.put(QuantileNames[i], quantile(Quantiles[i]));
+
+    return map;
+  }
+
+  @Override
+  public String toString()
+  {
+    return snapshot().toString();
+  }
+
+  static int bucket(final long v)
+  {
+    if (v < SubCount)
+      return (int) v;
+
+    final int shift = 63 - Long.numberOfLeadingZeros(v) - SubBits;
+    return ((shift + 1) << SubBits) + (int) ((v >>> shift) & SubMask);
+  }
+
+  // the largest value of the bucket
+  static long upper(final int bucket)
+  {
+    if (bucket < SubCount)
+      return bucket;
+
+    // the last bucket ends at Long.MAX_VALUE, its computed end would overflow
+    if (bucket >= Buckets - 1)
+      return Long.MAX_VALUE;
+
+    final int  shift = (bucket >>> SubBits) - 1;
+    final long lower = (long) (SubCount + (bucket & SubMask)) << shift;
+    return lower + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.svc.metrics.EventMetrics;
+import io.ocsf.translator.svc.metrics.LatencyHistogram;
+import io.ocsf.utils.FMap;
+import io.ocsf.utils.parsers.Parser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class EventMetricsTest extends Tests
+{
+  private static final String NAME = "syslog";
+
+  private final Parser parser = text -> {
+    if (text.isEmpty())
+      return null;
+    return FMap.<String, Object>b().p(EVENT_ID, Integer.parseInt(text));
+  };
+
+  private final TranslatorsManager translators = new TranslatorsManager("test");
+
+  private final EventMetrics defaults = EventMetrics.get();
+  private final EventMetrics metrics  = new EventMetrics();
+
+  @Before
+  public void setUp()
+  {
+    translators.put("Transformer", data ->
+      FMap.<String, Object>b().p(EVENT_ID, data.get(EVENT_ID)));
+    EventMetrics.set(metrics);
+  }
+
+  @After
+  public void tearDown()
+  {
+    EventMetrics.set(defaults);
+  }
+
+  @Test
+  public void histogram()
+  {
+    final LatencyHistogram h = new LatencyHistogram();
+    Assert.assertEquals(0, h.quantile(0.5));
+
+    for (int i = 1; i <= 1000; i++)
+      h.record(i * 1000L);
+
+    Assert.assertEquals(1000, h.count());
+    Assert.assertEquals(500_500_000L, h.sum());
+    Assert.assertEquals(1_000_000L, h.max());
+
+    // the log-linear buckets are within 12.5%
+    assertNear(500_000, h.quantile(0.5));
+    assertNear(990_000, h.quantile(0.99));
+    Assert.assertEquals(1_000_000L, h.quantile(1));
+
+    h.record(Long.MAX_VALUE);
+    Assert.assertEquals(Long.MAX_VALUE, h.quantile(1));
+  }
+
+  @Test
+  public void stages()
+  {
+    final Event parsed = EventParser.process(parser, event("42"));
+    Assert.assertNotNull(parsed);
+    Assert.assertTrue(parsed.start() != 0);
+
+    final Event translated = EventNormalizer.process(translators, parsed);
+    Assert.assertNotNull(translated);
+    Assert.assertEquals(42, (int) translated.get(EVENT_ID));
+
+    Assert.assertNull(EventParser.process(parser, event("")));
+    Assert.assertNull(EventParser.process(parser, event("not a number")));
+
+    final EventMetrics.Counters parse = metrics.stage(EventMetrics.Parse, NAME);
+    Assert.assertEquals(3, parse.inCount());
+    Assert.assertEquals(1, parse.outCount());
+    Assert.assertEquals(2, parse.failedCount());
+
+    final EventMetrics.Counters translate = metrics.stage(EventMetrics.Translate, NAME);
+    Assert.assertEquals(1, translate.inCount());
+    Assert.assertEquals(1, translate.outCount());
+
+    Assert.assertEquals(1, metrics.failures(TranslatorException.Reason.UnsupportedEvent));
+    Assert.assertEquals(1, metrics.failures(TranslatorException.Reason.ParserError));
+
+    Assert.assertEquals(2, metrics.latency(EventMetrics.ParseLatency).count());
+    Assert.assertEquals(1, metrics.latency(EventMetrics.TranslateLatency).count());
+    Assert.assertEquals(1, metrics.latency(EventMetrics.EndToEndLatency).count());
+  }
+
+  @Test
+  public void maxSources()
+  {
+    final EventMetrics limited = new EventMetrics(2);
+
+    limited.stage(EventMetrics.Parse, "a").in();
+    limited.stage(EventMetrics.Parse, null).in();
+    limited.stage(EventMetrics.Parse, "b").in();
+    limited.stage(EventMetrics.Parse, "c").in();
+    limited.stage(EventMetrics.Parse, "a").in();
+
+    Assert.assertEquals(2, limited.stage(EventMetrics.Parse, "a").inCount());
+    Assert.assertEquals(1, limited.stage(EventMetrics.Parse, "unknown").inCount());
+    Assert.assertEquals(2, limited.stage(EventMetrics.Parse, "other").inCount());
+    Assert.assertSame(
+      limited.stage(EventMetrics.Parse, "other"), limited.stage(EventMetrics.Parse, "d"));
+
+    // the limit applies per stage
+    limited.stage(EventMetrics.Translate, "c").in();
+    Assert.assertEquals(1, limited.stage(EventMetrics.Translate, "c").inCount());
+    Assert.assertEquals(0, limited.stage(EventMetrics.Translate, "other").inCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void snapshot()
+  {
+    metrics.stage(EventMetrics.Demux, NAME).in();
+    metrics.queue("queue", () -> 3);
+    metrics.latency(EventMetrics.ParseLatency).record(1000);
+    metrics.failure(TranslatorException.Reason.NoParser);
+
+    final Map<String, Object> snapshot = metrics.snapshot();
+
+    final Map<String, Object> demux =
+      (Map<String, Object>) ((Map<String, Object>) snapshot.get("stages")).get(EventMetrics.Demux);
+    Assert.assertEquals(1L, ((Map<String, Object>) demux.get(NAME)).get("in"));
+
+    Assert.assertEquals(3, ((Map<String, Object>) snapshot.get("queues")).get("queue"));
+    Assert.assertEquals(1L, ((Map<String, Object>) snapshot.get("failures")).get("NoParser"));
+
+    final Map<String, Object> parse =
+      (Map<String, Object>) ((Map<String, Object>) snapshot.get("latencies")).get("parse");
+    Assert.assertEquals(1L, parse.get("count"));
+    Assert.assertEquals(1000L, parse.get("p50"));
+
+    metrics.removeQueue("queue");
+    Assert.assertTrue(((Map<String, Object>) metrics.snapshot().get("queues")).isEmpty());
+  }
+
+  @Test
+  public void prometheus()
+  {
+    metrics.stage(EventMetrics.Demux, "a\"b").failed();
+    metrics.queue("queue", () -> 7);
+    metrics.latency(EventMetrics.ParseLatency).record(2_000_000);
+    metrics.failure(TranslatorException.Reason.NoTranslator);
+
+    final String text = metrics.toPrometheus();
+
+    Assert.assertTrue(text.contains("# TYPE ocsf_events_total counter\n"));
+    Assert.assertTrue(text.contains(
+      "ocsf_events_total{stage=\"demux\",source_type=\"a\\\"b\",result=\"failed\"} 1\n"));
+    Assert.assertTrue(text.contains("ocsf_queue_depth{queue=\"queue\"} 7\n"));
+    Assert.assertTrue(text.contains("ocsf_latency_seconds_count{stage=\"parse\"} 1\n"));
+    Assert.assertTrue(text.contains("ocsf_latency_seconds_sum{stage=\"parse\"} 0.002\n"));
+    Assert.assertTrue(text.contains("ocsf_failures_total{reason=\"NoTranslator\"} 1\n"));
+  }
+
+  private static void assertNear(final long expected, final long actual)
+  {
+    Assert.assertTrue(
+      "expected ~" + expected + " but was " + actual,
+      actual >= expected && actual <= expected + expected / 8);
+  }
+
+  private static Event event(final String raw)
+  {
+    return new Event(
+      FMap.<String, Object>b()
+          .p(Splunk.RAW_EVENT, raw)
+          .p(Splunk.TENANT, "Tenant")
+          .p(Splunk.SOURCE_TYPE, NAME));
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.schema.Dictionary;
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.EventQueue;
+import io.ocsf.translator.svc.concurrent.EventDemuxer;
+import io.ocsf.translator.svc.concurrent.EventPartitions;
+import io.ocsf.utils.FMap;
+import io.ocsf.utils.FuzzyHashMap;
+import io.ocsf.utils.parsers.Parser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class EventPartitionsTest extends Tests
+{
+  private static final String NAME  = "syslog";
+  private static final String NAME1 = "syslog:1";
+  private static final String NAME2 = "syslog:2";
+
+  private static final String[] TENANTS = {"Tenant1", "Tenant2", "Tenant3"};
+
+  private static final int EVENTS = 1200;
+
+  // the "parser" keeps the tenant, so the translated events can be grouped by key
+  private final Parser             parser      = text -> {
+    final String[] fields = text.split(" ");
+    return FMap.<String, Object>b().p(EVENT_ID, Integer.parseInt(fields[0])).p(MESSAGE, fields[1]);
+  };
+  private final TranslatorsManager translators = new TranslatorsManager("test");
+
+  private final FuzzyHashMap<Parser>             parsers     = new FuzzyHashMap<>(NAME);
+  private final FuzzyHashMap<TranslatorsManager> normalizers = new FuzzyHashMap<>(NAME);
+
+  private final EventQueue<Event> rawEventQueue = new EventQueue<>();
+
+  private final EventPartitions partitions = new EventPartitions(3);
+
+  @Before
+  public void setUp()
+  {
+    translators.put("Transformer", data ->
+      FMap.<String, Object>b()
+          .p(EVENT_ID, data.remove(EVENT_ID))
+          .p(MESSAGE, data.remove(MESSAGE) + "/" + data.remove(Splunk.CIM_SOURCE_TYPE))
+          .p(Dictionary.RAW_EVENT, data.remove(Dictionary.RAW_EVENT)));
+
+    parsers.put(NAME1, parser);
+    normalizers.put(NAME1, translators);
+
+    parsers.put(NAME2, parser);
+    normalizers.put(NAME2, translators);
+  }
+
+  @Test
+  public void lanes()
+  {
+    Assert.assertEquals(3, partitions.lanes());
+    Assert.assertArrayEquals(new int[3], partitions.depths());
+
+    final Event event = event(1, TENANTS[0], NAME1);
+    final int   lane  = partitions.lane(event);
+
+    Assert.assertTrue(lane >= 0 && lane < 3);
+    Assert.assertEquals(lane, partitions.lane(event(2, TENANTS[0], NAME1)));
+  }
+
+  @Test
+  public void order() throws InterruptedException
+  {
+    final Thread demuxer = new Thread(
+      new EventDemuxer(parsers, normalizers, in, out, rawEventQueue, partitions));
+    demuxer.start();
+
+    final Thread producer = new Thread(() -> {
+      try
+      {
+        for (int i = 0; i < EVENTS; i++)
+        {
+          in.put(event(i, TENANTS[i % TENANTS.length], i % 2 == 0 ? NAME1 : NAME2));
+        }
+        in.put(Event.eos());
+      }
+      catch (final InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    });
+    producer.start();
+
+    // the last event id seen for each key
+    final Map<String, Integer> last = new HashMap<>();
+
+    int count = 0;
+    int eos   = 0;
+
+    // one 'eos' event per source type follows the translated events
+    while (eos < 2)
+    {
+      final Event data = out.take();
+      if (data.isNotEos())
+      {
+        final int     id   = data.get(EVENT_ID);
+        final Integer prev = last.put(data.get(MESSAGE), id);
+
+        Assert.assertTrue(prev == null || prev < id);
+        ++count;
+      }
+      else
+      {
+        Assert.assertEquals(EVENTS, count);
+        ++eos;
+      }
+    }
+
+    demuxer.join();
+    Assert.assertEquals(0, out.available());
+    Assert.assertEquals(TENANTS.length * 2, last.size());
+    Assert.assertArrayEquals(new int[3], partitions.depths());
+
+    // the demuxer sends its own 'eos' event to the raw event sink
+    Assert.assertFalse(rawEventQueue.take().isNotEos());
+  }
+
+  private static Event event(final int id, final String tenant, final String source)
+  {
+    return new Event(
+      FMap.<String, Object>b()
+          .p(Splunk.RAW_EVENT, id + " " + tenant)
+          .p(Splunk.TENANT, tenant)
+          .p(Splunk.SOURCE_TYPE, source));
+  }
+}
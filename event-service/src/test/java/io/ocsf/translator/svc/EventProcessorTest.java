@@ -28,9 +28,9 @@ import org.junit.Test;
 
 public class EventProcessorTest extends Tests
 {
-  // create a very simple "parser"
+  // create a very simple "parser", the message is not translated
   private final Parser parser =
-    text -> FMap.<String, Object>b().p(EVENT_ID, Integer.parseInt(text));
+    text -> FMap.<String, Object>b().p(EVENT_ID, Integer.parseInt(text)).p(MESSAGE, TEST_MESSAGE);
 
   private final TranslatorsManager translators = new TranslatorsManager(Strings.EMPTY);
 
@@ -52,7 +52,7 @@ public class EventProcessorTest extends Tests
     {
       in.put(new Event(
         FMap.<String, Object>b()
-            .p(Dictionary.RAW_EVENT, Integer.toString(i))
+            .p(Splunk.RAW_EVENT, Integer.toString(i))
             .p(EVENT_ORIGIN, "Internet")
             .p(MESSAGE, TEST_MESSAGE)));
     }
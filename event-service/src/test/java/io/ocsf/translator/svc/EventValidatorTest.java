@@ -0,0 +1,130 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.schema.Dictionary;
+import io.ocsf.schema.Schema;
+import io.ocsf.schema.SchemaValidator;
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.EventQueue;
+import io.ocsf.translator.svc.metrics.EventMetrics;
+import io.ocsf.utils.FMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+public class EventValidatorTest extends Tests
+{
+  private static final String CLASS_UID = "class_uid";
+  private static final String NAME      = "syslog";
+
+  private final EventQueue<Event> invalid = new EventQueue<>(MAX_QUEUE_SIZE);
+
+  @Test
+  public void validate() throws InterruptedException
+  {
+    final EventMetrics metrics = new EventMetrics();
+    EventMetrics.set(metrics);
+
+    final Thread thread = new Thread(new EventValidator(validator(), in, out, invalid));
+    thread.start();
+
+    in.put(new Event(
+      FMap.<String, Object>b()
+          .p(CLASS_UID, 0)
+          .p(EVENT_ID, 1)
+          .p(MESSAGE, TEST_MESSAGE)
+          .p(Dictionary.UNMAPPED, FMap.<String, Object>b().p(Splunk.CIM_SOURCE_TYPE, NAME))));
+    in.put(new Event(
+      FMap.<String, Object>b()
+          .p(CLASS_UID, 0)
+          .p(EVENT_ID, "2")
+          .p(Dictionary.UNMAPPED, FMap.<String, Object>b().p(Splunk.CIM_SOURCE_TYPE, NAME))));
+    in.put(Event.eos());
+
+    final Event valid = out.take();
+    Assert.assertEquals(1, (int) valid.get(EVENT_ID));
+    Assert.assertTrue(out.take().isEos());
+
+    final Event               event      = invalid.take();
+    final Map<String, Object> data       = event.get(EventValidator.EVENT);
+    final Map<String, Object> validation = event.get(EventValidator.VALIDATION);
+
+    Assert.assertEquals("2", data.get(EVENT_ID));
+    Assert.assertEquals(2, validation.get(SchemaValidator.ERROR_COUNT));
+
+    // the invalid events end with 'eos' too
+    Assert.assertTrue(invalid.take().isEos());
+    Assert.assertEquals(0, invalid.available());
+
+    thread.join();
+
+    Assert.assertEquals(1, metrics.failures(TranslatorException.Reason.InvalidEvent));
+    Assert.assertEquals(1, metrics.stage(EventMetrics.Validate, NAME).outCount());
+    Assert.assertEquals(1, metrics.stage(EventMetrics.Validate, NAME).failedCount());
+  }
+
+  @Test
+  public void validatorError() throws InterruptedException
+  {
+    final EventMetrics metrics = new EventMetrics();
+    EventMetrics.set(metrics);
+
+    final Thread thread = new Thread(new EventValidator(validator(), in, out, invalid));
+    thread.start();
+
+    // an event the validator fails on
+    in.put(new Event(new AbstractMap<>()
+    {
+      @Override
+      public Object get(final Object key)
+      {
+        if (CLASS_UID.equals(key))
+          throw new IllegalStateException("broken event");
+        return null;
+      }
+
+      @Override
+      public Set<Entry<String, Object>> entrySet() {return Collections.emptySet();}
+    }));
+    in.put(Event.eos());
+
+    Assert.assertTrue(out.take().isEos());
+
+    final Event event = invalid.take();
+    Assert.assertNotNull(event.get(EventValidator.EVENT));
+    Assert.assertNull(event.get(EventValidator.VALIDATION));
+    Assert.assertTrue(event.<String>get(EventValidator.ERROR).contains("broken event"));
+    Assert.assertTrue(invalid.take().isEos());
+
+    thread.join();
+
+    Assert.assertEquals(0, metrics.failures(TranslatorException.Reason.InvalidEvent));
+    Assert.assertEquals(1, metrics.failures(TranslatorException.Reason.ValidatorError));
+    Assert.assertEquals(1, metrics.stage(EventMetrics.Validate, null).failedCount());
+  }
+
+  private static SchemaValidator validator()
+  {
+    return new SchemaValidator(new Schema(Paths.get("src/test/resources/test-schema.json")));
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.schema.Dictionary;
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.EventQueue;
+import io.ocsf.translator.svc.concurrent.EventDemuxer;
+import io.ocsf.translator.svc.concurrent.EventWorkers;
+import io.ocsf.utils.FMap;
+import io.ocsf.utils.FuzzyHashMap;
+import io.ocsf.utils.parsers.Parser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class EventWorkersTest extends Tests
+{
+  private static final String NAME  = "syslog";
+  private static final String NAME1 = "syslog:1";
+  private static final String NAME2 = "syslog:2";
+
+  private static final int EVENTS = 1000;
+
+  // create a very simple "parser"
+  private final Parser             parser      =
+    text -> FMap.<String, Object>b().p(EVENT_ID, Integer.parseInt(text));
+  private final TranslatorsManager translators = new TranslatorsManager("test");
+
+  private final FuzzyHashMap<Parser>             parsers     = new FuzzyHashMap<>(NAME);
+  private final FuzzyHashMap<TranslatorsManager> normalizers = new FuzzyHashMap<>(NAME);
+
+  private final EventQueue<Event> rawEventQueue = new EventQueue<>();
+
+  private final EventWorkers workers = new EventWorkers(4, 2, 16);
+
+  private Thread demuxer;
+
+  @Before
+  public void setUp()
+  {
+    translators.put("Transformer", data ->
+      FMap.<String, Object>b()
+          .p(EVENT_ID, data.remove(EVENT_ID))
+          .p(Dictionary.RAW_EVENT, data.remove(Dictionary.RAW_EVENT)));
+
+    parsers.put(NAME1, parser);
+    normalizers.put(NAME1, translators);
+
+    parsers.put(NAME2, parser);
+    normalizers.put(NAME2, translators);
+
+    demuxer = new Thread(
+      new EventDemuxer(parsers, normalizers, in, out, rawEventQueue, workers));
+    demuxer.start();
+  }
+
+  @After
+  public void tearDown()
+  {
+    workers.close();
+  }
+
+  @Test
+  public void validate() throws InterruptedException
+  {
+    final Thread producer = new Thread(() -> {
+      try
+      {
+        for (int i = 0; i < EVENTS; i++)
+        {
+          in.put(event(i, i % 2 == 0 ? NAME1 : NAME2));
+        }
+        in.put(Event.eos());
+      }
+      catch (final InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    });
+    producer.start();
+
+    final Set<Object> ids = new HashSet<>();
+    int               eos = 0;
+
+    // one 'eos' event per source type follows the translated events
+    while (eos < 2)
+    {
+      final Event data = out.take();
+      if (data.isNotEos())
+      {
+        Assert.assertNull(data.get(EVENT_ORIGIN));
+        Assert.assertTrue(ids.add(data.get(EVENT_ID)));
+      }
+      else
+      {
+        Assert.assertEquals(EVENTS, ids.size());
+        ++eos;
+      }
+    }
+
+    demuxer.join();
+    Assert.assertEquals(0, out.available());
+
+    // the demuxer sends its own 'eos' event to the raw event sink
+    Assert.assertFalse(rawEventQueue.take().isNotEos());
+    Assert.assertEquals(0, rawEventQueue.available());
+  }
+
+  @Test
+  public void closeInterrupted()
+  {
+    final EventWorkers other = new EventWorkers(1);
+
+    // close returns with the interrupted flag set
+    Thread.currentThread().interrupt();
+    other.close();
+    Assert.assertTrue(Thread.interrupted());
+  }
+
+  private static Event event(final int id, final String source)
+  {
+    return new Event(
+      FMap.<String, Object>b()
+          .p(Splunk.RAW_EVENT, Integer.toString(id))
+          .p(Splunk.TENANT, "Tenant")
+          .p(Splunk.SOURCE_TYPE, source));
+  }
+}
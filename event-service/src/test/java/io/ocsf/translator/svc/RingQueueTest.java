@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.translator.event.event.Event;
+import io.ocsf.translator.event.event.EventQueue;
+import io.ocsf.translator.event.event.RingQueue;
+import io.ocsf.translator.event.event.Sink;
+import io.ocsf.translator.event.event.Source;
+import io.ocsf.utils.FMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RingQueueTest extends Tests
+{
+  @Test
+  public void offerPoll()
+  {
+    final RingQueue<Event> queue = new RingQueue<>(3);
+
+    Assert.assertEquals(4, queue.capacity());
+    Assert.assertNull(queue.poll());
+
+    for (int i = 0; i < 4; i++)
+      Assert.assertTrue(queue.offer(event(i)));
+
+    Assert.assertFalse(queue.offer(event(4)));
+    Assert.assertEquals(4, queue.available());
+
+    for (int i = 0; i < 4; i++)
+      Assert.assertEquals(i, (int) queue.poll().get(EVENT_ID));
+
+    Assert.assertNull(queue.poll());
+    Assert.assertEquals(0, queue.available());
+  }
+
+  @Test
+  public void smallCapacity()
+  {
+    for (int capacity = 1; capacity <= 2; capacity++)
+    {
+      final RingQueue<Event> queue = new RingQueue<>(capacity);
+
+      Assert.assertEquals(2, queue.capacity());
+      Assert.assertTrue(queue.offer(event(1)));
+      Assert.assertTrue(queue.offer(event(2)));
+      Assert.assertFalse(queue.offer(event(3)));
+      Assert.assertEquals(2, queue.available());
+
+      Assert.assertEquals(1, (int) queue.poll().get(EVENT_ID));
+      Assert.assertTrue(queue.offer(event(3)));
+      Assert.assertEquals(2, (int) queue.poll().get(EVENT_ID));
+      Assert.assertEquals(3, (int) queue.poll().get(EVENT_ID));
+      Assert.assertNull(queue.poll());
+    }
+  }
+
+  @Test
+  public void drainTo() throws InterruptedException
+  {
+    final RingQueue<Event> queue = new RingQueue<>(MAX_QUEUE_SIZE);
+    final List<Event>      batch = new ArrayList<>();
+
+    queue.put(event(1));
+    queue.put(event(2));
+    queue.put(event(3));
+
+    Assert.assertEquals(2, queue.drainTo(batch, 2));
+    Assert.assertEquals(1, queue.drainTo(batch, 10));
+    Assert.assertEquals(3, batch.size());
+    Assert.assertEquals(3, (int) batch.get(2).get(EVENT_ID));
+  }
+
+  @Test
+  public void drainToEos() throws InterruptedException
+  {
+    drainToEos(new RingQueue<>(MAX_QUEUE_SIZE));
+    drainToEos(new EventQueue<>(MAX_QUEUE_SIZE));
+  }
+
+  @Test
+  public void multiProducers() throws InterruptedException
+  {
+    transfer(new RingQueue<>(8, false, RingQueue.WaitStrategy.Park), 4);
+    transfer(new RingQueue<>(8, false, RingQueue.WaitStrategy.Yield), 4);
+    transfer(new EventQueue<>(8), 4);
+  }
+
+  @Test
+  public void batches() throws InterruptedException
+  {
+    // the batches are larger than the queue, the ring wraps around
+    final EventQueue<Event> queue = new EventQueue<>(3);
+    final int               count = 1000;
+
+    final Thread producer = new Thread(() -> {
+      try
+      {
+        final List<Event> batch = new ArrayList<>();
+        for (int i = 1; i <= count; i++)
+        {
+          batch.add(event(i));
+          if (batch.size() == 7)
+          {
+            queue.putAll(batch);
+            batch.clear();
+          }
+        }
+        batch.add(Event.eos());
+        queue.putAll(batch);
+      }
+      catch (final InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    });
+    producer.start();
+
+    final List<Event> batch = new ArrayList<>();
+    int               next  = 1;
+
+    for (boolean eos = false; !eos; )
+    {
+      batch.clear();
+      Assert.assertTrue(queue.drainTo(batch, 64) <= 3);
+
+      for (final Event event : batch)
+      {
+        if (event.isEos())
+          eos = true;
+        else
+          Assert.assertEquals(next++, (int) event.get(EVENT_ID));
+      }
+    }
+
+    producer.join();
+    Assert.assertEquals(count + 1, next);
+    Assert.assertEquals(0, queue.available());
+  }
+
+  @Test
+  public void singleProducer() throws InterruptedException
+  {
+    transfer(new RingQueue<>(2, true, RingQueue.WaitStrategy.Yield), 1);
+  }
+
+  private static <Q extends Source<Event> & Sink<Event>> void transfer(
+    final Q queue, final int producers) throws InterruptedException
+  {
+    final int        count = 10_000;
+    final AtomicLong sum   = new AtomicLong();
+
+    final List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++)
+    {
+      threads.add(new Thread(() -> {
+        try
+        {
+          for (int i = 1; i <= count; i++)
+            queue.put(event(i));
+        }
+        catch (final InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+
+    for (int c = 0; c < 2; c++)
+    {
+      threads.add(new Thread(() -> {
+        try
+        {
+          for (Event e = queue.take(); e.isNotEos(); e = queue.take())
+            sum.addAndGet((int) e.get(EVENT_ID));
+        }
+        catch (final InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }));
+    }
+
+    threads.forEach(Thread::start);
+    for (int p = 0; p < producers; p++)
+      threads.get(p).join();
+
+    // stop the consumers
+    queue.put(Event.eos());
+    queue.put(Event.eos());
+
+    for (final Thread t : threads)
+      t.join();
+
+    Assert.assertEquals((long) producers * count * (count + 1) / 2, sum.get());
+  }
+
+  private static <Q extends Source<Event> & Sink<Event>> void drainToEos(final Q queue)
+    throws InterruptedException
+  {
+    final List<Event> batch = new ArrayList<>();
+
+    queue.put(event(1));
+    queue.put(Event.eos());
+    queue.put(event(2));
+
+    // the events after 'eos' stay in the queue
+    Assert.assertEquals(2, queue.drainTo(batch, 10));
+    Assert.assertTrue(batch.get(1).isEos());
+    Assert.assertEquals(1, queue.available());
+    Assert.assertEquals(2, (int) queue.take().get(EVENT_ID));
+  }
+
+  private static Event event(final int id)
+  {
+    return new Event(FMap.<String, Object>b().p(EVENT_ID, id));
+  }
+}
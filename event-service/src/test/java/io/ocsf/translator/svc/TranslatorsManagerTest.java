@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator.svc;
+
+import io.ocsf.schema.Dictionary;
+import io.ocsf.translator.TranslatorBuilder;
+import io.ocsf.translator.TranslatorProfile;
+import io.ocsf.utils.BooleanExpression;
+import io.ocsf.utils.FieldPath;
+import io.ocsf.utils.Tuple;
+import io.ocsf.utils.parsers.Json5Parser;
+import io.ocsf.utils.parsers.Parser;
+import io.ocsf.utils.parsers.Projection;
+import io.ocsf.utils.parsers.RawJson;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TranslatorsManagerTest
+{
+  private TranslatorsManager manager;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    manager = new TranslatorsManager("src/test/rules");
+
+    add("4624",
+        "{when: \"EventID = '4624'\", rules: [{EventID: {@move: 'id'}}, {a: {@value: 1}}]}");
+    add("4625", "{when: 'EventID = 4625', rules: [{EventID: {@move: 'id'}}, {a: {@value: 2}}]}");
+    add("462x",
+        "{when: \"EventID in ['4626', '4627'] and Channel = 'Security'\", " +
+        "rules: [{EventID: {@move: 'id'}}, {a: {@value: 3}}]}");
+    add("code",
+        "{when: 'code = 1 or code = 2', rules: [{code: {@move: 'id'}}, {a: {@value: 4}}]}");
+    add("other", "{when: 'level > 3', rules: [{level: {@move: 'id'}}, {a: {@value: 5}}]}");
+    add("default", "{rules: [{b: {@value: 6}}]}");
+  }
+
+  @Test
+  public void dispatch()
+  {
+    Assert.assertEquals(1, translate("{EventID: '4624'}").get("a"));
+    Assert.assertEquals(1, translate("{EventID: 4624}").get("a"));
+    Assert.assertEquals(2, translate("{EventID: '4625'}").get("a"));
+    Assert.assertEquals(2, translate("{EventID: '04625'}").get("a"));
+    Assert.assertEquals(2, translate("{EventID: 4625.0}").get("a"));
+    Assert.assertEquals(3, translate("{EventID: '4626', Channel: 'Security'}").get("a"));
+    Assert.assertEquals(6, translate("{EventID: 4626, Channel: 'Security'}").get("b"));
+    Assert.assertEquals(6, translate("{EventID: '4627', Channel: 'System'}").get("b"));
+    Assert.assertEquals(4, translate("{code: 2}").get("a"));
+    Assert.assertEquals(5, translate("{code: 3, level: 4}").get("a"));
+    Assert.assertEquals(5, translate("{EventID: '4624x', level: 4}").get("a"));
+    Assert.assertEquals(6, translate("{}").get("b"));
+  }
+
+  @Test
+  public void order() throws IOException
+  {
+    // an unindexed translator added first has the precedence
+    manager = new TranslatorsManager("src/test/rules");
+    add("first", "{when: 'level > 3', rules: [{level: {@move: 'id'}}, {a: {@value: 1}}]}");
+    add("second", "{when: 'EventID = 1', rules: [{EventID: {@move: 'id'}}, {a: {@value: 2}}]}");
+
+    Assert.assertEquals(1, translate("{EventID: 1, level: 4}").get("a"));
+    Assert.assertEquals(2, translate("{EventID: 1, level: 3}").get("a"));
+  }
+
+  @Test
+  public void profiles() throws IOException
+  {
+    Assert.assertTrue(manager.profiles().isEmpty());
+
+    manager = new TranslatorsManager(
+      Paths.get("src/test/rules"), TranslatorBuilder.Backend.Interpreter, true);
+    add("code",
+        "{when: 'code = 1 or code = 2', rules: [{code: {@move: 'id'}}, {a: {@value: 4}}]}");
+
+    Assert.assertEquals(4, translate("{code: 2}").get("a"));
+    Assert.assertNull(translate("{code: 3}"));
+
+    final TranslatorProfile profile = manager.profile("code");
+    Assert.assertNotNull(profile);
+    Assert.assertEquals(1, manager.profiles().size());
+
+    // the 'when' condition and the two rules
+    Assert.assertEquals(3, profile.entries().size());
+    Assert.assertEquals(1, profile.entries().get(0).evaluations());
+    Assert.assertEquals(1, profile.entries().get(1).matches());
+  }
+
+  @Test
+  public void projection() throws IOException
+  {
+    Assert.assertEquals(
+      List.of("Channel", "EventID", "code", "level"),
+      new ArrayList<>(manager.projection().paths()));
+
+    // the skipped fields are kept as the unmapped data
+    final Map<String, Object> translated = manager.translate(
+      Json5Parser.to("{EventID: 4625, x: {y: [1, 2]}}", manager.projection()));
+
+    Assert.assertEquals(2, translated.get("a"));
+    Assert.assertEquals(
+      Map.of("x", Map.of("y", List.of(1, 2))), translated.get(Dictionary.UNMAPPED));
+
+    // a translator without the source fields may use any field
+    manager.put("any", data -> data);
+    Assert.assertTrue(manager.projection().isAll());
+  }
+
+  @Test
+  public void projectedParser() throws Exception
+  {
+    final Parser parser = manager.project(new Parser()
+    {
+      @Override
+      public Map<String, Object> parse(final String text)
+      {
+        return Json5Parser.to(text);
+      }
+
+      @Override
+      public Parser project(final Projection projection)
+      {
+        return text -> Json5Parser.to(text, projection);
+      }
+    });
+
+    Assert.assertTrue(parser.parse("{level: 1, data: 'x'}").get("data") instanceof RawJson);
+
+    // the parser follows the changes of the translators
+    add("data", "{when: \"data = 'x'\", rules: [{data: {@move: 'id'}}]}");
+    Assert.assertEquals("x", parser.parse("{level: 1, data: 'x'}").get("data"));
+  }
+
+  @Test
+  public void discriminator()
+  {
+    assertDiscriminator("EventID", Set.of("4624"), "EventID = 4624");
+    assertDiscriminator("EventID", Set.of("4624"), "EventID == '4624' and Channel = 'Security'");
+    assertDiscriminator("a.b", Set.of("x", "y"), "a.b = 'X' or a.b = 'y'");
+    assertDiscriminator("id", Set.of("1", "2"), "id in [1, 2]");
+
+    Assert.assertNull(discriminator("EventID != 4624"));
+    Assert.assertNull(discriminator("EventID = 4624 or code = 1"));
+    Assert.assertNull(discriminator("EventID = 5000000000"));
+    Assert.assertNull(discriminator("not (EventID = 4624)"));
+  }
+
+  private void add(final String name, final String rule) throws IOException
+  {
+    manager.addRule(name, null, Json5Parser.to(rule));
+  }
+
+  private Map<String, Object> translate(final String data)
+  {
+    return manager.translate(Json5Parser.to(data));
+  }
+
+  private static void assertDiscriminator(
+    final String field, final Set<String> keys, final String when)
+  {
+    final Tuple<FieldPath, Set<String>> discriminator = discriminator(when);
+
+    Assert.assertNotNull(when, discriminator);
+    Assert.assertEquals(FieldPath.of(field), discriminator.name);
+    Assert.assertEquals(keys, discriminator.value);
+  }
+
+  private static Tuple<FieldPath, Set<String>> discriminator(final String when)
+  {
+    return TranslatorIndex.discriminator(BooleanExpression.parse(when));
+  }
+}
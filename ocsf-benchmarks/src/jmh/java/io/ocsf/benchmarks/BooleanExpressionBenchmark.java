@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.utils.BooleanEvaluator;
+import io.ocsf.utils.BooleanExpression;
+import io.ocsf.utils.BooleanPredicate;
+import io.ocsf.utils.Tree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and evaluation of the rule conditions against the parsed Windows XML 4688 event. The
+ * conditions are evaluated by walking the expression tree, and by the compiled predicate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BooleanExpressionBenchmark
+{
+  @Param({
+    "EventID == '4688' and Channel == 'Security'",
+    "EventData.TargetUserName != null",
+    "EventID in ['4103', '4689'] or EventData.CommandLine contains 'rundll32'"
+  })
+  public String expression;
+
+  private Map<String, Object> data;
+  private Tree                tree;
+  private BooleanPredicate    predicate;
+
+  @Setup
+  public void setup() throws IOException
+  {
+    data      = Examples.json(Examples.WindowsXml, "parsed.json");
+    tree      = BooleanExpression.parse(expression);
+    predicate = BooleanPredicate.compile(tree);
+  }
+
+  @Benchmark
+  public Tree parse()
+  {
+    return BooleanExpression.parse(expression);
+  }
+
+  @Benchmark
+  public boolean evaluate()
+  {
+    return BooleanEvaluator.evaluateIn(tree, data);
+  }
+
+  @Benchmark
+  public boolean predicate()
+  {
+    return predicate.test(data);
+  }
+}
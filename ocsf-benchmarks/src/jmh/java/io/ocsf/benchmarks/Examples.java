@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.utils.Files;
+import io.ocsf.utils.Maps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Access to the benchmark data: the example events and translation rules in
+ * <code>ocsf-cli/src/main/dist/examples</code>, and the downloaded schema.
+ * <p>
+ * The locations are set by the <code>ocsf.examples</code> and <code>ocsf.schema</code> system
+ * properties, the defaults are relative to the <code>ocsf-benchmarks</code> project folder.
+ */
+final class Examples
+{
+  private Examples() {}
+
+  static final String CiscoAsa      = "cisco/asa/111010";
+  static final String WindowsXml    = "microsoft/windows/xml/4688";
+  static final String Multiline     = "microsoft/windows/multiline/4688";
+  static final String ProcessRollup = "crowdstrike/falcon/process_rollup_2";
+
+  /**
+   * Returns the home folder of the examples, which is also the home folder of the rules.
+   */
+  static Path home()
+  {
+    return Paths.get(System.getProperty("ocsf.examples", "../ocsf-cli/src/main/dist/examples"));
+  }
+
+  /**
+   * Returns the path to the schema JSON file.
+   */
+  static Path schema()
+  {
+    return Paths.get(System.getProperty("ocsf.schema", "../ocsf-schema/build/schema.json"));
+  }
+
+  static String read(final String example, final String file) throws IOException
+  {
+    return Files.readFile(home().resolve(example).resolve(file)).trim();
+  }
+
+  static Map<String, Object> json(final String example, final String file) throws IOException
+  {
+    return Files.readJson(home().resolve(example).resolve(file));
+  }
+
+  /**
+   * Returns a deep copy of the event data. The translators and the schema enrichment modify the
+   * data in place, so each benchmark invocation must work on a fresh copy.
+   */
+  static Map<String, Object> copy(final Map<String, Object> data)
+  {
+    final Map<String, Object> map = new HashMap<>((int) (data.size() / 0.75f) + 1);
+    data.forEach((name, value) -> map.put(name, copyValue(value)));
+    return map;
+  }
+
+  private static Object copyValue(final Object value)
+  {
+    if (value instanceof Map<?, ?>)
+      return copy(Maps.typecast(value));
+
+    if (value instanceof List<?>)
+    {
+      final List<?>      list = (List<?>) value;
+      final List<Object> copy = new ArrayList<>(list.size());
+      for (final Object o : list)
+        copy.add(copyValue(o));
+      return copy;
+    }
+
+    return value;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.utils.Json;
+import io.ocsf.utils.JsonWriter;
+import io.ocsf.utils.parsers.Json5Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON parsing and encoding of the example events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonBenchmark
+{
+  @Param({Examples.ProcessRollup + "/raw.json", Examples.WindowsXml + "/ocsf.json"})
+  public String file;
+
+  private String              text;
+  private byte[]              bytes;
+  private Map<String, Object> data;
+
+  private final JsonWriter writer = new JsonWriter();
+
+  @Setup
+  public void setup() throws IOException
+  {
+    final int i = file.lastIndexOf('/');
+
+    text  = Examples.read(file.substring(0, i), file.substring(i + 1));
+    bytes = text.getBytes(StandardCharsets.UTF_8);
+    data  = Json5Parser.to(text);
+  }
+
+  @Benchmark
+  public Object parse()
+  {
+    return Json5Parser.parse(text);
+  }
+
+  @Benchmark
+  public Object parseBytes()
+  {
+    return Json5Parser.parse(bytes);
+  }
+
+  @Benchmark
+  public String toJsonString()
+  {
+    return Json.toString(data);
+  }
+
+  @Benchmark
+  public int write()
+  {
+    return writer.reset().write(data).size();
+  }
+}
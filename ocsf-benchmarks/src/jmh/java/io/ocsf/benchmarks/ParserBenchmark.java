@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.parsers.CiscoSyslogParser;
+import io.ocsf.utils.parsers.CEFParser;
+import io.ocsf.utils.parsers.NameValueParser;
+import io.ocsf.utils.parsers.Parser;
+import io.ocsf.utils.parsers.PatternParser;
+import io.ocsf.utils.parsers.RegexParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text parsers. The pattern and the regex parsers extract the same fields from the Cisco ASA
+ * example event. There are no CEF or name/value examples, these parsers use a typical event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmark
+{
+  private static final String Pattern =
+    "<#{priority: integer}>#{timestamp: string(20)} #{host} : %#{product}-#{level: integer}-" +
+    "#{code: integer}: User '#{username}', running '#{application}' from IP #{ip_addr}, " +
+    "executed '#{cmd}'";
+
+  private static final String Regex =
+    "<(?<priority: integer>\\d+)>(?<timestamp>.{20}) (?<host>\\S+) : %(?<product>[^-]+)-" +
+    "(?<level: integer>\\d+)-(?<code: integer>\\d+): User '(?<username>[^']*)', running " +
+    "'(?<application>[^']*)' from IP (?<ip_addr>\\S+), executed '(?<cmd>.*)'";
+
+  private static final String CEF =
+    "CEF:0|Infoblox|NIOS Threat|8.4.4-386831|120303001|blocklist:foo.foo.foo|7|src=192.168.1.3 " +
+    "spt=63290 dst=192.168.1.2 dpt=53 act=\"DROP\" cat=\"BLOCKLIST UDP FQDN lookup\" nat=0 " +
+    "nfpt=0 nlpt=0 fqdn=foo.foo.foo hit_count=4";
+
+  private static final String NameValue =
+    "date=2023-08-02 time=06:56:06 devname=\"FG-100E\" devid=\"FG100E4Q17000000\" " +
+    "logid=\"0000000013\" type=\"traffic\" subtype=\"forward\" level=\"notice\" vd=\"root\" " +
+    "srcip=10.1.100.11 srcport=58012 srcintf=\"port12\" dstip=172.16.200.55 dstport=80 " +
+    "dstintf=\"port11\" proto=6 action=\"close\" policyid=1 duration=2 sentbyte=412 rcvdbyte=792";
+
+  private String cisco;
+
+  private final Parser pattern = PatternParser.create(Pattern);
+  private final Parser regex   = RegexParser.create(Regex);
+  private final Parser syslog  = new CiscoSyslogParser();
+
+  @Setup
+  public void setup() throws IOException
+  {
+    cisco = Examples.read(Examples.CiscoAsa, "raw.event");
+  }
+
+  @Benchmark
+  public Map<String, Object> pattern() throws Exception
+  {
+    return pattern.parse(cisco);
+  }
+
+  @Benchmark
+  public Map<String, Object> regex() throws Exception
+  {
+    return regex.parse(cisco);
+  }
+
+  @Benchmark
+  public Map<String, Object> ciscoSyslog() throws Exception
+  {
+    return syslog.parse(cisco);
+  }
+
+  @Benchmark
+  public Map<String, Object> cef()
+  {
+    return CEFParser.parse(CEF);
+  }
+
+  @Benchmark
+  public Map<String, Object> nameValue()
+  {
+    return NameValueParser.parse(NameValue);
+  }
+}
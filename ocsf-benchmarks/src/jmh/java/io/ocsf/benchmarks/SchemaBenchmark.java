@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.schema.Schema;
+import io.ocsf.schema.SchemaSnapshot;
+import io.ocsf.schema.SchemaValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema enrichment of the translated example events, with and without the observables.
+ * <p>
+ * The enrichment modifies the event in place, so each invocation enriches a fresh copy of the
+ * event. The <code>copy</code> benchmark measures the copy alone.
+ * <p>
+ * The <code>load</code> benchmarks load the schema from the JSON file and from its binary
+ * snapshot. The <code>validate</code> benchmark validates the enriched event with the schema.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SchemaBenchmark
+{
+  /**
+   * The schema is loaded once, and shared by all benchmark threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Loaded
+  {
+    Schema          schema;
+    SchemaValidator validator;
+
+    @Setup
+    public void setup()
+    {
+      final Path path = Examples.schema();
+      if (!Files.isRegularFile(path))
+        throw new IllegalStateException("Schema file not found: " + path);
+
+      schema    = new Schema(path, true, true);
+      validator = new SchemaValidator(schema);
+    }
+  }
+
+  /**
+   * The binary snapshot of the schema file, compiled once.
+   */
+  @State(Scope.Benchmark)
+  public static class Snapshot
+  {
+    Path snapshot;
+
+    @Setup
+    public void setup() throws IOException
+    {
+      snapshot = Files.createTempFile("schema", ".snapshot");
+      SchemaSnapshot.compile(Examples.schema(), snapshot);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+  @Param({
+    Examples.CiscoAsa + "/ocsf.json",
+    Examples.WindowsXml + "/ocsf.json",
+    Examples.ProcessRollup + "/ocsf.json"
+  })
+  public String event;
+
+  private Map<String, Object> data;
+  private Map<String, Object> enriched;
+
+  @Setup
+  public void setup(final Loaded loaded) throws IOException
+  {
+    final int i = event.lastIndexOf('/');
+
+    data     = Examples.json(event.substring(0, i), event.substring(i + 1));
+    enriched = loaded.schema.enrich(Examples.copy(data), true, false);
+  }
+
+  @Benchmark
+  public Map<String, Object> copy()
+  {
+    return Examples.copy(data);
+  }
+
+  @Benchmark
+  public Map<String, Object> enrich(final Loaded loaded)
+  {
+    return loaded.schema.enrich(Examples.copy(data), true, false);
+  }
+
+  @Benchmark
+  public Map<String, Object> enrichObservables(final Loaded loaded)
+  {
+    return loaded.schema.enrich(Examples.copy(data), true, true);
+  }
+
+  @Benchmark
+  public Map<String, Object> validate(final Loaded loaded)
+  {
+    return loaded.validator.validate(enriched);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Schema load()
+  {
+    return new Schema(Examples.schema(), true, true);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Schema loadSnapshot(final Snapshot snapshot)
+  {
+    return new Schema(snapshot.snapshot, true, true);
+  }
+}
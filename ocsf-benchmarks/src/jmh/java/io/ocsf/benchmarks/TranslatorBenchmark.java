@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.translator.Translator;
+import io.ocsf.translator.TranslatorBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of the parsed example events with their example rules.
+ * <p>
+ * The rules move the fields out of the input data, so each invocation translates a fresh copy of
+ * the event. The <code>copy</code> benchmark measures the copy alone, subtract it from the
+ * <code>translate</code> results. The rules run with each execution backend.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TranslatorBenchmark
+{
+  @Param({
+    Examples.CiscoAsa + "/parsed.json",
+    Examples.WindowsXml + "/parsed.json",
+    Examples.Multiline + "/parsed.json",
+    Examples.ProcessRollup + "/raw.json"
+  })
+  public String event;
+
+  @Param({"Interpreter", "Bytecode", "Specialized"})
+  public TranslatorBuilder.Backend backend;
+
+  private Map<String, Object> data;
+  private Translator          translator;
+
+  @Setup
+  public void setup() throws IOException
+  {
+    final int    i       = event.lastIndexOf('/');
+    final String example = event.substring(0, i);
+
+    data       = Examples.json(example, event.substring(i + 1));
+    translator = TranslatorBuilder.fromFile(
+      Examples.home(), Paths.get(example, "rule.json"), backend);
+
+    if (translator.apply(Examples.copy(data)) == null)
+      throw new IllegalStateException("The rules do not translate the event: " + event);
+  }
+
+  @Benchmark
+  public Map<String, Object> copy()
+  {
+    return Examples.copy(data);
+  }
+
+  @Benchmark
+  public Map<String, Object> translate()
+  {
+    return translator.apply(Examples.copy(data));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.benchmarks;
+
+import io.ocsf.parsers.WindowsMultilineParser;
+import io.ocsf.parsers.WindowsXmlParser;
+import io.ocsf.utils.parsers.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Windows event log parsers, using the XML and the multiline examples of the same events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WindowsParserBenchmark
+{
+  @Param({"4103", "4688", "4689"})
+  public String eventCode;
+
+  private String xml;
+  private String multiline;
+
+  private final Parser xmlParser       = new WindowsXmlParser();
+  private final Parser multilineParser = new WindowsMultilineParser();
+
+  @Setup
+  public void setup() throws IOException
+  {
+    xml       = Examples.read("microsoft/windows/xml/" + eventCode, "raw.xml");
+    multiline = Examples.read("microsoft/windows/multiline/" + eventCode, "raw.event");
+  }
+
+  @Benchmark
+  public Map<String, Object> xml() throws Exception
+  {
+    return xmlParser.parse(xml);
+  }
+
+  @Benchmark
+  public Map<String, Object> multiline() throws Exception
+  {
+    return multilineParser.parse(multiline);
+  }
+}
@@ -19,10 +19,13 @@ package io.ocsf.schema.cli;
 import io.ocsf.parsers.*;
 import io.ocsf.schema.Dictionary;
 import io.ocsf.schema.Schema;
+import io.ocsf.schema.SchemaSnapshot;
+import io.ocsf.schema.SchemaValidator;
 import io.ocsf.schema.Utils;
 import io.ocsf.schema.cli.CommandLineParser.Argument;
 import io.ocsf.translator.Translator;
 import io.ocsf.translator.TranslatorBuilder;
+import io.ocsf.translator.TranslatorProfile;
 import io.ocsf.utils.Files;
 import io.ocsf.utils.FuzzyHashMap;
 import io.ocsf.utils.Json;
@@ -32,6 +35,7 @@ import io.ocsf.utils.parsers.ParserException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.NotDirectoryException;
@@ -61,13 +65,27 @@ public final class Main
 
   private static String schemaUrl = SchemaServices.SCHEMA_URL;
 
+  // the schema server batch validation settings
+  private static int batchSize   = SchemaServices.DEFAULT_BATCH_SIZE;
+  private static int concurrency = SchemaServices.DEFAULT_CONCURRENCY;
+
   // the path to the schema file
   private static Path    schemaFile  = null;
   private static boolean schemaEnums = false;
   private static boolean observables = false;
+  private static boolean inPlace     = false;
+  private static boolean offline     = false;
+
+  // the schema, the validator, and the schema server client, shared by all events
+  private static Schema         schema    = null;
+  private static Validator      validator = null;
+  private static SchemaServices services  = null;
 
   private static boolean verbose = false;
 
+  // the rule profile, when enabled with the -T option
+  private static TranslatorProfile profile = null;
+
   private static final int OK = 0;
 
   private static final FuzzyHashMap<Parser> parsers = Parsers.parsers();
@@ -78,6 +96,16 @@ public final class Main
   private static final String ExampleParser = "-p " + WindowsMultilineParser.SourceType + " ";
   private static final String ExampleRule   = "-R rules -r rule-4103-m ";
 
+  /**
+   * Validates an event, either with the schema server or with the schema file.
+   */
+  @FunctionalInterface
+  private interface Validator
+  {
+    Map<String, Object> validate(Map<String, Object> data)
+      throws IOException, InterruptedException;
+  }
+
   static
   {
     final String helpMsg =
@@ -98,11 +126,23 @@ public final class Main
     clp.add('s', "Schema", "schema.json", "specify the schema file (adds type_uid)");
     clp.add('S', "schema", "schema.json", "specify the schema file (adds type_uid enum text)");
     clp.add('o', "observables", null, "generate the observables (requires schema file)");
+    clp.add('i', "in-place", null, "enrich the translated event in place (requires schema file)");
+    clp.add('T', "profile", null, "print the rule profile after the translation");
+    clp.add('C', "compile", "schema.json",
+            "compile the schema file into a binary snapshot, for a faster -s/-S schema loading");
 
     clp.add("Validation options:\n");
     clp.add('v', "validate", null, "validate one or more events");
     clp.add('u', "url", "url",
             "specify the OCSF schema server URL, default: " + SchemaServices.SCHEMA_URL);
+    clp.add('l', "offline", null,
+            "validate with the schema file (-s/-S) instead of the schema server");
+    clp.add('b', "batch-size", "count",
+            "specify the number of events per schema server request, default: " +
+            SchemaServices.DEFAULT_BATCH_SIZE);
+    clp.add('c', "concurrency", "count",
+            "specify the number of concurrent schema server requests, default: " +
+            SchemaServices.DEFAULT_CONCURRENCY);
 
     clp.add("Other options:\n");
     clp.add('P', "parsers", null, "print the available parsers");
@@ -154,6 +194,11 @@ public final class Main
         "Translate and enrich a single event",
         ExampleRule + "-S schema.json parsed-4103.json\n"
       ));
+    clp.add(
+      formatExample(
+        "Compile the schema into a binary snapshot",
+        "-C schema.json schema.snapshot\n"
+      ));
 
     clp.add(
       formatExample(
@@ -168,7 +213,12 @@ public final class Main
     clp.add(
       formatExample(
         "Validate all events in the data folder",
-        "-v data\n"
+        "-v data"
+      ));
+    clp.add(
+      formatExample(
+        "Validate an event offline, with the schema",
+        "-v -l -s schema.json translated-4103.json\n"
       ));
 
     clp.add(
@@ -210,8 +260,16 @@ public final class Main
       System.exit(1);
     }
 
+    compileSchema(files);
+
     initSchema();
 
+    if (clp.getArg('T').isSet())
+    {
+      // one in 16 evaluations is timed, the matches and the writes are exact
+      profile = new TranslatorProfile();
+    }
+
     parser()
       .ifPresentOrElse(
         p -> parse(p, files, parsed ->
@@ -236,6 +294,8 @@ public final class Main
                   .ifPresentOrElse(
                     v -> validateFiles(v, files),
                     clp::help)));
+
+    printProfile();
   }
 
   private static void printHelp()
@@ -268,6 +328,34 @@ public final class Main
     System.out.println();
   }
 
+  private static void printProfile()
+  {
+    if (profile != null)
+    {
+      System.out.println("// rule profile:");
+      System.out.print(profile.format());
+    }
+  }
+
+  private static void compileSchema(final List<String> files)
+  {
+    final Argument arg = clp.getArg('C');
+    if (arg.isSet())
+    {
+      try
+      {
+        SchemaSnapshot.compile(Paths.get(arg.value()), Paths.get(files.get(0)));
+        System.exit(OK);
+      }
+      catch (final IOException e)
+      {
+        System.err.printf("Unable to compile the schema file: %s: %s%n", arg.value(),
+                          e.getMessage());
+        System.exit(1);
+      }
+    }
+  }
+
   private static void initSchema()
   {
     Argument arg = clp.getArg('s');
@@ -292,6 +380,36 @@ public final class Main
     }
 
     observables = schemaFile != null && clp.getArg('o').isSet();
+    inPlace     = schemaFile != null && clp.getArg('i').isSet();
+    offline     = clp.getArg('l').isSet();
+
+    arg = clp.getArg('b');
+    if (arg.isSet())
+    {
+      batchSize = validateCount(arg.value());
+    }
+
+    arg = clp.getArg('c');
+    if (arg.isSet())
+    {
+      concurrency = validateCount(arg.value());
+    }
+
+    if (offline && schemaFile == null)
+    {
+      System.err.println("Offline validation requires a schema file (-s or -S)");
+      System.exit(2);
+    }
+  }
+
+  private static Schema schema()
+  {
+    if (schema == null)
+    {
+      schema = new Schema(schemaFile, schemaEnums, observables);
+    }
+
+    return schema;
   }
 
   private static Optional<Parser> parser()
@@ -323,10 +441,28 @@ public final class Main
            Optional.empty();
   }
 
-  private static Optional<SchemaServices> validator()
+  private static Optional<Validator> validator()
   {
-    return clp.getArg('v').isSet() ?
-           Optional.of(new SchemaServices(schemaUrl)) : Optional.empty();
+    if (!clp.getArg('v').isSet())
+    {
+      return Optional.empty();
+    }
+
+    if (validator == null)
+    {
+      if (offline)
+      {
+        final SchemaValidator local = new SchemaValidator(schema());
+        validator = local::validate;
+      }
+      else
+      {
+        services  = new SchemaServices(schemaUrl, batchSize, concurrency);
+        validator = data -> services.validate(Json.toString(data));
+      }
+    }
+
+    return Optional.of(validator);
   }
 
   private static void parse(
@@ -394,9 +530,11 @@ public final class Main
     }
   }
 
-  private static void validateFiles(final SchemaServices validator, final List<String> files)
+  private static void validateFiles(final Validator validator, final List<String> files)
   {
-    final List<Map<String, Object>> data = new ArrayList<>();
+    // the events are sent to the schema server in batches, as the files are read
+    final SchemaServices.Batch batch = services != null ? services.batch(printer) : null;
+    final int[]                count = {0};
 
     for (final String schemaFile : files)
     {
@@ -405,33 +543,31 @@ public final class Main
         if (verbose)
           System.out.println("// validate file: " + file);
 
+        final Map<String, Object> data;
         try
         {
-          data.add(Files.readJson(file.toPath()));
+          data = Files.readJson(file.toPath());
         }
         catch (final IOException e)
         {
           System.err.printf("Validate: unable to read file %s: %s%n", file.getName(),
                             e.getMessage());
+          return;
         }
+
+        ++count[0];
+        if (batch != null)
+          add(batch, data);
+        else
+          validate(validator, data);
       });
     }
 
-    // if possible, send a batch of events
-    switch (data.size())
-    {
-      case 0:
-        System.err.println("No data files found");
-        break;
-
-      case 1:
-        validate(validator, data.get(0));
-        break;
+    if (batch != null)
+      close(batch);
 
-      default:
-        validate(validator, data);
-        break;
-    }
+    if (count[0] == 0)
+      System.err.println("No data files found");
   }
 
   private static boolean translate(
@@ -473,11 +609,19 @@ public final class Main
 
       final Translator translator = TranslatorBuilder.fromFile(
         Paths.get(home),
-        Paths.get(file));
+        Paths.get(file),
+        TranslatorBuilder.Backend.Interpreter,
+        profile);
 
       if (schemaFile != null)
       {
-        final Schema schema = new Schema(schemaFile, schemaEnums, observables);
+        final Schema schema = schema();
+
+        if (inPlace)
+        {
+          return data ->
+            Utils.addTypeUid(Utils.addUuid(schema.enrichInPlace(translator.apply(data))));
+        }
 
         return data -> Utils.addTypeUid(Utils.addUuid(schema.enrich(translator.apply(data))));
       }
@@ -514,35 +658,84 @@ public final class Main
     return value;
   }
 
-  private static void validate(final SchemaServices validator, final Map<String, Object> data)
+  private static int validateCount(final String value)
   {
-    final List<Map<String, Object>> dataList = new ArrayList<>();
-    dataList.add(data);
-    validate(validator, dataList);
+    try
+    {
+      final int count = Integer.parseInt(value);
+      if (count > 0)
+        return count;
+    }
+    catch (final NumberFormatException e)
+    {
+      // reported below
+    }
+
+    System.err.printf("Invalid count: %s. It must be a positive number%n", value);
+    System.exit(2);
+    return 0;
   }
 
-  private static void validate(final SchemaServices validator, final List<Map<String, Object>> list)
+  private static void validate(final Validator validator, final Map<String, Object> data)
   {
     try
     {
-      for (final Map<String, Object> item : list)
-      {
-        final Map<String, Object> data = validator.validate(Json.toString(item));
-        Main.printer.accept(data);
-      }
+      Main.printer.accept(validator.validate(data));
     }
     catch (final InterruptedException e)
     {
-      System.err.printf("Validate: schema service has been interrupted: %s%n", e.getMessage());
-      System.exit(4);
+      schemaServiceInterrupted(e);
     }
     catch (final IOException e)
     {
-      System.err.printf("Validate: unable to connect to the schema server: %s%n", e.getMessage());
-      System.exit(4);
+      schemaServiceFailed(e);
     }
   }
 
+  private static void add(final SchemaServices.Batch batch, final Map<String, Object> data)
+  {
+    try
+    {
+      batch.add(data);
+    }
+    catch (final InterruptedException e)
+    {
+      schemaServiceInterrupted(e);
+    }
+    catch (final IOException e)
+    {
+      schemaServiceFailed(e);
+    }
+  }
+
+  private static void close(final SchemaServices.Batch batch)
+  {
+    try
+    {
+      batch.close();
+    }
+    catch (final InterruptedIOException e)
+    {
+      schemaServiceInterrupted(e);
+    }
+    catch (final IOException e)
+    {
+      schemaServiceFailed(e);
+    }
+  }
+
+  private static void schemaServiceInterrupted(final Exception e)
+  {
+    System.err.printf("Validate: schema service has been interrupted: %s%n", e.getMessage());
+    System.exit(4);
+  }
+
+  private static void schemaServiceFailed(final IOException e)
+  {
+    System.err.printf("Validate: unable to connect to the schema server: %s%n", e.getMessage());
+    System.exit(4);
+  }
+
   private static Map<String, Object> readJson(final File filename)
   {
     try
@@ -16,26 +16,54 @@
 
 package io.ocsf.schema.cli;
 
+import io.ocsf.utils.JsonWriter;
+import io.ocsf.utils.Maps;
 import io.ocsf.utils.Strings;
 import io.ocsf.utils.parsers.Json5Parser;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * General interface to the event-schema REST services
+ * <p>
+ * All requests share one HTTP client, so the connections to the server are reused. A
+ * {@link Batch} validates a stream of events: the events are posted in batches of up to
+ * <code>batchSize</code> events, with up to <code>concurrency</code> batches in flight, and the
+ * results are returned in the order of the events.
  */
 public class SchemaServices
 {
   public static final String SCHEMA_URL    = "https://schema.ocsf.io";
   public static final String VALIDATE_PATH = "/api/validate";
 
-  private final String url;
+  public static final int DEFAULT_BATCH_SIZE  = 100;
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ARRAY_END   = "]".getBytes(StandardCharsets.US_ASCII);
+
+  private final URI        uri;
+  private final HttpClient client;
+  private final int        batchSize;
+  private final int        concurrency;
 
   /**
    * Use it to override the default Schema url
@@ -45,7 +73,29 @@ public class SchemaServices
    */
   public SchemaServices(final String url)
   {
-    this.url = Strings.isEmpty(url) ? SCHEMA_URL : url;
+    this(url, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Use it to override the default Schema url and the batch validation settings.
+   *
+   * @param url         replacer url to the event-schema interfaces
+   * @param batchSize   the maximum number of events posted in one request
+   * @param concurrency the maximum number of requests in flight
+   * @see SchemaServices#SCHEMA_URL
+   */
+  public SchemaServices(final String url, final int batchSize, final int concurrency)
+  {
+    if (batchSize < 1)
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+
+    if (concurrency < 1)
+      throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+
+    this.uri         = URI.create((Strings.isEmpty(url) ? SCHEMA_URL : url) + VALIDATE_PATH);
+    this.client      = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    this.batchSize   = batchSize;
+    this.concurrency = concurrency;
   }
 
   /**
@@ -59,33 +109,235 @@ public class SchemaServices
    */
   public Map<String, Object> validate(final String data) throws IOException, InterruptedException
   {
-    final String                    validate_url = this.url + VALIDATE_PATH;
-    final HttpClient                client       = HttpClient.newHttpClient();
-    final HttpRequest.BodyPublisher bp           = HttpRequest.BodyPublishers.ofString(data);
-
-    final HttpRequest request = HttpRequest.newBuilder()
-                                           .uri(URI.create(validate_url))
-                                           .header("Content-Type", "application/json")
-                                           .header("Accept", "application/json")
-                                           .version(HttpClient.Version.HTTP_1_1)
-                                           .POST(bp)
-                                           .build();
-
     final HttpResponse<String> response =
-      client.send(request, HttpResponse.BodyHandlers.ofString());
+      client.send(request(HttpRequest.BodyPublishers.ofString(data)),
+                  HttpResponse.BodyHandlers.ofString());
 
-    final Map<String, Object> jsonObj;
     if (response.statusCode() != 200)
     {
-      jsonObj = new HashMap<>();
-      jsonObj.put("service", "failed");
-      jsonObj.put("code", response.statusCode());
-      jsonObj.put("message", response.body());
+      return failed(response.statusCode(), response.body());
     }
-    else
+
+    return Json5Parser.to(response.body());
+  }
+
+  /**
+   * Returns a new batch validation of a stream of events.
+   *
+   * @param results the consumer of the validation results, called in the order of the events
+   * @return the batch validation
+   */
+  public Batch batch(final Consumer<Map<String, Object>> results)
+  {
+    return new Batch(results);
+  }
+
+  /**
+   * Validates a stream of events, in batches. The events are added with {@link #add(Map)}, and
+   * the results are passed to the consumer as the batches complete, in the order of the events.
+   * The remaining events are validated by {@link #close()}.
+   * <p>
+   * The events are written to the request body while it is sent, so they must not be modified
+   * until their results are returned.
+   * <p>
+   * NOTE: This class is intended for use in a single thread.
+   */
+  public final class Batch implements AutoCloseable
+  {
+    private final Consumer<Map<String, Object>> results;
+
+    // the requests in flight, the oldest first
+    private final ArrayDeque<CompletableFuture<List<Map<String, Object>>>> pending =
+      new ArrayDeque<>();
+
+    private List<Map<String, Object>> events = new ArrayList<>(batchSize);
+
+    private Batch(final Consumer<Map<String, Object>> results)
+    {
+      this.results = results;
+    }
+
+    /**
+     * Adds an event. Posts the batch when it is full, after waiting for the oldest request if
+     * there are too many requests in flight.
+     *
+     * @param event the event to validate
+     * @throws IOException          on http connection failures
+     * @throws InterruptedException the current thread has been interrupted
+     */
+    public void add(final Map<String, Object> event) throws IOException, InterruptedException
     {
-      jsonObj = Json5Parser.to(response.body());
+      events.add(event);
+      if (events.size() == batchSize)
+      {
+        post();
+      }
     }
+
+    /**
+     * Posts the remaining events and waits for all the results.
+     *
+     * @throws IOException            on http connection failures, or an invalid response
+     * @throws InterruptedIOException the current thread has been interrupted, the remaining
+     *                                requests are cancelled and the interrupted flag is set
+     */
+    @Override
+    public void close() throws IOException
+    {
+      try
+      {
+        if (!events.isEmpty())
+        {
+          post();
+        }
+
+        while (!pending.isEmpty())
+        {
+          complete();
+        }
+      }
+      catch (final InterruptedException e)
+      {
+        cancel();
+
+        // restore the interrupted flag
+        Thread.currentThread().interrupt();
+
+        throw (InterruptedIOException) new InterruptedIOException(uri + ": interrupted")
+          .initCause(e);
+      }
+    }
+
+    private void post() throws IOException, InterruptedException
+    {
+      if (pending.size() == concurrency)
+      {
+        complete();
+      }
+
+      final List<Map<String, Object>> batch = events;
+      events = new ArrayList<>(batchSize);
+
+      pending.add(
+        client.sendAsync(request(HttpRequest.BodyPublishers.ofByteArrays(json(batch))),
+                         HttpResponse.BodyHandlers.ofByteArray())
+              .thenApply(response -> results(batch.size(), response)));
+    }
+
+    private void complete() throws IOException, InterruptedException
+    {
+      try
+      {
+        pending.remove().get().forEach(results);
+      }
+      catch (final ExecutionException e)
+      {
+        cancel();
+
+        throw new IOException(uri + ": " + e.getCause(), e.getCause());
+      }
+    }
+
+    private void cancel()
+    {
+      pending.forEach(request -> request.cancel(true));
+      pending.clear();
+    }
+  }
+
+  private HttpRequest request(final HttpRequest.BodyPublisher body)
+  {
+    return HttpRequest.newBuilder()
+                      .uri(uri)
+                      .header("Content-Type", "application/json")
+                      .header("Accept", "application/json")
+                      .POST(body)
+                      .build();
+  }
+
+  /*
+   * Returns the JSON array of the events, written as the HTTP client sends the request body: one
+   * chunk per event, encoded directly to UTF-8.
+   */
+  private static Iterable<byte[]> json(final List<Map<String, Object>> events)
+  {
+    return () -> new Iterator<>()
+    {
+      private final JsonWriter writer = new JsonWriter();
+
+      // the next chunk: -1 is the array start, events.size() is the array end
+      private int next = -1;
+
+      @Override
+      public boolean hasNext()
+      {
+        return next <= events.size();
+      }
+
+      @Override
+      public byte[] next()
+      {
+        if (!hasNext())
+          throw new NoSuchElementException();
+
+        final int i = next++;
+        if (i < 0)
+          return ARRAY_START;
+
+        if (i == events.size())
+          return ARRAY_END;
+
+        // the events after the first one are prefixed by a comma
+        final ByteBuffer json  = writer.reset().write(events.get(i)).buffer();
+        final int        comma = i > 0 ? 1 : 0;
+        final byte[]     chunk = new byte[comma + json.remaining()];
+
+        if (comma > 0)
+          chunk[0] = ',';
+
+        json.get(chunk, comma, json.remaining());
+        return chunk;
+      }
+    };
+  }
+
+  /*
+   * Returns the results of a batch. If the server has not validated the batch, then each event
+   * gets the failure. A successful response that does not have one result per event fails the
+   * batch validation.
+   */
+  private static List<Map<String, Object>> results(
+    final int size, final HttpResponse<byte[]> response)
+  {
+    if (response.statusCode() == 200)
+    {
+      final Object body = Json5Parser.parse(response.body());
+      if (body instanceof List<?> && ((List<?>) body).size() == size)
+      {
+        return Maps.typecast(body);
+      }
+
+      throw new CompletionException(new IOException(
+        "Invalid response: " + size + " events, but " +
+        (body instanceof List<?> ? ((List<?>) body).size() + " results" : "no result array")));
+    }
+
+    final Map<String, Object>       failed  = failed(
+      response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+    final List<Map<String, Object>> results = new ArrayList<>(size);
+
+    for (int i = 0; i < size; ++i)
+      results.add(failed);
+
+    return results;
+  }
+
+  private static Map<String, Object> failed(final int code, final String message)
+  {
+    final Map<String, Object> jsonObj = new HashMap<>();
+    jsonObj.put("service", "failed");
+    jsonObj.put("code", code);
+    jsonObj.put("message", message);
     return jsonObj;
   }
 }
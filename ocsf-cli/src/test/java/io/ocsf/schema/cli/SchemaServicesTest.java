@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.ocsf.utils.Json;
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the schema services client with a local stub of the schema server. The stub returns the
+ * "uid" of each event it has received.
+ */
+public class SchemaServicesTest
+{
+  private static final String UID = "uid";
+
+  private final AtomicInteger requests    = new AtomicInteger();
+  private final AtomicInteger inFlight    = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private volatile int     status = 200;
+  private volatile boolean drop   = false;
+
+  private HttpServer server;
+  private String     url;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(SchemaServices.VALIDATE_PATH, this::validate);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+
+    url = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown()
+  {
+    server.stop(0);
+  }
+
+  @Test
+  public void validate() throws IOException, InterruptedException
+  {
+    final SchemaServices services = new SchemaServices(url);
+
+    Assert.assertEquals("e1", services.validate("{\"uid\": \"e1\"}").get(UID));
+    Assert.assertEquals("e2", services.validate("{\"uid\": \"e2\"}").get(UID));
+    Assert.assertEquals(2, requests.get());
+  }
+
+  @Test
+  public void batch() throws IOException, InterruptedException
+  {
+    final SchemaServices            services = new SchemaServices(url, 4, 3);
+    final List<Map<String, Object>> results  = new ArrayList<>();
+
+    try (final SchemaServices.Batch batch = services.batch(results::add))
+    {
+      for (int i = 0; i < 25; ++i)
+      {
+        batch.add(Map.of(UID, "e" + i, "message", "héllo \"" + i + "\""));
+      }
+    }
+
+    Assert.assertEquals(25, results.size());
+    for (int i = 0; i < 25; ++i)
+    {
+      Assert.assertEquals("e" + i, results.get(i).get(UID));
+    }
+
+    Assert.assertEquals(7, requests.get());
+    Assert.assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void failed() throws IOException, InterruptedException
+  {
+    status = 500;
+
+    final SchemaServices            services = new SchemaServices(url, 2, 2);
+    final List<Map<String, Object>> results  = new ArrayList<>();
+
+    try (final SchemaServices.Batch batch = services.batch(results::add))
+    {
+      for (int i = 0; i < 3; ++i)
+      {
+        batch.add(Map.of(UID, "e" + i));
+      }
+    }
+
+    Assert.assertEquals(3, results.size());
+    for (final Map<String, Object> result : results)
+    {
+      Assert.assertEquals("failed", result.get("service"));
+      Assert.assertEquals(500, result.get("code"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void wrongSize() throws IOException, InterruptedException
+  {
+    // the server returns one result less than the events
+    drop = true;
+
+    try (final SchemaServices.Batch batch = new SchemaServices(url, 2, 2).batch(result -> {}))
+    {
+      for (int i = 0; i < 3; ++i)
+      {
+        batch.add(Map.of(UID, "e" + i));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void unavailable() throws IOException, InterruptedException
+  {
+    server.stop(0);
+
+    try (final SchemaServices.Batch batch = new SchemaServices(url).batch(result -> {}))
+    {
+      batch.add(Map.of(UID, "e0"));
+    }
+  }
+
+  private void validate(final HttpExchange exchange) throws IOException
+  {
+    requests.incrementAndGet();
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+    try
+    {
+      final Object data = Json5Parser.parse(exchange.getRequestBody().readAllBytes());
+
+      // keep the request in flight for a while
+      Thread.sleep(20);
+
+      final Object result;
+      if (data instanceof List<?>)
+      {
+        final List<Map<String, Object>> events = Maps.typecast(data);
+        final List<Object>              list   = new ArrayList<>();
+        for (final Map<String, Object> event : events)
+        {
+          list.add(Map.of(UID, event.get(UID), "error_count", 0));
+        }
+        if (drop)
+          list.remove(list.size() - 1);
+        result = list;
+      }
+      else
+      {
+        result = Map.of(UID, ((Map<?, ?>) data).get(UID), "error_count", 0);
+      }
+
+      final byte[] body = Json.toString(result).getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(status, body.length);
+      try (final OutputStream out = exchange.getResponseBody())
+      {
+        out.write(body);
+      }
+    }
+    catch (final InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    finally
+    {
+      inFlight.decrementAndGet();
+      exchange.close();
+    }
+  }
+}
@@ -19,6 +19,7 @@ package io.ocsf.parsers;
 
 import io.ocsf.utils.parsers.Json5Parser;
 import io.ocsf.utils.parsers.Parser;
+import io.ocsf.utils.parsers.Projection;
 
 import java.util.Map;
 
@@ -35,6 +36,12 @@ public class CarbonBlackParser implements Parser
     return Json5Parser.to(text);
   }
 
+  @Override
+  public Parser project(final Projection projection)
+  {
+    return projection.isAll() ? this : text -> Json5Parser.to(text, projection);
+  }
+
   @Override
   public String toString() {return SourceType;}
 }
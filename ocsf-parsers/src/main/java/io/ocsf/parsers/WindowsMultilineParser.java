@@ -20,6 +20,7 @@ package io.ocsf.parsers;
 import io.ocsf.schema.Dictionary;
 import io.ocsf.utils.Maps;
 import io.ocsf.utils.Strings;
+import io.ocsf.utils.parsers.KeyCanonicalizer;
 import io.ocsf.utils.parsers.Parser;
 
 import java.util.ArrayList;
@@ -73,7 +74,8 @@ public class WindowsMultilineParser implements Parser
     private static final String Context       = "Context:";
     private static final String ScriptBlockID = "ScriptBlock ID:";
 
-    private final char[] buf;
+    private final char[]           buf;
+    private final KeyCanonicalizer keys = KeyCanonicalizer.get();
 
     private int pos     = 0;
     private int dataPos = 0;
@@ -168,7 +170,7 @@ public class WindowsMultilineParser implements Parser
               --i;
 
             namePos = start;
-            return new String(buf, start, i - start).intern();
+            return keys.key(buf, start, i - start);
           }
           else if (dataPos == 0)
           {
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The observables of the event classes, compiled from the schema index.
+ * <p>
+ * Each class has a tree of the attribute paths that can have observables: the attributes with an
+ * observable type, and the objects that have such attributes. The observables of an event are
+ * found by probing only these paths in the event, instead of walking the whole event. The path
+ * names are built once per class, when the tree is expanded.
+ * <p>
+ * The objects can contain each other, so the tree is expanded lazily, as deep as the events go.
+ */
+final class ObservablePaths {
+  private final Map<Integer, String> observableTypes;
+
+  // the objects that have observables, directly or in their nested objects
+  private final Set<SchemaIndex.Type> observableObjects;
+
+  // the class -> the root of the class's paths
+  private final Map<SchemaIndex.Type, Node> classes = new HashMap<>();
+
+  /**
+   * The attribute paths of a class or object, at a given path in the event class.
+   */
+  private static final class Node {
+    private final Root root;
+    private final Probe[] probes;
+    private final Map<String, Probe> byName;
+
+    private Node(
+        final Root root, final String path, final SchemaIndex.Type type,
+        final ObservablePaths paths
+    ) {
+      final List<Probe> list = new ArrayList<>();
+      for (final SchemaIndex.Attribute attribute : type.attributes.values()) {
+        if (!attribute.isEnum) {
+          final Probe probe = new Probe(root, path, attribute);
+          if (probe.typeId != null || paths.hasObservables(root, probe)) {
+            list.add(probe);
+          }
+        }
+      }
+
+      this.root = root;
+      this.probes = list.toArray(new Probe[0]);
+      this.byName = new HashMap<>(probes.length * 2);
+
+      for (final Probe probe : probes) {
+        byName.put(probe.attribute.name, probe);
+      }
+    }
+  }
+
+  /**
+   * The class-specific data of a tree.
+   */
+  private static final class Root {
+    // the class-specific observables: attribute path -> observable type ID, or null
+    private final Map<String, Integer> pathObservables;
+
+    // the objects on the path to a class-specific observable
+    private final Set<String> parents = new HashSet<>();
+
+    private Root(final Map<String, Integer> pathObservables) {
+      this.pathObservables = pathObservables;
+
+      if (pathObservables != null) {
+        for (final String path : pathObservables.keySet()) {
+          for (int dot = path.indexOf('.'); dot > 0; dot = path.indexOf('.', dot + 1)) {
+            parents.add(path.substring(0, dot));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * An attribute that has an observable type, or an object that may have observables.
+   */
+  private static final class Probe {
+    private final SchemaIndex.Attribute attribute;
+    private final String path;
+
+    // the observable type ID of a scalar value, or null
+    private final Integer typeId;
+
+    // the object at this path, expanded on first use
+    private volatile Node object;
+
+    private Probe(final Root root, final String parent, final SchemaIndex.Attribute attribute) {
+      this.attribute = attribute;
+      this.path = parent != null ? parent + "." + attribute.name : attribute.name;
+      this.typeId = attribute.observable != null || root.pathObservables == null ?
+                    attribute.observable : root.pathObservables.get(path);
+    }
+  }
+
+  /**
+   * Compiles the observable paths of the given schema.
+   *
+   * @param index           the schema classes and objects
+   * @param observableTypes the observable type ID -> the observable type name
+   */
+  ObservablePaths(final SchemaIndex index, final Map<Integer, String> observableTypes) {
+    this.observableTypes = observableTypes;
+    this.observableObjects = observableObjects(index.objects.values());
+
+    for (final SchemaIndex.Type type : index.classes.values()) {
+      classes.put(type, new Node(new Root(type.pathObservables), null, type, this));
+    }
+  }
+
+  /**
+   * Returns the observables of the given event.
+   *
+   * @param type      the event class
+   * @param data      the event data
+   * @param typeNames if true, the observables have their type name
+   * @return the observables
+   */
+  List<Map<String, Object>> observables(
+      final SchemaIndex.Type type, final Map<String, Object> data, final boolean typeNames
+  ) {
+    final List<Map<String, Object>> observables = new ArrayList<>();
+    final Node node = classes.get(type);
+    if (node != null) {
+      collect(node, data, typeNames, observables);
+    }
+    return observables;
+  }
+
+  /**
+   * Returns a new observable.
+   *
+   * @param observableTypes the observable type ID -> the observable type name, or null
+   * @param typeId          the observable type ID
+   * @param path            the attribute path
+   * @param value           the attribute value, or null for an object
+   * @return the observable
+   */
+  static Map<String, Object> observable(
+      final Map<Integer, String> observableTypes,
+      final Integer typeId,
+      final String path,
+      final Object value
+  ) {
+    if (observableTypes != null) {
+      final String type = observableTypes.getOrDefault(typeId, Dictionary.OTHER);
+      return value != null ?
+             Map.of(Schema.NAME, path, Schema.TYPE, type, Schema.TYPE_ID, typeId,
+                 Schema.VALUE, value.toString()) :
+             Map.of(Schema.NAME, path, Schema.TYPE, type, Schema.TYPE_ID, typeId);
+    }
+
+    return value != null ?
+           Map.of(Schema.NAME, path, Schema.TYPE_ID, typeId, Schema.VALUE, value.toString()) :
+           Map.of(Schema.NAME, path, Schema.TYPE_ID, typeId);
+  }
+
+  private void collect(
+      final Node node,
+      final Map<String, Object> data,
+      final boolean typeNames,
+      final List<Map<String, Object>> observables
+  ) {
+    // probe the smaller of the two: the event's fields or the paths of the node
+    if (data.size() < node.probes.length) {
+      data.forEach((name, value) -> {
+        final Probe probe = node.byName.get(name);
+        if (probe != null && value != null) {
+          collect(node, probe, value, typeNames, observables);
+        }
+      });
+    } else {
+      for (final Probe probe : node.probes) {
+        final Object value = data.get(probe.attribute.name);
+        if (value != null) {
+          collect(node, probe, value, typeNames, observables);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collect(
+      final Node node,
+      final Probe probe,
+      final Object value,
+      final boolean typeNames,
+      final List<Map<String, Object>> observables
+  ) {
+    final SchemaIndex.Attribute attribute = probe.attribute;
+    final Map<Integer, String> types = typeNames ? observableTypes : null;
+
+    if (value instanceof Map<?, ?>) {
+      if (attribute.objectType != null) {
+        if (attribute.objectType.observable != null) {
+          observables.add(observable(types, attribute.objectType.observable, probe.path, null));
+        }
+        collect(object(node, probe), (Map<String, Object>) value, typeNames, observables);
+      }
+    } else if (value instanceof List<?>) {
+      if (attribute.isArray) {
+        final List<?> list = (List<?>) value;
+        if (!list.isEmpty() && list.get(0) instanceof Map<?, ?>) {
+          if (attribute.objectType != null) {
+            final Node object = object(node, probe);
+            for (final Object element : list) {
+              if (element instanceof Map<?, ?>) {
+                collect(object, (Map<String, Object>) element, typeNames, observables);
+              }
+            }
+          }
+        } else if (probe.typeId != null) {
+          for (final Object element : list) {
+            if (element != null) {
+              observables.add(observable(types, probe.typeId, probe.path, element));
+            }
+          }
+        }
+      }
+    } else if (probe.typeId != null) {
+      observables.add(observable(types, probe.typeId, probe.path, value));
+    }
+  }
+
+  private Node object(final Node node, final Probe probe) {
+    Node object = probe.object;
+    if (object == null) {
+      // a concurrent expansion builds the same node
+      probe.object = object = new Node(node.root, probe.path, probe.attribute.objectType, this);
+    }
+    return object;
+  }
+
+  private boolean hasObservables(final Root root, final Probe probe) {
+    final SchemaIndex.Type object = probe.attribute.objectType;
+    return object != null && (object.observable != null || observableObjects.contains(object) ||
+                              root.parents.contains(probe.path));
+  }
+
+  /*
+   * Returns the objects that have observable attributes or nested objects, directly or in their
+   * nested objects.
+   */
+  private static Set<SchemaIndex.Type> observableObjects(
+      final Collection<SchemaIndex.Type> objects
+  ) {
+    final Set<SchemaIndex.Type> found = new HashSet<>();
+
+    for (boolean changed = true; changed; ) {
+      changed = false;
+      for (final SchemaIndex.Type object : objects) {
+        if (!found.contains(object) && hasObservables(object, found)) {
+          found.add(object);
+          changed = true;
+        }
+      }
+    }
+
+    return found;
+  }
+
+  private static boolean hasObservables(
+      final SchemaIndex.Type type, final Set<SchemaIndex.Type> found
+  ) {
+    for (final SchemaIndex.Attribute attribute : type.attributes.values()) {
+      if (!attribute.isEnum) {
+        final SchemaIndex.Type object = attribute.objectType;
+        if (attribute.observable != null ||
+            object != null && (object.observable != null || found.contains(object))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.ocsf.schema;
 
+import io.ocsf.utils.CompactMap;
 import io.ocsf.utils.Maps;
 import io.ocsf.utils.Strings;
 import java.io.IOException;
@@ -73,6 +74,7 @@ public final class Schema {
   static final String IS_ARRAY = "is_array";
   static final String OBJECT_TYPE = "object_type";
   static final String OBSERVABLE = "observable";
+  static final String REQUIREMENT = "requirement";
 
   // All event classes: class_id -> class definition
   private final Map<Integer, Map<String, Object>> classes;
@@ -89,6 +91,12 @@ public final class Schema {
   // Observable type_id -> String
   private final Map<Integer, String> observableTypes;
 
+  // The classes and objects resolved for the enrichment
+  private final SchemaIndex index;
+
+  // The attribute paths of each class that can have observables
+  private final ObservablePaths observablePaths;
+
   // All event observables: class_id -> observables (name -> observable)
   private final Object lazyLoadGuardClassToObservablesMap = new Object();
   private Map<Integer, List<Map<String, Object>>> _classToObservablesMap;
@@ -103,7 +111,7 @@ public final class Schema {
    * <p>
    * Note: This class caches the entire schema in memory, thus use a single instance per JVM.
    *
-   * @param path the schema JSON file
+   * @param path the schema JSON file, or a {@link SchemaSnapshot} file
    */
   public Schema(final Path path) {
     this(path, false, false);
@@ -114,7 +122,7 @@ public final class Schema {
    * <p>
    * Note: This class caches the entire schema in memory, thus use a single instance per JVM.
    *
-   * @param path                   the schema JSON file
+   * @param path                   the schema JSON file, or a {@link SchemaSnapshot} file
    * @param defaultAddEnumSiblings if true, enhance the event data by adding the enumerated text
    *                               values.
    * @param defaultAddObservables  if true, enhance the event data by adding the observables
@@ -136,13 +144,16 @@ public final class Schema {
 
       if (Files.isRegularFile(path)) {
         try {
-          final Map<String, Map<String, Object>> schema = readJson(path);
+          final Map<String, Map<String, Object>> schema =
+              SchemaSnapshot.isSnapshot(path) ? SchemaSnapshot.read(path) : readJson(path);
 
           this.objects = objects(schema);
           this.classes = classes(schema);
           this.types = types(schema);
           this.dictionaryAttributes = dictionaryAttributes(schema);
           this.observableTypes = observableTypes(objects.get(OBSERVABLE));
+          this.index = new SchemaIndex(classes, objects, types, dictionaryAttributes);
+          this.observablePaths = new ObservablePaths(index, observableTypes);
           // Lazy load this._classToObservablesMap; it takes roughly half the schema load time
           this.schemaLoaded = true;
           return;
@@ -161,6 +172,8 @@ public final class Schema {
     this.types = Collections.emptyMap();
     this.dictionaryAttributes = Collections.emptyMap();
     this.observableTypes = Collections.emptyMap();
+    this.index = SchemaIndex.EMPTY;
+    this.observablePaths = new ObservablePaths(index, observableTypes);
     this._classToObservablesMap = Collections.emptyMap(); // always empty in this case
     this.schemaLoaded = false;
   }
@@ -188,38 +201,70 @@ public final class Schema {
       final Map<String, Object> data, final boolean addEnumSiblings, final boolean addObservables
   ) {
     if (schemaLoaded) {
-      final Map<String, Object> classType = eventClassType(data);
+      final SchemaIndex.Type classType = eventClassType(data);
 
       // Only enrich known event classes
       if (classType != null) {
         Utils.addTypeUid(data);
 
         if (addEnumSiblings || addObservables) {
-          // Class-specific attribute path observables definitions are in the optional
-          // "observables" attributes of each class. It is a map of attribute paths to
-          // observable type_id values.
-          final Map<String, Integer> pathObservables;
-          // The accumulating list of observables
-          final List<Map<String, Object>> observables;
+          final Map<String, Object> enriched = addEnumSiblings ?
+                                               enrich(null, data, classType,
+                                                   new CompactMap(data.size())) :
+                                               new CompactMap(data);
+
           if (addObservables) {
-            pathObservables = Maps.get(classType, Dictionary.OBSERVABLES);
-            observables = new ArrayList<>();
-          } else {
-            pathObservables = null;
-            observables = null;
+            addObservables(classType, data, addEnumSiblings, enriched);
           }
-          final Map<String, Object> enriched = new HashMap<>(data.size());
 
-          enrich(
-              null, pathObservables, data, classType, addEnumSiblings, addObservables,
-              enriched, observables
-          );
+          return enriched;
+        }
+      }
+    }
 
-          if (addObservables && !observables.isEmpty()) {
-            enriched.put(Dictionary.OBSERVABLES, observables);
-          }
+    return data;
+  }
 
-          return enriched;
+  /**
+   * Enriches the event data in place, using the default enrichment configuration.
+   *
+   * @param data the event, must be mutable
+   * @return the given event data
+   */
+  public Map<String, Object> enrichInPlace(final Map<String, Object> data) {
+    return enrichInPlace(data, defaultAddEnumSiblings, defaultAddObservables);
+  }
+
+  /**
+   * Enriches the event data in place, using the loaded schema.
+   * <p>
+   * Unlike {@link #enrich(Map, boolean, boolean)}, the event maps are not copied: the enum
+   * siblings are added to the maps that have the enum attributes, and the observables are added
+   * to the event. The result is the same, except for the order of the keys.
+   *
+   * @param data            the event, the event and its nested objects must be mutable
+   * @param addEnumSiblings if true, enhance the event data by adding the enumerated text values.
+   * @param addObservables  if true, enhance the event data by adding the observables associated
+   *                        with the event.
+   * @return the given event data
+   */
+  public Map<String, Object> enrichInPlace(
+      final Map<String, Object> data, final boolean addEnumSiblings, final boolean addObservables
+  ) {
+    if (schemaLoaded) {
+      final SchemaIndex.Type classType = eventClassType(data);
+
+      // Only enrich known event classes
+      if (classType != null) {
+        Utils.addTypeUid(data);
+
+        // The observables are collected first, the enum siblings are not observables
+        if (addObservables) {
+          addObservables(classType, data, addEnumSiblings, data);
+        }
+
+        if (addEnumSiblings) {
+          enrich(null, data, classType, null);
         }
       }
     }
@@ -227,6 +272,45 @@ public final class Schema {
     return data;
   }
 
+  /*
+   * Adds the observables found in the event data to the enriched event. Only the attribute paths
+   * that can have observables are looked up, see ObservablePaths.
+   */
+  private void addObservables(
+      final SchemaIndex.Type classType,
+      final Map<String, Object> data,
+      final boolean addEnumSiblings,
+      final Map<String, Object> enriched
+  ) {
+    final List<Map<String, Object>> observables =
+        observablePaths.observables(classType, data, addEnumSiblings);
+
+    if (!observables.isEmpty()) {
+      enriched.put(Dictionary.OBSERVABLES, observables);
+    }
+  }
+
+  /**
+   * Returns all event classes: class_id -> class definition.
+   */
+  Map<Integer, Map<String, Object>> allClasses() {
+    return classes;
+  }
+
+  /**
+   * Returns all objects: object_type -> object definition.
+   */
+  Map<String, Map<String, Object>> allObjects() {
+    return objects;
+  }
+
+  /**
+   * Returns all types: type name -> type definition.
+   */
+  Map<String, Map<String, Object>> allTypes() {
+    return types;
+  }
+
   /**
    * Returns the schema class for the given class ID.
    *
@@ -301,16 +385,16 @@ public final class Schema {
   }
 
 
-  private Map<String, Object> eventClassType(final Map<String, Object> data) {
+  private SchemaIndex.Type eventClassType(final Map<String, Object> data) {
     final Object classId = data.get(Dictionary.CLASS_UID);
     if (classId instanceof Integer) {
-      final Map<String, Object> classType = classes.get(((Integer) classId));
+      final SchemaIndex.Type classType = index.classes.get(classId);
 
       if (classType != null) {
         if (logger.isDebugEnabled()) {
           logger.debug(
               "Enriching event of class ID {}: {}",
-              classId, Strings.quote(classType.get(CAPTION))
+              classId, Strings.quote(classes.get(classId).get(CAPTION))
           );
         }
         return classType;
@@ -322,62 +406,47 @@ public final class Schema {
   }
 
   /**
-   * Enrich a class or object, which is passed in via the type parameter. This is a recursive
-   * function using the enriched and observables parameters as accumulators.
+   * Enrich a class or object with the enum siblings, which is passed in via the type parameter.
+   * This is a recursive function using the enriched parameter as accumulator.
    *
    * @param parentAttributePath null or the dotted attribute path from the caller
-   * @param pathObservables     null or the class-specific attribute path observables map
    * @param data                the class event or object instance to enrich
    * @param type                the class or object type information
-   * @param addEnumSiblings     when true, enum sibling text is added to the event
-   * @param addObservables      when true, observables are added to the event
-   * @param enriched            accumulator for the enriched event or object with enum siblings
-   *                            added if addEnumSiblings is true
-   * @param observables         accumulator holding observables generated if the addObservables flag
-   *                            is set; the caller is responsible for adding this to the event
+   * @param enriched            accumulator for the enriched event or object with enum siblings;
+   *                            or null to enrich the data in place
    * @return enriched event or object for this level used for recursive calls to put into
-   * enriched parameter
+   * enriched parameter, or the data when enriched in place
    */
   @SuppressWarnings("unchecked")
   private Map<String, Object> enrich(
       final String parentAttributePath,
-      final Map<String, Integer> pathObservables,
       final Map<String, Object> data,
-      final Map<String, Object> type,
-      final boolean addEnumSiblings,
-      final boolean addObservables,
-      final Map<String, Object> enriched,
-      final List<Map<String, Object>> observables
+      final SchemaIndex.Type type,
+      final Map<String, Object> enriched
   ) {
-    final Map<String, Object> attributes = (Map<String, Object>) type.get(ATTRIBUTES);
+    // The siblings added in place, the data cannot be modified while iterating over it
+    final Map<String, Object> siblings =
+        enriched == null && type.hasEnums ? new CompactMap() : null;
 
     data.forEach((attributeName, value) -> {
-      final String attributePath
-          = parentAttributePath != null ? parentAttributePath + "." + attributeName : attributeName;
-
-      final Map<String, Object> attribute = (Map<String, Object>) attributes.get(attributeName);
-      // Only enrich when this is a known attribute AND it isn't the json_t type.
+      // Only enrich the known attributes, the index does not have the json_t attributes.
       // The json_t type mean any type, and traversing in to it when it is an array or object
       // would confuse the enrichment logic since it would not have a known OCSF attribute type.
-      if (attribute != null && !"json_t".equals(attribute.get(TYPE))) {
-        final Map<String, Object> enumeration = (Map<String, Object>) attribute.get(ENUM);
-
-        if (enumeration != null) {
-          if (addEnumSiblings) {
-            updateEnum(enriched, enumeration, enumSibling(attributeName, attribute), value);
+      final SchemaIndex.Attribute attribute = type.attributes.get(attributeName);
+      if (attribute != null) {
+        if (attribute.isEnum) {
+          if (enriched != null) {
+            updateEnum(enriched, attribute, value);
+          } else if (attribute.sibling != null && !data.containsKey(attribute.sibling)) {
+            updateEnum(siblings, attribute, value);
           }
         } else if (value instanceof Map<?, ?>) {
           value = enrichEmbeddedObject(
-              attributePath, pathObservables,
-              (String) attribute.get(OBJECT_TYPE), (Map<String, Object>) value, addEnumSiblings,
-              addObservables, observables
-          );
+              parentAttributePath, attribute, (Map<String, Object>) value, enriched == null);
         } else if (value instanceof List<?>) {
-          if (Boolean.TRUE.equals(attribute.get(IS_ARRAY))) {
+          if (attribute.isArray) {
             value = enrichEmbeddedArray(
-                attributePath, attribute, attributePath, pathObservables,
-                (List<Object>) value, addEnumSiblings, addObservables, observables
-            );
+                parentAttributePath, attribute, (List<Object>) value, enriched == null);
           } else {
             if (logger.isDebugEnabled()) {
               logger.debug("SCHEMA: Attribute {} is not an array in the schema",
@@ -385,76 +454,60 @@ public final class Schema {
               );
             }
           }
-        } else if (addObservables) {
-          // Generate observable for primitive type
-          final Integer observableTypeID
-              = getObservableTypeID(attributeName, attribute, attributePath, pathObservables);
-          addNewObservable(observables, observableTypeID, attributePath, value, addEnumSiblings);
         }
       }
 
-      enriched.put(attributeName, value);
+      if (enriched != null) {
+        enriched.put(attributeName, value);
+      }
     });
 
+    if (enriched == null) {
+      if (siblings != null && !siblings.isEmpty()) {
+        data.putAll(siblings);
+      }
+      return data;
+    }
+
     return enriched;
   }
 
+  private static String path(final String parentAttributePath, final String attributeName) {
+    return parentAttributePath != null ? parentAttributePath + "." + attributeName : attributeName;
+  }
+
   private static void updateEnum(
-      final Map<String, Object> enriched, final Map<String, Object> enumeration, final String name,
-      final Object value
+      final Map<String, Object> enriched, final SchemaIndex.Attribute attribute, final Object value
   ) {
+    final String name = attribute.sibling;
     if (name != null && !enriched.containsKey(name)) {
-      Maps.put(enriched, name, Maps.getIn(enumeration, String.valueOf(value), CAPTION));
+      Maps.put(enriched, name, attribute.caption(value));
     }
   }
 
-
-  private static String enumSibling(final String name, final Map<String, Object> enumeration) {
-    final String key = (String) enumeration.get(ENUM_SIBLING);
-    if (key == null) {
-      final int pos = name.indexOf(ENUM_SUFFIX);
-      return pos > 0 ? name.substring(0, pos) : null;
-    }
-
-    return key;
-  }
-
   private Object enrichEmbeddedObject(
-      final String attributePath,
-      final Map<String, Integer> pathObservables,
-      final String objectType,
+      final String parentAttributePath,
+      final SchemaIndex.Attribute attribute,
       final Map<String, Object> value,
-      final boolean addEnumSiblings,
-      final boolean addObservables,
-      final List<Map<String, Object>> observables
+      final boolean inPlace
   ) {
-    if (objectType != null) {
-      final Map<String, Object> object = objects.get(objectType);
-      if (object != null) {
-        if (logger.isTraceEnabled()) {
-          logger.trace(
-              "Embedded object - attribute path: {}, object type: {}",
-              Strings.quote(attributePath), Strings.quote(objectType)
-          );
-        }
-
-        if (addObservables) {
-          addNewObservable(
-              observables, (Integer) object.get(OBSERVABLE), attributePath, addEnumSiblings
-          );
-        }
+    final String attributePath = path(parentAttributePath, attribute.name);
+    final SchemaIndex.Type object = attribute.objectType;
+    if (object != null) {
+      if (logger.isTraceEnabled()) {
+        logger.trace(
+            "Embedded object - attribute path: {}, object type: {}",
+            Strings.quote(attributePath), Strings.quote(object.name)
+        );
+      }
 
-        return enrich(
-            attributePath, pathObservables, value, object, addEnumSiblings, addObservables,
-            new HashMap<>(value.size()), observables
+      return enrich(attributePath, value, object, inPlace ? null : new CompactMap(value.size()));
+    } else if (attribute.objectTypeName != null) {
+      if (logger.isDebugEnabled()) {
+        logger.debug(
+            "SCHEMA: Attribute {} has invalid object type: {}",
+            Strings.quote(attributePath), Strings.quote(attribute.objectTypeName)
         );
-      } else {
-        if (logger.isDebugEnabled()) {
-          logger.debug(
-              "SCHEMA: Attribute {} has invalid object type: {}",
-              Strings.quote(attributePath), Strings.quote(objectType)
-          );
-        }
       }
     } else {
       if (logger.isDebugEnabled()) {
@@ -470,159 +523,55 @@ public final class Schema {
 
   @SuppressWarnings("unchecked")
   private Object enrichEmbeddedArray(
-      final String attributeName,
-      final Map<String, Object> attribute,
-      final String attributePath,
-      final Map<String, Integer> pathObservables,
+      final String parentAttributePath,
+      final SchemaIndex.Attribute attribute,
       final List<Object> list,
-      final boolean addEnumSiblings,
-      final boolean addObservables,
-      final List<Map<String, Object>> observables
+      final boolean inPlace
   ) {
     if (!list.isEmpty() && list.get(0) instanceof Map<?, ?>) {
-      final String objectType = (String) attribute.get(OBJECT_TYPE);
-      if (objectType != null) {
-        final Map<String, Object> object = objects.get(objectType);
-        if (object != null) {
-          final ArrayList<Map<String, Object>> array = new ArrayList<>(list.size());
-
-          if (logger.isTraceEnabled()) {
-            logger.trace(
-                "Embedded array - attribute path: {}, object type: {}",
-                Strings.quote(attributePath), Strings.quote(objectType)
-            );
-          }
+      final String attributePath = path(parentAttributePath, attribute.name);
+      final SchemaIndex.Type object = attribute.objectType;
+      if (object != null) {
+        if (logger.isTraceEnabled()) {
+          logger.trace(
+              "Embedded array - attribute path: {}, object type: {}",
+              Strings.quote(attributePath), Strings.quote(object.name)
+          );
+        }
 
-          list.forEach(i -> {
-            final Map<String, Object> o = (Map<String, Object>) i;
+        if (inPlace) {
+          list.forEach(i -> enrich(attributePath, (Map<String, Object>) i, object, null));
+          return list;
+        }
 
-            array.add(
-                enrich(
-                    attributeName, pathObservables, o, object, addEnumSiblings, addObservables,
-                    new HashMap<>(o.size()), observables
-                ));
-          });
+        final ArrayList<Map<String, Object>> array = new ArrayList<>(list.size());
 
-          return array;
-        } else {
-          if (logger.isDebugEnabled()) {
-            logger.debug(
-                "SCHEMA: Attribute {} has invalid object type: {}",
-                Strings.quote(attributeName), Strings.quote(objectType)
-            );
-          }
+        list.forEach(i -> {
+          final Map<String, Object> o = (Map<String, Object>) i;
+          array.add(enrich(attributePath, o, object, new CompactMap(o.size())));
+        });
+
+        return array;
+      } else if (attribute.objectTypeName != null) {
+        if (logger.isDebugEnabled()) {
+          logger.debug(
+              "SCHEMA: Attribute {} has invalid object type: {}",
+              Strings.quote(attributePath), Strings.quote(attribute.objectTypeName)
+          );
         }
       } else {
         if (logger.isDebugEnabled()) {
           logger.debug(
               "SCHEMA: Array {} type is not an object in the schema",
-              Strings.quote(attributeName)
+              Strings.quote(attributePath)
           );
         }
       }
-    } else {
-      // Generate observables for primitive types in array
-      if (addObservables) {
-        final Integer observableTypeID = getObservableTypeID(
-            attributeName, attribute, attributePath, pathObservables);
-        if (observableTypeID != null) {
-          list.forEach(
-              value -> addNewObservable(
-                  observables, observableTypeID, attributePath, value, addEnumSiblings
-              ));
-        }
-      }
     }
 
     return list;
   }
 
-  private Integer getObservableTypeID(
-      final String attributeName,
-      final Map<String, Object> attribute,
-      final String attributePath,
-      final Map<String, Integer> pathObservables
-  ) {
-    // First, look for observable type_id by attribute type
-    final Object attributeTypeName = attribute.get(TYPE);
-    if (attributeTypeName instanceof String) {
-      final Map<String, Object> attributeType = types.get(attributeTypeName);
-      if (attributeType != null) {
-        final Object observableTypeID = attributeType.get(OBSERVABLE);
-        if (observableTypeID instanceof Integer) {
-          if (logger.isTraceEnabled()) {
-            logger.trace(
-                "getObservableTypeID - observable by attribute type {} for {}"
-                    + " on attribute path {}: {}",
-                Strings.quote(attributeTypeName), Strings.quote(attributeName),
-                Strings.quote(attributePath), observableTypeID
-            );
-          }
-          return (Integer) observableTypeID;
-        } else if (observableTypeID != null) {
-          logger.debug("SCHEMA: Attribute type has invalid \"observable\": {}", attributeType);
-        }
-      } else if (logger.isDebugEnabled()) {
-        logger.debug(
-            "SCHEMA: Attribute {} has an invalid type: {}",
-            Strings.quote(attributeName), attributeTypeName
-        );
-      }
-    } else if (logger.isDebugEnabled()) {
-      logger.debug("SCHEMA: Attribute {} does not have type", Strings.quote(attributeName));
-    }
-
-    // Second, look for observable type_id by dictionary attribute
-    final Object typeIDByDictionaryAttribute
-        = Maps.getIn(dictionaryAttributes, attributeName, OBSERVABLE);
-    if (typeIDByDictionaryAttribute instanceof Integer) {
-      if (logger.isTraceEnabled()) {
-        logger.trace("getObservableTypeID - observable by dictionary attribute {}: {}",
-            Strings.quote(attributeName), typeIDByDictionaryAttribute
-        );
-      }
-      return (Integer) typeIDByDictionaryAttribute;
-    } else if (typeIDByDictionaryAttribute != null && logger.isDebugEnabled()) {
-      logger.debug(
-          "SCHEMA: Dictionary attribute {} has an invalid \"observable\": {}",
-          Strings.quote(attributeName), typeIDByDictionaryAttribute
-      );
-    }
-
-    // Third, look for observable type_id by type-specific attribute (class / object specific)
-    final Object typeIDByAttribute = attribute.get(OBSERVABLE);
-    if (typeIDByAttribute instanceof Integer) {
-      if (logger.isTraceEnabled()) {
-        logger.trace(
-            "getObservableTypeID - observable for {} on attribute path {}: {}",
-            Strings.quote(attributeName), Strings.quote(attributePath), typeIDByAttribute
-        );
-      }
-      return (Integer) typeIDByAttribute;
-    } else if (typeIDByAttribute != null && logger.isDebugEnabled()) {
-      logger.debug(
-          "SCHEMA: Attribute {} has an invalid \"observable\": {}",
-          Strings.quote(attributeName), typeIDByAttribute
-      );
-    }
-
-    // Third, look for observable by class-path attribute path
-    if (pathObservables != null) {
-      final Integer typeIDByPath = pathObservables.get(attributePath);
-      if (typeIDByPath != null) {
-        if (logger.isTraceEnabled()) {
-          logger.trace(
-              "getObservableTypeID - class-specific observable for {} on attribute path {}: {}",
-              Strings.quote(attributeName), Strings.quote(attributePath), typeIDByPath
-          );
-        }
-        return typeIDByPath;
-      }
-    }
-
-    return null;
-  }
-
   private void addNewObservable(
       final List<Map<String, Object>> observables,
       final Integer typeId,
@@ -630,47 +579,8 @@ public final class Schema {
       final boolean addEnumSiblings
   ) {
     if (typeId != null) {
-      if (addEnumSiblings) {
-        observables.add(
-            Map.of(
-                NAME, attributePath,
-                TYPE, observableTypes.getOrDefault(typeId, Dictionary.OTHER),
-                TYPE_ID, typeId
-            )
-        );
-      } else {
-        observables.add(
-            Map.of(
-                NAME, attributePath,
-                TYPE_ID, typeId
-            )
-        );
-      }
-    }
-  }
-
-  private void addNewObservable(
-      final List<Map<String, Object>> observables, final Integer typeId, final String attributePath,
-      final Object value, final boolean addEnumSiblings
-  ) {
-    if (typeId != null && value != null) {
-      if (addEnumSiblings) {
-        observables.add(
-            Map.of(
-                NAME, attributePath,
-                TYPE, observableTypes.getOrDefault(typeId, Dictionary.OTHER),
-                TYPE_ID, typeId,
-                VALUE, value.toString()
-            )
-        );
-      } else {
-        observables.add(
-            Map.of(
-                NAME, attributePath, TYPE_ID,
-                typeId, VALUE, value.toString()
-            )
-        );
-      }
+      observables.add(ObservablePaths.observable(
+          addEnumSiblings ? observableTypes : null, typeId, attributePath, null));
     }
   }
 
@@ -706,34 +616,30 @@ public final class Schema {
         = (Map<String, Map<String, Object>>) type.get(Schema.ATTRIBUTES);
     attributes.forEach((name, attribute) -> {
       final String path = parent != null ? parent + "." + name : name;
-      if (Boolean.TRUE.equals(attribute.get(Schema.IS_ARRAY))) {
-        // TODO: for now, ignore the arrays
-        logger.debug("Array {} of {}", path, attribute.get(Schema.OBJECT_TYPE));
+      // The arrays are included, the array elements have the path of the array
+      final String objectType = (String) attribute.get(Schema.OBJECT_TYPE);
+      if (objectType != null) {
+        buildClassToObservablesMapForObject(path, objects.get(objectType), classToObservables);
       } else {
-        final String objectType = (String) attribute.get(Schema.OBJECT_TYPE);
-        if (objectType != null) {
-          buildClassToObservablesMapForObject(path, objects.get(objectType), classToObservables);
-        } else {
-          final String attrType = (String) attribute.get(Schema.TYPE);
-          if (attrType != null) {
-            final Map<String, Object> typeObj = types.get(attrType);
-            if (typeObj != null) {
-              addNewObservable(
-                  classToObservables, (Integer) typeObj.get(Schema.OBSERVABLE),
-                  path, defaultAddEnumSiblings
-              );
-            } else {
-              logger.warn(
-                  "SCHEMA: Attribute {} in class {} has an invalid type: {}",
-                  Strings.quote(name), Strings.quote(type.get(Schema.CAPTION)), attrType
-              );
-            }
+        final String attrType = (String) attribute.get(Schema.TYPE);
+        if (attrType != null) {
+          final Map<String, Object> typeObj = types.get(attrType);
+          if (typeObj != null) {
+            addNewObservable(
+                classToObservables, (Integer) typeObj.get(Schema.OBSERVABLE),
+                path, defaultAddEnumSiblings
+            );
           } else {
             logger.warn(
-                "SCHEMA: Attribute {} in class {} does not have type",
-                Strings.quote(name), Strings.quote(type.get(Schema.CAPTION))
+                "SCHEMA: Attribute {} in class {} has an invalid type: {}",
+                Strings.quote(name), Strings.quote(type.get(Schema.CAPTION)), attrType
             );
           }
+        } else {
+          logger.warn(
+              "SCHEMA: Attribute {} in class {} does not have type",
+              Strings.quote(name), Strings.quote(type.get(Schema.CAPTION))
+          );
         }
       }
     });
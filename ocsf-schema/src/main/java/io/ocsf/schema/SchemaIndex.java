@@ -0,0 +1,338 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.Strings;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The schema classes and objects resolved for the enrichment.
+ * <p>
+ * Each class and object has a table of its attributes. An attribute descriptor holds everything
+ * the enrichment needs: the resolved object type, the enum sibling name and captions, and the
+ * observable type ID. The enrichment does one table lookup per attribute, instead of walking the
+ * schema maps.
+ * <p>
+ * The index is built once, when the schema is loaded, and is not modified afterward.
+ */
+final class SchemaIndex {
+  private static final Logger logger = LogManager.getLogger(SchemaIndex.class);
+
+  // the enum values below this limit have their caption in an array
+  private static final int MaxArrayCaptions = 256;
+
+  private static final String JSON_TYPE = "json_t";
+
+  static final SchemaIndex EMPTY = new SchemaIndex(
+      Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(),
+      Collections.emptyMap()
+  );
+
+  /**
+   * A schema class or object.
+   */
+  static final class Type {
+    final String name;
+
+    // the known attributes, without the json_t attributes
+    final Map<String, Attribute> attributes = new HashMap<>();
+
+    // the observable type ID of an object, or null
+    final Integer observable;
+
+    // the class-specific observables: attribute path -> observable type ID, or null
+    final Map<String, Integer> pathObservables;
+
+    // true if an attribute is an enum, set when the attributes are added
+    boolean hasEnums;
+
+    private Type(final String name, final Map<String, Object> type) {
+      final Object observable = type.get(Schema.OBSERVABLE);
+
+      this.name = name;
+      this.observable = observable instanceof Integer ? (Integer) observable : null;
+      this.pathObservables = Maps.typecast(type.get(Dictionary.OBSERVABLES));
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * An attribute of a schema class or object.
+   */
+  static final class Attribute {
+    final String name;
+    final boolean isEnum;
+    final boolean isArray;
+
+    // the enum sibling name, or null
+    final String sibling;
+
+    // the object type name and the resolved object type, or null
+    final String objectTypeName;
+    final Type objectType;
+
+    // the observable type ID by attribute type, dictionary attribute, or attribute, or null
+    final Integer observable;
+
+    // the enum captions: by integer value, and by string value
+    private final Object[] captions;
+    private final Map<String, Object> captionsByName;
+
+    private Attribute(
+        final String name,
+        final Map<String, Object> attribute,
+        final Type objectType,
+        final Integer observable
+    ) {
+      final Map<String, Object> enumeration = Maps.typecast(attribute.get(Schema.ENUM));
+
+      this.name = name;
+      this.isEnum = enumeration != null;
+      this.isArray = Boolean.TRUE.equals(attribute.get(Schema.IS_ARRAY));
+      this.sibling = isEnum ? sibling(name, attribute) : null;
+      this.objectTypeName = (String) attribute.get(Schema.OBJECT_TYPE);
+      this.objectType = objectType;
+      this.observable = observable;
+
+      if (enumeration != null) {
+        this.captionsByName = new HashMap<>(enumeration.size());
+        this.captions = captions(enumeration, captionsByName);
+      } else {
+        this.captionsByName = Collections.emptyMap();
+        this.captions = new Object[0];
+      }
+    }
+
+    /**
+     * Returns the enum caption of the given value.
+     *
+     * @param value the enum value
+     * @return the caption, or null if the value is not defined by the enum
+     */
+    Object caption(final Object value) {
+      if (value instanceof Integer) {
+        final int i = (Integer) value;
+        if (i >= 0 && i < captions.length) {
+          return captions[i];
+        }
+      }
+      return captionsByName.get(String.valueOf(value));
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+
+    private static String sibling(final String name, final Map<String, Object> attribute) {
+      final String key = (String) attribute.get(Schema.ENUM_SIBLING);
+      if (key == null) {
+        final int pos = name.indexOf(Schema.ENUM_SUFFIX);
+        return pos > 0 ? name.substring(0, pos) : null;
+      }
+
+      return key;
+    }
+
+    private static Object[] captions(
+        final Map<String, Object> enumeration, final Map<String, Object> byName
+    ) {
+      Object[] captions = new Object[0];
+
+      for (final Map.Entry<String, Object> entry : enumeration.entrySet()) {
+        final Object caption = entry.getValue() instanceof Map<?, ?> ?
+                               ((Map<?, ?>) entry.getValue()).get(Schema.CAPTION) : null;
+        if (caption == null) {
+          continue;
+        }
+
+        final String key = entry.getKey();
+        byName.put(key, caption);
+
+        // only the canonical integer strings, "1" but not "01", are the same as the integer
+        final int id = id(key);
+        if (id >= 0) {
+          if (id >= captions.length) {
+            captions = Arrays.copyOf(captions, id + 1);
+          }
+          captions[id] = caption;
+        }
+      }
+
+      return captions;
+    }
+
+    // the integer value of a canonical key below MaxArrayCaptions, or -1
+    private static int id(final String key) {
+      final int length = key.length();
+      if (length == 0 || length > 3 || length > 1 && key.charAt(0) == '0') {
+        return -1;
+      }
+
+      int id = 0;
+      for (int i = 0; i < length; ++i) {
+        final char c = key.charAt(i);
+        if (c < '0' || c > '9') {
+          return -1;
+        }
+        id = id * 10 + (c - '0');
+      }
+
+      return id < MaxArrayCaptions ? id : -1;
+    }
+  }
+
+  // class_uid -> class
+  final Map<Integer, Type> classes;
+
+  // object name -> object
+  final Map<String, Type> objects;
+
+  private final Map<String, Map<String, Object>> types;
+  private final Map<String, Map<String, Object>> dictionaryAttributes;
+
+  /**
+   * Builds the index of the given schema.
+   *
+   * @param classes              the schema classes by class_uid
+   * @param objects              the schema objects by name
+   * @param types                the schema types by name
+   * @param dictionaryAttributes the schema dictionary attributes by name
+   */
+  SchemaIndex(
+      final Map<Integer, Map<String, Object>> classes,
+      final Map<String, Map<String, Object>> objects,
+      final Map<String, Map<String, Object>> types,
+      final Map<String, Map<String, Object>> dictionaryAttributes
+  ) {
+    this.types = types;
+    this.dictionaryAttributes = dictionaryAttributes;
+    this.objects = new HashMap<>(objects.size());
+    this.classes = new HashMap<>(classes.size());
+
+    // first the types, then their attributes: the objects can refer to each other
+    objects.forEach((name, object) -> this.objects.put(name, new Type(name, object)));
+    classes.forEach((uid, type) -> this.classes.put(uid, new Type(name(type, uid), type)));
+
+    objects.forEach((name, object) -> addAttributes(this.objects.get(name), object));
+    classes.forEach((uid, type) -> addAttributes(this.classes.get(uid), type));
+  }
+
+  private void addAttributes(final Type type, final Map<String, Object> definition) {
+    final Map<String, Map<String, Object>> attributes =
+        Maps.typecast(definition.get(Schema.ATTRIBUTES));
+
+    if (attributes == null) {
+      logger.warn("SCHEMA: {} does not have attributes", Strings.quote(type.name));
+      return;
+    }
+
+    attributes.forEach((name, attribute) -> {
+      // The json_t type means any type, and is not enriched
+      if (attribute != null && !JSON_TYPE.equals(attribute.get(Schema.TYPE))) {
+        final Attribute descriptor = new Attribute(
+            name, attribute, objectType(type, name, attribute), observable(name, attribute));
+
+        type.attributes.put(name, descriptor);
+        type.hasEnums |= descriptor.isEnum;
+      }
+    });
+  }
+
+  private Type objectType(
+      final Type type, final String name, final Map<String, Object> attribute
+  ) {
+    final String objectType = (String) attribute.get(Schema.OBJECT_TYPE);
+    if (objectType == null) {
+      return null;
+    }
+
+    final Type object = objects.get(objectType);
+    if (object == null && logger.isDebugEnabled()) {
+      logger.debug(
+          "SCHEMA: Attribute {} in {} has invalid object type: {}",
+          Strings.quote(name), Strings.quote(type.name), Strings.quote(objectType)
+      );
+    }
+
+    return object;
+  }
+
+  /*
+   * Returns the observable type ID of an attribute: by attribute type, by dictionary attribute,
+   * or by class or object attribute. The class-specific observables depend on the attribute path,
+   * and are looked up during the enrichment.
+   */
+  private Integer observable(final String name, final Map<String, Object> attribute) {
+    final Object attributeTypeName = attribute.get(Schema.TYPE);
+    if (attributeTypeName instanceof String) {
+      final Map<String, Object> attributeType = types.get(attributeTypeName);
+      if (attributeType != null) {
+        final Object observable = attributeType.get(Schema.OBSERVABLE);
+        if (observable instanceof Integer) {
+          return (Integer) observable;
+        } else if (observable != null) {
+          logger.debug("SCHEMA: Attribute type has invalid \"observable\": {}", attributeType);
+        }
+      } else if (logger.isDebugEnabled()) {
+        logger.debug(
+            "SCHEMA: Attribute {} has an invalid type: {}",
+            Strings.quote(name), attributeTypeName
+        );
+      }
+    } else if (logger.isDebugEnabled()) {
+      logger.debug("SCHEMA: Attribute {} does not have type", Strings.quote(name));
+    }
+
+    final Object byDictionaryAttribute = Maps.getIn(dictionaryAttributes, name, Schema.OBSERVABLE);
+    if (byDictionaryAttribute instanceof Integer) {
+      return (Integer) byDictionaryAttribute;
+    } else if (byDictionaryAttribute != null && logger.isDebugEnabled()) {
+      logger.debug(
+          "SCHEMA: Dictionary attribute {} has an invalid \"observable\": {}",
+          Strings.quote(name), byDictionaryAttribute
+      );
+    }
+
+    final Object byAttribute = attribute.get(Schema.OBSERVABLE);
+    if (byAttribute instanceof Integer) {
+      return (Integer) byAttribute;
+    } else if (byAttribute != null && logger.isDebugEnabled()) {
+      logger.debug(
+          "SCHEMA: Attribute {} has an invalid \"observable\": {}",
+          Strings.quote(name), byAttribute
+      );
+    }
+
+    return null;
+  }
+
+  private static String name(final Map<String, Object> type, final Integer uid) {
+    final Object name = type.get(Schema.NAME);
+    return name != null ? name.toString() : String.valueOf(uid);
+  }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Files;
+import io.ocsf.utils.Maps;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A compact binary snapshot of the OCSF schema, for a fast schema loading.
+ * <p>
+ * The snapshot has the parts of the schema used by {@link Schema}: the classes, objects, and
+ * their attributes, the types, and the dictionary attributes. The descriptions, and the other
+ * properties not used by the enrichment, are not in the snapshot.
+ * <p>
+ * The layout of a snapshot, all integers are 4 bytes, big-endian:
+ * <pre>
+ *   header:     magic "OCSB", version
+ *   strings:    count, then count x (length, UTF-8 bytes)
+ *   types:      count, then count x (name, type, observable)
+ *   dictionary: count, then count x (name, type, observable)
+ *   objects:    count, then count x (name, caption, observable, attributes)
+ *   classes:    count, then count x (name, caption, uid, observables, attributes)
+ *
+ *   observables: count, then count x (path, observable type ID)
+ *   attributes:  count, then count x attribute
+ *   attribute:   name, type, object_type, sibling, requirement, is_array, observable, enum
+ *   enum:        count, or -1 if not an enum, then count x (value, caption)
+ * </pre>
+ * The strings are indexes in the string table, -1 for null. A missing number is -1.
+ * <p>
+ * The records have a variable length, so the snapshot is read sequentially: the file is
+ * memory-mapped and decoded into the same maps as the schema JSON file, without parsing text. The
+ * maps keep the order of the schema file. The counts and the string indexes are validated
+ * against the size of the snapshot, so a corrupted snapshot fails with an {@link IOException}.
+ */
+public final class SchemaSnapshot {
+  private static final int MAGIC = 0x4F435342; // "OCSB"
+  private static final int VERSION = 2;
+
+  private static final int NULL = -1;
+
+  private SchemaSnapshot() {}
+
+  /**
+   * Compiles a schema JSON file into a binary snapshot.
+   *
+   * @param schema   the schema JSON file
+   * @param snapshot the snapshot file, replaced if it exists
+   * @throws IOException unable to read the schema or to write the snapshot
+   */
+  public static void compile(final Path schema, final Path snapshot) throws IOException {
+    final Map<String, Object> json = Files.readJson(schema);
+
+    try (final OutputStream out = new BufferedOutputStream(java.nio.file.Files.newOutputStream(
+        snapshot, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE))) {
+      write(json, out);
+    }
+  }
+
+  /**
+   * Returns true if the given file is a schema snapshot.
+   *
+   * @param path the file
+   * @return true if the file starts with the snapshot magic number
+   * @throws IOException unable to read the file
+   */
+  public static boolean isSnapshot(final Path path) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+      return channel.read(header) == Integer.BYTES && header.getInt(0) == MAGIC;
+    }
+  }
+
+  /**
+   * Writes the binary snapshot of a schema.
+   *
+   * @param schema the schema, as read from the schema JSON file
+   * @param out    the output stream
+   * @throws IOException unable to write the snapshot
+   */
+  static void write(final Map<String, Object> schema, final OutputStream out) throws IOException {
+    final Writer writer = new Writer();
+
+    writer.types(Maps.typecast(schema.get("types")));
+    writer.types(Maps.typecast(schema.get("dictionary_attributes")));
+    writer.objects(Maps.typecast(schema.get("objects")));
+    writer.classes(Maps.typecast(schema.get("classes")));
+
+    final DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(writer.strings.size());
+    for (final String s : writer.strings.keySet()) {
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+    writer.body.flush();
+    writer.bytes.writeTo(data);
+    data.flush();
+  }
+
+  /**
+   * Reads a schema snapshot.
+   *
+   * @param path the snapshot file
+   * @return the schema, in the same form as the schema JSON file
+   * @throws IOException unable to read the file, or the file is not a valid snapshot
+   */
+  static Map<String, Map<String, Object>> read(final Path path) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads a schema snapshot.
+   *
+   * @param buffer the snapshot
+   * @return the schema, in the same form as the schema JSON file
+   * @throws IOException the buffer is not a valid snapshot
+   */
+  static Map<String, Map<String, Object>> read(final ByteBuffer buffer) throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a schema snapshot");
+      }
+
+      final int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported schema snapshot version: " + version);
+      }
+
+      final Reader reader = new Reader(buffer);
+      final Map<String, Map<String, Object>> schema = new HashMap<>();
+
+      schema.put("types", Maps.typecast(reader.types()));
+      schema.put("dictionary_attributes", Maps.typecast(reader.types()));
+      schema.put("objects", Maps.typecast(reader.objects()));
+      schema.put("classes", Maps.typecast(reader.classes()));
+
+      return schema;
+    } catch (final BufferUnderflowException e) {
+      throw new IOException("Invalid schema snapshot: truncated", e);
+    }
+  }
+
+  private static final class Writer {
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream body = new DataOutputStream(bytes);
+
+    private void types(final Map<String, Map<String, Object>> types) throws IOException {
+      final Map<String, Map<String, Object>> map = types != null ? types : Collections.emptyMap();
+
+      body.writeInt(map.size());
+      for (final Map.Entry<String, Map<String, Object>> entry : map.entrySet()) {
+        string(entry.getKey());
+        string(entry.getValue().get(Schema.TYPE));
+        number(entry.getValue().get(Schema.OBSERVABLE));
+      }
+    }
+
+    private void objects(final Map<String, Map<String, Object>> objects) throws IOException {
+      body.writeInt(objects.size());
+      for (final Map.Entry<String, Map<String, Object>> entry : objects.entrySet()) {
+        final Map<String, Object> object = entry.getValue();
+
+        string(entry.getKey());
+        string(object.get(Schema.CAPTION));
+        number(object.get(Schema.OBSERVABLE));
+        attributes(Maps.typecast(object.get(Schema.ATTRIBUTES)));
+      }
+    }
+
+    private void classes(final Map<String, Map<String, Object>> classes) throws IOException {
+      body.writeInt(classes.size());
+      for (final Map.Entry<String, Map<String, Object>> entry : classes.entrySet()) {
+        final Map<String, Object> type = entry.getValue();
+        final Map<String, Object> observables = Maps.typecast(type.get(Dictionary.OBSERVABLES));
+
+        string(entry.getKey());
+        string(type.get(Schema.CAPTION));
+        number(type.get(Schema.UID));
+
+        if (observables != null) {
+          body.writeInt(observables.size());
+          for (final Map.Entry<String, Object> observable : observables.entrySet()) {
+            string(observable.getKey());
+            number(observable.getValue());
+          }
+        } else {
+          body.writeInt(NULL);
+        }
+
+        attributes(Maps.typecast(type.get(Schema.ATTRIBUTES)));
+      }
+    }
+
+    private void attributes(final Map<String, Map<String, Object>> attributes)
+        throws IOException {
+      if (attributes == null) {
+        body.writeInt(NULL);
+        return;
+      }
+
+      body.writeInt(attributes.size());
+      for (final Map.Entry<String, Map<String, Object>> entry : attributes.entrySet()) {
+        final Map<String, Object> attribute = entry.getValue();
+        final Map<String, Object> enumeration = Maps.typecast(attribute.get(Schema.ENUM));
+
+        string(entry.getKey());
+        string(attribute.get(Schema.TYPE));
+        string(attribute.get(Schema.OBJECT_TYPE));
+        string(attribute.get(Schema.ENUM_SIBLING));
+        string(attribute.get(Schema.REQUIREMENT));
+        body.writeInt(Boolean.TRUE.equals(attribute.get(Schema.IS_ARRAY)) ? 1 : 0);
+        number(attribute.get(Schema.OBSERVABLE));
+
+        if (enumeration != null) {
+          body.writeInt(enumeration.size());
+          for (final Map.Entry<String, Object> value : enumeration.entrySet()) {
+            string(value.getKey());
+            string(value.getValue() instanceof Map<?, ?> ?
+                   ((Map<?, ?>) value.getValue()).get(Schema.CAPTION) : null);
+          }
+        } else {
+          body.writeInt(NULL);
+        }
+      }
+    }
+
+    private void string(final Object value) throws IOException {
+      if (value == null) {
+        body.writeInt(NULL);
+      } else {
+        body.writeInt(strings.computeIfAbsent(value.toString(), k -> strings.size()));
+      }
+    }
+
+    // the schema numbers are small non-negative integers, anything else is not in the snapshot
+    private void number(final Object value) throws IOException {
+      body.writeInt(value instanceof Integer && (Integer) value >= 0 ? (Integer) value : NULL);
+    }
+  }
+
+  private static final class Reader {
+    // the minimum size of the records, in bytes
+    private static final int TYPE_SIZE = 3 * Integer.BYTES;
+    private static final int OBJECT_SIZE = 4 * Integer.BYTES;
+    private static final int CLASS_SIZE = 5 * Integer.BYTES;
+    private static final int OBSERVABLE_SIZE = 2 * Integer.BYTES;
+    private static final int ATTRIBUTE_SIZE = 8 * Integer.BYTES;
+    private static final int ENUM_VALUE_SIZE = 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+
+    private Reader(final ByteBuffer buffer) throws IOException {
+      this.buffer = buffer;
+      this.strings = new String[count(Integer.BYTES)];
+
+      final byte[] bytes = new byte[256];
+      for (int i = 0; i < strings.length; ++i) {
+        final int length = count(1);
+        final byte[] b = length <= bytes.length ? bytes : new byte[length];
+        buffer.get(b, 0, length);
+        strings[i] = new String(b, 0, length, StandardCharsets.UTF_8);
+      }
+    }
+
+    private Map<String, Map<String, Object>> types() throws IOException {
+      final int count = count(TYPE_SIZE);
+      final Map<String, Map<String, Object>> types = new LinkedHashMap<>(capacity(count));
+
+      for (int i = 0; i < count; ++i) {
+        final String name = string();
+        final Map<String, Object> type = new LinkedHashMap<>(4);
+        Maps.put(type, Schema.TYPE, string());
+        Maps.put(type, Schema.OBSERVABLE, number());
+        types.put(name, type);
+      }
+
+      return types;
+    }
+
+    private Map<String, Map<String, Object>> objects() throws IOException {
+      final int count = count(OBJECT_SIZE);
+      final Map<String, Map<String, Object>> objects = new LinkedHashMap<>(capacity(count));
+
+      for (int i = 0; i < count; ++i) {
+        final String name = string();
+        final Map<String, Object> object = new LinkedHashMap<>(8);
+
+        Maps.put(object, Schema.NAME, name);
+        Maps.put(object, Schema.CAPTION, string());
+        Maps.put(object, Schema.OBSERVABLE, number());
+        Maps.put(object, Schema.ATTRIBUTES, attributes());
+        objects.put(name, object);
+      }
+
+      return objects;
+    }
+
+    private Map<String, Map<String, Object>> classes() throws IOException {
+      final int count = count(CLASS_SIZE);
+      final Map<String, Map<String, Object>> classes = new LinkedHashMap<>(capacity(count));
+
+      for (int i = 0; i < count; ++i) {
+        final String name = string();
+        final Map<String, Object> type = new LinkedHashMap<>(8);
+
+        Maps.put(type, Schema.NAME, name);
+        Maps.put(type, Schema.CAPTION, string());
+        Maps.put(type, Schema.UID, number());
+
+        final int observables = nullableCount(OBSERVABLE_SIZE);
+        if (observables != NULL) {
+          final Map<String, Object> map = new LinkedHashMap<>(capacity(observables));
+          for (int j = 0; j < observables; ++j) {
+            final String path = string();
+            Maps.put(map, path, number());
+          }
+          type.put(Dictionary.OBSERVABLES, map);
+        }
+
+        Maps.put(type, Schema.ATTRIBUTES, attributes());
+        classes.put(name, type);
+      }
+
+      return classes;
+    }
+
+    private Map<String, Object> attributes() throws IOException {
+      final int count = nullableCount(ATTRIBUTE_SIZE);
+      if (count == NULL) {
+        return null;
+      }
+
+      final Map<String, Object> attributes = new LinkedHashMap<>(capacity(count));
+      for (int i = 0; i < count; ++i) {
+        final String name = string();
+        final Map<String, Object> attribute = new LinkedHashMap<>(8);
+
+        Maps.put(attribute, Schema.TYPE, string());
+        Maps.put(attribute, Schema.OBJECT_TYPE, string());
+        Maps.put(attribute, Schema.ENUM_SIBLING, string());
+        Maps.put(attribute, Schema.REQUIREMENT, string());
+        if (buffer.getInt() != 0) {
+          attribute.put(Schema.IS_ARRAY, Boolean.TRUE);
+        }
+        Maps.put(attribute, Schema.OBSERVABLE, number());
+
+        final int values = nullableCount(ENUM_VALUE_SIZE);
+        if (values != NULL) {
+          final Map<String, Object> enumeration = new LinkedHashMap<>(capacity(values));
+          for (int j = 0; j < values; ++j) {
+            final String value = string();
+            final Map<String, Object> caption = new LinkedHashMap<>(2);
+            Maps.put(caption, Schema.CAPTION, string());
+            enumeration.put(value, caption);
+          }
+          attribute.put(Schema.ENUM, enumeration);
+        }
+
+        attributes.put(name, attribute);
+      }
+
+      return attributes;
+    }
+
+    private String string() throws IOException {
+      final int i = buffer.getInt();
+      if (i == NULL) {
+        return null;
+      }
+
+      if (i < 0 || i >= strings.length) {
+        throw invalid("string index " + i);
+      }
+
+      return strings[i];
+    }
+
+    private Integer number() {
+      final int n = buffer.getInt();
+      return n == NULL ? null : n;
+    }
+
+    // a count of entries of at least the given size in bytes, which must fit in the snapshot
+    private int count(final int size) throws IOException {
+      return validate(buffer.getInt(), size);
+    }
+
+    // a count, or -1 for null
+    private int nullableCount(final int size) throws IOException {
+      final int count = buffer.getInt();
+      return count == NULL ? NULL : validate(count, size);
+    }
+
+    private int validate(final int count, final int size) throws IOException {
+      if (count < 0 || count > buffer.remaining() / size) {
+        throw invalid("count " + count);
+      }
+      return count;
+    }
+
+    private IOException invalid(final String message) {
+      return new IOException(
+          "Invalid schema snapshot: " + message + " at offset " + (buffer.position() - 4));
+    }
+
+    private static int capacity(final int size) {
+      return (int) (size / 0.75f) + 1;
+    }
+  }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Maps;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates events using the loaded schema, without the schema server.
+ * <p>
+ * The validation checks the event class, the required and recommended attributes, the attribute
+ * types, the enum values and their siblings, and the nested objects. The result has the same
+ * format as the result of the schema server's <code>/api/validate</code> service:
+ * <pre>
+ *   {
+ *     "uid": "the metadata.uid of the event, if any",
+ *     "error_count": 1,
+ *     "warning_count": 0,
+ *     "errors": [
+ *       {
+ *         "error": "attribute_required_missing",
+ *         "message": "Required attribute \"time\" is missing.",
+ *         "attribute_path": "time",
+ *         "attribute": "time"
+ *       }
+ *     ],
+ *     "warnings": []
+ *   }
+ * </pre>
+ * The schema is compiled when the validator is created. The validator is immutable, and can be
+ * used by several threads.
+ */
+public final class SchemaValidator {
+  // The result properties
+  public static final String UID = "uid";
+  public static final String ERROR_COUNT = "error_count";
+  public static final String WARNING_COUNT = "warning_count";
+  public static final String ERRORS = "errors";
+  public static final String WARNINGS = "warnings";
+  public static final String ERROR = "error";
+  public static final String MESSAGE = "message";
+  public static final String ATTRIBUTE_PATH = "attribute_path";
+  public static final String ATTRIBUTE = "attribute";
+  public static final String VALUE = "value";
+  public static final String EXPECTED_TYPE = "expected_type";
+
+  private static final String METADATA_UID = "metadata.uid";
+
+  private static final String REQUIRED = "required";
+  private static final String RECOMMENDED = "recommended";
+
+  // The enum value that allows any sibling text
+  private static final String OTHER = "99";
+
+  private enum BaseType {
+    Boolean("boolean_t"),
+    Integer("integer_t"),
+    Long("long_t"),
+    Float("float_t"),
+    String("string_t"),
+    Object("object_t"),
+    Json("json_t");
+
+    private final java.lang.String name;
+
+    BaseType(final java.lang.String name) {
+      this.name = name;
+    }
+
+    private static BaseType of(final java.lang.String name) {
+      for (final BaseType type : values()) {
+        if (type.name.equals(name)) {
+          return type;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A class or object.
+   */
+  private static final class Type {
+    private final String name;
+    private final Map<String, Attribute> attributes = new HashMap<>();
+    private final List<Attribute> enums = new ArrayList<>();
+
+    private String[] required = new String[0];
+    private String[] recommended = new String[0];
+
+    private Type(final String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * An attribute of a class or object.
+   */
+  private static final class Attribute {
+    private final String name;
+    private final String typeName;
+    private final BaseType type;
+    private final boolean isArray;
+    private final String sibling;
+
+    // the enum value -> caption, or null
+    private final Map<String, Object> captions;
+
+    // the object type, or null
+    private Type object;
+
+    private Attribute(
+        final String name, final Map<String, Object> attribute, final BaseType type,
+        final String sibling
+    ) {
+      final Map<String, Object> enumeration = Maps.typecast(attribute.get(Schema.ENUM));
+
+      this.name = name;
+      this.typeName = (String) attribute.get(Schema.TYPE);
+      this.type = type;
+      this.isArray = Boolean.TRUE.equals(attribute.get(Schema.IS_ARRAY));
+      this.sibling = sibling;
+
+      if (enumeration != null) {
+        this.captions = new HashMap<>(enumeration.size() * 2);
+        enumeration.forEach((value, definition) -> captions.put(
+            value, definition instanceof Map<?, ?> ? ((Map<?, ?>) definition).get(Schema.CAPTION) :
+                   null));
+      } else {
+        this.captions = null;
+      }
+    }
+  }
+
+  /**
+   * The errors and warnings of an event, allocated on the first one.
+   */
+  private static final class Result {
+    private List<Map<String, Object>> errors;
+    private List<Map<String, Object>> warnings;
+
+    private void error(final String error, final String message, final String path,
+        final String attribute, final Object... more) {
+      if (errors == null) {
+        errors = new ArrayList<>();
+      }
+      errors.add(entry(error, message, path, attribute, more));
+    }
+
+    private void warning(final String error, final String message, final String path,
+        final String attribute, final Object... more) {
+      if (warnings == null) {
+        warnings = new ArrayList<>();
+      }
+      warnings.add(entry(error, message, path, attribute, more));
+    }
+
+    private static Map<String, Object> entry(
+        final String error, final String message, final String path, final String attribute,
+        final Object... more
+    ) {
+      final Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put(ERROR, error);
+      entry.put(MESSAGE, message);
+      Maps.put(entry, ATTRIBUTE_PATH, path);
+      Maps.put(entry, ATTRIBUTE, attribute);
+      for (int i = 0; i + 1 < more.length; i += 2) {
+        Maps.put(entry, (String) more[i], more[i + 1]);
+      }
+      return entry;
+    }
+  }
+
+  // class_uid -> class
+  private final Map<Integer, Type> classes = new HashMap<>();
+
+  /**
+   * Creates a validator for the given schema.
+   *
+   * @param schema the schema
+   */
+  public SchemaValidator(final Schema schema) {
+    final Map<String, Map<String, Object>> types = schema.allTypes();
+    final Map<String, Type> objects = new HashMap<>();
+
+    // first the types, then their attributes: the objects can refer to each other
+    schema.allObjects().forEach(
+        (name, object) -> objects.put(name, new Type(caption(object, name))));
+    schema.allClasses().forEach((uid, type) -> classes.put(
+        uid, new Type(caption(type, String.valueOf(uid)))));
+
+    schema.allObjects().forEach(
+        (name, object) -> addAttributes(objects.get(name), object, objects, types));
+    schema.allClasses().forEach(
+        (uid, type) -> addAttributes(classes.get(uid), type, objects, types));
+  }
+
+  /**
+   * Validates an event.
+   *
+   * @param event the event data
+   * @return the validation result, in the schema server format
+   */
+  public Map<String, Object> validate(final Map<String, Object> event) {
+    final Result result = new Result();
+
+    final Object classUid = event.get(Dictionary.CLASS_UID);
+    if (classUid == null) {
+      result.error("class_uid_missing", "Missing class_uid.", Dictionary.CLASS_UID,
+          Dictionary.CLASS_UID);
+    } else if (!(classUid instanceof Integer)) {
+      result.error("class_uid_wrong_type", "The class_uid value must be an integer.",
+          Dictionary.CLASS_UID, Dictionary.CLASS_UID, VALUE, classUid);
+    } else {
+      final Type type = classes.get(classUid);
+      if (type == null) {
+        result.error("class_uid_unknown", "Unknown class_uid value: " + classUid + ".",
+            Dictionary.CLASS_UID, Dictionary.CLASS_UID, VALUE, classUid);
+      } else {
+        validateTypeUid(event, (Integer) classUid, result);
+        validate(null, event, type, result);
+      }
+    }
+
+    return result(event, result);
+  }
+
+  /**
+   * Validates a list of events.
+   *
+   * @param events the events
+   * @return the validation results, in the order of the events
+   */
+  public List<Map<String, Object>> validateAll(final List<Map<String, Object>> events) {
+    final List<Map<String, Object>> results = new ArrayList<>(events.size());
+    for (final Map<String, Object> event : events) {
+      results.add(validate(event));
+    }
+    return results;
+  }
+
+  private static Map<String, Object> result(final Map<String, Object> event, final Result result) {
+    final List<Map<String, Object>> errors =
+        result.errors != null ? result.errors : Collections.emptyList();
+    final List<Map<String, Object>> warnings =
+        result.warnings != null ? result.warnings : Collections.emptyList();
+
+    final Map<String, Object> map = new LinkedHashMap<>();
+    Maps.put(map, UID, Maps.getIn(event, METADATA_UID));
+    map.put(ERROR_COUNT, errors.size());
+    map.put(WARNING_COUNT, warnings.size());
+    map.put(ERRORS, errors);
+    map.put(WARNINGS, warnings);
+    return map;
+  }
+
+  private static void validateTypeUid(
+      final Map<String, Object> event, final int classUid, final Result result
+  ) {
+    final Object typeUid = event.get(Dictionary.TYPE_UID);
+    final Object activityId = event.get(Dictionary.ACTIVITY_ID);
+
+    if (typeUid instanceof Integer && activityId instanceof Integer) {
+      final int expected = classUid * 100 + (Integer) activityId;
+      if ((Integer) typeUid != expected) {
+        result.error("type_uid_incorrect",
+            "The type_uid value should be " + expected + ", but is " + typeUid + ".",
+            Dictionary.TYPE_UID, Dictionary.TYPE_UID, VALUE, typeUid);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void validate(
+      final String parent, final Map<String, Object> data, final Type type, final Result result
+  ) {
+    data.forEach((name, value) -> {
+      final Attribute attribute = type.attributes.get(name);
+      if (attribute == null) {
+        final String path = path(parent, name);
+        result.error("attribute_unknown",
+            "Attribute \"" + path + "\" is not defined in " + quote(type.name) + ".",
+            path, name);
+      } else if (value != null) {
+        if (attribute.isArray) {
+          if (value instanceof List<?>) {
+            final List<Object> list = (List<Object>) value;
+            for (int i = 0, size = list.size(); i < size; ++i) {
+              final Object element = list.get(i);
+              if (element != null) {
+                validateValue(parent, attribute, i, element, result);
+              }
+            }
+          } else {
+            wrongType(path(parent, name), attribute, value, true, result);
+          }
+        } else {
+          validateValue(parent, attribute, -1, value, result);
+        }
+      }
+    });
+
+    for (final String name : type.required) {
+      if (data.get(name) == null) {
+        final String path = path(parent, name);
+        result.error("attribute_required_missing",
+            "Required attribute \"" + path + "\" is missing.", path, name);
+      }
+    }
+
+    for (final String name : type.recommended) {
+      if (data.get(name) == null) {
+        final String path = path(parent, name);
+        result.warning("attribute_recommended_missing",
+            "Recommended attribute \"" + path + "\" is missing.", path, name);
+      }
+    }
+
+    for (final Attribute attribute : type.enums) {
+      validateSibling(parent, data, attribute, result);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void validateValue(
+      final String parent, final Attribute attribute, final int index, final Object value,
+      final Result result
+  ) {
+    if (!isType(attribute.type, value)) {
+      wrongType(path(parent, attribute.name, index), attribute, value, false, result);
+    } else if (attribute.captions != null) {
+      if (!attribute.captions.containsKey(String.valueOf(value))) {
+        final String path = path(parent, attribute.name, index);
+        result.error("attribute_enum_value_unknown",
+            "Unknown value " + value + " of enum attribute \"" + path + "\".",
+            path, attribute.name, VALUE, value);
+      }
+    } else if (attribute.object != null) {
+      validate(path(parent, attribute.name, index), (Map<String, Object>) value,
+          attribute.object, result);
+    }
+  }
+
+  private static void validateSibling(
+      final String parent, final Map<String, Object> data, final Attribute attribute,
+      final Result result
+  ) {
+    final Object value = data.get(attribute.name);
+    final Object sibling = data.get(attribute.sibling);
+
+    if (value != null && sibling != null && !attribute.isArray) {
+      final String key = String.valueOf(value);
+      final Object caption = attribute.captions.get(key);
+
+      if (caption != null && !OTHER.equals(key) && !caption.equals(sibling)) {
+        final String path = path(parent, attribute.sibling);
+        result.warning("attribute_enum_sibling_incorrect",
+            "Attribute \"" + path + "\" should be " + quote(caption) + ", the caption of " +
+            quote(attribute.name) + " value " + value + ", but is " +
+            quote(sibling) + ".",
+            path, attribute.sibling, VALUE, sibling);
+      }
+    }
+  }
+
+  private static void wrongType(
+      final String path, final Attribute attribute, final Object value, final boolean array,
+      final Result result
+  ) {
+    final String expected = array ? "array of " + attribute.typeName : attribute.typeName;
+    result.error("attribute_wrong_type",
+        "Attribute \"" + path + "\" value has wrong type; expected " + expected + ".",
+        path, attribute.name, VALUE, value, EXPECTED_TYPE, expected);
+  }
+
+  private static boolean isType(final BaseType type, final Object value) {
+    switch (type) {
+      case Boolean:
+        return value instanceof Boolean;
+      case Integer:
+        return value instanceof Integer ||
+               value instanceof Long && (Long) value == ((Long) value).intValue();
+      case Long:
+        return value instanceof Integer || value instanceof Long;
+      case Float:
+        return value instanceof Number;
+      case String:
+        return value instanceof String;
+      case Object:
+        return value instanceof Map<?, ?>;
+      default:
+        return true;
+    }
+  }
+
+  private static String quote(final Object value) {
+    return "\"" + value + "\"";
+  }
+
+  private static String path(final String parent, final String name) {
+    return parent != null ? parent + "." + name : name;
+  }
+
+  private static String path(final String parent, final String name, final int index) {
+    final String path = path(parent, name);
+    return index < 0 ? path : path + "[" + index + "]";
+  }
+
+  private static void addAttributes(
+      final Type type,
+      final Map<String, Object> definition,
+      final Map<String, Type> objects,
+      final Map<String, Map<String, Object>> types
+  ) {
+    final Map<String, Map<String, Object>> attributes =
+        Maps.typecast(definition.get(Schema.ATTRIBUTES));
+    if (attributes == null) {
+      return;
+    }
+
+    final List<String> required = new ArrayList<>();
+    final List<String> recommended = new ArrayList<>();
+
+    attributes.forEach((name, map) -> {
+      final BaseType base = baseType((String) map.get(Schema.TYPE), types);
+      final Attribute attribute = new Attribute(name, map, base, sibling(name, map, attributes));
+
+      final String objectType = (String) map.get(Schema.OBJECT_TYPE);
+      if (objectType != null) {
+        attribute.object = objects.get(objectType);
+      }
+
+      type.attributes.put(name, attribute);
+
+      if (attribute.captions != null && attribute.sibling != null) {
+        type.enums.add(attribute);
+      }
+
+      final Object requirement = map.get(Schema.REQUIREMENT);
+      if (REQUIRED.equals(requirement)) {
+        required.add(name);
+      } else if (RECOMMENDED.equals(requirement)) {
+        recommended.add(name);
+      }
+    });
+
+    type.required = required.toArray(new String[0]);
+    type.recommended = recommended.toArray(new String[0]);
+  }
+
+  /*
+   * Returns the base type of an attribute type: the type itself, or the type it is derived from.
+   * The unknown types are not validated.
+   */
+  private static BaseType baseType(
+      final String name, final Map<String, Map<String, Object>> types
+  ) {
+    if (name == null) {
+      return BaseType.Json;
+    }
+
+    BaseType type = BaseType.of(name);
+    if (type == null) {
+      final Map<String, Object> definition = types.get(name);
+      if (definition != null) {
+        type = BaseType.of((String) definition.get(Schema.TYPE));
+      }
+    }
+
+    return type != null ? type : BaseType.Json;
+  }
+
+  // the enum sibling, if it is an attribute of the class or object
+  private static String sibling(
+      final String name, final Map<String, Object> attribute,
+      final Map<String, Map<String, Object>> attributes
+  ) {
+    String sibling = (String) attribute.get(Schema.ENUM_SIBLING);
+    if (sibling == null) {
+      final int pos = name.indexOf(Schema.ENUM_SUFFIX);
+      sibling = pos > 0 ? name.substring(0, pos) : null;
+    }
+
+    return sibling != null && attributes.containsKey(sibling) ? sibling : null;
+  }
+
+  private static String caption(final Map<String, Object> type, final String name) {
+    final Object caption = type.get(Schema.CAPTION);
+    return caption != null ? caption.toString() : name;
+  }
+}
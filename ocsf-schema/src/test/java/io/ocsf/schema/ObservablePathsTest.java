@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ObservablePathsTest
+{
+  private static final int NetworkActivity = 4001;
+
+  private static Schema schema;
+
+  @BeforeClass
+  public static void setUp()
+  {
+    schema = new Schema(Paths.get("src/test/resources/test-schema.json"), false, true);
+  }
+
+  @Test
+  public void observables()
+  {
+    final Map<String, Object> data = Json5Parser.to(
+      "{class_uid: 4001, activity_id: 1, message: 'hello', ips: ['1.1.1.1', '2.2.2.2'], " +
+      "devices: [{hostname: 'd1'}, {hostname: 'd2', owner: {name: 'dan'}}], " +
+      "actor: {manager: {manager: {uid: 'm'}}}, src_endpoint: {port: 80}, " +
+      "unmapped: {ip: '10.0.0.1'}}");
+
+    final Set<Map<String, Object>> expected = Set.of(
+      Map.of("name", "message", "type_id", 12, "value", "hello"),
+      Map.of("name", "ips", "type_id", 13, "value", "1.1.1.1"),
+      Map.of("name", "ips", "type_id", 13, "value", "2.2.2.2"),
+      Map.of("name", "devices.hostname", "type_id", 1, "value", "d1"),
+      Map.of("name", "devices.hostname", "type_id", 1, "value", "d2"),
+      Map.of("name", "devices.owner", "type_id", 21),
+      Map.of("name", "devices.owner.name", "type_id", 4, "value", "dan"),
+      Map.of("name", "actor", "type_id", 21),
+      Map.of("name", "actor.manager", "type_id", 21),
+      Map.of("name", "actor.manager.manager", "type_id", 21),
+      Map.of("name", "actor.manager.manager.uid", "type_id", 10, "value", "m"),
+      Map.of("name", "src_endpoint", "type_id", 20),
+      Map.of("name", "src_endpoint.port", "type_id", 11, "value", "80"));
+
+    final List<Map<String, Object>> observables =
+      Maps.typecast(schema.enrichInPlace(data).get(Dictionary.OBSERVABLES));
+
+    Assert.assertEquals(expected.size(), observables.size());
+    Assert.assertEquals(expected, new HashSet<>(observables));
+  }
+
+  @Test
+  public void classObservables()
+  {
+    final List<Map<String, Object>> observables = schema.getObservables(NetworkActivity).get();
+
+    // the arrays are included
+    Assert.assertTrue(observables.contains(Map.of("name", "devices", "type_id", 20)));
+  }
+}
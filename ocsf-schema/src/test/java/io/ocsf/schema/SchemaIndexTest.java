@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Files;
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaIndexTest
+{
+  private static final Path SchemaFile = Paths.get("src/test/resources/test-schema.json");
+
+  private static final int NetworkActivity = 4001;
+
+  private static SchemaIndex index;
+  private static Schema      schema;
+
+  @BeforeClass
+  public static void setUp() throws IOException
+  {
+    final Map<String, Object> json = Files.readJson(SchemaFile);
+
+    final Map<String, Map<String, Object>>  classes = Maps.typecast(json.get("classes"));
+    final Map<Integer, Map<String, Object>> byUid   = new HashMap<>();
+    classes.values().forEach(type -> byUid.put((Integer) type.get(Schema.UID), type));
+
+    index = new SchemaIndex(
+      byUid,
+      Maps.typecast(json.get("objects")),
+      Maps.typecast(json.get("types")),
+      Maps.typecast(json.get("dictionary_attributes")));
+    schema = new Schema(SchemaFile, true, true);
+  }
+
+  @Test
+  public void attributes()
+  {
+    final SchemaIndex.Type type = index.classes.get(NetworkActivity);
+
+    Assert.assertNotNull(type);
+    Assert.assertNotNull(type.pathObservables);
+
+    // the json_t attributes are not enriched
+    Assert.assertNull(type.attributes.get("unmapped"));
+
+    final SchemaIndex.Attribute endpoint = type.attributes.get("src_endpoint");
+    Assert.assertSame(index.objects.get("endpoint"), endpoint.objectType);
+    Assert.assertEquals(Integer.valueOf(20), endpoint.objectType.observable);
+
+    // the objects can refer to themselves
+    final SchemaIndex.Type user = index.objects.get("user");
+    Assert.assertSame(user, user.attributes.get("manager").objectType);
+  }
+
+  @Test
+  public void enums()
+  {
+    final SchemaIndex.Type type = index.classes.get(NetworkActivity);
+
+    final SchemaIndex.Attribute activity = type.attributes.get("activity_id");
+    Assert.assertTrue(activity.isEnum);
+    Assert.assertEquals("activity", activity.sibling);
+    Assert.assertEquals("Open", activity.caption(1));
+    Assert.assertEquals("Open", activity.caption("1"));
+    Assert.assertEquals("Other", activity.caption(99));
+    Assert.assertNull(activity.caption(3));
+    Assert.assertNull(activity.caption(1L << 40));
+
+    final SchemaIndex.Attribute status = type.attributes.get("status_id");
+    Assert.assertEquals("status", status.sibling);
+    Assert.assertEquals("Success", status.caption(1));
+    Assert.assertEquals("Padded", status.caption("01"));
+    Assert.assertNull(status.caption(2));
+
+    Assert.assertEquals("Network Activity", type.attributes.get("class_uid").caption(4001));
+    Assert.assertEquals("Negative",
+                        index.objects.get("endpoint").attributes.get("type_id").caption(-1));
+  }
+
+  @Test
+  public void observables()
+  {
+    final SchemaIndex.Type endpoint = index.objects.get("endpoint");
+
+    // by attribute type, by dictionary attribute, by attribute
+    Assert.assertEquals(Integer.valueOf(2), endpoint.attributes.get("ip").observable);
+    Assert.assertEquals(Integer.valueOf(10), endpoint.attributes.get("uid").observable);
+    Assert.assertEquals(Integer.valueOf(30), endpoint.attributes.get("tags").observable);
+    Assert.assertNull(endpoint.attributes.get("port").observable);
+  }
+
+  @Test
+  public void enrich()
+  {
+    final Map<String, Object> data = Json5Parser.to(
+      "{class_uid: 4001, activity_id: 1, severity_id: 5, message: 'hello', " +
+      "src_endpoint: {ip: '10.0.0.1', port: 80, type_id: 1, owner: {name: 'bob', type_id: 2}}," +
+      "unmapped: {type_id: 1}}");
+
+    final Map<String, Object> enriched = schema.enrich(data);
+
+    Assert.assertEquals(400101, enriched.get(Dictionary.TYPE_UID));
+    Assert.assertEquals("Open", enriched.get("activity"));
+    Assert.assertEquals("Critical", enriched.get("severity"));
+    Assert.assertEquals("Server", Maps.getIn(enriched, "src_endpoint.type"));
+    Assert.assertEquals("Admin", Maps.getIn(enriched, "src_endpoint.owner.type"));
+    Assert.assertNull(Maps.getIn(enriched, "unmapped.type"));
+
+    final List<Map<String, Object>> observables = Maps.typecast(enriched.get("observables"));
+    Assert.assertTrue(observables.contains(
+      Map.of("name", "src_endpoint.port", "type", "Other", "type_id", 11, "value", "80")));
+    Assert.assertTrue(observables.contains(
+      Map.of("name", "message", "type", "Other", "type_id", 12, "value", "hello")));
+    Assert.assertTrue(observables.contains(
+      Map.of("name", "src_endpoint.owner", "type", "User", "type_id", 21)));
+  }
+
+  @Test
+  public void enrichInPlace()
+  {
+    final String json =
+      "{class_uid: 4001, activity_id: 1, severity_id: 5, severity: 'Fatal', message: 'hello', " +
+      "src_endpoint: {ip: '10.0.0.1', port: 80, type_id: 1, owner: {name: 'bob', type_id: 2}}}";
+
+    final Map<String, Object> data     = Json5Parser.to(json);
+    final Object              endpoint = data.get("src_endpoint");
+    final Map<String, Object> enriched = schema.enrichInPlace(data);
+
+    Assert.assertSame(data, enriched);
+    Assert.assertSame(endpoint, enriched.get("src_endpoint"));
+    Assert.assertEquals(schema.enrich(Json5Parser.to(json)), enriched);
+
+    // the event's own values are not replaced
+    Assert.assertEquals("Fatal", enriched.get("severity"));
+    Assert.assertEquals("Admin", Maps.getIn(enriched, "src_endpoint.owner.type"));
+    Assert.assertNotNull(enriched.get("observables"));
+  }
+}
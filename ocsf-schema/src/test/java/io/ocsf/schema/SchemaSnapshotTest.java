@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+public class SchemaSnapshotTest
+{
+  private static final Path SchemaFile = Paths.get("src/test/resources/test-schema.json");
+
+  private static Path snapshot;
+
+  @BeforeClass
+  public static void setUp() throws IOException
+  {
+    snapshot = Files.createTempFile("test-schema", ".snapshot");
+    SchemaSnapshot.compile(SchemaFile, snapshot);
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException
+  {
+    Files.deleteIfExists(snapshot);
+  }
+
+  @Test
+  public void isSnapshot() throws IOException
+  {
+    Assert.assertTrue(SchemaSnapshot.isSnapshot(snapshot));
+    Assert.assertFalse(SchemaSnapshot.isSnapshot(SchemaFile));
+  }
+
+  @Test
+  public void enrich()
+  {
+    final Schema json   = new Schema(SchemaFile, true, true);
+    final Schema binary = new Schema(snapshot, true, true);
+
+    final String event =
+      "{class_uid: 4001, activity_id: 1, severity_id: 5, message: 'hello', ips: ['1.1.1.1'], " +
+      "src_endpoint: {ip: '10.0.0.1', port: 80, type_id: 1, owner: {name: 'bob', type_id: 2}}," +
+      "devices: [{hostname: 'd1', type_id: 99}], unmapped: {type_id: 1}}";
+
+    Assert.assertEquals(json.enrich(Json5Parser.to(event)), binary.enrich(Json5Parser.to(event)));
+    Assert.assertEquals(json.getObservables(4001), binary.getObservables(4001));
+  }
+
+  @Test
+  public void validate()
+  {
+    final SchemaValidator json   = new SchemaValidator(new Schema(SchemaFile, false, false));
+    final SchemaValidator binary = new SchemaValidator(new Schema(snapshot, false, false));
+
+    final String event =
+      "{class_uid: 4001, activity_id: 1, severity_id: 7, time: 'now', status_id: 1, " +
+      "status: 'Failure', src_endpoint: {port: 80, owner: {name: 1}}, devices: [{x: 1}]}";
+
+    Assert.assertEquals(
+      json.validate(Json5Parser.to(event)), binary.validate(Json5Parser.to(event)));
+  }
+
+  @Test
+  public void read() throws IOException
+  {
+    Assert.assertNotNull(SchemaSnapshot.read(ByteBuffer.wrap(bytes())));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncated() throws IOException
+  {
+    final byte[] bytes = bytes();
+    SchemaSnapshot.read(ByteBuffer.wrap(bytes, 0, bytes.length / 2));
+  }
+
+  @Test(expected = IOException.class)
+  public void invalid() throws IOException
+  {
+    SchemaSnapshot.read(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}));
+  }
+
+  @Test(expected = IOException.class)
+  public void stringCount() throws IOException
+  {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes());
+    buffer.putInt(8, Integer.MAX_VALUE);
+
+    SchemaSnapshot.read(buffer);
+  }
+
+  @Test
+  public void corrupted() throws IOException
+  {
+    final byte[] bytes = bytes();
+
+    // any corrupted count or string index is an IOException
+    for (int offset = 8; offset + 4 <= bytes.length; offset += 4)
+    {
+      for (final int value : new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE, -2, 1 << 20})
+      {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes.clone());
+        buffer.putInt(offset, value);
+
+        try
+        {
+          SchemaSnapshot.read(buffer);
+        }
+        catch (final IOException ignore)
+        {
+          // expected
+        }
+      }
+    }
+  }
+
+  private static byte[] bytes() throws IOException
+  {
+    final Map<String, Object>   schema = io.ocsf.utils.Files.readJson(SchemaFile);
+    final ByteArrayOutputStream out    = new ByteArrayOutputStream();
+
+    SchemaSnapshot.write(schema, out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.schema;
+
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SchemaValidatorTest
+{
+  private static final String Valid =
+    "{class_uid: 4001, activity_id: 1, severity_id: 5, type_uid: 400101, time: 1700000000000, " +
+    "message: 'hello', ";
+
+  private static SchemaValidator validator;
+
+  @BeforeClass
+  public static void setUp()
+  {
+    validator = new SchemaValidator(
+      new Schema(Paths.get("src/test/resources/test-schema.json"), false, false));
+  }
+
+  @Test
+  public void valid()
+  {
+    final Map<String, Object> result = validate(
+      Valid + "status_id: 1, src_endpoint: {ip: '10.0.0.1', port: 80, tags: ['a', 'b'], " +
+      "owner: {name: 'bob', type_id: 2}}, devices: [{hostname: 'd1'}], ips: ['1.1.1.1'], " +
+      "unmapped: {anything: [1, 'x']}}");
+
+    Assert.assertEquals(0, result.get(SchemaValidator.ERROR_COUNT));
+    Assert.assertEquals(0, result.get(SchemaValidator.WARNING_COUNT));
+    Assert.assertEquals(List.of(), result.get(SchemaValidator.ERRORS));
+    Assert.assertEquals(List.of(), result.get(SchemaValidator.WARNINGS));
+  }
+
+  @Test
+  public void classUid()
+  {
+    Assert.assertEquals(List.of("class_uid_missing"), errors(validate("{activity_id: 1}")));
+    Assert.assertEquals(List.of("class_uid_wrong_type"), errors(validate("{class_uid: '4001'}")));
+    Assert.assertEquals(List.of("class_uid_unknown"), errors(validate("{class_uid: 1}")));
+  }
+
+  @Test
+  public void requirements()
+  {
+    final Map<String, Object> result = validate("{class_uid: 4001, activity_id: null}");
+
+    Assert.assertEquals(
+      Set.of("activity_id", "severity_id", "type_uid", "time"),
+      new HashSet<>(attributes(result, true)));
+    Assert.assertEquals(List.of("message"), attributes(result, false));
+  }
+
+  @Test
+  public void attributes()
+  {
+    final Map<String, Object> result = validate(
+      Valid + "activity_id: 3, type_uid: 400103, port: 1, time: '2024-01-01', " +
+      "src_endpoint: {port: 'http', owner: {type_id: 7, manager: {nick: 'x'}}}, " +
+      "devices: [{hostname: 'd1'}, {ip: 10}], ips: '1.1.1.1', dst_endpoint: [{port: 1}]}");
+
+    Assert.assertEquals(
+      Set.of(
+        "activity_id:attribute_enum_value_unknown",
+        "type_uid:attribute_enum_value_unknown",
+        "time:attribute_wrong_type",
+        "port:attribute_unknown",
+        "src_endpoint.port:attribute_wrong_type",
+        "src_endpoint.owner.type_id:attribute_enum_value_unknown",
+        "src_endpoint.owner.manager.nick:attribute_unknown",
+        "devices[1].ip:attribute_wrong_type",
+        "ips:attribute_wrong_type",
+        "dst_endpoint:attribute_wrong_type"),
+      new HashSet<>(paths(result)));
+  }
+
+  @Test
+  public void wrongType()
+  {
+    final List<Map<String, Object>> errors = Maps.typecast(
+      validate(Valid + "ips: '1.1.1.1'}").get(SchemaValidator.ERRORS));
+
+    Assert.assertEquals(1, errors.size());
+    Assert.assertEquals("array of string_t", errors.get(0).get(SchemaValidator.EXPECTED_TYPE));
+    Assert.assertEquals("1.1.1.1", errors.get(0).get(SchemaValidator.VALUE));
+  }
+
+  @Test
+  public void typeUid()
+  {
+    final List<Object> errors = errors(validate(Valid.replace("400101", "400102") + "uid: 'x'}"));
+
+    Assert.assertTrue(errors.contains("type_uid_incorrect"));
+    Assert.assertFalse(errors(validate(Valid + "}")).contains("type_uid_incorrect"));
+  }
+
+  @Test
+  public void enumSiblings()
+  {
+    Assert.assertEquals(List.of(), warnings(validate(Valid + "status_id: 1, status: 'Success'}")));
+    Assert.assertEquals(
+      List.of("attribute_enum_sibling_incorrect"),
+      warnings(validate(Valid + "status_id: 1, status: 'On'}")));
+  }
+
+  @Test
+  public void enriched()
+  {
+    final Schema schema =
+      new Schema(Paths.get("src/test/resources/test-schema.json"), true, false);
+    final Map<String, Object> event = Json5Parser.to(Valid + "status_id: 1}");
+
+    // the enum siblings added by the enrichment are valid
+    final Map<String, Object> result = validator.validate(schema.enrich(event));
+    Assert.assertEquals(List.of(), warnings(result));
+  }
+
+  @Test
+  public void validateList()
+  {
+    final List<Map<String, Object>> results = validator.validateAll(
+      List.of(Json5Parser.to(Valid + "}"), Json5Parser.to("{}")));
+
+    Assert.assertEquals(2, results.size());
+    Assert.assertEquals(0, results.get(0).get(SchemaValidator.ERROR_COUNT));
+    Assert.assertEquals(1, results.get(1).get(SchemaValidator.ERROR_COUNT));
+  }
+
+  private static Map<String, Object> validate(final String event)
+  {
+    return validator.validate(Json5Parser.to(event));
+  }
+
+  private static List<Object> errors(final Map<String, Object> result)
+  {
+    return list(result, SchemaValidator.ERRORS, SchemaValidator.ERROR);
+  }
+
+  private static List<Object> warnings(final Map<String, Object> result)
+  {
+    return list(result, SchemaValidator.WARNINGS, SchemaValidator.ERROR);
+  }
+
+  private static List<Object> attributes(final Map<String, Object> result, final boolean errors)
+  {
+    return list(
+      result,
+      errors ? SchemaValidator.ERRORS : SchemaValidator.WARNINGS,
+      SchemaValidator.ATTRIBUTE_PATH);
+  }
+
+  private static List<String> paths(final Map<String, Object> result)
+  {
+    final List<Map<String, Object>> errors = Maps.typecast(result.get(SchemaValidator.ERRORS));
+    return errors.stream()
+                 .map(e -> e.get(SchemaValidator.ATTRIBUTE_PATH) + ":" +
+                           e.get(SchemaValidator.ERROR))
+                 .collect(Collectors.toList());
+  }
+
+  private static List<Object> list(
+    final Map<String, Object> result, final String name, final String key)
+  {
+    final List<Map<String, Object>> list = Maps.typecast(result.get(name));
+    return list.stream().map(e -> e.get(key)).collect(Collectors.toList());
+  }
+}
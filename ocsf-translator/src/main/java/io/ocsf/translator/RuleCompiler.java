@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.Maps;
+import io.ocsf.utils.Tuple;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rule compiler that emits one class per rule list. The generated class applies the rules with
+ * straight-line code. The field reads and writes of the plain field rules, see
+ * {@link TranslatorBuilder.FieldRule}, are generated in place as static calls of {@link Maps}.
+ * The other rules are invoked from their own call site, thus each call site stays monomorphic and
+ * the JIT can inline the rule bodies.
+ * <p>
+ * The generated class looks like:
+ * <pre>
+ * final class RuleChain implements TranslatorBuilder.Rule
+ * {
+ *   private final Rule[] rules;
+ *
+ *   public void apply(Map data, Map translated)
+ *   {
+ *     chain0(rules, data, translated);
+ *     chain1(rules, data, translated);
+ *   }
+ *
+ *   private static void chain0(Rule[] rules, Map data, Map translated)
+ *   {
+ *     FieldRule r = (FieldRule) rules[0];  // {a: {@move: 'b'}}
+ *     Maps.putIn(translated, r.dst, Maps.removeIn(data, r.src), r.overwrite);
+ *     rules[1].apply(data, translated);   // any other rule
+ *     ...
+ *   }
+ * }
+ * </pre>
+ * The rules are split in chunks to keep each method below the JIT's huge method limit.
+ * <p>
+ * The class is defined as a hidden class when the runtime supports it (Java 15+), otherwise as a
+ * regular class in this package.
+ */
+final class RuleCompiler
+{
+  private static final Logger logger = LogManager.getLogger(RuleCompiler.class);
+
+  // The number of rules per generated method: up to 29 bytes per rule, below the 8000 bytes limit
+  private static final int ChunkSize = 256;
+
+  private static final String RuleClass = "io/ocsf/translator/TranslatorBuilder$Rule";
+  private static final String FieldRule = "io/ocsf/translator/TranslatorBuilder$FieldRule";
+  private static final String MapsClass = "io/ocsf/utils/Maps";
+  private static final String PathType  = "Lio/ocsf/utils/FieldPath;";
+  private static final String GetType   = "(Ljava/util/Map;" + PathType + ")Ljava/lang/Object;";
+  private static final String PutType   = "(Ljava/util/Map;" + PathType + "Ljava/lang/Object;Z)V";
+  private static final String RulesType = "[L" + RuleClass + ";";
+  private static final String ApplyType = "(Ljava/util/Map;Ljava/util/Map;)V";
+  private static final String ChainType = "(" + RulesType + "Ljava/util/Map;Ljava/util/Map;)V";
+  private static final String ClassName = "io/ocsf/translator/RuleChain";
+
+  private static final AtomicInteger counter = new AtomicInteger();
+
+  private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+  // Lookup.defineHiddenClass, available in Java 15+
+  private static final Method   defineHiddenClass;
+  private static final Object[] hiddenClassOptions;
+
+  static
+  {
+    Method   method  = null;
+    Object[] options = null;
+    try
+    {
+      final Class<?> optionClass =
+        Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+
+      options = (Object[]) Array.newInstance(optionClass, 0);
+      method  = MethodHandles.Lookup.class.getMethod(
+        "defineHiddenClass", byte[].class, boolean.class, options.getClass());
+    }
+    catch (final ReflectiveOperationException ignore)
+    {
+      // Java 11-14: use Lookup.defineClass
+    }
+
+    defineHiddenClass  = method;
+    hiddenClassOptions = options;
+  }
+
+  private RuleCompiler() {}
+
+  /**
+   * Compiles the given rules into a single rule.
+   *
+   * @param rules the rules to compile
+   * @return the compiled rule or {@code null} if the code generation is not possible
+   */
+  static TranslatorBuilder.Rule compile(final List<Tuple<String, TranslatorBuilder.Rule>> rules)
+  {
+    final TranslatorBuilder.Rule[] array = new TranslatorBuilder.Rule[rules.size()];
+    for (int i = 0; i < array.length; ++i)
+      array[i] = rules.get(i).value;
+
+    try
+    {
+      final Class<?> chain = define(generate(ClassName + counter.incrementAndGet(), array));
+
+      return (TranslatorBuilder.Rule) chain
+        .getDeclaredConstructor(TranslatorBuilder.Rule[].class)
+        .newInstance((Object) array);
+    }
+    catch (final Exception | LinkageError e)
+    {
+      logger.warn("Unable to compile {} rules, using the interpreter", array.length, e);
+      return null;
+    }
+  }
+
+  private static Class<?> define(final byte[] bytes) throws ReflectiveOperationException
+  {
+    if (defineHiddenClass != null)
+    {
+      final MethodHandles.Lookup hidden =
+        (MethodHandles.Lookup) defineHiddenClass.invoke(lookup, bytes, true, hiddenClassOptions);
+
+      return hidden.lookupClass();
+    }
+
+    return lookup.defineClass(bytes);
+  }
+
+  static byte[] generate(final String name, final TranslatorBuilder.Rule[] rules)
+    throws IOException
+  {
+    final ClassWriter cw   = new ClassWriter(name);
+    final int         size = rules.length;
+
+    final int thisClass = cw.classRef(name);
+    final int rulesRef  = cw.fieldRef(thisClass, "rules", RulesType);
+
+    // constructor: this.rules = rules
+    {
+      final Code code = new Code();
+      code.op(ALOAD_0)
+          .op(INVOKESPECIAL).u2(cw.methodRef(cw.classRef("java/lang/Object"), "<init>", "()V"))
+          .op(ALOAD_0)
+          .op(ALOAD_1)
+          .op(PUTFIELD).u2(rulesRef)
+          .op(RETURN);
+
+      cw.method(ACC_PUBLIC, "<init>", "(" + RulesType + ")V", code, 2, 2);
+    }
+
+    final int chunks = (size + ChunkSize - 1) / ChunkSize;
+
+    // apply(data, translated): calls all chain methods
+    {
+      final Code code = new Code();
+      for (int i = 0; i < chunks; ++i)
+      {
+        code.op(ALOAD_0)
+            .op(GETFIELD).u2(rulesRef)
+            .op(ALOAD_1)
+            .op(ALOAD_2)
+            .op(INVOKESTATIC).u2(cw.methodRef(thisClass, "chain" + i, ChainType));
+      }
+      code.op(RETURN);
+
+      cw.method(ACC_PUBLIC, "apply", ApplyType, code, 3, 3);
+    }
+
+    // chainN(rules, data, translated): straight-line code of the rules in this chunk
+    final Fields fields = new Fields(cw);
+    final int    apply  = cw.interfaceMethodRef(cw.classRef(RuleClass), "apply", ApplyType);
+    for (int i = 0; i < chunks; ++i)
+    {
+      final Code code = new Code();
+      final int  end  = Math.min(size, (i + 1) * ChunkSize);
+
+      for (int n = i * ChunkSize; n < end; ++n)
+      {
+        code.op(ALOAD_0);
+        cw.pushInt(code, n);
+        code.op(AALOAD);
+
+        if (rules[n] instanceof TranslatorBuilder.FieldRule)
+        {
+          fields.generate(code, ((TranslatorBuilder.FieldRule) rules[n]).op);
+        }
+        else
+        {
+          code.op(ALOAD_1)
+              .op(ALOAD_2)
+              .op(INVOKEINTERFACE).u2(apply).u1(3).u1(0);
+        }
+      }
+      code.op(RETURN);
+
+      cw.method(ACC_PRIVATE | ACC_STATIC, "chain" + i, ChainType, code, 4, 4);
+    }
+
+    return cw.toByteArray(RuleClass, "rules", RulesType);
+  }
+
+  /*
+   * The field access of the plain field rules. The rule is on the stack, and it is kept in the
+   * local variable 3 while its fields are read.
+   */
+  private static final class Fields
+  {
+    private final int fieldRule;
+    private final int src;
+    private final int dst;
+    private final int value;
+    private final int overwrite;
+    private final int getIn;
+    private final int removeIn;
+    private final int putIn;
+
+    Fields(final ClassWriter cw) throws IOException
+    {
+      final int maps = cw.classRef(MapsClass);
+
+      fieldRule = cw.classRef(FieldRule);
+      src       = cw.fieldRef(fieldRule, "src", PathType);
+      dst       = cw.fieldRef(fieldRule, "dst", PathType);
+      value     = cw.fieldRef(fieldRule, "value", "Ljava/lang/Object;");
+      overwrite = cw.fieldRef(fieldRule, "overwrite", "Z");
+      getIn     = cw.methodRef(maps, "getIn", GetType);
+      removeIn  = cw.methodRef(maps, "removeIn", GetType);
+      putIn     = cw.methodRef(maps, "putIn", PutType);
+    }
+
+    void generate(final Code code, final TranslatorBuilder.FieldRule.Op op)
+    {
+      code.op(CHECKCAST).u2(fieldRule)
+          .op(ASTORE_3);
+
+      switch (op)
+      {
+        case Move:
+          // Maps.putIn(translated, r.dst, Maps.removeIn(data, r.src), r.overwrite)
+          put(code, ALOAD_1, removeIn);
+          break;
+
+        case Copy:
+          // Maps.putIn(translated, r.dst, Maps.getIn(data, r.src), r.overwrite)
+          put(code, ALOAD_1, getIn);
+          break;
+
+        case Clone:
+          // Maps.putIn(translated, r.dst, Maps.getIn(translated, r.src), r.overwrite)
+          put(code, ALOAD_2, getIn);
+          break;
+
+        case Set:
+          // Maps.putIn(translated, r.dst, r.value, r.overwrite)
+          code.op(ALOAD_2)
+              .op(ALOAD_3).op(GETFIELD).u2(dst)
+              .op(ALOAD_3).op(GETFIELD).u2(value)
+              .op(ALOAD_3).op(GETFIELD).u2(overwrite)
+              .op(INVOKESTATIC).u2(putIn);
+          break;
+
+        case Remove:
+          // Maps.removeIn(data, r.src)
+          code.op(ALOAD_1)
+              .op(ALOAD_3).op(GETFIELD).u2(src)
+              .op(INVOKESTATIC).u2(removeIn)
+              .op(POP);
+          break;
+      }
+    }
+
+    private void put(final Code code, final int source, final int get)
+    {
+      code.op(ALOAD_2)
+          .op(ALOAD_3).op(GETFIELD).u2(dst)
+          .op(source)
+          .op(ALOAD_3).op(GETFIELD).u2(src)
+          .op(INVOKESTATIC).u2(get)
+          .op(ALOAD_3).op(GETFIELD).u2(overwrite)
+          .op(INVOKESTATIC).u2(putIn);
+    }
+  }
+
+  // Access flags
+  private static final int ACC_PUBLIC    = 0x0001;
+  private static final int ACC_PRIVATE   = 0x0002;
+  private static final int ACC_STATIC    = 0x0008;
+  private static final int ACC_FINAL     = 0x0010;
+  private static final int ACC_SUPER     = 0x0020;
+  private static final int ACC_SYNTHETIC = 0x1000;
+
+  // Op codes
+  private static final int ICONST_0        = 0x03;
+  private static final int BIPUSH          = 0x10;
+  private static final int SIPUSH          = 0x11;
+  private static final int LDC_W           = 0x13;
+  private static final int ALOAD_0         = 0x2a;
+  private static final int ALOAD_1         = 0x2b;
+  private static final int ALOAD_2         = 0x2c;
+  private static final int ALOAD_3         = 0x2d;
+  private static final int AALOAD          = 0x32;
+  private static final int ASTORE_3        = 0x4e;
+  private static final int POP             = 0x57;
+  private static final int RETURN          = 0xb1;
+  private static final int GETFIELD        = 0xb4;
+  private static final int PUTFIELD        = 0xb5;
+  private static final int INVOKESPECIAL   = 0xb7;
+  private static final int INVOKESTATIC    = 0xb8;
+  private static final int INVOKEINTERFACE = 0xb9;
+  private static final int CHECKCAST       = 0xc0;
+
+  // Constant pool tags
+  private static final int CONSTANT_Utf8               = 1;
+  private static final int CONSTANT_Integer            = 3;
+  private static final int CONSTANT_Class              = 7;
+  private static final int CONSTANT_Fieldref           = 9;
+  private static final int CONSTANT_Methodref          = 10;
+  private static final int CONSTANT_InterfaceMethodref = 11;
+  private static final int CONSTANT_NameAndType        = 12;
+
+  // Java 11 class file version
+  private static final int MajorVersion = 55;
+
+  /*
+   * Method byte code buffer.
+   */
+  private static final class Code
+  {
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+
+    Code op(final int op) {return u1(op);}
+
+    Code u1(final int b)
+    {
+      buf.write(b);
+      return this;
+    }
+
+    Code u2(final int n)
+    {
+      buf.write(n >>> 8);
+      buf.write(n);
+      return this;
+    }
+
+    byte[] bytes() {return buf.toByteArray();}
+  }
+
+  /*
+   * A minimal class file writer: supports only what the rule chain needs, that is, one field and
+   * methods without branches (thus, no stack map frames).
+   */
+  private static final class ClassWriter
+  {
+    private final ByteArrayOutputStream pool    = new ByteArrayOutputStream(1024);
+    private final DataOutputStream      cp      = new DataOutputStream(pool);
+    private final Map<String, Integer>  entries = new HashMap<>();
+    private final List<byte[]>          methods = new ArrayList<>();
+
+    private final String name;
+
+    private int count = 1;
+
+    ClassWriter(final String name) {this.name = name;}
+
+    int utf8(final String s) throws IOException
+    {
+      final String  key   = "U" + s;
+      final Integer index = entries.get(key);
+      if (index != null) return index;
+
+      cp.writeByte(CONSTANT_Utf8);
+      cp.writeUTF(s);
+      return add(key);
+    }
+
+    int integer(final int n) throws IOException
+    {
+      final String  key   = "I" + n;
+      final Integer index = entries.get(key);
+      if (index != null) return index;
+
+      cp.writeByte(CONSTANT_Integer);
+      cp.writeInt(n);
+      return add(key);
+    }
+
+    int classRef(final String name) throws IOException
+    {
+      final String  key   = "C" + name;
+      final Integer index = entries.get(key);
+      if (index != null) return index;
+
+      final int utf8 = utf8(name);
+      cp.writeByte(CONSTANT_Class);
+      cp.writeShort(utf8);
+      return add(key);
+    }
+
+    int fieldRef(final int owner, final String name, final String type) throws IOException
+    {
+      return memberRef(CONSTANT_Fieldref, owner, name, type);
+    }
+
+    int methodRef(final int owner, final String name, final String type) throws IOException
+    {
+      return memberRef(CONSTANT_Methodref, owner, name, type);
+    }
+
+    int interfaceMethodRef(final int owner, final String name, final String type)
+      throws IOException
+    {
+      return memberRef(CONSTANT_InterfaceMethodref, owner, name, type);
+    }
+
+    void pushInt(final Code code, final int n) throws IOException
+    {
+      if (n <= 5)
+        code.op(ICONST_0 + n);
+      else if (n <= Byte.MAX_VALUE)
+        code.op(BIPUSH).u1(n);
+      else if (n <= Short.MAX_VALUE)
+        code.op(SIPUSH).u2(n);
+      else
+        code.op(LDC_W).u2(integer(n));
+    }
+
+    void method(
+      final int access, final String name, final String type, final Code code,
+      final int maxStack, final int maxLocals) throws IOException
+    {
+      final byte[] bytes = code.bytes();
+
+      final ByteArrayOutputStream buf = new ByteArrayOutputStream(bytes.length + 32);
+      final DataOutputStream      out = new DataOutputStream(buf);
+
+      out.writeShort(access);
+      out.writeShort(utf8(name));
+      out.writeShort(utf8(type));
+      out.writeShort(1); // attributes count
+
+      out.writeShort(utf8("Code"));
+      out.writeInt(12 + bytes.length);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+      out.writeShort(0); // exception table length
+      out.writeShort(0); // attributes count
+
+      methods.add(buf.toByteArray());
+    }
+
+    byte[] toByteArray(final String iface, final String field, final String fieldType)
+      throws IOException
+    {
+      final int thisClass  = classRef(name);
+      final int superClass = classRef("java/lang/Object");
+      final int ifaceClass = classRef(iface);
+      final int fieldName  = utf8(field);
+      final int fieldDesc  = utf8(fieldType);
+
+      final ByteArrayOutputStream buf = new ByteArrayOutputStream(pool.size() + 1024);
+      final DataOutputStream      out = new DataOutputStream(buf);
+
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(MajorVersion);
+
+      out.writeShort(count);
+      pool.writeTo(out);
+
+      out.writeShort(ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+
+      out.writeShort(1);
+      out.writeShort(ifaceClass);
+
+      out.writeShort(1);
+      out.writeShort(ACC_PRIVATE | ACC_FINAL);
+      out.writeShort(fieldName);
+      out.writeShort(fieldDesc);
+      out.writeShort(0);
+
+      out.writeShort(methods.size());
+      for (final byte[] method : methods)
+        out.write(method);
+
+      out.writeShort(0); // class attributes count
+
+      return buf.toByteArray();
+    }
+
+    private int memberRef(final int tag, final int owner, final String name, final String type)
+      throws IOException
+    {
+      final String  key   = tag + ":" + owner + ":" + name + ":" + type;
+      final Integer index = entries.get(key);
+      if (index != null) return index;
+
+      final int nameAndType = nameAndType(name, type);
+
+      cp.writeByte(tag);
+      cp.writeShort(owner);
+      cp.writeShort(nameAndType);
+      return add(key);
+    }
+
+    private int nameAndType(final String name, final String type) throws IOException
+    {
+      final String  key   = "N" + name + ":" + type;
+      final Integer index = entries.get(key);
+      if (index != null) return index;
+
+      final int utf8Name = utf8(name);
+      final int utf8Type = utf8(type);
+
+      cp.writeByte(CONSTANT_NameAndType);
+      cp.writeShort(utf8Name);
+      cp.writeShort(utf8Type);
+      return add(key);
+    }
+
+    private int add(final String key)
+    {
+      final int index = count++;
+      entries.put(key, index);
+      return index;
+    }
+  }
+}
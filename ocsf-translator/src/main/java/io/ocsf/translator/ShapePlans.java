@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Rule plans specialized for the shape of the event data, that is the set of its top-level
+ * fields.
+ * <p>
+ * The events of a source type usually come in a handful of shapes. For each shape, the plan
+ * drops the rules whose source fields are missing, and decides once the rule conditions that only
+ * use missing fields. The rules do not add fields to the event data, so a field missing when the
+ * rules start is missing for all rules.
+ * <p>
+ * Like the inline caches of a JIT, a few plans are cached per rule list. The events with a new
+ * shape are translated with the generic plan when the cache is full.
+ */
+final class ShapePlans implements TranslatorBuilder.Rule
+{
+  /**
+   * The maximum number of plans cached per rule list.
+   */
+  static final int MaxShapes = 16;
+
+  // the rules using untracked fields are never dropped
+  private static final long Untracked = -1L;
+
+  /**
+   * A rule with the source fields and the condition needed to specialize it.
+   */
+  static final class Guard implements TranslatorBuilder.Rule
+  {
+    final TranslatorBuilder.Rule         rule;
+    final TranslatorBuilder.Rule         unconditional;
+    final Predicate<Map<String, Object>> predicate;
+    final Collection<String>             conditionFields;
+    final String[]                       sourceFields;
+
+    /**
+     * Creates a new guard.
+     *
+     * @param rule            the rule
+     * @param unconditional   the rule without its condition
+     * @param predicate       the rule condition, or null
+     * @param conditionFields the fields used by the condition, or null
+     * @param sourceFields    the fields read by the rule, the rule does nothing when they are all
+     *                        missing; or null if the rule writes without source data
+     */
+    Guard(
+      final TranslatorBuilder.Rule rule,
+      final TranslatorBuilder.Rule unconditional,
+      final Predicate<Map<String, Object>> predicate,
+      final Collection<String> conditionFields,
+      final String[] sourceFields)
+    {
+      this.rule            = rule;
+      this.unconditional   = unconditional;
+      this.predicate       = predicate;
+      this.conditionFields = conditionFields;
+      this.sourceFields    = sourceFields;
+    }
+
+    @Override
+    public void apply(final Map<String, Object> data, final Map<String, Object> translated)
+    {
+      rule.apply(data, translated);
+    }
+  }
+
+  private static final class Plan
+  {
+    private final long                     shape;
+    private final TranslatorBuilder.Rule[] rules;
+
+    private Plan(final long shape, final TranslatorBuilder.Rule[] rules)
+    {
+      this.shape = shape;
+      this.rules = rules;
+    }
+  }
+
+  private final TranslatorBuilder.Rule[] rules;
+  private final Guard[]                  guards;
+  private final long[]                   sources;
+  private final long[]                   conditions;
+  private final String[]                 fields;
+
+  private volatile Plan[] plans = new Plan[0];
+
+  private ShapePlans(final List<Tuple<String, TranslatorBuilder.Rule>> list)
+  {
+    final int                  size  = list.size();
+    final Map<String, Integer> index = new LinkedHashMap<>();
+
+    this.rules      = new TranslatorBuilder.Rule[size];
+    this.guards     = new Guard[size];
+    this.sources    = new long[size];
+    this.conditions = new long[size];
+
+    for (int i = 0; i < size; ++i)
+    {
+      final TranslatorBuilder.Rule rule = list.get(i).value;
+      if (rule instanceof Guard)
+      {
+        final Guard guard = (Guard) rule;
+
+        rules[i]      = guard.rule;
+        guards[i]     = guard;
+        sources[i]    = guard.sourceFields != null ?
+                        mask(Arrays.asList(guard.sourceFields), index) : Untracked;
+        conditions[i] = guard.conditionFields != null ?
+                        mask(guard.conditionFields, index) : Untracked;
+      }
+      else
+      {
+        rules[i] = rule;
+      }
+    }
+
+    this.fields = index.keySet().toArray(new String[0]);
+  }
+
+  /**
+   * Creates the shape-specialized plans of the given rules.
+   *
+   * @param rules the rules
+   * @return the rule that applies the specialized plans, or null if no rule can be specialized
+   */
+  static TranslatorBuilder.Rule create(final List<Tuple<String, TranslatorBuilder.Rule>> rules)
+  {
+    for (final Tuple<String, TranslatorBuilder.Rule> rule : rules)
+    {
+      if (rule.value instanceof Guard)
+        return new ShapePlans(rules);
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the given rules without their guards.
+   *
+   * @param rules the rules
+   * @return the rules as applied by the generic plan
+   */
+  static List<Tuple<String, TranslatorBuilder.Rule>> unwrap(
+    final List<Tuple<String, TranslatorBuilder.Rule>> rules)
+  {
+    final List<Tuple<String, TranslatorBuilder.Rule>> list = new ArrayList<>(rules.size());
+    for (final Tuple<String, TranslatorBuilder.Rule> rule : rules)
+    {
+      list.add(rule.value instanceof Guard ?
+               new Tuple<>(rule.name, ((Guard) rule.value).rule) : rule);
+    }
+
+    return list;
+  }
+
+  @Override
+  public void apply(final Map<String, Object> data, final Map<String, Object> translated)
+  {
+    for (final TranslatorBuilder.Rule rule : plan(shape(data)))
+      rule.apply(data, translated);
+  }
+
+  /**
+   * Returns the number of cached plans.
+   *
+   * @return the number of shapes seen so far, up to {@link #MaxShapes}
+   */
+  int shapes() {return plans.length;}
+
+  // the shape of the event data: one bit per tracked field present in the data
+  private long shape(final Map<String, Object> data)
+  {
+    long shape = 0;
+    for (int i = 0; i < fields.length; ++i)
+    {
+      if (data.containsKey(fields[i]))
+        shape |= 1L << i;
+    }
+    return shape;
+  }
+
+  private TranslatorBuilder.Rule[] plan(final long shape)
+  {
+    for (final Plan plan : plans)
+    {
+      if (plan.shape == shape)
+        return plan.rules;
+    }
+
+    synchronized (this)
+    {
+      final Plan[] cached = plans;
+      for (final Plan plan : cached)
+      {
+        if (plan.shape == shape)
+          return plan.rules;
+      }
+
+      if (cached.length == MaxShapes)
+        return rules;
+
+      final Plan   plan    = new Plan(shape, specialize(shape));
+      final Plan[] updated = Arrays.copyOf(cached, cached.length + 1);
+      updated[cached.length] = plan;
+      plans = updated;
+
+      return plan.rules;
+    }
+  }
+
+  private TranslatorBuilder.Rule[] specialize(final long shape)
+  {
+    final List<TranslatorBuilder.Rule> list = new ArrayList<>(rules.length);
+    for (int i = 0; i < rules.length; ++i)
+    {
+      final Guard guard = guards[i];
+      if (guard == null)
+      {
+        list.add(rules[i]);
+      }
+      else if (!missing(sources[i], shape))
+      {
+        if (guard.predicate != null && missing(conditions[i], shape))
+        {
+          final Boolean matches = decide(guard.predicate);
+          if (matches == null)
+            list.add(rules[i]);
+          else if (matches)
+            list.add(guard.unconditional);
+        }
+        else
+        {
+          list.add(rules[i]);
+        }
+      }
+    }
+
+    return list.toArray(new TranslatorBuilder.Rule[0]);
+  }
+
+  private static boolean missing(final long mask, final long shape)
+  {
+    return mask != Untracked && (mask & shape) == 0;
+  }
+
+  // the value of a condition when all its fields are missing, or null if unknown
+  private static Boolean decide(final Predicate<Map<String, Object>> predicate)
+  {
+    try
+    {
+      return predicate.test(new HashMap<>());
+    }
+    catch (final RuntimeException e)
+    {
+      return null;
+    }
+  }
+
+  /*
+   * Returns the bits of the top-level fields of the given paths. A path is looked up as a key
+   * first, then as a nested path, so both are tracked.
+   */
+  private static long mask(final Collection<String> paths, final Map<String, Integer> index)
+  {
+    long mask = 0;
+    for (final String path : paths)
+    {
+      final int dot = path.indexOf('.');
+
+      mask |= bit(path, index);
+      if (dot > 0)
+        mask |= bit(path.substring(0, dot), index);
+    }
+    return mask;
+  }
+
+  private static long bit(final String field, final Map<String, Integer> index)
+  {
+    Integer bit = index.get(field);
+    if (bit == null)
+    {
+      if (index.size() == Long.SIZE)
+        return Untracked;
+
+      bit = index.size();
+      index.put(field, bit);
+    }
+    return 1L << bit;
+  }
+}
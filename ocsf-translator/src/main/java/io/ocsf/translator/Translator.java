@@ -1,6 +1,7 @@
 package io.ocsf.translator;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Translator interface.
@@ -24,4 +25,13 @@ public interface Translator
   }
 
   default boolean isDefault() {return false;}
+
+  /**
+   * Returns the source fields used by the translator's rules and conditions, using the
+   * <code>map.path.to.value</code> notation. The other fields of the event data are not used,
+   * and the event parser does not need to parse them.
+   *
+   * @return the source fields, or null if the translator may use any field
+   */
+  default Set<String> fields() {return null;}
 }
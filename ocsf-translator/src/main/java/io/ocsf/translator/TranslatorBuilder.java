@@ -97,6 +97,83 @@ public final class TranslatorBuilder
     void apply(Map<String, Object> data, final Map<String, Object> translated);
   }
 
+  /**
+   * A rule that reads or writes a single field, without a condition or a type conversion. The
+   * bytecode backend inlines the field access of these rules, see {@link RuleCompiler}.
+   */
+  static final class FieldRule implements Rule
+  {
+    enum Op
+    {
+      Move, Copy, Remove, Set, Clone
+    }
+
+    final Op        op;
+    final FieldPath src;
+    final FieldPath dst;
+    final Object    value;
+    final boolean   overwrite;
+
+    FieldRule(
+      final Op op, final FieldPath src, final FieldPath dst, final Object value,
+      final boolean overwrite)
+    {
+      this.op        = op;
+      this.src       = src;
+      this.dst       = dst;
+      this.value     = value;
+      this.overwrite = overwrite;
+    }
+
+    @Override
+    public void apply(final Map<String, Object> data, final Map<String, Object> translated)
+    {
+      switch (op)
+      {
+        case Move:
+          Maps.putIn(translated, dst, Maps.removeIn(data, src), overwrite);
+          break;
+        case Copy:
+          Maps.putIn(translated, dst, Maps.getIn(data, src), overwrite);
+          break;
+        case Remove:
+          Maps.removeIn(data, src);
+          break;
+        case Set:
+          Maps.putIn(translated, dst, value, overwrite);
+          break;
+        case Clone:
+          Maps.putIn(translated, dst, Maps.getIn(translated, src), overwrite);
+          break;
+      }
+    }
+  }
+
+  /**
+   * The execution backend of the translation rules.
+   */
+  public enum Backend
+  {
+    /**
+     * The rules are applied in a loop, one rule at a time.
+     */
+    Interpreter,
+
+    /**
+     * The rules are compiled into a generated class that reads and writes the fields of the plain
+     * field rules in place, and invokes each other rule from its own call site. Falls back to the
+     * interpreter if the class cannot be generated.
+     */
+    Bytecode,
+
+    /**
+     * The rules are specialized for the shape of the event data, the set of its top-level fields:
+     * the rules whose source fields are missing are dropped, and the conditions that only use
+     * missing fields are decided once per shape. The specialized rules are applied in a loop.
+     */
+    Specialized
+  }
+
   /**
    * JSON reader interface to abstract the location (resources vs filesystem) of the translation
    * rule files.
@@ -118,10 +195,44 @@ public final class TranslatorBuilder
    */
   public static Translator fromFile(final Path home, final Path path) throws IOException
   {
-    if (java.nio.file.Files.isRegularFile(path))
-      return create(home, home.resolve(path.toRealPath()), Files::readJson);
+    return fromFile(home, path, Backend.Interpreter);
+  }
 
-    return create(home, home.resolve(path), Files::readJson);
+  /**
+   * Creates a new translator from a file.
+   *
+   * @param home    the home folder of the rules
+   * @param path    the path to a file with JSON encoded translation rules
+   * @param backend the execution backend of the rules
+   * @return the translator using the translation rules
+   * @throws ParserException invalid json file
+   * @throws IOException     unable to read the file
+   */
+  public static Translator fromFile(final Path home, final Path path, final Backend backend)
+    throws IOException
+  {
+    return fromFile(home, path, backend, null);
+  }
+
+  /**
+   * Creates a new translator from a file, and records the rule-level profile of the translator.
+   *
+   * @param home    the home folder of the rules
+   * @param path    the path to a file with JSON encoded translation rules
+   * @param backend the execution backend of the rules
+   * @param profile the profile of the rules, or null to not profile the rules
+   * @return the translator using the translation rules
+   * @throws ParserException invalid json file
+   * @throws IOException     unable to read the file
+   */
+  public static Translator fromFile(
+    final Path home, final Path path, final Backend backend, final TranslatorProfile profile)
+    throws IOException
+  {
+    final Path resolved = java.nio.file.Files.isRegularFile(path) ?
+                          home.resolve(path.toRealPath()) : home.resolve(path);
+
+    return build(home, Files::readJson, Maps.typecast(Files.readJson(resolved)), backend, profile);
   }
 
   /**
@@ -151,7 +262,25 @@ public final class TranslatorBuilder
   public static Translator create(final Path home, final Path path, final JsonReader reader)
     throws IOException
   {
-    return build(home, reader, Maps.typecast(reader.read(path)));
+    return create(home, path, reader, Backend.Interpreter);
+  }
+
+  /**
+   * Creates a new translator.
+   *
+   * @param home    the home folder of the rules
+   * @param path    the path to the JSON encoded translation rules
+   * @param reader  the JSON reader
+   * @param backend the execution backend of the rules
+   * @return the translator using the translation rules
+   * @throws ParserException invalid json
+   * @throws IOException     unable to read the resource
+   */
+  public static Translator create(
+    final Path home, final Path path, final JsonReader reader, final Backend backend)
+    throws IOException
+  {
+    return build(home, reader, Maps.typecast(reader.read(path)), backend);
   }
 
   /*
@@ -161,42 +290,83 @@ public final class TranslatorBuilder
    */
   public static Translator fromString(final String json) throws IOException
   {
-    return build(null, null, Json5Parser.to(json));
+    return fromString(json, Backend.Interpreter);
+  }
+
+  public static Translator fromString(final String json, final Backend backend)
+    throws IOException
+  {
+    return build(null, null, Json5Parser.to(json), backend);
   }
 
   public static Translator build(
     final Path home, final JsonReader reader, final Map<String, Object> map) throws IOException
   {
-    final Translator translator =
-      createTranslator(
-        (String) map.get(Predicate),
-        readParsers(home, reader, map),
-        readRules(home, reader, map));
+    return build(home, reader, map, Backend.Interpreter);
+  }
+
+  public static Translator build(
+    final Path home, final JsonReader reader, final Map<String, Object> map,
+    final Backend backend) throws IOException
+  {
+    return build(home, reader, map, backend, null);
+  }
+
+  /**
+   * Creates a new translator, and records the rule-level profile of the translator.
+   * <p>
+   * The rules and the conditions are wrapped with the profile counters when the translator is
+   * built. Without a profile, the rules are not wrapped and run without any overhead.
+   *
+   * @param home    the home folder of the rules
+   * @param reader  the JSON reader
+   * @param map     the translation rules
+   * @param backend the execution backend of the rules
+   * @param profile the profile of the rules, or null to not profile the rules
+   * @return the translator using the translation rules
+   * @throws ParserException invalid json
+   * @throws IOException     unable to read an included file
+   */
+  public static Translator build(
+    final Path home, final JsonReader reader, final Map<String, Object> map,
+    final Backend backend, final TranslatorProfile profile) throws IOException
+  {
+    final Set<String> fields = new HashSet<>();
+
+    final String                          cond  = (String) map.get(Predicate);
+    final DataTranslator                  parse = readParsers(home, reader, map, fields);
+    final Collection<Map<String, Object>> rules = readRules(home, reader, map);
+
+    final Translator translator = createTranslator(cond, parse, rules, backend, profile);
+    addFields(cond, rules, fields);
 
     final Collection<Map<String, Object>> ruleset = Maps.typecast(map.get(RuleSet));
     if (ruleset == null || ruleset.isEmpty())
     {
-      return translator;
+      return withFields(translator, Collections.unmodifiableSet(fields));
     }
 
     {
       final Collection<Translator> list = new ArrayList<>(ruleset.size());
       for (final Map<String, Object> rule : ruleset)
       {
-        list.add(
-          createSubTranslator(
-            (String) rule.get(Predicate),
-            readParsers(home, reader, rule),
-            readRules(home, reader, rule)));
+        final String                          subCond  = (String) rule.get(Predicate);
+        final DataTranslator                  subParse = readParsers(home, reader, rule, fields);
+        final Collection<Map<String, Object>> subRules = readRules(home, reader, rule);
+
+        list.add(createSubTranslator(subCond, subParse, subRules, backend, profile));
+        addFields(subCond, subRules, fields);
       }
 
+      final Set<String> used = Collections.unmodifiableSet(fields);
+
       return new Translator()
       {
         @Override
         public Map<String, Object> apply(final Map<String, Object> data)
         {
           final Map<String, Object> updated    = translator.apply(data);
-          final Map<String, Object> translated = updated != data ? updated : new HashMap<>();
+          final Map<String, Object> translated = updated != data ? updated : new CompactMap();
 
           for (final Translator t : list)
           {
@@ -211,10 +381,122 @@ public final class TranslatorBuilder
         {
           return translator.isDefault();
         }
+
+        @Override
+        public Set<String> fields()
+        {
+          return used;
+        }
       };
     }
   }
 
+  private static Translator withFields(final Translator translator, final Set<String> fields)
+  {
+    return new Translator()
+    {
+      @Override
+      public Map<String, Object> apply(final Map<String, Object> data)
+      {
+        return translator.apply(data);
+      }
+
+      @Override
+      public Map<String, Object> apply(
+        final Map<String, Object> data, final Map<String, Object> translated)
+      {
+        return translator.apply(data, translated);
+      }
+
+      @Override
+      public boolean isDefault()
+      {
+        return translator.isDefault();
+      }
+
+      @Override
+      public Set<String> fields()
+      {
+        return fields;
+      }
+    };
+  }
+
+  /*
+   * Adds the source fields used by the condition and the rules. The '@value' and '@clone' rules
+   * do not use the source fields, and an embedded rule uses all nested fields of its field.
+   */
+  private static void addFields(
+    final String cond, final Collection<Map<String, Object>> rules, final Set<String> fields)
+  {
+    addConditionFields(cond, fields);
+
+    if (rules == null)
+      return;
+
+    for (final Map<String, Object> rule : rules)
+    {
+      for (final Map.Entry<String, Object> r : rule.entrySet())
+      {
+        final String name = r.getKey();
+        final Object obj  = r.getValue();
+
+        if (obj instanceof Map<?, ?>)
+        {
+          if (!MagicValue.equals(name))
+            addRuleFields(name, Maps.typecast(obj), fields);
+          break;
+        }
+
+        if (obj instanceof Collection<?>)
+        {
+          fields.add(name);
+          break;
+        }
+      }
+    }
+  }
+
+  private static void addRuleFields(
+    final String name, final Map<String, Object> map, final Set<String> fields)
+  {
+    for (final Map.Entry<String, Object> entry : map.entrySet())
+    {
+      switch (entry.getKey())
+      {
+        case "@move":
+        case "@copy":
+        case "@remove":
+        case "@enum":
+        case "@lookup":
+          Collections.addAll(fields, name.split("\\s*,\\s*"));
+          addPredicateFields(entry.getValue(), fields);
+          return;
+
+        case "@value":
+        case "@clone":
+          addPredicateFields(entry.getValue(), fields);
+          return;
+
+        default:
+          break;
+      }
+    }
+  }
+
+  // the 'when' condition of a rule is in the rule data
+  private static void addPredicateFields(final Object ruleData, final Set<String> fields)
+  {
+    if (ruleData instanceof Map<?, ?>)
+      addConditionFields((String) ((Map<?, ?>) ruleData).get(Predicate), fields);
+  }
+
+  private static void addConditionFields(final String when, final Set<String> fields)
+  {
+    if (Strings.isNotEmpty(when))
+      fields.addAll(BooleanExpression.parse(when).fields());
+  }
+
   private interface DataTranslator
   {
     Map<String, Object> parse(final Map<String, Object> map);
@@ -238,18 +520,19 @@ public final class TranslatorBuilder
   }
 
   private static DataTranslator readParsers(
-    final Path home, final JsonReader reader, final Map<String, Object> rule) throws IOException
+    final Path home, final JsonReader reader, final Map<String, Object> rule,
+    final Set<String> fields) throws IOException
   {
     final Map<String, Object> parser = Maps.typecast(rule.get(Parser));
     if (parser != null)
     {
-      return loadParser(home, reader, parser);
+      return loadParser(home, reader, parser, fields);
     }
 
     final List<Map<String, Object>> parsers = Maps.typecast(rule.get(Parsers));
     if (parsers != null)
     {
-      return loadParsers(home, reader, parsers, new MultiStageParser());
+      return loadParsers(home, reader, parsers, new MultiStageParser(), fields);
     }
 
     return data -> data;
@@ -259,7 +542,8 @@ public final class TranslatorBuilder
     final Path home,
     final JsonReader reader,
     final Collection<Map<String, Object>> parsers,
-    final MultiStageParser list) throws IOException
+    final MultiStageParser list,
+    final Set<String> fields) throws IOException
   {
     for (final Map<String, Object> p : parsers)
     {
@@ -271,17 +555,17 @@ public final class TranslatorBuilder
         if (included instanceof Map<?, ?>)
         {
           // includes a single parser
-          list.add(createParser(Maps.typecast(included)));
+          list.add(createParser(Maps.typecast(included), fields));
         }
         else if (included instanceof Collection<?>)
         {
           // includes a list of parsers
-          loadParsers(home, reader, Maps.typecast(included), list);
+          loadParsers(home, reader, Maps.typecast(included), list, fields);
         }
       }
       else
       {
-        list.add(createParser(p));
+        list.add(createParser(p, fields));
       }
     }
 
@@ -289,7 +573,8 @@ public final class TranslatorBuilder
   }
 
   private static DataTranslator loadParser(
-    final Path home, final JsonReader reader, final Map<String, Object> map) throws IOException
+    final Path home, final JsonReader reader, final Map<String, Object> map,
+    final Set<String> fields) throws IOException
   {
     final String filename = Maps.get(map, Include);
 
@@ -299,26 +584,36 @@ public final class TranslatorBuilder
       if (included instanceof Map<?, ?>)
       {
         // includes a single parser
-        return createParser(Maps.typecast(included));
+        return createParser(Maps.typecast(included), fields);
       }
 
       if (included instanceof Collection<?>)
       {
         // includes a list of parsers
-        return loadParsers(home, reader, Maps.typecast(included), new MultiStageParser());
+        return loadParsers(
+          home, reader, Maps.typecast(included), new MultiStageParser(), fields);
       }
     }
 
-    return createParser(map);
+    return createParser(map, fields);
   }
 
-  private static DataTranslator createParser(final Map<String, Object> map)
+  private static DataTranslator createParser(
+    final Map<String, Object> map, final Set<String> fields)
   {
-    final String srcKey = (String) map.get(NameField);
-    final String dstKey = (String) map.get(OutputField);
+    final String    srcKey  = (String) map.get(NameField);
+    final String    dstKey  = (String) map.get(OutputField);
+    final FieldPath srcPath = srcKey != null ? FieldPath.of(srcKey) : null;
+    final FieldPath dstPath = dstKey != null ? FieldPath.of(dstKey) : null;
+
+    // the parsed data is merged with the existing output value
+    if (srcKey != null)
+      fields.add(srcKey);
+    if (dstKey != null)
+      fields.add(dstKey);
 
     return buildDataTranslator(map, parser -> data -> {
-      final String text = (String) Maps.getIn(data, srcKey);
+      final String text = (String) Maps.getIn(data, srcPath);
       if (Strings.isNotEmpty(text))
       {
         try
@@ -326,12 +621,12 @@ public final class TranslatorBuilder
           final Map<String, Object> parsed = parser.parse(text);
           if (parsed != null)
           {
-            if (dstKey != null)
+            if (dstPath != null)
             {
-              final Map<String, Object> dstMap = Maps.typecast(Maps.getIn(data, dstKey));
+              final Map<String, Object> dstMap = Maps.typecast(Maps.getIn(data, dstPath));
               if (dstMap == null)
               {
-                Maps.putIn(data, dstKey, parsed);
+                Maps.putIn(data, dstPath, parsed);
               }
               else
               {
@@ -375,7 +670,8 @@ public final class TranslatorBuilder
 
 
   private static Translator createTranslator(
-    final String cond, final DataTranslator translator, final Collection<Map<String, Object>> rules)
+    final String cond, final DataTranslator translator, final Collection<Map<String, Object>> rules,
+    final Backend backend, final TranslatorProfile profile)
   {
     // no rules, no translations
     if (rules == null)
@@ -383,7 +679,7 @@ public final class TranslatorBuilder
       return (NonConditional) translator::parse;
     }
 
-    final List<Tuple<String, Rule>> compiled = compile(rules);
+    final Rule compiled = link(compile(rules, profile), backend);
 
     // if no conditions, then translate everything
     if (Strings.isEmpty(cond))
@@ -393,7 +689,7 @@ public final class TranslatorBuilder
 
     return new Conditional()
     {
-      final Predicate<Map<String, Object>> p = compile(cond);
+      final Predicate<Map<String, Object>> p = when(cond, profile);
 
       @Override
       public Map<String, Object> apply(final Map<String, Object> data)
@@ -405,12 +701,13 @@ public final class TranslatorBuilder
   }
 
   private static Translator createSubTranslator(
-    final String cond, final DataTranslator translator, final Collection<Map<String, Object>> rules)
+    final String cond, final DataTranslator translator, final Collection<Map<String, Object>> rules,
+    final Backend backend, final TranslatorProfile profile)
   {
     // no rules, no translations
     if (rules == null) return translator::parse;
 
-    final List<Tuple<String, Rule>> compiled = compile(rules);
+    final Rule compiled = link(compile(rules, profile), backend);
 
     // if no conditions, then translate everything
     if (Strings.isEmpty(cond))
@@ -434,7 +731,7 @@ public final class TranslatorBuilder
 
     return new Conditional()
     {
-      final Predicate<Map<String, Object>> p = compile(cond);
+      final Predicate<Map<String, Object>> p = when(cond, profile);
 
       @Override
       public Map<String, Object> apply(final Map<String, Object> data)
@@ -517,10 +814,44 @@ public final class TranslatorBuilder
     }
   }
 
+  private static Rule link(final List<Tuple<String, Rule>> rules, final Backend backend)
+  {
+    if (backend == Backend.Specialized)
+    {
+      final Rule plans = ShapePlans.create(rules);
+      if (plans != null)
+        return plans;
+    }
+
+    final List<Tuple<String, Rule>> list = ShapePlans.unwrap(rules);
+
+    if (backend == Backend.Bytecode)
+    {
+      final Rule chain = RuleCompiler.compile(list);
+      if (chain != null)
+        return chain;
+    }
+
+    return (data, translated) -> list.forEach(rule -> rule.value.apply(data, translated));
+  }
+
+  static Map<String, Object> apply(final Rule rules, final Map<String, Object> data)
+  {
+    return apply(rules, data, new CompactMap());
+  }
+
+  static Map<String, Object> apply(
+    final Rule rules, final Map<String, Object> data, final Map<String, Object> translated)
+  {
+    rules.apply(data, translated);
+    Maps.cleanup(data);
+    return translated;
+  }
+
   static Map<String, Object> apply(
     final List<Tuple<String, Rule>> rules, final Map<String, Object> data)
   {
-    return apply(rules, data, new HashMap<>());
+    return apply(rules, data, new CompactMap());
   }
 
   static Map<String, Object> apply(
@@ -533,6 +864,12 @@ public final class TranslatorBuilder
   }
 
   static List<Tuple<String, Rule>> compile(final Collection<Map<String, Object>> src)
+  {
+    return compile(src, null);
+  }
+
+  static List<Tuple<String, Rule>> compile(
+    final Collection<Map<String, Object>> src, final TranslatorProfile profile)
   {
     final List<Tuple<String, Rule>> rules = new ArrayList<>(src.size());
 
@@ -540,7 +877,7 @@ public final class TranslatorBuilder
     {
       try
       {
-        rules.add(createRule(entry));
+        rules.add(createRule(entry, profile));
       }
       catch (final Exception e)
       {
@@ -551,23 +888,51 @@ public final class TranslatorBuilder
     return rules;
   }
 
-  private static Tuple<String, Rule> createRule(final Map<String, Object> rule) throws Exception
+  private static Tuple<String, Rule> createRule(
+    final Map<String, Object> rule, final TranslatorProfile profile) throws Exception
   {
     for (final Map.Entry<String, Object> r : rule.entrySet())
     {
-      final String name = r.getKey().intern();
+      final String name = r.getKey();
       final Object obj  = r.getValue();
 
-      if (obj instanceof Map<?, ?>) return newRule(name, Maps.typecast(obj));
+      if (obj instanceof Map<?, ?>)
+      {
+        if (profile == null)
+          return newRule(name, Maps.typecast(obj), null);
+
+        final TranslatorProfile.Entry entry = profile.rule(ruleName(name, Maps.typecast(obj)));
+        return profile.rule(entry, newRule(name, Maps.typecast(obj), entry));
+      }
 
       // handle embedded objects
-      if (obj instanceof Collection<?>) return embedded(name, Maps.typecast(obj));
+      if (obj instanceof Collection<?>)
+      {
+        if (profile == null)
+          return embedded(name, Maps.typecast(obj), null, null);
+
+        final TranslatorProfile.Entry entry = profile.rule(name + " []");
+        return profile.rule(entry, embedded(name, Maps.typecast(obj), profile, entry));
+      }
     }
 
     throw new IllegalArgumentException("Illegal rule");
   }
 
-  private static Tuple<String, Rule> newRule(final String name, final Map<String, Object> map)
+  // the profile name of a rule: the field name and the transformation statement
+  private static String ruleName(final String name, final Map<String, Object> map)
+  {
+    for (final String key : map.keySet())
+    {
+      if (key.startsWith("@"))
+        return name + " " + key;
+    }
+
+    return name;
+  }
+
+  private static Tuple<String, Rule> newRule(
+    final String name, final Map<String, Object> map, final TranslatorProfile.Entry profile)
     throws Exception
   {
     // first, handle the values
@@ -575,9 +940,9 @@ public final class TranslatorBuilder
     {
       final Object value = map.get("@value");
 
-      if (value instanceof Map<?, ?>) return merge(name, Maps.typecast(value));
+      if (value instanceof Map<?, ?>) return merge(name, Maps.typecast(value), profile);
 
-      return merge(name, map);
+      return merge(name, map, profile);
     }
 
     for (final Map.Entry<String, Object> entry : map.entrySet())
@@ -585,25 +950,25 @@ public final class TranslatorBuilder
       switch (entry.getKey())
       {
         case "@move":
-          return move(name, entry.getValue());
+          return move(name, entry.getValue(), profile);
 
         case "@copy":
-          return copy(name, entry.getValue());
+          return copy(name, entry.getValue(), profile);
 
         case "@remove":
-          return remove(name, entry.getValue());
+          return remove(name, entry.getValue(), profile);
 
         case "@value":
-          return value(name, entry.getValue());
+          return value(name, entry.getValue(), profile);
 
         case "@clone":
-          return clone(name, entry.getValue());
+          return clone(name, entry.getValue(), profile);
 
         case "@enum":
-          return lookup(name, Maps::removeIn, entry.getValue());
+          return lookup(name, Maps::removeIn, entry.getValue(), profile);
 
         case "@lookup":
-          return lookup(name, Maps::getIn, entry.getValue());
+          return lookup(name, Maps::getIn, entry.getValue(), profile);
 
         default:
           break;  // ignore the other fields
@@ -614,121 +979,154 @@ public final class TranslatorBuilder
   }
 
   private static Tuple<String, Rule> embedded(
-    final String name, final Collection<Map<String, Object>> ruleData)
+    final String name, final Collection<Map<String, Object>> ruleData,
+    final TranslatorProfile profile, final TranslatorProfile.Entry entry)
   {
-    final List<Tuple<String, Rule>> rules = compile(ruleData);
+    final List<Tuple<String, Rule>> rules = ShapePlans.unwrap(compile(ruleData, profile));
 
-    return new Tuple<>(name, (data, translated) -> {
+    final String[] sources = {name};
+
+    return guarded(name, sources, null, null, profile != null, p -> (data, translated) -> {
       if (data != null)
       {
         final Object value = data.get(name);
         if (value instanceof Map<?, ?>)
         {
-          translated.putAll(apply(rules, Maps.typecast(value)));
+          putAll(entry, translated, apply(rules, Maps.typecast(value)));
         }
         else if (value instanceof List<?>)
         {
           Maps.<List<Map<String, Object>>>typecast(value)
-              .forEach(map -> translated.putAll(apply(rules, map)));
+              .forEach(map -> putAll(entry, translated, apply(rules, map)));
         }
       }
     });
   }
 
-  private static Tuple<String, Rule> merge(final String name, final Map<String, Object> value)
+  private static Tuple<String, Rule> merge(
+    final String name, final Map<String, Object> value, final TranslatorProfile.Entry profile)
   {
-    return new Tuple<>(name, (_data, translated) -> Maps.merge(translated, value, false));
+    if (profile == null)
+      return new Tuple<>(name, (_data, translated) -> Maps.merge(translated, value, false));
+
+    final int values = TranslatorProfile.values(value);
+
+    return new Tuple<>(name, (_data, translated) -> {
+      Maps.merge(translated, value, false);
+      TranslatorProfile.written(profile, values);
+    });
   }
 
-  private static Tuple<String, Rule> value(final String name, final Object ruleData)
+  private static Tuple<String, Rule> value(
+    final String name, final Object ruleData, final TranslatorProfile.Entry profile)
   {
     final boolean overwrite;
     final Object  value;
+    final String  when;
 
-    final Predicate<Map<String, Object>> predicate;
     if (ruleData instanceof Map<?, ?>)
     {
       final Map<String, Object> map = Maps.typecast(ruleData);
       overwrite = Maps.get(map, Overwrite, Boolean.FALSE);
       value     = map.get(Value);
-
-      final String when = (String) map.get(Predicate);
-      predicate = Strings.isEmpty(when) ? null : compile(when);
+      when      = (String) map.get(Predicate);
     }
     else
     {
       overwrite = false;
       value     = ruleData;
-      predicate = null;
+      when      = null;
     }
 
-    return new Tuple<>(name, (data, translated) -> {
-      if (predicate == null || predicate.test(data)) Maps.putIn(translated, name, value, overwrite);
-    });
+    final Predicate<Map<String, Object>> predicate = predicate(when, profile);
+
+    final FieldPath path = FieldPath.of(name);
+
+    // the profiled writes are counted by the rule
+    final boolean plain = profile == null;
+
+    return guarded(name, null, when, predicate, profile != null, p -> p == null && plain ?
+      new FieldRule(FieldRule.Op.Set, null, path, value, overwrite) :
+      (data, translated) -> {
+        if (p == null || p.test(data)) put(profile, translated, path, value, overwrite);
+      });
   }
 
-  private static Tuple<String, Rule> clone(final String name, final Object ruleData)
+  private static Tuple<String, Rule> clone(
+    final String name, final Object ruleData, final TranslatorProfile.Entry profile)
   {
     final boolean overwrite;
     final String  dest;
+    final String  when;
 
-    final Predicate<Map<String, Object>> predicate;
     if (ruleData instanceof Map<?, ?>)
     {
       final Map<String, Object> map = Maps.typecast(ruleData);
       overwrite = Maps.get(map, Overwrite, Boolean.FALSE);
       dest      = (String) map.get(NameField);
-
-      final String when = (String) map.get(Predicate);
-      predicate = Strings.isEmpty(when) ? null : compile(when);
+      when      = (String) map.get(Predicate);
     }
     else
     {
       overwrite = false;
       dest      = (String) ruleData;
-      predicate = null;
+      when      = null;
     }
 
-    return new Tuple<>(name, (data, translated) -> {
-      if (predicate == null || predicate.test(data))
-      {
-        Maps.putIn(translated, dest, Maps.getIn(translated, name), overwrite);
-      }
-    });
+    final Predicate<Map<String, Object>> predicate = predicate(when, profile);
+
+    final FieldPath srcPath = FieldPath.of(name);
+    final FieldPath dstPath = FieldPath.of(dest);
+
+    // the profiled writes are counted by the rule
+    final boolean plain = profile == null;
+
+    // the source is the translated data
+    return guarded(name, null, when, predicate, profile != null, p -> p == null && plain ?
+      new FieldRule(FieldRule.Op.Clone, srcPath, dstPath, null, overwrite) :
+      (data, translated) -> {
+        if (p == null || p.test(data))
+        {
+          put(profile, translated, dstPath, Maps.getIn(translated, srcPath), overwrite);
+        }
+      });
   }
 
-  private static Tuple<String, Rule> remove(final String name, final Object ruleData)
+  private static Tuple<String, Rule> remove(
+    final String name, final Object ruleData, final TranslatorProfile.Entry profile)
   {
-    final Predicate<Map<String, Object>> predicate;
-    if (ruleData instanceof Map<?, ?>)
-    {
-      final Map<String, Object> map = Maps.typecast(ruleData);
+    final String when = ruleData instanceof Map<?, ?> ?
+                        (String) ((Map<?, ?>) ruleData).get(Predicate) : null;
 
-      final String when = (String) map.get(Predicate);
-      predicate = Strings.isEmpty(when) ? null : compile(when);
-    }
-    else
-    {
-      predicate = null;
-    }
+    final Predicate<Map<String, Object>> predicate = predicate(when, profile);
 
-    return new Tuple<>(name, (data, translated) -> {
-      if (predicate == null || predicate.test(data)) Maps.removeIn(data, name);
-    });
+    final FieldPath path    = FieldPath.of(name);
+    final String[]  sources = {name};
+
+    return guarded(name, sources, when, predicate, profile != null, p -> p == null ?
+      new FieldRule(FieldRule.Op.Remove, path, null, null, false) :
+      (data, translated) -> {
+        if (p.test(data)) Maps.removeIn(data, path);
+      });
   }
 
-  private static Tuple<String, Rule> move(final String name, final Object ruleData) throws Exception
+  private static Tuple<String, Rule> move(
+    final String name, final Object ruleData, final TranslatorProfile.Entry profile)
+    throws Exception
   {
-    return rename(name, Maps::removeIn, ruleData);
+    return rename(name, FieldRule.Op.Move, Maps::removeIn, ruleData, profile);
   }
 
-  private static Tuple<String, Rule> copy(final String name, final Object ruleData) throws Exception
+  private static Tuple<String, Rule> copy(
+    final String name, final Object ruleData, final TranslatorProfile.Entry profile)
+    throws Exception
   {
-    return rename(name, Maps::getIn, ruleData);
+    return rename(name, FieldRule.Op.Copy, Maps::getIn, ruleData, profile);
   }
 
   private static Tuple<String, Rule> rename(
-    final String name, final Maps.DataSource source, final Object ruleData) throws Exception
+    final String name, final FieldRule.Op op, final Maps.PathSource source, final Object ruleData,
+    final TranslatorProfile.Entry profile) throws Exception
   {
     final String  key;
     final String  type;
@@ -737,14 +1135,13 @@ public final class TranslatorBuilder
     final Object  defValue;
     final boolean overwrite;
     final boolean is_array;
-
-    final Predicate<Map<String, Object>> predicate;
+    final String  when;
 
     if (ruleData instanceof Map<?, ?>)
     {
       final Map<String, Object> map = Maps.typecast(ruleData);
 
-      key       = Maps.get(map, NameField, name).intern();
+      key       = Maps.get(map, NameField, name);
       type      = Maps.get(map, ValueType);
       separator = (String) map.get(Separator);
       splitter  = (String) map.getOrDefault(Splitter, Strings.LineSplitter);
@@ -752,45 +1149,43 @@ public final class TranslatorBuilder
       defValue  = map.get(DefaultValue);
       overwrite = Maps.get(map, Overwrite, Boolean.FALSE);
       is_array  = Maps.get(map, Is_Array, Boolean.FALSE);
-
-      final String when = (String) map.get(Predicate);
-      predicate = Strings.isEmpty(when) ? null : compile(when);
+      when      = (String) map.get(Predicate);
     }
     else if (ruleData instanceof String)
     {
-      key       = ((String) ruleData).intern();
+      key       = (String) ruleData;
       type      = null;
       separator = null;
       splitter  = Strings.LineSplitter;
       defValue  = null;
       overwrite = false;
       is_array  = false;
-      predicate = null;
+      when      = null;
     }
     else
     {
       throw new Exception("move: unexpected rule type");
     }
 
-    final Maps.DataSource src;
+    final Maps.PathSource src;
 
     final int comma = name.indexOf(',');
     if (comma > 0)
     {
-      src = new Maps.DataSource()
+      src = new Maps.PathSource()
       {
         // multi-field
-        private final String[] names = name.split("\\s*,\\s*");
+        private final FieldPath[] paths = paths(name.split("\\s*,\\s*"));
         private final StringBuilder sb = new StringBuilder();
 
         @Override
-        public Object get(final Map<String, Object> map, final String _name)
+        public Object get(final Map<String, Object> map, final FieldPath _path)
         {
           sb.setLength(0);
 
-          for (final String name : names)
+          for (final FieldPath path : paths)
           {
-            final Object v = source.get(map, name);
+            final Object v = source.get(map, path);
             if (v != null)
             {
               if (separator != null && sb.length() > 0)
@@ -808,57 +1203,77 @@ public final class TranslatorBuilder
       src = source;
     }
 
-    return new Tuple<>(name, (data, translated) -> {
-      if (predicate == null || predicate.test(data))
-      {
-        final Object value = src.get(data, name);
-        if (value != null)
+    final Predicate<Map<String, Object>> predicate = predicate(when, profile);
+
+    final FieldPath srcPath = FieldPath.of(name);
+    final FieldPath dstPath = FieldPath.of(key);
+
+    // without a default value, the rule does nothing when the source fields are missing
+    final String[] sources = defValue == null ? name.split("\\s*,\\s*") : null;
+
+    // a plain field access, unless the value is joined, converted, or defaulted, or the writes
+    // are profiled
+    final boolean plain =
+      comma < 0 && type == null && !is_array && defValue == null && profile == null;
+
+    return guarded(name, sources, when, predicate, profile != null, p -> p == null && plain ?
+      new FieldRule(op, srcPath, dstPath, null, overwrite) :
+      (data, translated) -> {
+        if (p == null || p.test(data))
         {
-          if (type != null)
+          final Object value = src.get(data, srcPath);
+          if (value != null)
           {
-            // special handling of file hashes
-            if (!FingerprintObj.put(translated, type, value, key))
+            if (type != null)
             {
-              if (is_array)
+              // special handling of file hashes
+              if (FingerprintObj.put(translated, type, value, key))
+              {
+                TranslatorProfile.written(profile, 1);
+              }
+              else
               {
-                final List<Object> list = new ArrayList<>();
-                for (final Object o : Strings.toArray(value, splitter))
+                if (is_array)
                 {
-                  final Object parsed = o != null ? typecast(o, type) : null;
-                  list.add(parsed);
+                  final List<Object> list = new ArrayList<>();
+                  for (final Object o : Strings.toArray(value, splitter))
+                  {
+                    final Object parsed = o != null ? typecast(o, type) : null;
+                    list.add(parsed);
+                  }
+
+                  put(profile, translated, dstPath, list, overwrite);
                 }
-
-                Maps.putIn(translated, key, list, overwrite);
+                else
+                {
+                  final Object parsed = typecast(value, type);
+                  put(profile, translated, dstPath, parsed, overwrite);
+                }
+              }
+            }
+            else
+            {
+              if (is_array)
+              {
+                put(profile, translated, dstPath, Strings.toArray(value, splitter), overwrite);
               }
               else
               {
-                final Object parsed = typecast(value, type);
-                Maps.putIn(translated, key, parsed, overwrite);
+                put(profile, translated, dstPath, value, overwrite);
               }
             }
           }
-          else
+          else if (defValue != null)
           {
-            if (is_array)
-            {
-              Maps.putIn(translated, key, Strings.toArray(value, splitter), overwrite);
-            }
-            else
-            {
-              Maps.putIn(translated, key, value, overwrite);
-            }
+            put(profile, translated, dstPath, defaultValue(type, defValue), overwrite);
           }
         }
-        else if (defValue != null)
-        {
-          Maps.putIn(translated, key, defaultValue(type, defValue), overwrite);
-        }
-      }
-    });
+      });
   }
 
   private static Tuple<String, Rule> lookup(
-    final String name, final Maps.DataSource source, final Object ruleData)
+    final String name, final Maps.PathSource source, final Object ruleData,
+    final TranslatorProfile.Entry profile)
   {
     final Map<String, Object> rule = Maps.typecast(ruleData);
 
@@ -868,14 +1283,20 @@ public final class TranslatorBuilder
     final boolean overwrite = Maps.get(rule, Overwrite, Boolean.FALSE);
     final String  when      = (String) rule.get(Predicate);
 
-    final Predicate<Map<String, Object>> predicate = Strings.isEmpty(when) ? null : compile(when);
+    final Predicate<Map<String, Object>> predicate = predicate(when, profile);
 
     final Map<String, Object> values = Maps.downcase(Maps.get(rule, Values));
 
-    return new Tuple<>(name, (data, translated) -> {
-      if (predicate == null || predicate.test(data))
+    final FieldPath srcPath   = FieldPath.of(name);
+    final FieldPath dstPath   = FieldPath.of(key);
+    final FieldPath otherPath = other != null ? FieldPath.of(other) : null;
+
+    final String[] sources = defValue == null ? new String[]{name} : null;
+
+    return guarded(name, sources, when, predicate, profile != null, p -> (data, translated) -> {
+      if (p == null || p.test(data))
       {
-        final Object value = source.get(data, name);
+        final Object value = source.get(data, srcPath);
 
         if (value != null)
         {
@@ -883,37 +1304,101 @@ public final class TranslatorBuilder
           final Object id       = values.get(strValue.toLowerCase(Maps.LOCALE));
           if (id != null)
           {
-            Maps.putIn(translated, key, id, overwrite);
+            put(profile, translated, dstPath, id, overwrite);
           }
-          else if (other != null)
+          else if (otherPath != null)
           {
-            Maps.putIn(translated, key, Dictionary.OTHER_ID, overwrite);
-            Maps.putIn(translated, other, strValue, overwrite);
+            put(profile, translated, dstPath, Dictionary.OTHER_ID, overwrite);
+            put(profile, translated, otherPath, strValue, overwrite);
           }
         }
         else if (defValue != null)
         {
-          Maps.putIn(translated, key, defValue, overwrite);
+          put(profile, translated, dstPath, defValue, overwrite);
         }
       }
     });
   }
 
+  /*
+   * Puts a value in the translated data, and counts the write in the rule profile, if any.
+   */
+  private static void put(
+    final TranslatorProfile.Entry profile, final Map<String, Object> translated,
+    final FieldPath path, final Object value, final boolean overwrite)
+  {
+    if (value != null)
+      TranslatorProfile.written(profile, 1);
+
+    Maps.putIn(translated, path, value, overwrite);
+  }
+
+  private static void putAll(
+    final TranslatorProfile.Entry profile, final Map<String, Object> translated,
+    final Map<String, Object> values)
+  {
+    TranslatorProfile.written(profile, values.size());
+    translated.putAll(values);
+  }
+
+  /*
+   * Creates a rule that can be specialized for the shape of the event data. The rule factory is
+   * called with the rule condition, and with no condition when the condition is known to match.
+   * The profiled rules are not specialized, so that the profile counts every rule.
+   */
+  private static Tuple<String, Rule> guarded(
+    final String name, final String[] sources, final String when,
+    final Predicate<Map<String, Object>> predicate, final boolean profiled,
+    final Function<Predicate<Map<String, Object>>, Rule> factory)
+  {
+    final Rule rule = factory.apply(predicate);
+    if (profiled || sources == null && predicate == null)
+      return new Tuple<>(name, rule);
+
+    return new Tuple<>(name, new ShapePlans.Guard(
+      rule,
+      predicate != null ? factory.apply(null) : rule,
+      predicate,
+      predicate != null ? BooleanExpression.parse(when).fields() : null,
+      sources));
+  }
+
   static Predicate<Map<String, Object>> compile(final String when) throws InvalidExpressionException
   {
-    return condition(BooleanExpression.parse(when));
+    return BooleanPredicate.compile(when);
   }
 
-  private static Predicate<Map<String, Object>> condition(final Tree node)
+  // the 'when' condition of a translator or a ruleset
+  private static Predicate<Map<String, Object>> when(
+    final String when, final TranslatorProfile profile)
   {
-    return data -> BooleanEvaluator.evaluate(node, key -> Maps.getIn(data, key));
+    return profile != null ? profile.when(when, compile(when)) : compile(when);
+  }
+
+  // the 'when' condition of a rule, or null
+  private static Predicate<Map<String, Object>> predicate(
+    final String when, final TranslatorProfile.Entry profile)
+  {
+    if (Strings.isEmpty(when))
+      return null;
+
+    return profile != null ? TranslatorProfile.matches(profile, compile(when)) : compile(when);
+  }
+
+  private static FieldPath[] paths(final String[] names)
+  {
+    final FieldPath[] paths = new FieldPath[names.length];
+    for (int i = 0; i < names.length; ++i)
+      paths[i] = FieldPath.of(names[i]);
+
+    return paths;
   }
 
   private static Object defaultValue(final String type, final Object value)
   {
     if (type != null)
     {
-      switch (type.toLowerCase(Maps.LOCALE).intern())
+      switch (type.toLowerCase(Maps.LOCALE))
       {
         case "timestamp":
           return timestamp(value);
@@ -927,7 +1412,7 @@ public final class TranslatorBuilder
 
   private static Object typecast(final Object o, final String type)
   {
-    final String typeName = type.toLowerCase(Maps.LOCALE).intern();
+    final String typeName = type.toLowerCase(Maps.LOCALE);
     switch (typeName)
     {
       case "string":
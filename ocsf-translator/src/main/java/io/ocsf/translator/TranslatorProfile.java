@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * The rule-level profile of a translator: how many times each rule and each <code>when</code>
+ * condition was evaluated, how many times it matched, the time spent, and the values written.
+ * <p>
+ * A translator records a profile only when it is built with one, see
+ * {@link TranslatorBuilder#build(java.nio.file.Path, TranslatorBuilder.JsonReader, Map,
+ * TranslatorBuilder.Backend, TranslatorProfile)}. The instrumentation wraps the compiled rules and
+ * conditions at build time, so a translator built without a profile runs the rules unchanged.
+ * <p>
+ * The time is measured on a random sample of the evaluations, and scaled to all evaluations. The
+ * values written are counted by the rules on every evaluation. The profile can be updated from
+ * several threads.
+ */
+public final class TranslatorProfile
+{
+  /**
+   * The default sampling rate: one in 16 evaluations is timed.
+   */
+  public static final int DefaultSampleRate = 16;
+
+  private final int          sampleMask;
+  private final List<Entry> entries = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * Creates a profile with the default sampling rate.
+   */
+  public TranslatorProfile()
+  {
+    this(DefaultSampleRate);
+  }
+
+  /**
+   * Creates a profile.
+   *
+   * @param sampleRate one in <code>sampleRate</code> evaluations is timed, rounded up to a power
+   *                   of 2; use 1 to time all evaluations
+   */
+  public TranslatorProfile(final int sampleRate)
+  {
+    if (sampleRate <= 0)
+      throw new IllegalArgumentException("Invalid sample rate: " + sampleRate);
+
+    this.sampleMask = sampleRate == 1 ? 0 : (Integer.highestOneBit(sampleRate - 1) << 1) - 1;
+  }
+
+  /**
+   * The counters of a rule or a <code>when</code> condition.
+   */
+  public static final class Entry
+  {
+    /**
+     * The kind of profiled item.
+     */
+    public enum Kind
+    {
+      Rule, When
+    }
+
+    private final String name;
+    private final Kind   kind;
+
+    // true if the rule has a condition, set when the rule is built
+    private boolean conditional;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder matches     = new LongAdder();
+    private final LongAdder samples     = new LongAdder();
+    private final LongAdder nanos       = new LongAdder();
+    private final LongAdder writes      = new LongAdder();
+
+    private Entry(final String name, final Kind kind)
+    {
+      this.name = name;
+      this.kind = kind;
+    }
+
+    public String name() {return name;}
+
+    public Kind kind() {return kind;}
+
+    /**
+     * Returns the number of evaluations.
+     *
+     * @return the evaluation count
+     */
+    public long evaluations() {return evaluations.sum();}
+
+    /**
+     * Returns the number of evaluations where the condition was true. A rule matches when its own
+     * <code>when</code> condition is true, or always if it has none.
+     *
+     * @return the match count
+     */
+    public long matches() {return matches.sum();}
+
+    /**
+     * Returns the estimated time spent in all evaluations.
+     *
+     * @return the time in nanoseconds
+     */
+    public long nanos() {return scale(nanos.sum());}
+
+    /**
+     * Returns the number of values written in the translated event.
+     *
+     * @return the number of values written
+     */
+    public long writes() {return writes.sum();}
+
+    /**
+     * Returns the counters as a map.
+     *
+     * @return the counters
+     */
+    public Map<String, Object> toMap()
+    {
+      final Map<String, Object> map = new LinkedHashMap<>();
+      map.put("name", name);
+      map.put("kind", kind.name());
+      map.put("evaluations", evaluations());
+      map.put("matches", matches());
+      map.put("nanos", nanos());
+      if (kind == Kind.Rule)
+        map.put("writes", writes());
+      return map;
+    }
+
+    @Override
+    public String toString() {return toMap().toString();}
+
+    private long scale(final long sampled)
+    {
+      final long n = samples.sum();
+      return n == 0 ? 0 : (long) ((double) sampled * evaluations() / n);
+    }
+  }
+
+  /**
+   * Returns the profiled rules and conditions, in the order they were built.
+   *
+   * @return the entries
+   */
+  public List<Entry> entries()
+  {
+    synchronized (entries)
+    {
+      return new ArrayList<>(entries);
+    }
+  }
+
+  /**
+   * Returns the rules that were never matched, for example to find the dead rules.
+   *
+   * @return the entries with zero matches
+   */
+  public List<Entry> unmatched()
+  {
+    final List<Entry> list = new ArrayList<>();
+    for (final Entry e : entries())
+    {
+      if (e.matches() == 0)
+        list.add(e);
+    }
+    return list;
+  }
+
+  /**
+   * Resets all counters.
+   */
+  public void reset()
+  {
+    for (final Entry e : entries())
+    {
+      e.evaluations.reset();
+      e.matches.reset();
+      e.samples.reset();
+      e.nanos.reset();
+      e.writes.reset();
+    }
+  }
+
+  /**
+   * Formats the profile as a table, one line per entry, sorted by the time spent.
+   *
+   * @return the formatted profile
+   */
+  public String format()
+  {
+    final List<Entry> list = entries();
+    list.sort((a, b) -> Long.compare(b.nanos(), a.nanos()));
+
+    final StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%12s %12s %12s %10s %10s  %s%n",
+                            "evaluations", "matches", "writes", "total-us", "avg-ns", "name"));
+
+    for (final Entry e : list)
+    {
+      final long evaluations = e.evaluations();
+      final long nanos       = e.nanos();
+
+      sb.append(String.format("%12d %12d %12s %10d %10d  %s %s%n",
+                              evaluations,
+                              e.matches(),
+                              e.kind == Entry.Kind.Rule ? Long.toString(e.writes()) : "-",
+                              nanos / 1000,
+                              evaluations == 0 ? 0 : nanos / evaluations,
+                              e.kind == Entry.Kind.When ? "when" : "rule",
+                              e.name));
+    }
+
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {return entries().toString();}
+
+  /*
+   * Creates the entry of a rule. The rule conditions call matched on the returned entry.
+   */
+  Entry rule(final String name)
+  {
+    return add(new Entry(name, Entry.Kind.Rule));
+  }
+
+  /*
+   * Wraps the compiled rule with the entry's counters.
+   */
+  Tuple<String, TranslatorBuilder.Rule> rule(
+    final Entry entry, final Tuple<String, TranslatorBuilder.Rule> tuple)
+  {
+    final TranslatorBuilder.Rule rule = tuple.value;
+
+    // the rules without a condition match on every evaluation
+    final boolean always = !entry.conditional;
+
+    return new Tuple<>(tuple.name, (data, translated) -> {
+      entry.evaluations.increment();
+      if (always)
+        entry.matches.increment();
+
+      if (sample())
+      {
+        final long start = System.nanoTime();
+        rule.apply(data, translated);
+        entry.nanos.add(System.nanoTime() - start);
+        entry.samples.increment();
+      }
+      else
+      {
+        rule.apply(data, translated);
+      }
+    });
+  }
+
+  /*
+   * Wraps the condition of a rule: counts the rule matches.
+   */
+  static Predicate<Map<String, Object>> matches(
+    final Entry rule, final Predicate<Map<String, Object>> predicate)
+  {
+    rule.conditional = true;
+
+    return data -> {
+      if (predicate.test(data))
+      {
+        rule.matches.increment();
+        return true;
+      }
+      return false;
+    };
+  }
+
+  /*
+   * Counts the values written by a rule, if the rule is profiled.
+   */
+  static void written(final Entry rule, final int count)
+  {
+    if (rule != null && count > 0)
+      rule.writes.add(count);
+  }
+
+  /*
+   * Wraps a translator or ruleset condition with its own counters.
+   */
+  Predicate<Map<String, Object>> when(
+    final String name, final Predicate<Map<String, Object>> predicate)
+  {
+    final Entry entry = add(new Entry(name, Entry.Kind.When));
+
+    return data -> {
+      entry.evaluations.increment();
+
+      final boolean matched;
+      if (sample())
+      {
+        final long start = System.nanoTime();
+        matched = predicate.test(data);
+        entry.nanos.add(System.nanoTime() - start);
+        entry.samples.increment();
+      }
+      else
+      {
+        matched = predicate.test(data);
+      }
+
+      if (matched)
+        entry.matches.increment();
+
+      return matched;
+    };
+  }
+
+  private Entry add(final Entry entry)
+  {
+    entries.add(entry);
+    return entry;
+  }
+
+  private boolean sample()
+  {
+    return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+  }
+
+  // the number of values written by a merge rule, including the nested values
+  @SuppressWarnings("unchecked")
+  static int values(final Map<String, Object> map)
+  {
+    int n = 0;
+    for (final Object value : map.values())
+    {
+      if (value instanceof Map<?, ?>)
+        n += values((Map<String, Object>) value);
+      else if (value instanceof Collection<?>)
+        n += ((Collection<?>) value).size();
+      else
+        ++n;
+    }
+    return n;
+  }
+}
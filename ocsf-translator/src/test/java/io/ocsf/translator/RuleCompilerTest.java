@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RuleCompilerTest
+{
+  private static final String Rules =
+    "{rules: [" +
+    "  {name: {@move: {name: 'user.name'}}}," +
+    "  {port: {@move: {name: 'dst_endpoint.port', type: 'integer'}}}," +
+    "  {rule: {@copy: {name: 'message'}}}," +
+    "  {class_uid: {@value: 42}}," +
+    "  {_: {category_uid: 1, metadata: {version: '1.0.0'}}}" +
+    "]," +
+    "ruleset: [" +
+    "  {when: 'port = 42', rules: [{severity_id: {@value: 1}}]}," +
+    "  {when: 'port = 22', rules: [{severity_id: {@value: 2}}]}" +
+    "]}";
+
+  private static final String Data = "{name: 'foo', port: 42, rule: 'test data', other: 1}";
+
+  @Test
+  public void sameAsInterpreter() throws IOException
+  {
+    Assert.assertEquals(
+      translate(Rules, Data, TranslatorBuilder.Backend.Interpreter),
+      translate(Rules, Data, TranslatorBuilder.Backend.Bytecode));
+  }
+
+  @Test
+  public void fieldRules() throws IOException
+  {
+    // the plain field rules, whose field access is generated in place
+    final String rules =
+      "{rules: [" +
+      "  {a: {@move: 'x.a'}}," +
+      "  {b.c: {@copy: {name: 'x.b', overwrite: true}}}," +
+      "  {x.a: {@clone: 'y'}}," +
+      "  {d: {@remove: true}}," +
+      "  {z: {@value: {value: [1, 2]}}}," +
+      "  {missing: {@move: 'x.m'}}" +
+      "]}";
+    final String data = "{a: 1, b: {c: 'c'}, d: 2, e: 3}";
+
+    final Map<String, Object> translated =
+      translate(rules, data, TranslatorBuilder.Backend.Bytecode);
+
+    Assert.assertEquals(translate(rules, data, TranslatorBuilder.Backend.Interpreter), translated);
+    Assert.assertEquals(
+      Json5Parser.to("{x: {a: 1, b: 'c'}, y: 1, z: [1, 2]}"), translated);
+  }
+
+  @Test
+  public void emptyRules() throws IOException
+  {
+    final Map<String, Object> data = Json5Parser.to(Data);
+
+    Assert.assertEquals(
+      data, TranslatorBuilder.fromString("{}", TranslatorBuilder.Backend.Bytecode).apply(data));
+  }
+
+  @Test
+  public void manyRules() throws IOException
+  {
+    // more rules than a single generated method can hold
+    final int           count = 1000;
+    final StringBuilder rules = new StringBuilder("{rules: [");
+    final StringBuilder data  = new StringBuilder("{");
+
+    for (int i = 0; i < count; ++i)
+    {
+      rules.append("{f").append(i).append(": {@move: {name: 'out.f").append(i).append("'}}},");
+      data.append("f").append(i).append(": ").append(i).append(',');
+    }
+
+    rules.append("]}");
+    data.append('}');
+
+    final Map<String, Object> translated =
+      translate(rules.toString(), data.toString(), TranslatorBuilder.Backend.Bytecode);
+
+    Assert.assertEquals(
+      translate(rules.toString(), data.toString(), TranslatorBuilder.Backend.Interpreter),
+      translated);
+
+    final Map<?, ?> out = (Map<?, ?>) translated.get("out");
+    Assert.assertEquals(count, out.size());
+    Assert.assertEquals(999, out.get("f999"));
+  }
+
+  @Test
+  public void compile()
+  {
+    final TranslatorBuilder.Rule rule = RuleCompiler.compile(
+      TranslatorBuilder.compile(
+        java.util.List.of(Map.of("a", Map.of("@move", Map.of("name", "b"))))));
+
+    Assert.assertNotNull(rule);
+
+    final Map<String, Object> data = new HashMap<>();
+    data.put("a", 1);
+
+    final Map<String, Object> translated = new HashMap<>();
+    rule.apply(data, translated);
+
+    Assert.assertEquals(1, translated.get("b"));
+  }
+
+  private static Map<String, Object> translate(
+    final String rules, final String data, final TranslatorBuilder.Backend backend)
+    throws IOException
+  {
+    return TranslatorBuilder.fromString(rules, backend).apply(Json5Parser.to(data));
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShapePlansTest
+{
+  private static final String Rules =
+    "{rules: [" +
+    "  {name: {@move: {name: 'user.name'}}}," +
+    "  {port: {@move: {name: 'dst_endpoint.port', type: 'integer', when: 'proto = null'}}}," +
+    "  {'src.ip, src.port': {@move: {name: 'src_endpoint.addr', separator: ':'}}}," +
+    "  {level: {@enum: {name: 'severity_id', values: {low: 1, high: 4}, other: 'severity'}}}," +
+    "  {code: {@move: {name: 'status_code', default: 'none'}}}," +
+    "  {extra: {@remove: {when: 'port != 22'}}}," +
+    "  {details: [{id: {@move: {name: 'detail_id'}}}]}," +
+    "  {class_uid: {@value: 42}}," +
+    "  {type: {@value: {value: 'ssh', when: 'port = 22'}}}," +
+    "  {type: {@clone: {name: 'type_name', when: 'user.name != null'}}}," +
+    "  {_: {category_uid: 1}}" +
+    "]," +
+    "ruleset: [" +
+    "  {when: 'port = 42', rules: [{proto: {@move: {name: 'connection.protocol'}}}]}" +
+    "]}";
+
+  private static final String[] Data = {
+    "{name: 'foo', port: 42, proto: 'tcp', extra: 1}",
+    "{name: 'foo', port: '22', level: 'HIGH', src: {ip: '10.0.0.1', port: 5}}",
+    "{'src.ip': '10.0.0.2', level: 'medium', details: {id: 7}}",
+    "{code: 404, extra: 2}",
+    "{}"
+  };
+
+  @Test
+  public void sameAsInterpreter() throws IOException
+  {
+    final Translator interpreter =
+      TranslatorBuilder.fromString(Rules, TranslatorBuilder.Backend.Interpreter);
+    final Translator specialized =
+      TranslatorBuilder.fromString(Rules, TranslatorBuilder.Backend.Specialized);
+
+    // twice: the first time builds the plans, the second time uses them
+    for (int i = 0; i < 2; ++i)
+    {
+      for (final String data : Data)
+      {
+        Assert.assertEquals(
+          data,
+          interpreter.apply(Json5Parser.to(data)),
+          specialized.apply(Json5Parser.to(data)));
+      }
+    }
+  }
+
+  @Test
+  public void shapes()
+  {
+    final ShapePlans plans = plans(List.of(
+      Map.of("a", Map.of("@move", Map.of("name", "x"))),
+      Map.of("b", Map.of("@move", Map.of("name", "y")))));
+
+    translate(plans, Map.of("a", 1, "other", 2));
+    translate(plans, Map.of("a", 3, "more", 4));
+    Assert.assertEquals(1, plans.shapes());
+
+    translate(plans, Map.of("b", 1));
+    translate(plans, Map.of());
+    Assert.assertEquals(3, plans.shapes());
+  }
+
+  @Test
+  public void decideCondition()
+  {
+    final ShapePlans plans = plans(List.of(
+      Map.of("a", Map.of("@value", Map.of("value", 1, "when", "b = null"))),
+      Map.of("c", Map.of("@value", Map.of("value", 2, "when", "b != null")))));
+
+    Assert.assertEquals(Map.of("a", 1), translate(plans, Map.of()));
+    Assert.assertEquals(Map.of("c", 2), translate(plans, Map.of("b", 0)));
+    Assert.assertEquals(Map.of("a", 1), translate(plans, Map.of("x", 0)));
+    Assert.assertEquals(2, plans.shapes());
+  }
+
+  @Test
+  public void manyShapes()
+  {
+    final ShapePlans plans = plans(List.of(
+      Map.of("f0, f1, f2, f3, f4", Map.of("@move", Map.of("name", "out", "separator", ",")))));
+
+    // 32 shapes, more than the cache can hold
+    for (int shape = 0; shape < 32; ++shape)
+    {
+      final Map<String, Object> data     = new HashMap<>();
+      final StringBuilder       expected = new StringBuilder();
+      for (int i = 0; i < 5; ++i)
+      {
+        if ((shape & (1 << i)) != 0)
+        {
+          data.put("f" + i, i);
+          expected.append(expected.length() > 0 ? "," : "").append(i);
+        }
+      }
+
+      final Map<String, Object> translated = translate(plans, data);
+      Assert.assertEquals(shape == 0 ? null : expected.toString(), translated.get("out"));
+    }
+
+    Assert.assertEquals(ShapePlans.MaxShapes, plans.shapes());
+  }
+
+  private static ShapePlans plans(final List<Map<String, Object>> rules)
+  {
+    final TranslatorBuilder.Rule rule = ShapePlans.create(TranslatorBuilder.compile(rules));
+
+    Assert.assertTrue(rule instanceof ShapePlans);
+    return (ShapePlans) rule;
+  }
+
+  private static Map<String, Object> translate(
+    final ShapePlans plans, final Map<String, Object> data)
+  {
+    final Map<String, Object> translated = new HashMap<>();
+    plans.apply(new HashMap<>(data), translated);
+    return translated;
+  }
+}
@@ -18,14 +18,18 @@
 package io.ocsf.translator;
 
 import io.ocsf.schema.Dictionary;
+import io.ocsf.utils.Json;
 import io.ocsf.utils.Maps;
 import io.ocsf.utils.parsers.Json5Parser;
 import io.ocsf.utils.parsers.ParserException;
+import io.ocsf.utils.parsers.Projection;
 import junit.framework.TestCase;
 import org.junit.Assert;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -624,4 +628,43 @@ public final class TranslatorBuilderTest extends TestCase
     Assert.assertEquals(42, list.get(1));
     Assert.assertEquals(69, list.get(2));
   }
+
+  public void testFields() throws IOException
+  {
+    final Translator translator = TranslatorBuilder.fromString(
+      "{when: 'class = 1', parser: {name: 'message', pattern: '#{user}', output: 'msg'}, " +
+      "rules: [" +
+      "{'msg.user': {@move: {name: 'user.name', when: 'level > 2'}}}, " +
+      "{'src.ip, src.port': {@move: {name: 'src', separator: ':'}}}, " +
+      "{status: {@enum: {name: 'status_id', values: {ok: 1}}}}, " +
+      "{severity_id: {@value: {value: 1, when: 'severity = \\'low\\''}}}, " +
+      "{'user.name': {@clone: 'actor.user.name'}}, " +
+      "{_: {@value: {type_uid: 1}}}, " +
+      "{events: [{id: {@move: 'event_id'}}]}]}");
+
+    Assert.assertEquals(
+      new HashSet<>(
+        Arrays.asList(
+          "class", "message", "msg", "msg.user", "level", "src.ip", "src.port", "status",
+          "severity", "events")),
+      translator.fields());
+
+    // the translated event uses only the referenced fields
+    final String event =
+      "{class: 1, message: 'joe', level: 3, status: 'ok', other: {a: [1, 2]}, x: 'y'}";
+
+    final Map<String, Object> full      = Json5Parser.to(event);
+    final Map<String, Object> projected =
+      Json5Parser.to(event, Projection.of(translator.fields()));
+
+    Assert.assertEquals(translator.apply(full), translator.apply(projected));
+    Assert.assertEquals(Json.toString(full), Json.toString(projected));
+  }
+
+  public void testNoFields()
+  {
+    final Translator translator = data -> data;
+
+    Assert.assertNull(translator.fields());
+  }
 }
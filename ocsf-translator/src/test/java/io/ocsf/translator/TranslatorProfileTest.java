@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.translator;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class TranslatorProfileTest
+{
+  private static final String Rules =
+    "{when: 'port > 0', rules: [" +
+    "  {name: {@move: {name: 'user.name'}}}," +
+    "  {port: {@move: {name: 'dst_endpoint.port', type: 'integer'}}}," +
+    "  {class_uid: {@value: {value: 42, when: 'level = 2'}}}," +
+    "  {_: {category_uid: 1, metadata: {version: '1.0.0'}}}" +
+    "]," +
+    "ruleset: [" +
+    "  {when: 'level = 1', rules: [{severity_id: {@value: 1}}]}" +
+    "]}";
+
+  @Test
+  public void interpreter() throws IOException
+  {
+    profile(TranslatorBuilder.Backend.Interpreter);
+  }
+
+  @Test
+  public void bytecode() throws IOException
+  {
+    profile(TranslatorBuilder.Backend.Bytecode);
+  }
+
+  @Test
+  public void sampledWrites() throws IOException
+  {
+    // only the time is sampled, the writes are counted on every evaluation
+    final TranslatorProfile profile    = new TranslatorProfile(1 << 20);
+    final Translator        translator = build(profile, TranslatorBuilder.Backend.Bytecode);
+
+    for (int i = 0; i < 100; ++i)
+      translator.apply(Json5Parser.to("{name: 'foo', port: 42, level: 1}"));
+
+    final TranslatorProfile.Entry move = profile.entries().get(0);
+    Assert.assertEquals(100, move.evaluations());
+    Assert.assertEquals(100, move.writes());
+  }
+
+  @Test
+  public void sameResult() throws IOException
+  {
+    final String data = "{name: 'foo', port: 42, level: 1}";
+
+    Assert.assertEquals(
+      TranslatorBuilder.fromString(Rules).apply(Json5Parser.to(data)),
+      build(new TranslatorProfile(), TranslatorBuilder.Backend.Interpreter)
+        .apply(Json5Parser.to(data)));
+  }
+
+  private static void profile(final TranslatorBuilder.Backend backend) throws IOException
+  {
+    final TranslatorProfile profile    = new TranslatorProfile(1);
+    final Translator        translator = build(profile, backend);
+
+    translator.apply(Json5Parser.to("{name: 'foo', port: 42, level: 1}"));
+    translator.apply(Json5Parser.to("{name: 'bar', port: 22, level: 2}"));
+    translator.apply(Json5Parser.to("{name: 'baz', port: 0}"));
+
+    final List<TranslatorProfile.Entry> entries = profile.entries();
+    Assert.assertEquals(7, entries.size());
+
+    // the rules are built before the translator condition
+    final TranslatorProfile.Entry move = entries.get(0);
+    Assert.assertEquals("name @move", move.name());
+    Assert.assertEquals(TranslatorProfile.Entry.Kind.Rule, move.kind());
+    Assert.assertEquals(2, move.evaluations());
+    Assert.assertEquals(2, move.matches());
+    Assert.assertEquals(2, move.writes());
+
+    final TranslatorProfile.Entry value = entries.get(2);
+    Assert.assertEquals("class_uid @value", value.name());
+    Assert.assertEquals(2, value.evaluations());
+    Assert.assertEquals(1, value.matches());
+    Assert.assertEquals(1, value.writes());
+
+    final TranslatorProfile.Entry when = entries.get(4);
+    Assert.assertEquals("port > 0", when.name());
+    Assert.assertEquals(TranslatorProfile.Entry.Kind.When, when.kind());
+    Assert.assertEquals(3, when.evaluations());
+    Assert.assertEquals(2, when.matches());
+
+    final TranslatorProfile.Entry ruleset = entries.get(6);
+    Assert.assertEquals("level = 1", ruleset.name());
+    Assert.assertEquals(3, ruleset.evaluations());
+    Assert.assertEquals(1, ruleset.matches());
+
+    Assert.assertTrue(profile.unmatched().isEmpty());
+    Assert.assertTrue(profile.format().contains("name @move"));
+
+    profile.reset();
+    Assert.assertEquals(0, move.evaluations());
+    Assert.assertEquals(7, profile.unmatched().size());
+  }
+
+  private static Translator build(
+    final TranslatorProfile profile, final TranslatorBuilder.Backend backend) throws IOException
+  {
+    final Map<String, Object> rules = Json5Parser.to(Rules);
+    return TranslatorBuilder.build(null, null, rules, backend, profile);
+  }
+}
@@ -61,6 +61,46 @@ public final class BooleanEvaluator
     return false;
   }
 
+  /**
+   * Evaluates the expression against a map, using the <code>map.path.to.value</code> notation
+   * for the field names. The field paths are resolved when the expression is parsed.
+   *
+   * @param node the expression tree
+   * @param data the data to evaluate the expression against
+   * @return the result of the evaluation
+   */
+  @SuppressWarnings("ConstantConditions")
+  public static boolean evaluateIn(final Tree node, final Map<String, ?> data)
+  {
+    // An empty expression evaluates to true
+    if (node.op == Token.Eol)
+      return true;
+
+    if (node.op.isRelOp())
+    {
+      if (node.right != null)
+        return evaluate(
+          node.op.token, Maps.getIn(data, node.left.op.path()), node.right.op);
+    }
+
+    switch (node.op.token)
+    {
+      case Token.AND:
+        return evaluateIn(node.left, data) && evaluateIn(node.right, data);
+
+      case Token.OR:
+        return evaluateIn(node.left, data) || evaluateIn(node.right, data);
+
+      case Token.NOT:
+        return !evaluateIn(node.right, data);
+
+      case Token.EXEC:
+        return exec(node.right, Maps.getIn(data, node.left.op.path()));
+    }
+
+    return false;
+  }
+
   private static boolean evaluate(final int op, final Object field, final Token value)
   {
     return operations[op].evaluate(field, value);
@@ -86,7 +126,7 @@ public final class BooleanEvaluator
         return ((Token.Value) value).like(field.toString());
 
       return value.token != Token.NULL &&
-             Strings.search(field.toString(), value.value().toString()) > -1;
+             finder(value).search(field.toString()) > -1;
     },
     // Contains
     (field, value) -> {
@@ -94,7 +134,7 @@ public final class BooleanEvaluator
         return value.token == Token.NULL;
 
       return value.token != Token.NULL &&
-             Strings.search(field.toString(), value.value().toString()) > -1;
+             finder(value).search(field.toString()) > -1;
     },
     // GE
     (field, value) -> compare(field, value) >= 0,
@@ -121,7 +161,7 @@ public final class BooleanEvaluator
         return value.token == Token.NULL;
 
       return value.token != Token.NULL &&
-             Strings.startsWith(field.toString(), value.value().toString());
+             finder(value).startsWith(field.toString());
     },
     // Ends With
     (field, value) -> {
@@ -129,7 +169,7 @@ public final class BooleanEvaluator
         return value.token == Token.NULL;
 
       return value.token != Token.NULL &&
-             Strings.endsWith(field.toString(), value.value().toString());
+             finder(value).endsWith(field.toString());
     },
     // In
     (field, value) ->
@@ -206,25 +246,37 @@ public final class BooleanEvaluator
         return node.op.token == Token.NULL;
       }
 
-      return Strings.search(data.toString(), String.valueOf(node.op.value)) > -1;
+      return node.op.token == Token.STRING ?
+             finder(node.op).search(data.toString()) > -1 :
+             Strings.search(data.toString(), String.valueOf(node.op.value)) > -1;
     }
     else if (data instanceof Collection<?>)
     {
       for (final Object datum : ((Collection<Object>) data))
         if (datum instanceof Map<?, ?> &&
-            evaluate(node, key -> Maps.getIn((Map<String, Object>) datum, key)))
+            evaluateIn(node, (Map<String, Object>) datum))
           return true;
     }
     else if (data instanceof Map<?, ?>)
     {
-      return evaluate(node, key -> Maps.getIn((Map<String, Object>) data, key));
+      return evaluateIn(node, (Map<String, Object>) data);
     }
 
     return false;
   }
 
+  /*
+   * Returns the substring finder of a value: string constants have their own precompiled finder.
+   */
+  static Strings.Finder finder(final Token value)
+  {
+    return value.token == Token.STRING ?
+           ((Token.Value) value).search() :
+           Strings.finder(value.value().toString());
+  }
+
   @SuppressWarnings("unchecked")
-  private static int compare(final Object field, final Token value)
+  static int compare(final Object field, final Token value)
   {
     if (field == null)
       return value.token == Token.NULL ? 0 : -1;
@@ -41,14 +41,20 @@ import java.util.Set;
  *                   "starts_with" | "ends_with" |
  *                   "exec"
  * </pre>
+ * The "contains", "starts_with", and "ends_with" operators compare the strings ignoring the
+ * case. An expression parsed with the <code>collation</code> option compares their string values
+ * using the collation rules of the default locale, for example "resume" is found in "résumé", see
+ * {@link Strings#finder(String, boolean)}.
+ * <p>
  * NOTE: This class is intended for use in a single thread.
  */
 public final class BooleanExpression
 {
   private static final String ERR_MSG = "Expected %s, but found '%s'";
 
-  private final char[] buf;
-  private       int    pos = -1;
+  private final char[]  buf;
+  private final boolean collation;
+  private       int     pos = -1;
 
   // last successfully parsed token
   private Token token;
@@ -63,12 +69,32 @@ public final class BooleanExpression
     return new BooleanExpression(exp).parse();
   }
 
+  public static Tree parse(final String exp, final boolean collation)
+    throws InvalidExpressionException
+  {
+    return new BooleanExpression(exp, collation).parse();
+  }
+
   public BooleanExpression(final String exp)
+  {
+    this(exp, false);
+  }
+
+  /**
+   * Creates a parser of the given expression.
+   *
+   * @param exp       the expression
+   * @param collation when true, the string values are compared by the substring operators using
+   *                  the collation rules of the default locale
+   */
+  public BooleanExpression(final String exp, final boolean collation)
   {
     if (exp == null || exp.isEmpty())
       buf = null;
     else
       buf = exp.toCharArray();
+
+    this.collation = collation;
   }
 
   public Tree parse() throws InvalidExpressionException
@@ -286,7 +312,7 @@ public final class BooleanExpression
           if (token == Token.In || token == Token.NotIn)
             return new Token(Token.IPMASK, new Network(s));
 
-          return Token.value(s);
+          return Token.value(s, collation);
         }
 
         case '`': // time value
@@ -0,0 +1,712 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A compiled expression.
+ * <p>
+ * The expression tree is compiled into a graph of predicates: the field paths, the constants, and
+ * the number types are resolved once, and each comparison uses a comparator specialized for the
+ * type of its constant. The result of a compiled expression is the same as the result of
+ * {@link BooleanEvaluator#evaluateIn(Tree, Map)}.
+ * <p>
+ * A compiled expression is immutable and can be shared between threads.
+ */
+public abstract class BooleanPredicate implements Predicate<Map<String, Object>>
+{
+  /**
+   * Parses and compiles the given expression.
+   *
+   * @param exp the expression
+   * @return the compiled expression
+   * @throws InvalidExpressionException if the expression is invalid
+   */
+  public static BooleanPredicate compile(final String exp) throws InvalidExpressionException
+  {
+    return compile(BooleanExpression.parse(exp));
+  }
+
+  /**
+   * Parses and compiles the given expression.
+   *
+   * @param exp       the expression
+   * @param collation when true, the substring operators compare the string values using the
+   *                  collation rules of the default locale, see
+   *                  {@link BooleanExpression#BooleanExpression(String, boolean)}
+   * @return the compiled expression
+   * @throws InvalidExpressionException if the expression is invalid
+   */
+  public static BooleanPredicate compile(final String exp, final boolean collation)
+    throws InvalidExpressionException
+  {
+    return compile(BooleanExpression.parse(exp, collation));
+  }
+
+  /**
+   * Compiles the given expression tree.
+   *
+   * @param node the expression tree
+   * @return the compiled expression
+   */
+  public static BooleanPredicate compile(final Tree node)
+  {
+    // An empty expression evaluates to true
+    if (node.op == Token.Eol)
+      return True;
+
+    if (node.op.isRelOp())
+      return node.right != null ? relation(node.op.token, node.left.op.path(), node.right.op) :
+             False;
+
+    switch (node.op.token)
+    {
+      case Token.AND:
+        return new And(compile(node.left), compile(node.right));
+
+      case Token.OR:
+        return new Or(compile(node.left), compile(node.right));
+
+      case Token.NOT:
+        return new Not(compile(node.right));
+
+      case Token.EXEC:
+        return node.right.op.isValue() ?
+               new ExecValue(node.left.op.path(), node.right) :
+               new Exec(node.left.op.path(), compile(node.right));
+    }
+
+    return False;
+  }
+
+  private BooleanPredicate() {}
+
+  @Override
+  public abstract boolean test(final Map<String, Object> data);
+
+  private static final BooleanPredicate True = new BooleanPredicate()
+  {
+    @Override
+    public boolean test(final Map<String, Object> data) {return true;}
+  };
+
+  private static final BooleanPredicate False = new BooleanPredicate()
+  {
+    @Override
+    public boolean test(final Map<String, Object> data) {return false;}
+  };
+
+  private static BooleanPredicate relation(final int op, final FieldPath path, final Token value)
+  {
+    switch (op)
+    {
+      case Token.NE:
+        return new NotEqual(path, comparator(value));
+
+      case Token.EQ:
+        return value.token == Token.STRING ?
+               new EqualIgnoreCase(path, value.value()) :
+               new Equal(path, comparator(value));
+
+      case Token.LIKE:
+        if (value.token == Token.NULL)
+          return new IsNull(path);
+
+        if (value.token == Token.STRING)
+          return new Like(path, (Token.Value) value);
+
+        return new Contains(path, BooleanEvaluator.finder(value));
+
+      case Token.CONTAINS:
+        return value.token == Token.NULL ?
+               new IsNull(path) :
+               new Contains(path, BooleanEvaluator.finder(value));
+
+      case Token.GE:
+        return new GreaterOrEqual(path, comparator(value));
+
+      case Token.GT:
+        return new Greater(path, comparator(value));
+
+      case Token.LE:
+        return new LessOrEqual(path, comparator(value));
+
+      case Token.LT:
+        return new Less(path, comparator(value));
+
+      case Token.MATCH:
+        if (value.token == Token.NULL)
+          return new IsNull(path);
+
+        if (value.token == Token.STRING)
+          return new Match(path, (Token.Value) value);
+
+        return new Equal(path, comparator(value));
+
+      case Token.STARTS_WITH:
+        return value.token == Token.NULL ?
+               new IsNull(path) :
+               new StartsWith(path, BooleanEvaluator.finder(value));
+
+      case Token.ENDS_WITH:
+        return value.token == Token.NULL ?
+               new IsNull(path) :
+               new EndsWith(path, BooleanEvaluator.finder(value));
+
+      case Token.IN:
+        if (value.token == Token.SET)
+          return new In(path, value.value());
+
+        if (value.token == Token.IPMASK)
+          return new InNetwork(path, value);
+
+        return new Equal(path, comparator(value));
+
+      case Token.NOT_IN:
+        if (value.token == Token.SET)
+          return new Not(new In(path, value.value()));
+
+        if (value.token == Token.IPMASK)
+          return new Not(new InNetwork(path, value));
+
+        return new NotEqual(path, comparator(value));
+
+      case Token.IS_NULL:
+        return new IsNull(path);
+
+      case Token.IS_NOT_NULL:
+        return new Not(new IsNull(path));
+    }
+
+    return False;
+  }
+
+  // -------------------------------------------------------------------------------------------
+  // Logical operators
+  // -------------------------------------------------------------------------------------------
+
+  private static final class And extends BooleanPredicate
+  {
+    private final BooleanPredicate left, right;
+
+    private And(final BooleanPredicate left, final BooleanPredicate right)
+    {
+      this.left  = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return left.test(data) && right.test(data);
+    }
+  }
+
+  private static final class Or extends BooleanPredicate
+  {
+    private final BooleanPredicate left, right;
+
+    private Or(final BooleanPredicate left, final BooleanPredicate right)
+    {
+      this.left  = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return left.test(data) || right.test(data);
+    }
+  }
+
+  private static final class Not extends BooleanPredicate
+  {
+    private final BooleanPredicate predicate;
+
+    private Not(final BooleanPredicate predicate)
+    {
+      this.predicate = predicate;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return !predicate.test(data);
+    }
+  }
+
+  private static final class Exec extends BooleanPredicate
+  {
+    private final FieldPath        path;
+    private final BooleanPredicate predicate;
+
+    private Exec(final FieldPath path, final BooleanPredicate predicate)
+    {
+      this.path      = path;
+      this.predicate = predicate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object value = Maps.getIn(data, path);
+
+      if (value instanceof Collection<?>)
+      {
+        for (final Object datum : ((Collection<Object>) value))
+          if (datum instanceof Map<?, ?> && predicate.test((Map<String, Object>) datum))
+            return true;
+      }
+      else if (value instanceof Map<?, ?>)
+      {
+        return predicate.test((Map<String, Object>) value);
+      }
+
+      return false;
+    }
+  }
+
+  private static final class ExecValue extends BooleanPredicate
+  {
+    private final FieldPath path;
+    private final Tree      value;
+
+    private ExecValue(final FieldPath path, final Tree value)
+    {
+      this.path  = path;
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return BooleanEvaluator.exec(value, Maps.getIn(data, path));
+    }
+  }
+
+  // -------------------------------------------------------------------------------------------
+  // Relational operators
+  // -------------------------------------------------------------------------------------------
+
+  private abstract static class Relation extends BooleanPredicate
+  {
+    final FieldPath path;
+
+    private Relation(final FieldPath path)
+    {
+      this.path = path;
+    }
+  }
+
+  private abstract static class Comparison extends Relation
+  {
+    final Comparator comparator;
+
+    private Comparison(final FieldPath path, final Comparator comparator)
+    {
+      super(path);
+      this.comparator = comparator;
+    }
+  }
+
+  private static final class Equal extends Comparison
+  {
+    private Equal(final FieldPath path, final Comparator comparator) {super(path, comparator);}
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) == 0;
+    }
+  }
+
+  private static final class NotEqual extends Comparison
+  {
+    private NotEqual(final FieldPath path, final Comparator comparator) {super(path, comparator);}
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) != 0;
+    }
+  }
+
+  private static final class Greater extends Comparison
+  {
+    private Greater(final FieldPath path, final Comparator comparator) {super(path, comparator);}
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) > 0;
+    }
+  }
+
+  private static final class GreaterOrEqual extends Comparison
+  {
+    private GreaterOrEqual(final FieldPath path, final Comparator comparator)
+    {
+      super(path, comparator);
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) >= 0;
+    }
+  }
+
+  private static final class Less extends Comparison
+  {
+    private Less(final FieldPath path, final Comparator comparator) {super(path, comparator);}
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) < 0;
+    }
+  }
+
+  private static final class LessOrEqual extends Comparison
+  {
+    private LessOrEqual(final FieldPath path, final Comparator comparator)
+    {
+      super(path, comparator);
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return comparator.compare(Maps.getIn(data, path)) <= 0;
+    }
+  }
+
+  private static final class EqualIgnoreCase extends Relation
+  {
+    private final String value;
+
+    private EqualIgnoreCase(final FieldPath path, final String value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && field.toString().equalsIgnoreCase(value);
+    }
+  }
+
+  private static final class IsNull extends Relation
+  {
+    private IsNull(final FieldPath path) {super(path);}
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return Maps.getIn(data, path) == null;
+    }
+  }
+
+  private static final class Like extends Relation
+  {
+    private final Token.Value value;
+
+    private Like(final FieldPath path, final Token.Value value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && value.like(field.toString());
+    }
+  }
+
+  private static final class Match extends Relation
+  {
+    private final Token.Value value;
+
+    private Match(final FieldPath path, final Token.Value value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && value.matches(field.toString());
+    }
+  }
+
+  private static final class Contains extends Relation
+  {
+    private final Strings.Finder value;
+
+    private Contains(final FieldPath path, final Strings.Finder value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && value.search(field.toString()) > -1;
+    }
+  }
+
+  private static final class StartsWith extends Relation
+  {
+    private final Strings.Finder value;
+
+    private StartsWith(final FieldPath path, final Strings.Finder value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && value.startsWith(field.toString());
+    }
+  }
+
+  private static final class EndsWith extends Relation
+  {
+    private final Strings.Finder value;
+
+    private EndsWith(final FieldPath path, final Strings.Finder value)
+    {
+      super(path);
+      this.value = value;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+      return field != null && value.endsWith(field.toString());
+    }
+  }
+
+  private static final class In extends Relation
+  {
+    private final Set<Object> values;
+
+    private In(final FieldPath path, final Set<Object> values)
+    {
+      super(path);
+      this.values = values;
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      return values.contains(Maps.getIn(data, path));
+    }
+  }
+
+  private static final class InNetwork extends Relation
+  {
+    private final Network    mask;
+    private final Comparator comparator;
+
+    private InNetwork(final FieldPath path, final Token value)
+    {
+      super(path);
+      this.mask       = value.value();
+      this.comparator = new AnyComparator(value);
+    }
+
+    @Override
+    public boolean test(final Map<String, Object> data)
+    {
+      final Object field = Maps.getIn(data, path);
+
+      if (field instanceof String)
+        return mask.hasMember((String) field);
+
+      if (field instanceof Integer)
+        return mask.hasMember((Integer) field);
+
+      if (field instanceof Long)
+        return mask.hasMember((Long) field);
+
+      return comparator.compare(field) == 0;
+    }
+  }
+
+  // -------------------------------------------------------------------------------------------
+  // Comparators: compare a field value to a constant
+  // -------------------------------------------------------------------------------------------
+
+  private static Comparator comparator(final Token value)
+  {
+    switch (value.token)
+    {
+      case Token.STRING:
+        return new StringComparator(value.value());
+
+      case Token.NUM:
+      {
+        final Object num = value.value;
+        if (num instanceof Integer)
+          return new IntComparator((Integer) num, value);
+
+        if (num instanceof Long)
+          return new LongComparator((Long) num, value);
+
+        if (num instanceof Double)
+          return new DoubleComparator((Double) num, value);
+      }
+    }
+
+    return new AnyComparator(value);
+  }
+
+  private abstract static class Comparator
+  {
+    abstract int compare(final Object field);
+  }
+
+  private static final class StringComparator extends Comparator
+  {
+    private final String value;
+
+    private StringComparator(final String value) {this.value = value;}
+
+    @Override
+    int compare(final Object field)
+    {
+      return field != null ? field.toString().compareToIgnoreCase(value) : -1;
+    }
+  }
+
+  private static final class IntComparator extends Comparator
+  {
+    private final int   value;
+    private final Token token;
+
+    private IntComparator(final int value, final Token token)
+    {
+      this.value = value;
+      this.token = token;
+    }
+
+    @Override
+    int compare(final Object field)
+    {
+      if (field instanceof Integer)
+        return Integer.compare((Integer) field, value);
+
+      if (field instanceof Long)
+        return Long.compare((Long) field, value);
+
+      if (field instanceof Double)
+        return Double.compare((Double) field, value);
+
+      return BooleanEvaluator.compare(field, token);
+    }
+  }
+
+  private static final class LongComparator extends Comparator
+  {
+    private final long  value;
+    private final Token token;
+
+    private LongComparator(final long value, final Token token)
+    {
+      this.value = value;
+      this.token = token;
+    }
+
+    @Override
+    int compare(final Object field)
+    {
+      if (field instanceof Long)
+        return Long.compare((Long) field, value);
+
+      if (field instanceof Integer)
+        return Integer.compare((Integer) field, (int) value);
+
+      if (field instanceof Double)
+        return Double.compare((Double) field, value);
+
+      if (field instanceof Date)
+        return Long.compare(((Date) field).getTime(), value);
+
+      return BooleanEvaluator.compare(field, token);
+    }
+  }
+
+  private static final class DoubleComparator extends Comparator
+  {
+    private final double value;
+    private final Token  token;
+
+    private DoubleComparator(final double value, final Token token)
+    {
+      this.value = value;
+      this.token = token;
+    }
+
+    @Override
+    int compare(final Object field)
+    {
+      if (field instanceof Double)
+        return Double.compare((Double) field, value);
+
+      if (field instanceof Integer)
+        return Integer.compare((Integer) field, (int) value);
+
+      if (field instanceof Long)
+        return Long.compare((Long) field, (long) value);
+
+      return BooleanEvaluator.compare(field, token);
+    }
+  }
+
+  private static final class AnyComparator extends Comparator
+  {
+    private final Token value;
+
+    private AnyComparator(final Token value) {this.value = value;}
+
+    @Override
+    int compare(final Object field)
+    {
+      return BooleanEvaluator.compare(field, value);
+    }
+  }
+}
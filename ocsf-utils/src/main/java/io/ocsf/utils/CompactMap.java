@@ -0,0 +1,496 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * A map of the event data that uses less memory than a <code>HashMap</code>.
+ * <p>
+ * The keys and values are stored in a single array, as alternating key/value pairs. Up to
+ * {@link #SmallSize} entries, the pairs are kept in insertion order and looked up with a linear
+ * scan. Beyond that, the array becomes an open addressing hash table with linear probing.
+ * <p>
+ * The keys cannot be null, the values can. The map is not thread-safe.
+ */
+public final class CompactMap extends AbstractMap<String, Object>
+{
+  /**
+   * The maximum number of entries stored as a flat list of pairs.
+   */
+  public static final int SmallSize = 8;
+
+  // marks a removed entry in the hash table
+  private static final Object Deleted = new Object();
+
+  private static final Object[] Empty = {};
+
+  private Object[] table;   // the key/value pairs
+  private boolean  hashed;  // true if the table is a hash table
+  private int      size;    // the number of entries
+  private int      deleted; // the number of removed entries in the hash table
+  private int      modCount;
+
+  private Set<Map.Entry<String, Object>> entrySet;
+
+  /**
+   * Creates an empty map.
+   */
+  public CompactMap()
+  {
+    this.table = Empty;
+  }
+
+  /**
+   * Creates an empty map sized for the given number of entries.
+   *
+   * @param expectedSize the expected number of entries
+   */
+  public CompactMap(final int expectedSize)
+  {
+    if (expectedSize < 0)
+      throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+
+    if (expectedSize <= SmallSize)
+    {
+      this.table = expectedSize == 0 ? Empty : new Object[expectedSize << 1];
+    }
+    else
+    {
+      this.table  = new Object[slots(expectedSize) << 1];
+      this.hashed = true;
+    }
+  }
+
+  /**
+   * Creates a map with the entries of the given map.
+   *
+   * @param map the map whose entries are to be placed in this map
+   */
+  public CompactMap(final Map<String, ?> map)
+  {
+    this(map.size());
+    putAll(map);
+  }
+
+  @Override
+  public int size() {return size;}
+
+  @Override
+  public boolean isEmpty() {return size == 0;}
+
+  @Override
+  public boolean containsKey(final Object key)
+  {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public Object get(final Object key)
+  {
+    final int i = indexOf(key);
+    return i >= 0 ? table[i + 1] : null;
+  }
+
+  @Override
+  public Object getOrDefault(final Object key, final Object defaultValue)
+  {
+    final int i = indexOf(key);
+    return i >= 0 ? table[i + 1] : defaultValue;
+  }
+
+  @Override
+  public Object put(final String key, final Object value)
+  {
+    Objects.requireNonNull(key, "key");
+
+    if (!hashed)
+    {
+      final int i = scan(key);
+      if (i >= 0)
+        return replace(i, value);
+
+      if (size < SmallSize)
+      {
+        final int n = size << 1;
+        if (n == table.length)
+          table = Arrays.copyOf(table, Math.max(4, Math.min(n << 1, SmallSize << 1)));
+
+        table[n]     = key;
+        table[n + 1] = value;
+        ++size;
+        ++modCount;
+        return null;
+      }
+
+      rehash(slots(size + 1));
+    }
+
+    return hashPut(key, value);
+  }
+
+  @Override
+  public Object remove(final Object key)
+  {
+    final int i = indexOf(key);
+    if (i < 0)
+      return null;
+
+    final Object old = table[i + 1];
+    removeAt(i);
+    return old;
+  }
+
+  @Override
+  public void clear()
+  {
+    if (size > 0 || deleted > 0)
+    {
+      Arrays.fill(table, null);
+      size    = 0;
+      deleted = 0;
+      ++modCount;
+    }
+  }
+
+  @Override
+  public void forEach(final BiConsumer<? super String, ? super Object> action)
+  {
+    final int mc  = modCount;
+    final int end = limit();
+    for (int i = 0; i < end; i += 2)
+    {
+      final Object k = table[i];
+      if (k != null && k != Deleted)
+        action.accept((String) k, table[i + 1]);
+    }
+
+    if (mc != modCount)
+      throw new ConcurrentModificationException();
+  }
+
+  @Override
+  public void replaceAll(final BiFunction<? super String, ? super Object, ?> function)
+  {
+    final int mc  = modCount;
+    final int end = limit();
+    for (int i = 0; i < end; i += 2)
+    {
+      final Object k = table[i];
+      if (k != null && k != Deleted)
+        table[i + 1] = function.apply((String) k, table[i + 1]);
+    }
+
+    if (mc != modCount)
+      throw new ConcurrentModificationException();
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet()
+  {
+    if (entrySet == null)
+    {
+      entrySet = new AbstractSet<>()
+      {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {return new EntryIterator();}
+
+        @Override
+        public int size() {return size;}
+
+        @Override
+        public boolean contains(final Object o)
+        {
+          if (o instanceof Map.Entry<?, ?>)
+          {
+            final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            final int             i = indexOf(e.getKey());
+            return i >= 0 && Objects.equals(table[i + 1], e.getValue());
+          }
+          return false;
+        }
+
+        @Override
+        public void clear() {CompactMap.this.clear();}
+      };
+    }
+    return entrySet;
+  }
+
+  /*
+   * Returns the number of hash table slots for the given number of entries, a power of 2 that
+   * keeps the load factor under 3/4.
+   */
+  private static int slots(final int n)
+  {
+    final int min = n + (n / 3) + 1;
+    return Math.max(SmallSize << 1, Integer.highestOneBit(min - 1) << 1);
+  }
+
+  private static int hash(final Object key)
+  {
+    final int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  // the end of the used part of the table
+  private int limit()
+  {
+    return hashed ? table.length : size << 1;
+  }
+
+  /*
+   * Returns the index of the key in the table, or -1 if not found.
+   */
+  private int indexOf(final Object key)
+  {
+    if (key == null)
+      return -1;
+
+    if (!hashed)
+      return scan(key);
+
+    final int mask = (table.length >> 1) - 1;
+    for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+    {
+      final int    i = slot << 1;
+      final Object k = table[i];
+      if (k == null)
+        return -1;
+
+      if (k == key || k != Deleted && key.equals(k))
+        return i;
+    }
+  }
+
+  private int scan(final Object key)
+  {
+    final int end = size << 1;
+    for (int i = 0; i < end; i += 2)
+    {
+      final Object k = table[i];
+      if (k == key || key.equals(k))
+        return i;
+    }
+    return -1;
+  }
+
+  private Object replace(final int i, final Object value)
+  {
+    final Object old = table[i + 1];
+    table[i + 1] = value;
+    return old;
+  }
+
+  private Object hashPut(final String key, final Object value)
+  {
+    final int mask = (table.length >> 1) - 1;
+    int       free = -1;
+    for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+    {
+      final int    i = slot << 1;
+      final Object k = table[i];
+      if (k == null)
+      {
+        if (free < 0)
+          free = i;
+        break;
+      }
+
+      if (k == Deleted)
+      {
+        if (free < 0)
+          free = i;
+      }
+      else if (k == key || key.equals(k))
+      {
+        return replace(i, value);
+      }
+    }
+
+    if (table[free] == Deleted)
+      --deleted;
+
+    table[free]     = key;
+    table[free + 1] = value;
+    ++size;
+    ++modCount;
+
+    // keep at least one empty slot to end the probes, and the probes short
+    if ((size + deleted) << 2 > (table.length >> 1) * 3)
+      rehash(slots(size));
+
+    return null;
+  }
+
+  private void removeAt(final int i)
+  {
+    if (hashed)
+    {
+      table[i]     = Deleted;
+      table[i + 1] = null;
+      ++deleted;
+    }
+    else
+    {
+      final int end = size << 1;
+      System.arraycopy(table, i + 2, table, i, end - i - 2);
+      table[end - 2] = null;
+      table[end - 1] = null;
+    }
+
+    --size;
+    ++modCount;
+  }
+
+  private void rehash(final int slots)
+  {
+    final Object[] old  = table;
+    final int      end  = limit();
+    final int      mask = slots - 1;
+
+    table   = new Object[slots << 1];
+    hashed  = true;
+    deleted = 0;
+
+    for (int i = 0; i < end; i += 2)
+    {
+      final Object k = old[i];
+      if (k != null && k != Deleted)
+      {
+        int slot = hash(k) & mask;
+        while (table[slot << 1] != null)
+          slot = (slot + 1) & mask;
+
+        table[slot << 1]       = k;
+        table[(slot << 1) + 1] = old[i + 1];
+      }
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<String, Object>>
+  {
+    private int next             = -2; // the index of the next entry
+    private int last             = -1; // the index of the last returned entry
+    private int expectedModCount = modCount;
+
+    private EntryIterator() {advance();}
+
+    @Override
+    public boolean hasNext() {return next < limit();}
+
+    @Override
+    public Map.Entry<String, Object> next()
+    {
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+
+      if (!hasNext())
+        throw new NoSuchElementException();
+
+      last = next;
+      advance();
+      return new Entry(last);
+    }
+
+    @Override
+    public void remove()
+    {
+      if (last < 0)
+        throw new IllegalStateException();
+
+      if (modCount != expectedModCount)
+        throw new ConcurrentModificationException();
+
+      removeAt(last);
+      expectedModCount = modCount;
+
+      // the following pairs of a flat table moved down one position
+      if (!hashed)
+        next = last;
+
+      last = -1;
+    }
+
+    private void advance()
+    {
+      final int end = limit();
+      do
+      {
+        next += 2;
+      }
+      while (next < end && (table[next] == null || table[next] == Deleted));
+    }
+  }
+
+  private final class Entry implements Map.Entry<String, Object>
+  {
+    private final String key;
+    private final int    index;
+
+    private Entry(final int index)
+    {
+      this.key   = (String) table[index];
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {return key;}
+
+    @Override
+    public Object getValue()
+    {
+      return table[index] == key ? table[index + 1] : get(key);
+    }
+
+    @Override
+    public Object setValue(final Object value)
+    {
+      return table[index] == key ? replace(index, value) : put(key, value);
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      if (o instanceof Map.Entry<?, ?>)
+      {
+        final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+        return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return key.hashCode() ^ Objects.hashCode(getValue());
+    }
+
+    @Override
+    public String toString() {return key + "=" + getValue();}
+  }
+}
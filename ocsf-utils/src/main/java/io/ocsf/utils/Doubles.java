@@ -0,0 +1,306 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Formats finite doubles as the shortest decimal that reads back as the same double, in plain
+ * notation, that is without an exponent, and with at least one fraction digit: <code>1.0</code>,
+ * <code>0.0000001</code>, <code>100000000000000000000.0</code>.
+ * <p>
+ * The shortest decimal is found with the Schubfach algorithm, see Raffaello Giulietti, "The
+ * Schubfach way to render doubles". The digits are written directly into the output buffer, and the
+ * methods are thread-safe.
+ */
+final class Doubles
+{
+  private Doubles() {}
+
+  /**
+   * The maximum length of a formatted double: the sign, "0.", 323 leading zeros and 17 digits.
+   */
+  static final int MaxLength = 350;
+
+  // the precision and the exponent range of the double significand: c 2^q
+  private static final int  P     = 53;
+  private static final int  Q_MIN = -1074;
+  private static final long C_MIN = 1L << (P - 1);
+
+  // the subnormal significands that need an extra digit, see DoubleToDecimal in [Schubfach]
+  private static final long C_TINY = 3;
+
+  private static final int  BQ_MASK = 0x7ff;
+  private static final long T_MASK  = C_MIN - 1;
+  private static final long MASK_63 = (1L << 63) - 1;
+
+  private static final int K_MIN = -324;
+  private static final int K_MAX = 292;
+
+  /*
+   * For each k in [K_MIN, K_MAX], let 10^-k = beta 2^r, with 2^125 <= beta < 2^126, and let
+   * g = floor(beta) + 1. The table holds g = g1 2^63 + g0 as the pair g1, g0.
+   */
+  private static final long[] G = new long[(K_MAX - K_MIN + 1) << 1];
+
+  static
+  {
+    final BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+
+    for (int k = K_MIN; k <= K_MAX; ++k)
+    {
+      final int        e = -k;
+      final BigInteger n = e >= 0 ? BigInteger.TEN.pow(e) : BigInteger.ONE;
+      final BigInteger d = e >= 0 ? BigInteger.ONE : BigInteger.TEN.pow(-e);
+      final int        r = flog2pow10(e) - 125;
+
+      final BigInteger beta = r <= 0 ?
+                              n.shiftLeft(-r).divide(d) :
+                              n.divide(d.shiftLeft(r));
+      final BigInteger g    = beta.add(BigInteger.ONE);
+
+      final int i = (k - K_MIN) << 1;
+      G[i]     = g.shiftRight(63).longValueExact();
+      G[i + 1] = g.and(mask63).longValue();
+    }
+  }
+
+  // the buffers for append, to avoid the allocation of a string
+  private static final ThreadLocal<byte[]> Buffers =
+    ThreadLocal.withInitial(() -> new byte[MaxLength]);
+
+  /**
+   * Appends the double to the string builder.
+   *
+   * @param v  a finite double
+   * @param sb the string builder
+   * @return the string builder
+   */
+  static StringBuilder append(final double v, final StringBuilder sb)
+  {
+    final byte[] buf = Buffers.get();
+    final int    len = write(v, buf, 0);
+
+    for (int i = 0; i < len; ++i)
+      sb.append((char) buf[i]);
+
+    return sb;
+  }
+
+  /**
+   * Writes the double into the buffer, the buffer must have room for {@link #MaxLength} bytes.
+   *
+   * @param v   a finite double
+   * @param buf the buffer
+   * @param pos the position in the buffer
+   * @return the position after the last written byte
+   */
+  static int write(final double v, final byte[] buf, int pos)
+  {
+    final long bits = Double.doubleToRawLongBits(v);
+    if (bits < 0)
+      buf[pos++] = '-';
+
+    final long t  = bits & T_MASK;
+    final int  bq = (int) (bits >>> (P - 1)) & BQ_MASK;
+
+    if (bq != 0)
+    {
+      // normal value
+      final int  mq = -Q_MIN + 1 - bq;
+      final long c  = C_MIN | t;
+
+      // the integers with up to 53 bits are exact
+      if (0 < mq && mq < P)
+      {
+        final long f = c >> mq;
+        if (f << mq == c)
+          return write(f, 0, buf, pos);
+      }
+
+      return toDecimal(-mq, c, 0, buf, pos);
+    }
+
+    if (t != 0)
+    {
+      // subnormal value
+      return t < C_TINY ?
+             toDecimal(Q_MIN, 10 * t, -1, buf, pos) :
+             toDecimal(Q_MIN, t, 0, buf, pos);
+    }
+
+    buf[pos++] = '0';
+    buf[pos++] = '.';
+    buf[pos++] = '0';
+    return pos;
+  }
+
+  /*
+   * Writes the decimal f 10^e, f > 0, in plain notation.
+   */
+  private static int write(long f, int e, final byte[] buf, int pos)
+  {
+    // remove the trailing zeros
+    while (f % 10 == 0)
+    {
+      f /= 10;
+      ++e;
+    }
+
+    final int n     = length(f);
+    final int point = e + n;
+
+    if (point <= 0)
+    {
+      buf[pos++] = '0';
+      buf[pos++] = '.';
+      for (int i = point; i < 0; ++i)
+        buf[pos++] = '0';
+      return writeDigits(f, n, buf, pos);
+    }
+
+    if (point < n)
+    {
+      final long p = POW10[n - point];
+      pos        = writeDigits(f / p, point, buf, pos);
+      buf[pos++] = '.';
+      return writeDigits(f % p, n - point, buf, pos);
+    }
+
+    pos = writeDigits(f, n, buf, pos);
+    for (int i = n; i < point; ++i)
+      buf[pos++] = '0';
+    buf[pos++] = '.';
+    buf[pos++] = '0';
+    return pos;
+  }
+
+  /*
+   * The Schubfach algorithm for the double c 2^q, see figures 7 and 9 in [Schubfach].
+   */
+  private static int toDecimal(
+    final int q, final long c, final int dk, final byte[] buf, final int pos)
+  {
+    final int  out = (int) c & 0x1;
+    final long cb  = c << 2;
+    final long cbr = cb + 2;
+    final long cbl;
+    final int  k;
+
+    if (c != C_MIN || q == Q_MIN)
+    {
+      cbl = cb - 2;
+      k   = flog10pow2(q);
+    }
+    else
+    {
+      cbl = cb - 1;
+      k   = flog10threeQuartersPow2(q);
+    }
+
+    final int h = q + flog2pow10(-k) + 2;
+
+    final int  i  = (k - K_MIN) << 1;
+    final long g1 = G[i];
+    final long g0 = G[i + 1];
+
+    final long vb  = rop(g1, g0, cb << h);
+    final long vbl = rop(g1, g0, cbl << h);
+    final long vbr = rop(g1, g0, cbr << h);
+
+    final long s = vb >> 2;
+    if (s >= 100)
+    {
+      // s' = floor(s / 10), try one digit less first
+      final long    sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+      final long    tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin)
+        return write(upin ? sp10 : tp10, k + dk, buf, pos);
+    }
+
+    final long    t   = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win)
+      return write(uin ? s : t, k + dk, buf, pos);
+
+    // both are in the rounding interval, pick the closest one
+    final long cmp = vb - ((s + t) << 1);
+    return write(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, pos);
+  }
+
+  /*
+   * Computes the rounded value of cp g 2^-127, where g = g1 2^63 + g0.
+   */
+  private static long rop(final long g1, final long g0, final long cp)
+  {
+    final long x1  = Math.multiplyHigh(g0, cp);
+    final long y0  = g1 * cp;
+    final long y1  = Math.multiplyHigh(g1, cp);
+    final long z   = (y0 >>> 1) + x1;
+    final long vbp = y1 + (z >>> 63);
+    return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+  }
+
+  // floor(e log10(2))
+  static int flog10pow2(final int e)
+  {
+    return (int) (e * 661_971_961_083L >> 41);
+  }
+
+  // floor(e log10(2) + log10(3/4))
+  static int flog10threeQuartersPow2(final int e)
+  {
+    return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+  }
+
+  // floor(e log2(10))
+  static int flog2pow10(final int e)
+  {
+    return (int) (e * 913_124_641_741L >> 38);
+  }
+
+  private static final long[] POW10 = new long[18];
+
+  static
+  {
+    POW10[0] = 1;
+    for (int i = 1; i < POW10.length; ++i)
+      POW10[i] = POW10[i - 1] * 10;
+  }
+
+  private static int length(final long f)
+  {
+    int n = 1;
+    while (n < POW10.length && f >= POW10[n])
+      ++n;
+    return n;
+  }
+
+  // writes the n digits of f, with leading zeros
+  private static int writeDigits(long f, final int n, final byte[] buf, final int pos)
+  {
+    for (int i = pos + n - 1; i >= pos; --i)
+    {
+      buf[i] = (byte) ('0' + f % 10);
+      f /= 10;
+    }
+    return pos + n;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A field path in the <code>map.path.to.value</code> notation, split into its keys once.
+ * <p>
+ * A field path is immutable and can be shared between threads. It is intended to be created when
+ * the rules are compiled and reused for every event.
+ *
+ * @see Maps#getIn(Map, FieldPath)
+ * @see Maps#putIn(Map, FieldPath, Object)
+ * @see Maps#removeIn(Map, FieldPath)
+ */
+public final class FieldPath {
+  private static final char NAME_SEPARATOR = '.';
+
+  private static final String[] NO_KEYS = new String[0];
+
+  final String path;
+  final String[] keys;
+
+  private final int hash;
+
+  private FieldPath(final String path) {
+    this.path = path;
+    this.keys = path.indexOf(NAME_SEPARATOR) > 0 ? split(path) : new String[]{path};
+    this.hash = this.path.hashCode();
+  }
+
+  /**
+   * Creates a new field path.
+   *
+   * @param path the path using the <code>map.path.to.value</code> notation
+   * @return the field path
+   */
+  public static FieldPath of(final String path) {
+    return new FieldPath(path);
+  }
+
+  /**
+   * Returns the path using the <code>map.path.to.value</code> notation.
+   *
+   * @return the path as given to {@link #of(String)}
+   */
+  public String path() {
+    return path;
+  }
+
+  /**
+   * Returns the number of keys in the path.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the key at the given position.
+   *
+   * @param index the index of the key
+   * @return the key at the given position
+   */
+  public String key(final int index) {
+    return keys[index];
+  }
+
+  /**
+   * Returns the last key of the path.
+   *
+   * @return the last key of the path, or the path itself for a path without keys
+   */
+  public String name() {
+    return keys.length > 0 ? keys[keys.length - 1] : path;
+  }
+
+  /**
+   * Tests if the path refers to a nested value.
+   *
+   * @return true if the path has more than one key
+   */
+  public boolean isNested() {
+    return keys.length > 1;
+  }
+
+  /**
+   * Splits the given path, using the <code>map.path.to.value</code> notation, into keys.
+   * <p>
+   * Produces the same keys as <code>path.split("\\.")</code>: the trailing empty keys are
+   * removed.
+   *
+   * @param path the path to split
+   * @return the keys of the path
+   */
+  public static String[] split(final String path) {
+    int pos = path.indexOf(NAME_SEPARATOR);
+    if (pos < 0) {
+      return new String[]{path};
+    }
+
+    final List<String> list = new ArrayList<>(4);
+
+    int start = 0;
+    do {
+      list.add(path.substring(start, pos));
+      start = pos + 1;
+      pos = path.indexOf(NAME_SEPARATOR, start);
+    } while (pos >= 0);
+
+    list.add(path.substring(start));
+
+    int size = list.size();
+    while (size > 0 && list.get(size - 1).isEmpty()) {
+      --size;
+    }
+
+    return size > 0 ? list.subList(0, size).toArray(new String[size]) : NO_KEYS;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof FieldPath) {
+      final FieldPath other = (FieldPath) o;
+      return hash == other.hash && path.equals(other.path);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+}
@@ -23,9 +23,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 
 /**
@@ -102,6 +105,10 @@ public final class Files
   /**
    * Encodes the object as JSON and writes to a file. If the file already exists, then the file will
    * be overwritten.
+   * <p>
+   * The JSON is written to a new, uniquely named temporary file next to the target file, which
+   * then replaces the target file. Thus, the target file is left untouched if the object cannot be
+   * written, and concurrent writers of the same file do not share their temporary files.
    *
    * @param path   the path to the file
    * @param obj    the object to write
@@ -111,11 +118,35 @@ public final class Files
   public static void writeJson(final Path path, final Object obj, final boolean pretty)
     throws IOException
   {
-    final byte[] bytes =
-      (pretty ? Json.format(obj) : Json.toString(obj)).getBytes(StandardCharsets.UTF_8);
+    final Path tmp = java.nio.file.Files.createTempFile(
+      path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
 
-    java.nio.file.Files.write(
-      path, bytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    try
+    {
+      if (pretty)
+      {
+        write(tmp, Json.format(obj).getBytes(StandardCharsets.UTF_8));
+      }
+      else
+      {
+        try (final JsonWriter writer = new JsonWriter(java.nio.file.Files.newOutputStream(
+          tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)))
+        {
+          writer.write(obj);
+        }
+        catch (final UncheckedIOException e)
+        {
+          // the writer reports the errors of the output stream as unchecked exceptions
+          throw e.getCause();
+        }
+      }
+
+      replace(tmp, path);
+    }
+    finally
+    {
+      java.nio.file.Files.deleteIfExists(tmp);
+    }
   }
 
   public static void writeJson(final String filename, final Object obj) throws IOException
@@ -129,6 +160,18 @@ public final class Files
     writeJson(Paths.get(filename), obj, pretty);
   }
 
+  private static void replace(final Path source, final Path target) throws IOException
+  {
+    try
+    {
+      java.nio.file.Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (final AtomicMoveNotSupportedException e)
+    {
+      java.nio.file.Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
   public static <T> T readJsonFromResource(final Path path) throws IOException
   {
     return readJsonFromResource(path.toString());
@@ -16,8 +16,8 @@
 
 package io.ocsf.utils;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
+import io.ocsf.utils.parsers.RawJson;
+
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -26,7 +26,6 @@ import java.time.temporal.TemporalAccessor;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -43,20 +42,6 @@ public final class Json
   private static final String            ISO8601        = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
   private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern(ISO8601);
 
-  // Avoid scientific notation when encoding doubles. See:
-  // https://stackoverflow.com/questions/16098046/how-do-i-print-a-double-value-without-scientific-notation-using-java
-  // Scientific notation isn't parsed by Splunk, despite being legal JSON (at least for the
-  // indexed time field).
-  private static final DecimalFormat DECIMAL_FORMAT;
-
-  static
-  {
-    // Using English locale to get dot (.) as decimal separator, which is required by JSON
-    DECIMAL_FORMAT = new DecimalFormat("0.0", DecimalFormatSymbols.getInstance(Locale.ENGLISH));
-    // 340 = DecimalFormat.DOUBLE_FRACTION_DIGITS (which is package-private)
-    DECIMAL_FORMAT.setMaximumFractionDigits(340);
-  }
-
   private static final String NULL  = null;
   private static final char[] COMMA = ", " .toCharArray();
   private static final char[] EMPTY_ARRAY = "[]" .toCharArray();
@@ -120,7 +105,7 @@ public final class Json
 
     if (value instanceof Number)
     {
-      return buf.append(validateNumber(value));
+      return appendNumber(value, buf);
     }
 
     if (value instanceof Boolean)
@@ -138,6 +123,11 @@ public final class Json
       return collToString(Maps.typecast(value), buf);
     }
 
+    if (value instanceof RawJson)
+    {
+      return objectToString(((RawJson) value).value(), buf);
+    }
+
     if (value instanceof Character)
     {
       return appendChar((Character) value, buf);
@@ -227,7 +217,7 @@ public final class Json
 
     if (value instanceof Number)
     {
-      return buf.append(validateNumber(value));
+      return appendNumber(value, buf);
     }
 
     if (value instanceof Boolean)
@@ -245,6 +235,11 @@ public final class Json
       return collToString(indent, Maps.typecast(value), buf);
     }
 
+    if (value instanceof RawJson)
+    {
+      return formatObject(indent, ((RawJson) value).value(), buf);
+    }
+
     if (value instanceof Character)
     {
       return appendChar((Character) value, buf);
@@ -318,7 +313,7 @@ public final class Json
     return quote(value.toString(), buf);
   }
 
-  private static String toIso8601String(final Date time)
+  static String toIso8601String(final Date time)
   {
     return toIso8601String(time.getTime());
   }
@@ -533,16 +528,34 @@ public final class Json
     return len;
   }
 
-  private static String validateNumber(final Object num)
+  /*
+   * Appends the number. Doubles are written without scientific notation, which Splunk does not
+   * parse, despite being legal JSON (at least for the indexed time field).
+   */
+  private static StringBuilder appendNumber(final Object num, final StringBuilder sb)
   {
     if (num instanceof Double)
+      return Doubles.append(validateDouble((Double) num), sb);
+
+    return sb.append(validateNumber(num));
+  }
+
+  static double validateDouble(final double num)
+  {
+    if (Double.isInfinite(num) || Double.isNaN(num))
     {
-      if (((Double) num).isInfinite() || ((Double) num).isNaN())
-      {
-        throw new IllegalArgumentException("JSON does not allow non-finite numbers.");
-      }
+      throw new IllegalArgumentException("JSON does not allow non-finite numbers.");
+    }
+
+    return num;
+  }
 
-      return DECIMAL_FORMAT.format(num);
+  static String validateNumber(final Object num)
+  {
+    if (num instanceof Double)
+    {
+      final double d = validateDouble((Double) num);
+      return Doubles.append(d, new StringBuilder(24)).toString();
     }
 
     if (num instanceof Float)
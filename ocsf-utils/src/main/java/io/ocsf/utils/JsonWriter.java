@@ -0,0 +1,526 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import io.ocsf.utils.parsers.RawJson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Writes Java objects as compact, UTF-8 encoded JSON. The output is the same as
+ * {@link Json#toString(Object)}, but the JSON text is encoded directly into a byte buffer, without
+ * creating an intermediate string.
+ * <p>
+ * The writer either collects the JSON text in its buffer, which can be reused after
+ * {@link #reset()}, or writes the buffer to an output stream when it is full. Use
+ * {@link #writeLine(Object)} to write newline delimited JSON (NDJSON).
+ * <p>
+ * NOTE: This class is intended for use in a single thread.
+ */
+public final class JsonWriter implements Closeable
+{
+  private static final int INIT_BUFFER_SIZE = 8 * 1024;
+  private static final int ENCODE_CHUNK     = 1024;
+
+  private static final byte[] NULL  = "null".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] TRUE  = "true".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HEX   = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  // the escape char of the ASCII chars: 0 - no escape, 'u' - unicode escape
+  private static final byte[] ESCAPES = new byte[128];
+
+  static
+  {
+    for (int ch = 0; ch < ' '; ++ch)
+      ESCAPES[ch] = 'u';
+
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\t'] = 't';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\f'] = 'f';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['"']  = '"';
+    ESCAPES['\\'] = '\\';
+  }
+
+  private final OutputStream out;
+
+  private byte[] buf;
+  private int    size;
+
+  /**
+   * Creates a writer that collects the JSON text in its buffer.
+   */
+  public JsonWriter()
+  {
+    this(null, INIT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a writer that collects the JSON text in its buffer.
+   *
+   * @param capacity the initial buffer size in bytes
+   */
+  public JsonWriter(final int capacity)
+  {
+    this(null, capacity);
+  }
+
+  /**
+   * Creates a writer that writes the JSON text to the given output stream. The text is buffered,
+   * call {@link #flush()} or {@link #close()} to write the remaining bytes.
+   *
+   * @param out the output stream
+   */
+  public JsonWriter(final OutputStream out)
+  {
+    this(out, INIT_BUFFER_SIZE);
+  }
+
+  private JsonWriter(final OutputStream out, final int capacity)
+  {
+    this.out  = out;
+    this.buf  = new byte[Math.max(capacity, 16)];
+    this.size = 0;
+  }
+
+  /**
+   * Writes the value as a JSON text.
+   *
+   * @param value a value to be serialized
+   * @return this writer
+   * @throws UncheckedIOException if an I/O error occurs writing to the output stream
+   */
+  public JsonWriter write(final Object value)
+  {
+    value(value);
+    return this;
+  }
+
+  /**
+   * Writes the value as a JSON text followed by a new line, as used by NDJSON.
+   *
+   * @param value a value to be serialized
+   * @return this writer
+   * @throws UncheckedIOException if an I/O error occurs writing to the output stream
+   */
+  public JsonWriter writeLine(final Object value)
+  {
+    value(value);
+    ensure(1);
+    buf[size++] = '\n';
+    return this;
+  }
+
+  /**
+   * Returns the number of buffered bytes.
+   *
+   * @return the buffer size in bytes
+   */
+  public int size() {return size;}
+
+  /**
+   * Discards the buffered bytes, the buffer is reused.
+   *
+   * @return this writer
+   */
+  public JsonWriter reset()
+  {
+    size = 0;
+    return this;
+  }
+
+  /**
+   * Returns the buffered bytes. The returned buffer shares the writer's buffer, and it is valid
+   * until the next write or reset.
+   *
+   * @return a read-only view of the buffered bytes
+   */
+  public ByteBuffer buffer()
+  {
+    return ByteBuffer.wrap(buf, 0, size).asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a copy of the buffered bytes.
+   *
+   * @return the buffered JSON text
+   */
+  public byte[] toByteArray()
+  {
+    return Arrays.copyOf(buf, size);
+  }
+
+  @Override
+  public String toString()
+  {
+    return new String(buf, 0, size, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the buffered bytes to the output stream and flushes it.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  public void flush() throws IOException
+  {
+    if (out != null)
+    {
+      drain();
+      out.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    if (out != null)
+    {
+      drain();
+      out.close();
+    }
+  }
+
+  private void value(final Object value)
+  {
+    if (value instanceof String)
+    {
+      quote((String) value);
+    }
+    else if (value instanceof Integer || value instanceof Long ||
+             value instanceof Short || value instanceof Byte)
+    {
+      number(((Number) value).longValue());
+    }
+    else if (value instanceof Double)
+    {
+      final double d = Json.validateDouble((Double) value);
+      ensure(Doubles.MaxLength);
+      size = Doubles.write(d, buf, size);
+    }
+    else if (value instanceof Number)
+    {
+      ascii(Json.validateNumber(value));
+    }
+    else if (value instanceof Boolean)
+    {
+      raw((Boolean) value ? TRUE : FALSE);
+    }
+    else if (value instanceof Map<?, ?>)
+    {
+      map(Maps.typecast(value));
+    }
+    else if (value instanceof Collection<?>)
+    {
+      collection((Collection<?>) value);
+    }
+    else if (value instanceof RawJson)
+    {
+      value(((RawJson) value).value());
+    }
+    else if (value instanceof Character)
+    {
+      // Json writes a single char without quotes
+      chars(String.valueOf((char) (Character) value));
+    }
+    else if (value instanceof Date)
+    {
+      ensure(1);
+      buf[size++] = '"';
+      ascii(Json.toIso8601String((Date) value));
+      ensure(1);
+      buf[size++] = '"';
+    }
+    else if (value == null)
+    {
+      raw(NULL);
+    }
+    else if (value.getClass().isArray())
+    {
+      // arrays are rare in the event data, use the same encoding as Json
+      raw(Json.toString(value).getBytes(StandardCharsets.UTF_8));
+    }
+    else
+    {
+      quote(value.toString());
+    }
+  }
+
+  private void map(final Map<String, Object> map)
+  {
+    ensure(2);
+    buf[size++] = '{';
+
+    boolean first = true;
+    for (final Map.Entry<String, Object> e : map.entrySet())
+    {
+      if (first)
+        first = false;
+      else
+        buf[size++] = ',';
+
+      quote(e.getKey());
+      ensure(2);
+      buf[size++] = ':';
+
+      value(e.getValue());
+      ensure(2);
+    }
+
+    buf[size++] = '}';
+  }
+
+  private void collection(final Collection<?> col)
+  {
+    ensure(3);
+    buf[size++] = '[';
+
+    boolean first = true;
+    for (final Object elem : col)
+    {
+      if (first)
+      {
+        first = false;
+      }
+      else
+      {
+        buf[size++] = ',';
+        buf[size++] = ' ';
+      }
+
+      value(elem);
+      ensure(3);
+    }
+
+    buf[size++] = ']';
+  }
+
+  private void quote(final String s)
+  {
+    if (s == null)
+    {
+      raw(NULL);
+      return;
+    }
+
+    ensure(1);
+    buf[size++] = '"';
+    encode(s);
+    ensure(1);
+    buf[size++] = '"';
+  }
+
+  // writes the string, escaped but without quotes
+  private void chars(final String s)
+  {
+    encode(s);
+  }
+
+  private void encode(final String s)
+  {
+    final int len = s.length();
+    for (int i = 0; i < len; )
+    {
+      // the worst case is 6 bytes per char: the unicode escape
+      final int chunk = Math.min(len - i, ENCODE_CHUNK);
+      ensure(chunk * 6);
+      i = encode(s, i, i + chunk);
+    }
+  }
+
+  /*
+   * Encodes the chars up to the given end, a surrogate pair may end one char after it. Returns the
+   * index of the next char. The caller must ensure 6 bytes per char.
+   *
+   * The runs of ASCII chars that need no escaping are copied at once: String.getBytes copies the
+   * low byte of each char, which is the UTF-8 encoding of an ASCII char.
+   */
+  @SuppressWarnings("deprecation")
+  private int encode(final String s, final int from, final int to)
+  {
+    final byte[] b = buf;
+    int          n = size;
+    int          i = from;
+
+    for (; i < to; ++i)
+    {
+      final char ch = s.charAt(i);
+
+      if (ch < 0x80)
+      {
+        final byte esc = ESCAPES[ch];
+        if (esc == 0)
+        {
+          int end = i + 1;
+          while (end < to && plain(s.charAt(end)))
+            ++end;
+
+          s.getBytes(i, end, b, n);
+          n += end - i;
+          i  = end - 1;
+        }
+        else
+        {
+          b[n++] = '\\';
+          b[n++] = esc;
+          if (esc == 'u')
+            n = hex(ch, b, n);
+        }
+      }
+      else if (ch < 0xa0 || (ch >= 0x2000 && ch < 0x2100))
+      {
+        b[n++] = '\\';
+        b[n++] = 'u';
+        n      = hex(ch, b, n);
+      }
+      else if (ch < 0x800)
+      {
+        b[n++] = (byte) (0xc0 | (ch >> 6));
+        b[n++] = (byte) (0x80 | (ch & 0x3f));
+      }
+      else if (Character.isHighSurrogate(ch) && i + 1 < s.length() &&
+               Character.isLowSurrogate(s.charAt(i + 1)))
+      {
+        final int cp = Character.toCodePoint(ch, s.charAt(++i));
+        b[n++] = (byte) (0xf0 | (cp >> 18));
+        b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+        b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+        b[n++] = (byte) (0x80 | (cp & 0x3f));
+      }
+      else if (Character.isSurrogate(ch))
+      {
+        // a malformed surrogate pair, the same replacement as String.getBytes
+        b[n++] = '?';
+      }
+      else
+      {
+        b[n++] = (byte) (0xe0 | (ch >> 12));
+        b[n++] = (byte) (0x80 | ((ch >> 6) & 0x3f));
+        b[n++] = (byte) (0x80 | (ch & 0x3f));
+      }
+    }
+
+    size = n;
+    return i;
+  }
+
+  // true if the char is ASCII and needs no escaping
+  private static boolean plain(final char ch)
+  {
+    return ch < 0x80 && ESCAPES[ch] == 0;
+  }
+
+  private static int hex(final int ch, final byte[] b, int n)
+  {
+    b[n++] = HEX[(ch >> 12) & 0xf];
+    b[n++] = HEX[(ch >> 8) & 0xf];
+    b[n++] = HEX[(ch >> 4) & 0xf];
+    b[n++] = HEX[ch & 0xf];
+    return n;
+  }
+
+  private void number(final long value)
+  {
+    if (value == Long.MIN_VALUE)
+    {
+      ascii(Long.toString(value));
+      return;
+    }
+
+    // at most 19 digits and the sign
+    ensure(20);
+
+    long v = value;
+    if (v < 0)
+    {
+      buf[size++] = '-';
+      v           = -v;
+    }
+
+    int digits = 1;
+    for (long p = 10; digits < 19 && v >= p; p *= 10)
+      ++digits;
+
+    int i = size + digits;
+    size = i;
+    do
+    {
+      buf[--i] = (byte) ('0' + (v % 10));
+      v /= 10;
+    }
+    while (v != 0);
+  }
+
+  // the string must contain only ASCII chars
+  private void ascii(final String s)
+  {
+    final int len = s.length();
+    ensure(len);
+    for (int i = 0; i < len; ++i)
+      buf[size++] = (byte) s.charAt(i);
+  }
+
+  private void raw(final byte[] bytes)
+  {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buf, size, bytes.length);
+    size += bytes.length;
+  }
+
+  /*
+   * Makes room for n more bytes: writes the buffer to the output stream, if any, otherwise grows
+   * the buffer.
+   */
+  private void ensure(final int n)
+  {
+    if (size + n <= buf.length)
+      return;
+
+    if (out != null && size > 0)
+    {
+      try
+      {
+        drain();
+      }
+      catch (final IOException e)
+      {
+        throw new UncheckedIOException(e);
+      }
+
+      if (n <= buf.length)
+        return;
+    }
+
+    buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+  }
+
+  private void drain() throws IOException
+  {
+    out.write(buf, 0, size);
+    size = 0;
+  }
+}
@@ -31,7 +31,6 @@ public final class Maps {
   public static final Locale LOCALE = Locale.ROOT;
 
   private static final int NAME_SEPARATOR = '.';
-  private static final String NAME_SPLIT_REGEX = "\\.";
 
   @SuppressWarnings("unchecked")
   public static <T> T typecast(final Object obj) {
@@ -53,6 +52,11 @@ public final class Maps {
     Object get(final Map<String, Object> map, final String name);
   }
 
+  @FunctionalInterface
+  public interface PathSource {
+    Object get(final Map<String, Object> map, final FieldPath path);
+  }
+
   public static boolean isEmpty(final Map<?, ?> map) {
     return map == null || map.isEmpty();
   }
@@ -196,7 +200,7 @@ public final class Maps {
   ) {
     if (value != null) {
       if (path.indexOf(NAME_SEPARATOR) > 0) {
-        updateIn(map, path.split(NAME_SPLIT_REGEX), value);
+        updateIn(map, FieldPath.split(path), value);
       } else {
         map.put(path, value);
       }
@@ -208,7 +212,7 @@ public final class Maps {
   ) {
     if (value != null) {
       if (path.indexOf(NAME_SEPARATOR) > 0) {
-        final String[] keys = path.split(NAME_SPLIT_REGEX);
+        final String[] keys = FieldPath.split(path);
         if (overwrite) {
           updateIn(map, keys, value);
         } else {
@@ -222,6 +226,44 @@ public final class Maps {
     }
   }
 
+  /**
+   * Puts a value in a nested map via the given pre-split path.
+   *
+   * @param map   map to which the specified path/value is to be added
+   * @param path  path with which the specified value is to be associated
+   * @param value value to be associated with the path, <code>null</code> values are ignored
+   */
+  public static void putIn(
+      final Map<String, Object> map, final FieldPath path, final Object value
+  ) {
+    if (value != null) {
+      if (path.isNested()) {
+        updateIn(map, path.keys, value);
+      } else {
+        map.put(path.path, value);
+      }
+    }
+  }
+
+  public static void putIn(
+      final Map<String, Object> map, final FieldPath path, final Object value,
+      final boolean overwrite
+  ) {
+    if (value != null) {
+      if (path.isNested()) {
+        if (overwrite) {
+          updateIn(map, path.keys, value);
+        } else {
+          putInIfAbsent(map, path.keys, value);
+        }
+      } else if (overwrite) {
+        map.put(path.path, value);
+      } else {
+        map.putIfAbsent(path.path, value);
+      }
+    }
+  }
+
   public static <T> T get(final Map<String, Object> data, final String name) {
     return data != null ? typecast(data.get(name)) : null;
   }
@@ -262,7 +304,26 @@ public final class Maps {
     // handle keys with dots
     final Object value = map.get(path);
     if (value == null && path.indexOf(NAME_SEPARATOR) > 0) {
-      return getNested(map, path.split(NAME_SPLIT_REGEX));
+      return getNested(map, FieldPath.split(path));
+    }
+    return value;
+  }
+
+  /**
+   * Returns the value to which the specified pre-split path is mapped, or {@code null} if this map
+   * contains no mapping for the path.
+   *
+   * @param map  the map from which the value associated with the specified path is to be returned
+   * @param path the path whose associated value is to be returned
+   * @return the value to which the specified path is mapped, or {@code null} if this map contains
+   * no mapping for the path
+   * @see #getIn(Map, String)
+   */
+  public static Object getIn(final Map<String, ?> map, final FieldPath path) {
+    // handle keys with dots
+    final Object value = map.get(path.path);
+    if (value == null && path.isNested()) {
+      return getNested(map, path.keys);
     }
     return value;
   }
@@ -280,7 +341,25 @@ public final class Maps {
     // handle keys with dots
     final Object value = map.remove(path);
     if (value == null && path.indexOf(NAME_SEPARATOR) > 0) {
-      return remove(map, path.split(NAME_SPLIT_REGEX));
+      return remove(map, FieldPath.split(path));
+    }
+    return value;
+  }
+
+  /**
+   * Deletes a value from a nested map via the given pre-split path.
+   *
+   * @param map  the map from which the value associated with the specified path is to be removed
+   * @param path the path whose mapping is to be removed from the map
+   * @return the previous value associated with <code>path</code>, or {@code null} if this map
+   * contains no mapping for the path
+   * @see #removeIn(Map, String)
+   */
+  public static Object removeIn(final Map<String, Object> map, final FieldPath path) {
+    // handle keys with dots
+    final Object value = map.remove(path.path);
+    if (value == null && path.isNested()) {
+      return remove(map, path.keys);
     }
     return value;
   }
@@ -457,7 +536,7 @@ public final class Maps {
         map = typecast(next);
       } else if (next == null) {
         do {
-          final Map<String, Object> map2 = new HashMap<>();
+          final Map<String, Object> map2 = new CompactMap();
           map.put(keys[depth], map2);
           map = map2;
         } while (++depth < last);
@@ -477,7 +556,7 @@ public final class Maps {
         map = typecast(next);
       } else {
         do {
-          final Map<String, Object> map2 = new HashMap<>();
+          final Map<String, Object> map2 = new CompactMap();
           map.put(keys[depth], map2);
           map = map2;
         } while (++depth < last);
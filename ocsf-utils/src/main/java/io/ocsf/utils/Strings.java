@@ -20,11 +20,16 @@ import java.text.CollationElementIterator;
 import java.text.Collator;
 import java.text.RuleBasedCollator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Language-sensitive text searching utility class.
+ * Text searching utility class.
+ * <p>
+ * The search functions are case-insensitive: the characters are compared the same way as
+ * {@link String#equalsIgnoreCase(String)} does. The language-sensitive search, which uses the
+ * collation rules of the default locale, is available with {@link #finder(String, boolean)}.
  */
 public final class Strings
 {
@@ -35,7 +40,18 @@ public final class Strings
 
   private static final int mask = 0xFFFF0000; // Collator.PRIMARY
 
-  private static final RuleBasedCollator collator = (RuleBasedCollator) Collator.getInstance();
+  // The collator is not thread-safe
+  private static final ThreadLocal<RuleBasedCollator> collator =
+    ThreadLocal.withInitial(() -> (RuleBasedCollator) Collator.getInstance());
+
+  // The case folding of the ASCII characters
+  private static final char[] ascii = new char[128];
+
+  static
+  {
+    for (char ch = 0; ch < ascii.length; ++ch)
+      ascii[ch] = fold(ch);
+  }
 
   private Strings() {}
 
@@ -53,27 +69,207 @@ public final class Strings
 
   public static boolean startsWith(final String text, final String sub)
   {
-    if (text.length() < sub.length())
-      return false;
+    return finder(sub).startsWith(text);
+  }
 
-    final String s = text.substring(0, sub.length());
+  public static boolean endsWith(final String text, final String sub)
+  {
+    return finder(sub).endsWith(text);
+  }
 
-    return search(s, Strings.getCollationElementIterator(sub)) > -1;
+  public static int search(final String text, final String sub)
+  {
+    return finder(sub).search(text);
   }
 
-  public static boolean endsWith(final String text, final String sub)
+  /**
+   * A precompiled substring search. A finder is immutable and can be shared between threads.
+   */
+  public abstract static class Finder
   {
-    if (text.length() < sub.length())
-      return false;
+    private Finder() {}
+
+    /**
+     * Searches the text for the substring.
+     *
+     * @param text the text to search
+     * @return the index of the first occurrence of the substring, or -1 if not found
+     */
+    public abstract int search(final String text);
 
-    final String s = text.substring(text.length() - sub.length());
+    /**
+     * Tests if the text starts with the substring.
+     *
+     * @param text the text to test
+     * @return true if the text starts with the substring
+     */
+    public abstract boolean startsWith(final String text);
 
-    return search(s, Strings.getCollationElementIterator(sub)) > -1;
+    /**
+     * Tests if the text ends with the substring.
+     *
+     * @param text the text to test
+     * @return true if the text ends with the substring
+     */
+    public abstract boolean endsWith(final String text);
   }
 
-  public static int search(final String text, final String sub)
+  /**
+   * Returns a case-insensitive finder of the given substring.
+   *
+   * @param sub the substring to search for
+   * @return the finder
+   */
+  public static Finder finder(final String sub)
+  {
+    return new CaseInsensitiveFinder(sub);
+  }
+
+  /**
+   * Returns a finder of the given substring.
+   *
+   * @param sub       the substring to search for
+   * @param collation when true, the finder uses the collation rules of the default locale, and the
+   *                  characters are compared with the primary strength. This is significantly
+   *                  slower than the case-insensitive finder.
+   * @return the finder
+   */
+  public static Finder finder(final String sub, final boolean collation)
+  {
+    return collation ? new CollationFinder(sub) : new CaseInsensitiveFinder(sub);
+  }
+
+  /*
+   * Boyer-Moore-Horspool search on the case-folded characters.
+   */
+  private static final class CaseInsensitiveFinder extends Finder
+  {
+    private final char[] pattern;
+
+    // the bad character shifts, indexed by the low byte of the case-folded characters
+    private final int[] shift = new int[256];
+
+    private CaseInsensitiveFinder(final String sub)
+    {
+      final int m = sub.length();
+
+      pattern = new char[m];
+      for (int i = 0; i < m; ++i)
+        pattern[i] = fold(sub.charAt(i));
+
+      Arrays.fill(shift, Math.max(m, 1));
+
+      // characters sharing the low byte keep the smallest shift
+      for (int i = 0; i < m - 1; ++i)
+        shift[pattern[i] & 0xFF] = m - 1 - i;
+    }
+
+    @Override
+    public int search(final String text)
+    {
+      final int n = text.length();
+      final int m = pattern.length;
+
+      if (n == 0)
+        return -1;
+
+      final int last = m - 1;
+      int       i    = 0;
+
+      while (i <= n - m)
+      {
+        int j = last;
+        while (j >= 0 && foldAt(text, i + j) == pattern[j])
+          --j;
+
+        if (j < 0)
+          return i;
+
+        i += shift[foldAt(text, i + last) & 0xFF];
+      }
+
+      return -1;
+    }
+
+    // an empty substring is never a prefix or a suffix, as with the collation finder
+    @Override
+    public boolean startsWith(final String text)
+    {
+      return pattern.length > 0 && matches(text, 0);
+    }
+
+    @Override
+    public boolean endsWith(final String text)
+    {
+      return pattern.length > 0 && matches(text, text.length() - pattern.length);
+    }
+
+    private boolean matches(final String text, final int offset)
+    {
+      if (offset < 0 || offset + pattern.length > text.length())
+        return false;
+
+      for (int j = 0; j < pattern.length; ++j)
+        if (foldAt(text, offset + j) != pattern[j])
+          return false;
+
+      return true;
+    }
+  }
+
+  private static final class CollationFinder extends Finder
+  {
+    private final String sub;
+
+    private CollationFinder(final String sub) {this.sub = sub;}
+
+    @Override
+    public int search(final String text)
+    {
+      final RuleBasedCollator c = collator.get();
+      return search(c, text, c.getCollationElementIterator(sub));
+    }
+
+    @Override
+    public boolean startsWith(final String text)
+    {
+      return text.length() >= sub.length() && search(text.substring(0, sub.length())) > -1;
+    }
+
+    @Override
+    public boolean endsWith(final String text)
+    {
+      return text.length() >= sub.length() &&
+             search(text.substring(text.length() - sub.length())) > -1;
+    }
+
+    private static int search(
+      final RuleBasedCollator collator, final String text, final CollationElementIterator patIter)
+    {
+      final CollationElementIterator it = collator.getCollationElementIterator(text);
+
+      for (int i = 0; i < text.length(); ++i)
+      {
+        it.setOffset(i);
+        patIter.reset();
+
+        if (match(it, patIter)) return i;
+      }
+
+      return -1; // no match
+    }
+  }
+
+  private static char foldAt(final String text, final int index)
   {
-    return search(text, Strings.getCollationElementIterator(sub));
+    final char ch = text.charAt(index);
+    return ch < 128 ? ascii[ch] : fold(ch);
+  }
+
+  // Folds the case as String.equalsIgnoreCase does
+  private static char fold(final char ch)
+  {
+    return Character.toLowerCase(Character.toUpperCase(ch));
   }
 
   public static List<Object> toArray(final Object value)
@@ -107,33 +303,13 @@ public final class Strings
     return Collections.singletonList(value);
   }
 
-  private static int search(final String text, final CollationElementIterator patIter)
-  {
-    final CollationElementIterator it = collator.getCollationElementIterator(text);
-
-    for (int i = 0; i < text.length(); ++i)
-    {
-      it.setOffset(i);
-      patIter.reset();
-
-      if (match(it, patIter)) return i;
-    }
-
-    return -1; // no match
-  }
-
-  private static CollationElementIterator getCollationElementIterator(final String source)
-  {
-    return collator.getCollationElementIterator(source);
-  }
-
   private static boolean match(
     final CollationElementIterator text, final CollationElementIterator pattern)
   {
     do
     {
-      final int i      = pattern.next() & Strings.mask;
-      final int target = text.next() & Strings.mask;
+      final int i      = primary(pattern);
+      final int target = primary(text);
 
       if (i == Strings.mask)
         return true; // end of pattern
@@ -144,6 +320,17 @@ public final class Strings
     while (true);
   }
 
+  // Returns the next primary order, skipping the elements ignorable at the primary strength
+  private static int primary(final CollationElementIterator it)
+  {
+    int order;
+    do
+      order = it.next() & Strings.mask;
+    while (order == 0);
+
+    return order;
+  }
+
   /**
    * Tests if the last element of a dotted path exists earlier in the path, indicating a loop.
    * @param path a dotted path of names, as used with JSON paths.
@@ -155,7 +342,7 @@ public final class Strings
     {
       return false;
     }
-    final String[] elements = path.split("\\.");
+    final String[] elements = FieldPath.split(path);
     if (elements.length <= 1)
     {
       return false;
@@ -72,26 +72,47 @@ public class Token
 
   private static final class Field extends Token
   {
-    private final String name;
+    private final String    name;
+    private final FieldPath path;
 
     private Field(final String name)
     {
       super(name);
       this.name = name;
+      this.path = FieldPath.of(name);
     }
 
     @Override
     public String name() {return name;}
+
+    @Override
+    public FieldPath path() {return path;}
   }
 
   static final class Value extends Token
   {
+    private final boolean collation;
+
     private Predicate<String> matcher;
     private Predicate<String> finder;
+    private Strings.Finder    search;
 
-    private Value(final String value)
+    private Value(final String value, final boolean collation)
     {
       super(STRING, value);
+      this.collation = collation;
+    }
+
+    /*
+     * Returns the precompiled substring finder of this value. The finder is immutable, thus it is
+     * safely shared even if created more than once by concurrent threads.
+     */
+    Strings.Finder search()
+    {
+      if (search == null)
+        search = Strings.finder(value(), collation);
+
+      return search;
     }
 
     boolean matches(final String data)
@@ -161,7 +182,20 @@ public class Token
 
   public static Token field(final String name)  {return new Field(name);}
 
-  public static Token value(final String value) {return new Value(value);}
+  public static Token value(final String value) {return new Value(value, false);}
+
+  /**
+   * Returns a string value.
+   *
+   * @param value     the string
+   * @param collation when true, the substring operators compare the value using the collation
+   *                  rules of the default locale, see {@link Strings#finder(String, boolean)}
+   * @return the value token
+   */
+  public static Token value(final String value, final boolean collation)
+  {
+    return new Value(value, collation);
+  }
 
   public static final Token Null = new Token(Token.NULL, null);
 
@@ -246,6 +280,11 @@ public class Token
     throw new Error("token " + this + " is not a field name");
   }
 
+  public FieldPath path()
+  {
+    throw new Error("token " + this + " is not a field name");
+  }
+
   private static final String toString(final Set<?> set)
   {
     final StringBuilder buf = new StringBuilder(16 * set.size());
@@ -17,6 +17,8 @@
 
 package io.ocsf.utils;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.Stack;
 
 /**
@@ -57,6 +59,41 @@ public final class Tree
     left = right = null;
   }
 
+  /**
+   * Returns the names of the fields used in this expression, using the
+   * <code>map.path.to.value</code> notation. The field names in a subexpression of an
+   * <code>exec</code> operator are relative to the <code>exec</code> field, and only the
+   * <code>exec</code> field is returned.
+   *
+   * @return the field names
+   */
+  public Set<String> fields()
+  {
+    final Set<String> fields = new HashSet<>();
+    fields(this, fields);
+    return fields;
+  }
+
+  private static void fields(final Tree node, final Set<String> fields)
+  {
+    if (node == null)
+      return;
+
+    if (node.op.isField())
+    {
+      fields.add(node.op.name());
+    }
+    else if (node.op == Token.Exec || node.op.isRelOp())
+    {
+      fields(node.left, fields);
+    }
+    else
+    {
+      fields(node.left, fields);
+      fields(node.right, fields);
+    }
+  }
+
   public String asString()
   {
     if (this != Empty)
@@ -16,12 +16,12 @@
 
 package io.ocsf.utils.parsers;
 
+import io.ocsf.utils.CompactMap;
 import io.ocsf.utils.Strings;
 import io.ocsf.utils.Utils;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -44,6 +44,8 @@ public final class Json5Parser
 
   private final StringBuilder sb = new StringBuilder(32);
 
+  private final KeyCanonicalizer keys = KeyCanonicalizer.get();
+
   /**
    * Return the next JSON value. The value can be a Boolean, Double, Integer, Long, String, List,
    * Map, or null.
@@ -58,7 +60,7 @@ public final class Json5Parser
   public <T> T to() throws ParserException
   {
     pos = skip(buf, pos, len);
-    return pos < buf.length ? (T) value() : null;
+    return pos < buf.length ? (T) value(Projection.All) : null;
   }
 
   @SuppressWarnings("unchecked")
@@ -72,15 +74,90 @@ public final class Json5Parser
     return (T) new Json5Parser(text.toCharArray()).parse();
   }
 
+  /**
+   * Parses only the selected fields of the JSON text. The values of the other fields are skipped
+   * without being parsed, and kept as {@link RawJson} values.
+   *
+   * @param text       the text to parse
+   * @param projection the selected fields
+   * @param <T>        the type of the parsed JSON data
+   * @return A JSON value, <code>null</code> if the text is empty
+   * @throws ParserException If syntax error.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T to(final String text, final Projection projection) throws ParserException
+  {
+    if (text == null || text.isEmpty())
+    {
+      return null;
+    }
+
+    return (T) new Json5Parser(text.toCharArray()).value(projection);
+  }
+
+  /**
+   * Parses UTF-8 encoded JSON text without decoding it into a string first.
+   *
+   * @param bytes  the UTF-8 bytes to parse
+   * @param offset the offset of the JSON text
+   * @param length the length of the JSON text in bytes
+   * @param <T>    the type of the parsed JSON data
+   * @return A JSON value, <code>null</code> if there are no bytes
+   * @throws ParserException If syntax error.
+   */
   @SuppressWarnings("unchecked")
   public static <T> T to(final byte[] bytes, final int offset, final int length)
     throws ParserException
   {
     if (bytes == null || bytes.length == 0) return null;
 
-    // String constructor will validate offset and length against bytes
-    return (T) new Json5Parser(
-      new String(bytes, offset, length, StandardCharsets.UTF_8).toCharArray()).parse();
+    return (T) new Utf8Json5Parser(bytes, offset, length).parse();
+  }
+
+  /**
+   * Parses only the selected fields of the UTF-8 encoded JSON text. The values of the other fields
+   * are skipped without being parsed, and kept as {@link RawJson} values.
+   *
+   * @param bytes      the UTF-8 bytes to parse
+   * @param offset     the offset of the JSON text
+   * @param length     the length of the JSON text in bytes
+   * @param projection the selected fields
+   * @param <T>        the type of the parsed JSON data
+   * @return A JSON value, <code>null</code> if there are no bytes
+   * @throws ParserException If syntax error.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T to(
+    final byte[] bytes, final int offset, final int length, final Projection projection)
+    throws ParserException
+  {
+    if (bytes == null || bytes.length == 0) return null;
+
+    return (T) new Utf8Json5Parser(bytes, offset, length).parse(projection);
+  }
+
+  /**
+   * Parses the remaining UTF-8 encoded JSON text in the buffer. The position of the buffer is not
+   * changed. The bytes are copied only if the buffer is not backed by an accessible array.
+   *
+   * @param buffer the buffer to parse
+   * @param <T>    the type of the parsed JSON data
+   * @return A JSON value, <code>null</code> if there are no bytes
+   * @throws ParserException If syntax error.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T to(final ByteBuffer buffer) throws ParserException
+  {
+    if (buffer == null || !buffer.hasRemaining()) return null;
+
+    if (buffer.hasArray())
+      return (T) new Utf8Json5Parser(
+        buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()).parse();
+
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+
+    return (T) new Utf8Json5Parser(bytes, 0, bytes.length).parse();
   }
 
   /**
@@ -105,8 +182,7 @@ public final class Json5Parser
 
     if (bytes.length == 0) return Strings.EMPTY;
 
-    return new Json5Parser(
-      new String(bytes, StandardCharsets.UTF_8).toCharArray()).parse();
+    return new Utf8Json5Parser(bytes, 0, bytes.length).parse();
   }
 
   /**
@@ -118,7 +194,14 @@ public final class Json5Parser
    */
   public Object parse() throws ParserException
   {
-    return value();
+    return value(Projection.All);
+  }
+
+  // used by RawJson
+  static Object parse(final char[] buf, final int offset, final int length)
+    throws ParserException
+  {
+    return new Json5Parser(buf, offset, offset + length).value(Projection.All);
   }
 
   private Json5Parser(final char[] buf)
@@ -137,10 +220,11 @@ public final class Json5Parser
    * Get the next value. The value can be a Boolean, Double, Integer, List, Map, Long, String, or
    * null.
    *
+   * @param projection the selected fields of an object value
    * @return An object.
    * @throws ParserException If syntax error.
    */
-  private Object value() throws ParserException
+  private Object value(final Projection projection) throws ParserException
   {
     pos = skip(buf, pos, len);
 
@@ -149,12 +233,12 @@ public final class Json5Parser
     switch (ch)
     {
       case '{':
-        return object();
+        return object(projection);
 
       case '[':
-        return array(']');
+        return array(']', projection);
       case '(':
-        return array(')');
+        return array(')', projection);
 
       case '"':
       case '\'':
@@ -212,12 +296,13 @@ public final class Json5Parser
   /**
    * Parse an object value.
    *
+   * @param projection the selected fields
    * @return A <tt>Map</tt> of name/value pairs.
    * @throws ParserException If syntax error.
    */
-  private Map<String, Object> object() throws ParserException
+  private Map<String, Object> object(final Projection projection) throws ParserException
   {
-    final Map<String, Object> map = new HashMap<>();
+    final Map<String, Object> map = new CompactMap();
 
     ++pos; // skip '{'
 
@@ -233,11 +318,11 @@ public final class Json5Parser
             return map;
 
           case '"':
-            field(map, name(pos, '"'));
+            field(map, name(pos, '"'), projection);
             break;
 
           case '\'':
-            field(map, name(pos, '\''));
+            field(map, name(pos, '\''), projection);
             break;
 
           // optional field separator
@@ -246,7 +331,7 @@ public final class Json5Parser
             break;
 
           default:
-            field(map, name(pos - 1));
+            field(map, name(pos - 1), projection);
             break;
         }
       }
@@ -259,18 +344,103 @@ public final class Json5Parser
     throw syntaxError("Unexpected end of string");
   }
 
-  private void field(final Map<String, Object> map, final String name) throws ParserException
+  private void field(final Map<String, Object> map, final String name, final Projection projection)
+    throws ParserException
   {
-    map.put(name, value());
+    final Projection p = projection.field(name);
+    map.put(name, p != null ? value(p) : raw());
+  }
+
+  /*
+   * Skips the next value, and returns it unparsed.
+   */
+  private RawJson raw() throws ParserException
+  {
+    pos = skip(buf, pos, len);
+
+    final int start = pos;
+    switch (buf[pos])
+    {
+      case '{':
+      case '[':
+      case '(':
+        skipNested();
+        break;
+
+      case '"':
+      case '\'':
+        skipString();
+        break;
+
+      default:
+      {
+        final int size = getSymbolSize(buf, pos, len);
+        if (size == 0)
+        {
+          throw syntaxError("Missing value");
+        }
+        pos += size;
+      }
+    }
+
+    return new RawJson(buf, start, pos - start);
+  }
+
+  private void skipNested()
+  {
+    int depth = 0;
+    do
+    {
+      pos = skip(buf, pos, len);
+      switch (buf[pos])
+      {
+        case '{':
+        case '[':
+        case '(':
+          ++depth;
+          ++pos;
+          break;
+
+        case '}':
+        case ']':
+        case ')':
+          --depth;
+          ++pos;
+          break;
+
+        case '"':
+        case '\'':
+          skipString();
+          break;
+
+        default:
+          ++pos;
+          break;
+      }
+    }
+    while (depth > 0);
+  }
+
+  private void skipString()
+  {
+    final int quote = next();
+
+    int ch;
+    while ((ch = next()) != quote)
+    {
+      if (ch == '\\')
+        ++pos;
+    }
   }
 
   /**
    * Parse an array value.
    *
+   * @param projection the selected fields of the objects in the array
    * @return An array (list) of objects.
    * @throws ParserException If syntax error.
    */
-  private List<?> array(final int q) throws ParserException
+  private List<?> array(final int q, final Projection projection) throws ParserException
   {
     final List<Object> values = new ArrayList<>();
 
@@ -284,7 +454,7 @@ public final class Json5Parser
         return values;
       }
 
-      values.add(value());
+      values.add(value(projection));
 
       pos = skip(buf, pos, len);
 
@@ -333,6 +503,7 @@ public final class Json5Parser
     }
   }
 
+  // used by Utf8Json5Parser
   static Object symbol(final String s) throws ParserException
   {
     switch (s.toLowerCase(Locale.US))
@@ -360,7 +531,15 @@ public final class Json5Parser
     }
 
     pos = i + 1;
-    return new String(buf, at, i - at).trim().intern();
+
+    // trim the name
+    int start = at;
+    while (start < i && buf[start] <= ' ')
+      ++start;
+    while (i > start && buf[i - 1] <= ' ')
+      --i;
+
+    return keys.key(buf, start, i - start);
   }
 
   private String name(final int at, final int ch)
@@ -378,7 +557,7 @@ public final class Json5Parser
       ++pos;
     }
 
-    return new String(buf, at, i - at).intern();
+    return keys.key(buf, at, i - at);
   }
 
   /*
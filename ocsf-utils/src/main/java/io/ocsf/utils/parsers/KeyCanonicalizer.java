@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.utils.parsers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Returns canonical string instances for the object keys found by the parsers.
+ * <p>
+ * The events usually repeat the same small set of keys, so the parsers return the same
+ * <code>String</code> instance for the same key instead of a new string for every occurrence.
+ * Unlike <code>String.intern()</code>, the cache is bounded, thus the keys of untrusted data
+ * cannot grow it, and it is not shared between threads.
+ * <p>
+ * The canonicalizer used by the parsers can be replaced with {@link #set(KeyCanonicalizer)}.
+ */
+public abstract class KeyCanonicalizer
+{
+  /**
+   * The default number of cached keys per thread.
+   */
+  public static final int DefaultCapacity = 1024;
+
+  /**
+   * The default maximum length of the cached keys. Longer keys are not cached.
+   */
+  public static final int DefaultMaxLength = 64;
+
+  /**
+   * A canonicalizer that does not cache the keys: it always returns a new string.
+   */
+  public static final KeyCanonicalizer None = new KeyCanonicalizer()
+  {
+    @Override
+    public String key(final char[] buf, final int offset, final int length)
+    {
+      return new String(buf, offset, length);
+    }
+
+    @Override
+    public String key(final String s) {return s;}
+  };
+
+  private static volatile KeyCanonicalizer canonicalizer =
+    perThread(DefaultCapacity, DefaultMaxLength);
+
+  /**
+   * Returns the canonicalizer used by the parsers.
+   *
+   * @return the current key canonicalizer
+   */
+  public static KeyCanonicalizer get() {return canonicalizer;}
+
+  /**
+   * Sets the canonicalizer used by the parsers.
+   *
+   * @param canonicalizer the new key canonicalizer
+   */
+  public static void set(final KeyCanonicalizer canonicalizer)
+  {
+    KeyCanonicalizer.canonicalizer = Objects.requireNonNull(canonicalizer);
+  }
+
+  /**
+   * Creates a new canonicalizer with a per-thread, open-addressing cache of the keys.
+   *
+   * @param capacity  the maximum number of cached keys per thread, rounded up to a power of 2
+   * @param maxLength the maximum length of the cached keys
+   * @return a new key canonicalizer
+   */
+  public static KeyCanonicalizer perThread(final int capacity, final int maxLength)
+  {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+
+    final int size = Integer.highestOneBit(capacity - 1) << 1;
+
+    return new KeyCanonicalizer()
+    {
+      private final ThreadLocal<Table> tables =
+        ThreadLocal.withInitial(() -> new Table(Math.max(size, 2)));
+
+      @Override
+      public String key(final char[] buf, final int offset, final int length)
+      {
+        return length > maxLength ?
+               new String(buf, offset, length) :
+               tables.get().key(buf, offset, length);
+      }
+
+      @Override
+      public String key(final byte[] buf, final int offset, final int length)
+      {
+        return length > maxLength ?
+               new String(buf, offset, length, StandardCharsets.UTF_8) :
+               tables.get().key(buf, offset, length);
+      }
+
+      @Override
+      public String key(final String s)
+      {
+        return s.length() > maxLength ? s : tables.get().key(s);
+      }
+    };
+  }
+
+  /**
+   * Returns the canonical string of the given chars. The chars are copied into a new string only
+   * when the key is not found.
+   *
+   * @param buf    the chars
+   * @param offset the offset of the key
+   * @param length the length of the key
+   * @return the canonical string
+   */
+  public abstract String key(final char[] buf, final int offset, final int length);
+
+  /**
+   * Returns the canonical string of the given UTF-8 bytes. The default implementation decodes the
+   * bytes and returns {@link #key(String)}.
+   *
+   * @param buf    the UTF-8 bytes
+   * @param offset the offset of the key
+   * @param length the length of the key in bytes
+   * @return the canonical string
+   */
+  public String key(final byte[] buf, final int offset, final int length)
+  {
+    return key(new String(buf, offset, length, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the canonical instance of the given string.
+   *
+   * @param s the string
+   * @return the canonical string, possibly <code>s</code> itself
+   */
+  public abstract String key(final String s);
+
+  /*
+   * A bounded open-addressing table: a key is looked up in a few consecutive slots, and when it
+   * is not found, it replaces the key in its first slot.
+   */
+  private static final class Table
+  {
+    private static final int Probes = 4;
+
+    private final String[] keys;
+    private final int      mask;
+
+    private Table(final int size)
+    {
+      this.keys = new String[size];
+      this.mask = size - 1;
+    }
+
+    String key(final char[] buf, final int offset, final int length)
+    {
+      // the same hash as String.hashCode
+      int h = 0;
+      for (int i = offset, end = offset + length; i < end; ++i)
+        h = 31 * h + buf[i];
+
+      final int slot = spread(h);
+      for (int n = 0; n < Probes; ++n)
+      {
+        final int    i   = (slot + n) & mask;
+        final String key = keys[i];
+
+        if (key == null)
+          return keys[i] = new String(buf, offset, length);
+
+        if (key.hashCode() == h && equals(key, buf, offset, length))
+          return key;
+      }
+
+      return keys[slot] = new String(buf, offset, length);
+    }
+
+    String key(final byte[] buf, final int offset, final int length)
+    {
+      // the same hash as String.hashCode, only ASCII keys are cached
+      int h = 0;
+      for (int i = offset, end = offset + length; i < end; ++i)
+      {
+        final byte b = buf[i];
+        if (b < 0)
+          return new String(buf, offset, length, StandardCharsets.UTF_8);
+
+        h = 31 * h + b;
+      }
+
+      final int slot = spread(h);
+      for (int n = 0; n < Probes; ++n)
+      {
+        final int    i   = (slot + n) & mask;
+        final String key = keys[i];
+
+        if (key == null)
+          return keys[i] = new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+
+        if (key.hashCode() == h && equals(key, buf, offset, length))
+          return key;
+      }
+
+      return keys[slot] = new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    String key(final String s)
+    {
+      final int slot = spread(s.hashCode());
+      for (int n = 0; n < Probes; ++n)
+      {
+        final int    i   = (slot + n) & mask;
+        final String key = keys[i];
+
+        if (key == null)
+          return keys[i] = s;
+
+        if (key.equals(s))
+          return key;
+      }
+
+      return keys[slot] = s;
+    }
+
+    private int spread(final int h)
+    {
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static boolean equals(
+      final String key, final char[] buf, final int offset, final int length)
+    {
+      if (key.length() != length)
+        return false;
+
+      for (int i = 0; i < length; ++i)
+        if (key.charAt(i) != buf[offset + i])
+          return false;
+
+      return true;
+    }
+
+    private static boolean equals(
+      final String key, final byte[] buf, final int offset, final int length)
+    {
+      if (key.length() != length)
+        return false;
+
+      for (int i = 0; i < length; ++i)
+        if (key.charAt(i) != buf[offset + i])
+          return false;
+
+      return true;
+    }
+  }
+}
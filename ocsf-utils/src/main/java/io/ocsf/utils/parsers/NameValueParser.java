@@ -39,6 +39,8 @@ public final class NameValueParser
 
   private final StringBuilder sb = new StringBuilder(32);
 
+  private final KeyCanonicalizer keys = KeyCanonicalizer.get();
+
   /**
    * Parse the given text containing a single line with name/value pairs.
    *
@@ -188,7 +190,14 @@ public final class NameValueParser
 
     pos = i + 1;
 
-    return new String(buf, at, i - at).trim().intern();
+    // trim the name
+    int start = at;
+    while (start < i && buf[start] <= ' ')
+      ++start;
+    while (i > start && buf[i - 1] <= ' ')
+      --i;
+
+    return keys.key(buf, start, i - start);
   }
 
   /**
@@ -33,4 +33,16 @@ public interface Parser
    * @throws Exception when unable to parse the text
    */
   Map<String, Object> parse(final String text) throws Exception;
+
+  /**
+   * Returns a parser that parses only the selected fields, and keeps the other values unparsed,
+   * see {@link Projection}. The parsers that cannot skip the values return this parser.
+   *
+   * @param projection the selected fields
+   * @return the parser using the projection
+   */
+  default Parser project(final Projection projection)
+  {
+    return this;
+  }
 }
@@ -17,6 +17,7 @@
 
 package io.ocsf.utils.parsers;
 
+import io.ocsf.utils.CompactMap;
 import io.ocsf.utils.Maps;
 import io.ocsf.utils.Utils;
 
@@ -25,7 +26,6 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -100,7 +100,7 @@ public final class PatternParser
     return line -> {
       final Recognizer recognizer = new Recognizer(line);
 
-      final Map<String, Object> data = new HashMap<>();
+      final Map<String, Object> data = new CompactMap(rules.size());
       for (final Rule rule : rules)
         if (!rule.apply(recognizer, data))
           return null; // no match
@@ -223,9 +223,9 @@ public final class PatternParser
 
 
   /*
-   * Field data extractor
+   * Field data extractor, also used by the regex parser for its typed groups
    */
-  private static Field field(final String field) throws ParserException
+  static Field field(final String field) throws ParserException
   {
     final int pos = field.indexOf(':');
     if (pos > 0)
@@ -288,7 +288,7 @@ public final class PatternParser
     return new Field(field.trim());
   }
 
-  private static class Field
+  static class Field
   {
     final String name;
 
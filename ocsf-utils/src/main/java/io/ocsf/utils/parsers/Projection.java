@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.utils.parsers;
+
+import io.ocsf.utils.FieldPath;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The fields of a JSON object that must be parsed, given as a set of paths using the
+ * <code>map.path.to.value</code> notation. A path selects the value and all its nested values, the
+ * objects along a path keep only the selected fields. The fields of an array of objects are
+ * selected in each object of the array. A nested path also selects the top-level field named by
+ * the whole path, since {@link io.ocsf.utils.Maps#getIn(Map, String)} looks up a key with dots
+ * before the nested fields.
+ * <p>
+ * The parser keeps the values of the fields that are not selected as unparsed {@link RawJson}
+ * values, see {@link Json5Parser#to(String, Projection)}.
+ */
+public final class Projection
+{
+  /**
+   * Selects all fields.
+   */
+  public static final Projection All = new Projection(null);
+
+  // the selected fields of an object, null if all fields are selected
+  private final Map<String, Projection> fields;
+
+  private Projection(final Map<String, Projection> fields)
+  {
+    this.fields = fields;
+  }
+
+  /**
+   * Creates a projection that selects the given paths.
+   *
+   * @param paths the selected paths, or null to select all fields
+   * @return the projection
+   */
+  public static Projection of(final Collection<String> paths)
+  {
+    if (paths == null)
+      return All;
+
+    final Projection root = new Projection(new HashMap<>());
+    for (final String path : paths)
+    {
+      if (path == null || path.isEmpty())
+        return All;
+
+      final String[] keys = FieldPath.split(path);
+      if (keys.length > 1)
+        root.fields.put(path, All);
+
+      root.add(keys, 0);
+    }
+
+    return root;
+  }
+
+  /**
+   * Returns true if this projection selects all fields.
+   */
+  public boolean isAll()
+  {
+    return fields == null;
+  }
+
+  /**
+   * Returns the projection of the given field.
+   *
+   * @param name the field name
+   * @return the projection of the field value, or null if the field is not selected
+   */
+  public Projection field(final String name)
+  {
+    return fields == null ? All : fields.get(name);
+  }
+
+  /**
+   * Returns the selected paths, in alphabetical order. The top-level keys with dots are not
+   * returned, they are selected again by {@link #of(Collection)}.
+   */
+  public Collection<String> paths()
+  {
+    final Collection<String> paths = new TreeSet<>();
+    if (fields != null)
+      paths(paths, "");
+
+    return paths;
+  }
+
+  @Override
+  public String toString()
+  {
+    return isAll() ? "*" : paths().toString();
+  }
+
+  private void add(final String[] keys, final int i)
+  {
+    final Projection child = fields.get(keys[i]);
+
+    if (i == keys.length - 1)
+    {
+      fields.put(keys[i], All);
+    }
+    else if (child == null)
+    {
+      final Projection p = new Projection(new HashMap<>());
+      fields.put(keys[i], p);
+      p.add(keys, i + 1);
+    }
+    else if (!child.isAll())
+    {
+      child.add(keys, i + 1);
+    }
+  }
+
+  private void paths(final Collection<String> paths, final String prefix)
+  {
+    fields.forEach((name, p) -> {
+      if (name.indexOf('.') >= 0)
+        return;
+
+      if (p.isAll())
+        paths.add(prefix + name);
+      else
+        p.paths(paths, prefix + name + '.');
+    });
+  }
+}
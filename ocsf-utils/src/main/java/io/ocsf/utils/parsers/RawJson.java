@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.ocsf.utils.parsers;
+
+import io.ocsf.utils.Maps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * An unparsed JSON value, left by a parser using a {@link Projection} in place of a value that is
+ * not selected. The value keeps a reference to the parsed text, and it is parsed on first use.
+ * <p>
+ * The JSON writers write the parsed value, so the values that are not selected are still part of
+ * the output, for example as the <code>unmapped</code> data of a translated event.
+ * <p>
+ * NOTE: This class is intended for use in a single thread.
+ */
+public final class RawJson
+{
+  private final char[] chars;
+  private final byte[] bytes;
+  private final int    offset;
+  private final int    length;
+
+  private Object  value;
+  private boolean parsed;
+
+  RawJson(final char[] chars, final int offset, final int length)
+  {
+    this.chars  = chars;
+    this.bytes  = null;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  RawJson(final byte[] bytes, final int offset, final int length)
+  {
+    this.chars  = null;
+    this.bytes  = bytes;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Returns the parsed value. The value is parsed on the first call.
+   *
+   * @return the value, it can be a Boolean, Double, Integer, Long, String, List, Map, or null
+   * @throws ParserException If syntax error.
+   */
+  public Object value() throws ParserException
+  {
+    if (!parsed)
+    {
+      value  = chars != null ?
+               Json5Parser.parse(chars, offset, length) :
+               new Utf8Json5Parser(bytes, offset, length).parse();
+      parsed = true;
+    }
+
+    return value;
+  }
+
+  /**
+   * Returns the text of the value.
+   *
+   * @return the unparsed text
+   */
+  @Override
+  public String toString()
+  {
+    return chars != null ?
+           new String(chars, offset, length) :
+           new String(bytes, offset, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Replaces the unparsed values in the given data with their parsed values.
+   *
+   * @param data the data, modified in place
+   * @param <T>  the type of the data
+   * @return the data
+   * @throws ParserException If syntax error.
+   */
+  public static <T> T resolve(final T data) throws ParserException
+  {
+    if (data instanceof Map<?, ?>)
+    {
+      final Map<String, Object> map = Maps.typecast(data);
+      map.replaceAll((name, value) -> resolve(value));
+    }
+    else if (data instanceof List<?>)
+    {
+      final ListIterator<Object> it = Maps.<List<Object>>typecast(data).listIterator();
+      while (it.hasNext())
+        it.set(resolve(it.next()));
+    }
+    else if (data instanceof RawJson)
+    {
+      return Maps.typecast(resolve(((RawJson) data).value()));
+    }
+
+    return data;
+  }
+}
@@ -17,17 +17,45 @@
 
 package io.ocsf.utils.parsers;
 
+import io.ocsf.utils.FieldPath;
+import io.ocsf.utils.Maps;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
-public final class RegexParser
+/**
+ * Regex event parser.
+ * <p>
+ * The parser extracts the values of the named groups of a regex pattern. The pattern is compiled
+ * once, and the parser can be shared between threads: each thread reuses its own matcher.
+ * <p>
+ * In addition to the Java named groups, <code>(?&lt;name&gt;X)</code>, a group may define the
+ * type of its value, and its name may be a dotted path:
+ * <pre>
+ *  (?&lt;name: &lt;type&gt;&gt;X)
+ * </pre>
+ * The types are the same as the {@link PatternParser} types, for example:
+ * <code>(?&lt;port: integer&gt;\d+)</code>, or
+ * <code>(?&lt;time: datetime(yyyy-MM-dd HH:mm:ssZ)&gt;.+?)</code>. A value that cannot be
+ * converted to the group type keeps its string value. A group name starting with '_' is matched,
+ * but its value is excluded from the final data.
+ */
+public final class RegexParser implements Parser
 {
   private final Pattern pattern;
 
+  // the capturing group numbers of the named groups, and their fields
+  private final int[]                 groups;
+  private final PatternParser.Field[] fields;
+  private final FieldPath[]           paths;
+
+  private final ThreadLocal<Matcher> matcher;
+
   /**
    * Creates a new pattern parser using the given regex pattern.
    *
@@ -36,50 +64,183 @@ public final class RegexParser
    */
   public static Parser create(final String pattern) throws ParserException
   {
-    return line -> new RegexParser(pattern).parse(line);
+    return new RegexParser(pattern);
+  }
+
+  private RegexParser(final String regex)
+  {
+    final List<Integer>             groups = new ArrayList<>();
+    final List<PatternParser.Field> fields = new ArrayList<>();
+
+    final String translated = translate(regex, groups, fields);
+
+    try
+    {
+      this.pattern = Pattern.compile(translated, Pattern.CASE_INSENSITIVE);
+    }
+    catch (final PatternSyntaxException ex)
+    {
+      throw new ParserException("Invalid regex pattern: " + ex.getMessage(), ex);
+    }
+
+    this.groups = groups.stream().mapToInt(Integer::intValue).toArray();
+    this.fields = fields.toArray(new PatternParser.Field[0]);
+    this.paths  = new FieldPath[this.fields.length];
+
+    for (int i = 0; i < this.fields.length; ++i)
+      this.paths[i] = FieldPath.of(this.fields[i].name);
+
+    this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
   }
 
-  private RegexParser(final String pattern)
+  @Override
+  public Map<String, Object> parse(final String text)
   {
-    this.pattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+    final Matcher matcher = this.matcher.get().reset(text);
+    try
+    {
+      if (matcher.matches())
+      {
+        final Map<String, Object> data = new HashMap<>();
+
+        for (int i = 0; i < groups.length; ++i)
+        {
+          final String value = matcher.group(groups[i]);
+
+          if (paths[i].isNested())
+            Maps.putIn(data, paths[i], value != null ? fields[i].typecast(value) : null);
+          else
+            data.put(paths[i].path(), value != null ? fields[i].typecast(value) : null);
+        }
+
+        return data;
+      }
+
+      return null; // Match not found
+    }
+    finally
+    {
+      // do not hold on to the text, even when the match fails or throws
+      matcher.reset("");
+    }
   }
 
   /**
-   * Returns the named groups found in the given regex pattern.
+   * Translates the pattern to a Java regex pattern, and collects the named groups.
+   * <p>
+   * The named groups that are not valid Java named groups, because of their name or type, are
+   * replaced with plain capturing groups. The groups are numbered by counting the opening
+   * parentheses of the capturing groups, skipping escaped characters, quotations, and character
+   * classes.
    *
-   * @param pattern the pattern
-   * @return the named groups found in the pattern
+   * @param regex  the pattern
+   * @param groups the capturing group numbers of the named groups
+   * @param fields the fields of the named groups
+   * @return the Java regex pattern
    */
-  private static List<String> getNamedGroups(final Pattern pattern)
+  private static String translate(
+    final String regex, final List<Integer> groups, final List<PatternParser.Field> fields)
   {
-    final List<String> groups  = new ArrayList<>();
-    final Matcher      matcher = Pattern.compile("\\(\\?<(.+?)>.*?\\)").matcher(pattern.pattern());
+    final StringBuilder sb    = new StringBuilder(regex.length());
+    final int           len   = regex.length();
+    int                 count = 0; // capturing groups
+    int                 depth = 0; // character class nesting
+    int                 pos   = 0;
 
-    while (matcher.find())
+    while (pos < len)
     {
-      for (int i = 1; i <= matcher.groupCount(); ++i)
+      final char ch = regex.charAt(pos);
+
+      if (ch == '\\' && pos + 1 < len)
+      {
+        if (regex.charAt(pos + 1) == 'Q')
+        {
+          final int end = regex.indexOf("\\E", pos + 2);
+          final int next = end < 0 ? len : end + 2;
+          sb.append(regex, pos, next);
+          pos = next;
+        }
+        else
+        {
+          sb.append(ch).append(regex.charAt(pos + 1));
+          pos += 2;
+        }
+        continue;
+      }
+
+      if (ch == '[')
+        ++depth;
+      else if (ch == ']' && depth > 0)
+        --depth;
+      else if (ch == '(' && depth == 0)
       {
-        groups.add(matcher.group(i));
+        if (pos + 1 < len && regex.charAt(pos + 1) == '?')
+        {
+          // named group, but not a look-behind: (?<=X) or (?<!X)
+          if (pos + 3 < len && regex.charAt(pos + 2) == '<' &&
+              regex.charAt(pos + 3) != '=' && regex.charAt(pos + 3) != '!')
+          {
+            final int end = regex.indexOf('>', pos + 3);
+            if (end > 0)
+            {
+              final String              spec  = regex.substring(pos + 3, end);
+              if (spec.isBlank())
+                throw new ParserException("Missing group name at index " + pos + ": " + regex);
+
+              final PatternParser.Field field = PatternParser.field(spec);
+
+              ++count;
+              if (isJavaGroupName(spec))
+              {
+                sb.append(regex, pos, end + 1);
+              }
+              else
+              {
+                // a dotted name or a typed group
+                sb.append('(');
+              }
+
+              if (!field.ignore())
+              {
+                groups.add(count);
+                fields.add(field);
+              }
+
+              pos = end + 1;
+              continue;
+            }
+          }
+        }
+        else
+        {
+          ++count;
+        }
       }
+
+      sb.append(ch);
+      ++pos;
     }
 
-    return groups;
+    return sb.toString();
   }
 
-  private Map<String, Object> parse(final String text)
+  private static boolean isJavaGroupName(final String name)
   {
-    final Matcher matcher = pattern.matcher(text);
-    if (matcher.matches())
-    {
-      final Map<String, Object> data   = new HashMap<>();
-      final List<String>        groups = getNamedGroups(pattern);
-
-      groups.forEach(name -> data.put(name, matcher.group(name)));
+    if (name.isEmpty() || !isAsciiLetter(name.charAt(0)))
+      return false;
 
-      return data;
+    for (int i = 1; i < name.length(); ++i)
+    {
+      final char ch = name.charAt(i);
+      if (!isAsciiLetter(ch) && (ch < '0' || ch > '9'))
+        return false;
     }
 
-    return null; // Match not found
+    return true;
   }
 
+  private static boolean isAsciiLetter(final char ch)
+  {
+    return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+  }
 }
@@ -0,0 +1,687 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils.parsers;
+
+import io.ocsf.utils.CompactMap;
+import io.ocsf.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON5 parser that works directly on UTF-8 encoded bytes. It accepts the same syntax and returns
+ * the same values as {@link Json5Parser}, but only the string values and the object names are
+ * decoded. The JSON structure is ASCII, and the UTF-8 multibyte sequences never contain ASCII
+ * bytes, so the parser scans the bytes without decoding them first.
+ * <p>
+ * NOTE: This class is intended for use in a single thread.
+ */
+final class Utf8Json5Parser
+{
+  private final byte[] buf;
+
+  // the end of the input, exclusive
+  private final int end;
+
+  // current byte position
+  private int pos;
+
+  private final StringBuilder sb = new StringBuilder(32);
+
+  private final KeyCanonicalizer keys = KeyCanonicalizer.get();
+
+  Utf8Json5Parser(final byte[] buf, final int offset, final int length)
+  {
+    if (offset < 0 || length < 0 || offset > buf.length - length)
+      throw new IndexOutOfBoundsException(
+        "offset " + offset + ", length " + length + ", size " + buf.length);
+
+    this.buf = buf;
+    this.pos = offset;
+    this.end = offset + length;
+  }
+
+  /**
+   * Parses the bytes and returns a JSON value. The value can be a Boolean, Double, Integer, Long,
+   * String, List, Map, or null.
+   *
+   * @return A JSON value.
+   * @throws ParserException If syntax error.
+   */
+  Object parse() throws ParserException
+  {
+    return value(Projection.All);
+  }
+
+  /**
+   * Parses the selected fields, and keeps the other values unparsed.
+   *
+   * @param projection the selected fields
+   * @return A JSON value.
+   * @throws ParserException If syntax error.
+   */
+  Object parse(final Projection projection) throws ParserException
+  {
+    return value(projection);
+  }
+
+  private Object value(final Projection projection) throws ParserException
+  {
+    pos = skip(buf, pos, end);
+
+    if (pos >= end)
+      throw syntaxError("Unexpected end of input");
+
+    // look ahead to check the next byte
+    final int ch = buf[pos];
+    switch (ch)
+    {
+      case '{':
+        return object(projection);
+
+      case '[':
+        return array(']', projection);
+      case '(':
+        return array(')', projection);
+
+      case '"':
+      case '\'':
+        return string();
+
+      default:
+        return isDigit(ch) ? number() : symbol();
+    }
+  }
+
+  private static boolean isDigit(final int ch)
+  {
+    return (ch >= '0' && ch <= '9') || ch == '.' || ch == '-' || ch == '+';
+  }
+
+  /*
+   * Returns the bytes up to the next close quote as a string. A string without escapes is decoded
+   * in one step, otherwise the string is decoded byte by byte.
+   */
+  private String string() throws ParserException
+  {
+    // get the string quote char
+    final int quote = buf[pos++];
+    final int start = pos;
+
+    for (int i = start; i < end; ++i)
+    {
+      final int ch = buf[i];
+      if (ch == quote)
+      {
+        pos = i + 1;
+        return new String(buf, start, i - start, StandardCharsets.UTF_8);
+      }
+
+      if (ch == '\\')
+        return escaped(quote, start);
+    }
+
+    throw syntaxError("Unterminated string");
+  }
+
+  private String escaped(final int quote, final int start) throws ParserException
+  {
+    sb.setLength(0);
+    pos = start;
+
+    while (pos < end)
+    {
+      final int ch = buf[pos++];
+      if (ch == quote)
+        return sb.toString();
+
+      if (ch == '\\')
+      {
+        final char c = getEscapeChar();
+        if (c != '\r')
+          sb.append(c);
+      }
+      else if (ch >= 0)
+      {
+        sb.append((char) ch);
+      }
+      else
+      {
+        decode(ch);
+      }
+    }
+
+    throw syntaxError("Unterminated string");
+  }
+
+  /*
+   * Decodes a UTF-8 multibyte sequence, starting with the given lead byte. Malformed sequences are
+   * replaced with U+FFFD, like new String(bytes, UTF_8) does.
+   */
+  private void decode(final int lead)
+  {
+    final int n;
+    int       cp;
+
+    if ((lead & 0xE0) == 0xC0)
+    {
+      n  = 1;
+      cp = lead & 0x1F;
+    }
+    else if ((lead & 0xF0) == 0xE0)
+    {
+      n  = 2;
+      cp = lead & 0x0F;
+    }
+    else if ((lead & 0xF8) == 0xF0)
+    {
+      n  = 3;
+      cp = lead & 0x07;
+    }
+    else
+    {
+      sb.append('\uFFFD');
+      return;
+    }
+
+    for (int i = 0; i < n; ++i)
+    {
+      if (pos >= end || (buf[pos] & 0xC0) != 0x80)
+      {
+        sb.append('\uFFFD');
+        return;
+      }
+      cp = (cp << 6) | (buf[pos++] & 0x3F);
+    }
+
+    sb.appendCodePoint(Character.isValidCodePoint(cp) ? cp : 0xFFFD);
+  }
+
+  /**
+   * Parse an object value.
+   *
+   * @param projection the selected fields
+   * @return A <tt>Map</tt> of name/value pairs.
+   * @throws ParserException If syntax error.
+   */
+  private Map<String, Object> object(final Projection projection) throws ParserException
+  {
+    final Map<String, Object> map = new CompactMap();
+
+    ++pos; // skip '{'
+
+    while (pos < end)
+    {
+      // get the object's next field name, if any
+      pos = skip(buf, pos, end);
+      if (pos >= end)
+        break;
+
+      switch (buf[pos++])
+      {
+        case '}':
+          return map;
+
+        case '"':
+          field(map, name(pos, '"'), projection);
+          break;
+
+        case '\'':
+          field(map, name(pos, '\''), projection);
+          break;
+
+        // optional field separator
+        case ',':
+        case ';':
+          break;
+
+        default:
+          field(map, name(pos - 1), projection);
+          break;
+      }
+    }
+
+    throw syntaxError("Unexpected end of string");
+  }
+
+  private void field(final Map<String, Object> map, final String name, final Projection projection)
+    throws ParserException
+  {
+    final Projection p = projection.field(name);
+    map.put(name, p != null ? value(p) : raw());
+  }
+
+  /*
+   * Skips the next value, and returns it unparsed.
+   */
+  private RawJson raw() throws ParserException
+  {
+    pos = skip(buf, pos, end);
+
+    if (pos >= end)
+      throw syntaxError("Unexpected end of input");
+
+    final int start = pos;
+    switch (buf[pos])
+    {
+      case '{':
+      case '[':
+      case '(':
+        skipNested();
+        break;
+
+      case '"':
+      case '\'':
+        skipString();
+        break;
+
+      default:
+      {
+        final int size = getSymbolSize(buf, pos, end);
+        if (size == 0)
+        {
+          throw syntaxError("Missing value");
+        }
+        pos += size;
+      }
+    }
+
+    return new RawJson(buf, start, pos - start);
+  }
+
+  private void skipNested() throws ParserException
+  {
+    int depth = 0;
+    do
+    {
+      pos = skip(buf, pos, end);
+      if (pos >= end)
+        throw syntaxError("Unexpected end of string");
+
+      switch (buf[pos])
+      {
+        case '{':
+        case '[':
+        case '(':
+          ++depth;
+          ++pos;
+          break;
+
+        case '}':
+        case ']':
+        case ')':
+          --depth;
+          ++pos;
+          break;
+
+        case '"':
+        case '\'':
+          skipString();
+          break;
+
+        default:
+          ++pos;
+          break;
+      }
+    }
+    while (depth > 0);
+  }
+
+  // the UTF-8 multibyte sequences never contain a quote or a backslash byte
+  private void skipString() throws ParserException
+  {
+    final int quote = buf[pos++];
+
+    while (pos < end)
+    {
+      final int ch = buf[pos++];
+      if (ch == quote)
+        return;
+
+      if (ch == '\\')
+        ++pos;
+    }
+
+    throw syntaxError("Unterminated string");
+  }
+
+  /**
+   * Parse an array value.
+   *
+   * @param projection the selected fields of the objects in the array
+   * @return An array (list) of objects.
+   * @throws ParserException If syntax error.
+   */
+  private List<?> array(final int q, final Projection projection) throws ParserException
+  {
+    final List<Object> values = new ArrayList<>();
+
+    ++pos; // skip '[' or '(
+    while (pos < end)
+    {
+      pos = skip(buf, pos, end);
+      if (pos < end && buf[pos] == q)
+      {
+        ++pos;
+        return values;
+      }
+
+      values.add(value(projection));
+
+      pos = skip(buf, pos, end);
+      if (pos >= end)
+        break;
+
+      switch (buf[pos++])
+      {
+        case ';':
+        case ',':
+        {
+          break;
+        }
+
+        default:
+        {
+          if (q == buf[pos - 1])
+          {
+            return values;
+          }
+
+          throw syntaxError("Expected a ',' or ']'");
+        }
+      }
+    }
+
+    throw syntaxError("Unexpected end of string");
+  }
+
+  /**
+   * Handle unquoted text. This could be the values true, false, or null
+   */
+  private Object symbol() throws ParserException
+  {
+    final int size = getSymbolSize(buf, pos, end);
+
+    if (size == 0)
+    {
+      throw syntaxError("Missing value");
+    }
+
+    try
+    {
+      return Json5Parser.symbol(new String(buf, pos, size, StandardCharsets.UTF_8));
+    }
+    finally
+    {
+      pos += size;
+    }
+  }
+
+  private String name(final int at) throws ParserException
+  {
+    int i = pos;
+    while (i < end && buf[i] != ':' && buf[i] != '=')
+    {
+      ++i;
+    }
+
+    if (i >= end)
+      throw syntaxError("Invalid JSON");
+
+    pos = i + 1;
+
+    // trim the name
+    int start = at;
+    while (start < i && (buf[start] & 0xFF) <= ' ')
+      ++start;
+    while (i > start && (buf[i - 1] & 0xFF) <= ' ')
+      --i;
+
+    return keys.key(buf, start, i - start);
+  }
+
+  private String name(final int at, final int ch) throws ParserException
+  {
+    int i = pos;
+    while (i < end && buf[i] != ch)
+    {
+      ++i;
+    }
+
+    if (i >= end)
+      throw syntaxError("Invalid JSON");
+
+    // the name is optionally followed by ':' or '='
+    pos = skip(buf, i + 1, end);
+    if (pos < end && (buf[pos] == ':' || buf[pos] == '='))
+    {
+      ++pos;
+    }
+
+    return keys.key(buf, at, i - at);
+  }
+
+  /*
+   * Parse a number. The plain decimal integers, which are the most common numbers in the events,
+   * are parsed without creating a string.
+   *
+   * @throws NumberFormatException if the bytes do not contain a number
+   */
+  private Object number()
+  {
+    final int size = getSymbolSize(buf, pos, end);
+
+    try
+    {
+      final Number n = integer(buf, pos, size);
+      if (n != null)
+        return n;
+
+      // numbers are ASCII, so a char is a byte
+      final char[] chars = new char[size];
+      for (int i = 0; i < size; ++i)
+        chars[i] = (char) (buf[pos + i] & 0xFF);
+
+      return Utils.number(chars, 0, size);
+    }
+    finally
+    {
+      pos += size;
+    }
+  }
+
+  /*
+   * Returns the Integer or Long value of a signed decimal integer with up to 18 digits, or null if
+   * the bytes are not such a number.
+   */
+  private static Number integer(final byte[] buf, final int offset, final int size)
+  {
+    int i = offset;
+    final int end = offset + size;
+
+    final boolean negative = i < end && buf[i] == '-';
+    if (i < end && (buf[i] == '-' || buf[i] == '+'))
+      ++i;
+
+    final int digits = end - i;
+    if (digits == 0 || digits > 18)
+      return null;
+
+    long n = 0;
+    for (; i < end; ++i)
+    {
+      final int d = buf[i] - '0';
+      if (d < 0 || d > 9)
+        return null;
+
+      n = n * 10 + d;
+    }
+
+    if (negative)
+      n = -n;
+
+    final int v = (int) n;
+
+    // don't use ?: statement, it will box the int as a Long
+    if (v == n)
+    {
+      return v;
+    }
+
+    return n;
+  }
+
+  /**
+   * Skip all white-spaces, returns the position of first non-white-space byte or 'end' if end of
+   * the buffer is reached.
+   */
+  private static int skip(final byte[] buf, final int pos, final int end)
+  {
+    for (int i = pos; i < end; ++i)
+    {
+      int ch = buf[i];
+
+      // skip comments
+      if (ch == '/' && i + 1 < end)
+      {
+        ch = buf[++i]; // get next byte
+        if (ch == '/')
+        {
+          i = skipLine(buf, i + 1, end);
+        }
+        else if (ch == '*')
+        {
+          i = skipLines(buf, i + 1, end);
+        }
+      }
+      else if (ch < 0 || !Character.isWhitespace(ch))
+      {
+        return i;
+      }
+    }
+
+    return end;
+  }
+
+  private static int skipLine(final byte[] buf, final int pos, final int end)
+  {
+    for (int i = pos; i < end; ++i)
+    {
+      if (buf[i] == '\n')
+      {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  private static int skipLines(final byte[] buf, final int pos, final int end)
+  {
+    for (int i = pos; i + 1 < end; ++i)
+    {
+      if (buf[i] == '*' && buf[i + 1] == '/')
+      {
+        return i + 1;
+      }
+    }
+    return end;
+  }
+
+  /**
+   * Returns a symbol size in a number of bytes, starting from the current position, or 0 if end of
+   * the buffer is reached.
+   */
+  private static int getSymbolSize(final byte[] buf, final int pos, final int end)
+  {
+    int i = pos;
+    while (i < end && isSymbolChar(buf[i]))
+    {
+      ++i;
+    }
+
+    return i - pos;
+  }
+
+  private static boolean isSymbolChar(final int ch)
+  {
+    return ch < 0 || !Character.isWhitespace(ch) && ",:]}/\\\"[{;=#".indexOf(ch) < 0;
+  }
+
+  private char getEscapeChar() throws ParserException
+  {
+    if (pos >= end)
+      throw syntaxError("Unterminated string");
+
+    final int ch = buf[pos++];
+    switch (ch)
+    {
+      case 'b':
+        return ('\b');
+      case 't':
+        return ('\t');
+      case 'n':
+        return ('\n');
+      case 'f':
+        return ('\f');
+      case 'r':
+        return ('\r');
+      case 'u':
+        return unicode();
+      case '"':
+      case '\'':
+      case '\\':
+      case '/':
+        return (char) ch;
+      default:
+        throw new ParserException(
+          "Illegal escape at " + pos + ": 0x" + Integer.toHexString(ch & 0x0ff));
+    }
+  }
+
+  private char unicode() throws ParserException
+  {
+    if (pos + 4 > end)
+      throw syntaxError("Unterminated string");
+
+    int value = 0;
+    for (int i = 0; i < 4; ++i)
+    {
+      final int c = buf[pos++];
+      if (c >= '0' && c <= '9')
+        value = (value << 4) + c - '0';
+      else if (c >= 'a' && c <= 'f')
+        value = (value << 4) + c - 'a' + 10;
+      else if (c >= 'A' && c <= 'F')
+        value = (value << 4) + c - 'A' + 10;
+    }
+    return (char) value;
+  }
+
+  private ParserException syntaxError(final String message)
+  {
+    if (pos < end)
+    {
+      return new ParserException(
+        message + " at " + pos + ", found: '" + (char) (buf[pos] & 0x0ff) + "' " +
+        Integer.toHexString(buf[pos] & 0x0ff));
+    }
+
+    return new ParserException(message + " at the end");
+  }
+}
@@ -22,6 +22,7 @@ import org.junit.Assert;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 
 public final class BooleanEvaluatorTest extends TestCase
 {
@@ -607,4 +608,14 @@ public final class BooleanEvaluatorTest extends TestCase
         BooleanExpression.parse("name contains 'doe' and not (nothing != null)"), data));
   }
 
+
+  public void testFields()
+  {
+    final Tree node = BooleanExpression.parse(
+      "(a.b = 1 or !(c in [1, 2])) and d != null and (list exec name = 'Joe')");
+
+    Assert.assertEquals(
+      new HashSet<>(Arrays.asList("a.b", "c", "d", "list")), node.fields());
+    Assert.assertTrue(Tree.Empty.fields().isEmpty());
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class BooleanPredicateTest
+{
+  private static final String[] Expressions = {
+    "",
+    "name = 'joe doe'",
+    "name == 'JOE DOE'",
+    "name != 'jane'",
+    "name like 'joe*'",
+    "name like 5",
+    "name like null",
+    "name contains 'DOE'",
+    "name contains null",
+    "name match 'j.e .*'",
+    "name match 5",
+    "name starts_with 'jo'",
+    "name ends_with 'oe'",
+    "name in ['joe doe', 'jane']",
+    "name not_in ['joe doe', 'jane']",
+    "name is null",
+    "name is_not null",
+    "age = 42",
+    "age = 42.0",
+    "age > 41",
+    "age >= 42.5",
+    "age < 5000000000",
+    "age <= 42",
+    "age in [41, 42]",
+    "text = 42",
+    "text > 41.5",
+    "long = 5000000000",
+    "long > 42",
+    "double < 42",
+    "double = 3.5",
+    "date = 1689873456010",
+    "date > 1689873456000",
+    "flag = true",
+    "flag = false",
+    "ip in '192.168.1.0/24'",
+    "ip not_in '10.0.0.0/8'",
+    "missing = 42",
+    "missing = 'x'",
+    "missing != 42",
+    "missing is null",
+    "user.name = 'joe'",
+    "user.id > 10",
+    "'user.name' = 'joe'",
+    "list exec (name = 'a')",
+    "list exec (name = 'c' or id = 2)",
+    "user exec (name = 'joe')",
+    "codes exec 2",
+    "codes exec 3",
+    "name = 'joe doe' and age = 42",
+    "name = 'joe doe' and age = 41",
+    "name = 'jane' or age = 42",
+    "not (name = 'jane')",
+    "! (age < 10 or age > 100)",
+  };
+
+  private static final Map<String, Object> Data =
+    FMap.<String, Object>b()
+        .p("name", "Joe Doe")
+        .p("age", 42)
+        .p("text", "42")
+        .p("long", 5000000000L)
+        .p("double", 3.5)
+        .p("date", new Date(1689873456010L))
+        .p("flag", true)
+        .p("ip", "192.168.1.10")
+        .p("user", FMap.<String, Object>b().p("name", "joe").p("id", 11))
+        .p("user.name", "joe")
+        .p("list", List.of(FMap.<String, Object>b().p("name", "a").p("id", 1),
+                           FMap.<String, Object>b().p("name", "b").p("id", 2)))
+        .p("codes", List.of(1, 2));
+
+  @Test
+  public void sameAsEvaluator()
+  {
+    for (final String exp : Expressions)
+    {
+      final Tree node = BooleanExpression.parse(exp);
+
+      Assert.assertEquals(
+        exp, BooleanEvaluator.evaluateIn(node, Data), BooleanPredicate.compile(node).test(Data));
+    }
+  }
+
+  @Test
+  public void emptyData()
+  {
+    final Map<String, Object> data = Json5Parser.to("{}");
+
+    for (final String exp : Expressions)
+    {
+      final Tree node = BooleanExpression.parse(exp);
+
+      Assert.assertEquals(
+        exp, BooleanEvaluator.evaluateIn(node, data), BooleanPredicate.compile(node).test(data));
+    }
+  }
+
+  @Test
+  public void compile()
+  {
+    Assert.assertTrue(BooleanPredicate.compile("name = 'JOE DOE' and age > 40").test(Data));
+    Assert.assertFalse(BooleanPredicate.compile("name = 'JOE DOE' and age > 42").test(Data));
+  }
+
+  @Test
+  public void collation()
+  {
+    final Map<String, Object> data = FMap.<String, Object>b().p("doc", "My Résumé");
+
+    for (final String exp : new String[]{
+      "doc contains 'resume'", "doc ends_with 'RESUME'", "doc starts_with 'my re'"})
+    {
+      Assert.assertFalse(exp, BooleanPredicate.compile(exp).test(data));
+      Assert.assertTrue(exp, BooleanPredicate.compile(exp, true).test(data));
+      Assert.assertTrue(
+        exp, BooleanEvaluator.evaluateIn(BooleanExpression.parse(exp, true), data));
+    }
+  }
+}
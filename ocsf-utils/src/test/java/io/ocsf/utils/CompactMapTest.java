@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+public class CompactMapTest
+{
+  @Test
+  public void small()
+  {
+    final Map<String, Object> map = new CompactMap();
+    map.put("a", 1);
+    map.put("b", null);
+    map.put("c", 3);
+
+    Assert.assertEquals(3, map.size());
+    Assert.assertEquals(1, map.get("a"));
+    Assert.assertNull(map.get("b"));
+    Assert.assertTrue(map.containsKey("b"));
+    Assert.assertFalse(map.containsKey("d"));
+    Assert.assertNull(map.get(null));
+
+    Assert.assertEquals(1, map.put("a", 10));
+    Assert.assertEquals(10, map.get("a"));
+
+    // the small map keeps the insertion order
+    Assert.assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map.keySet()));
+
+    Assert.assertNull(map.remove("b"));
+    Assert.assertEquals(Arrays.asList("a", "c"), new ArrayList<>(map.keySet()));
+    Assert.assertEquals(2, map.size());
+  }
+
+  @Test
+  public void large()
+  {
+    final Map<String, Object> map = new CompactMap();
+    for (int i = 0; i < 100; ++i)
+      map.put("key" + i, i);
+
+    Assert.assertEquals(100, map.size());
+    for (int i = 0; i < 100; ++i)
+      Assert.assertEquals(i, map.get("key" + i));
+
+    for (int i = 0; i < 100; i += 2)
+      Assert.assertEquals(i, map.remove("key" + i));
+
+    Assert.assertEquals(50, map.size());
+    for (int i = 0; i < 100; ++i)
+      Assert.assertEquals(i % 2 == 0 ? null : i, map.get("key" + i));
+  }
+
+  @Test
+  public void expectedSize()
+  {
+    final Map<String, Object> small = new CompactMap(2);
+    final Map<String, Object> large = new CompactMap(20);
+    for (int i = 0; i < 20; ++i)
+    {
+      small.put("key" + i, i);
+      large.put("key" + i, i);
+    }
+
+    Assert.assertEquals(small, large);
+  }
+
+  @Test
+  public void iteratorRemove()
+  {
+    for (final int n : new int[]{CompactMap.SmallSize, 50})
+    {
+      final Map<String, Object> map = new CompactMap();
+      for (int i = 0; i < n; ++i)
+        map.put("key" + i, i);
+
+      final Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+      while (it.hasNext())
+      {
+        if ((Integer) it.next().getValue() % 2 == 0)
+          it.remove();
+      }
+
+      Assert.assertEquals(n / 2, map.size());
+      map.forEach((k, v) -> Assert.assertEquals(1, (Integer) v % 2));
+    }
+  }
+
+  @Test
+  public void setValue()
+  {
+    final Map<String, Object> map = new CompactMap();
+    for (int i = 0; i < 20; ++i)
+      map.put("key" + i, i);
+
+    map.entrySet().forEach(e -> e.setValue((Integer) e.getValue() * 2));
+    map.replaceAll((k, v) -> (Integer) v + 1);
+
+    for (int i = 0; i < 20; ++i)
+      Assert.assertEquals(i * 2 + 1, map.get("key" + i));
+  }
+
+  @Test
+  public void cleanup()
+  {
+    final Map<String, Object> map = new CompactMap();
+    map.put("a", new CompactMap());
+    map.put("b", 1);
+    map.put("c", new ArrayList<>());
+    map.put("d", 2);
+
+    Maps.cleanup(map);
+    Assert.assertEquals(FMap.b().p("b", 1).p("d", 2), map);
+  }
+
+  @Test
+  public void random()
+  {
+    final Random              random   = new Random(42);
+    final Map<String, Object> map      = new CompactMap();
+    final Map<String, Object> expected = new HashMap<>();
+
+    for (int i = 0; i < 10_000; ++i)
+    {
+      final String key = "k" + random.nextInt(64);
+      if (random.nextInt(3) == 0)
+        Assert.assertEquals(expected.remove(key), map.remove(key));
+      else
+        Assert.assertEquals(expected.put(key, i), map.put(key, i));
+
+      Assert.assertEquals(expected.size(), map.size());
+    }
+
+    Assert.assertEquals(expected, map);
+    Assert.assertEquals(map, expected);
+    Assert.assertEquals(expected.hashCode(), map.hashCode());
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertNull(map.get("k1"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void nullKey()
+  {
+    new CompactMap().put(null, 1);
+  }
+
+  @Test
+  public void copy()
+  {
+    final Map<String, Object> src = FMap.<String, Object>b().p("x", 1).p("y", 2).p("z", 3);
+    Assert.assertEquals(src, new CompactMap(src));
+  }
+}
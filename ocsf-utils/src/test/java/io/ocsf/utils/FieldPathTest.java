@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class FieldPathTest
+{
+  @Test
+  public void split()
+  {
+    for (final String path : new String[]{"", "a", "a.b", "a.b.c", "a..b", "a.b.", "a..", ".a", "."})
+      Assert.assertArrayEquals(path, path.split("\\."), FieldPath.split(path));
+  }
+
+  @Test
+  public void keys()
+  {
+    final FieldPath path = FieldPath.of("process.file.name");
+
+    Assert.assertTrue(path.isNested());
+    Assert.assertEquals(3, path.size());
+    Assert.assertEquals("process", path.key(0));
+    Assert.assertEquals("name", path.name());
+    Assert.assertEquals("file", path.key(1));
+    Assert.assertEquals(FieldPath.of("process.file.name"), path);
+    Assert.assertFalse(FieldPath.of("process").isNested());
+  }
+
+  @Test
+  public void getIn()
+  {
+    final Map<String, Object> data = Json5Parser.to("{a: {b: {c: 1}}, 'x.y': 2}");
+
+    Assert.assertEquals(1, Maps.getIn(data, FieldPath.of("a.b.c")));
+    Assert.assertEquals(2, Maps.getIn(data, FieldPath.of("x.y")));
+    Assert.assertNull(Maps.getIn(data, FieldPath.of("a.b.d")));
+    Assert.assertNull(Maps.getIn(data, FieldPath.of("a.b.c.d")));
+  }
+
+  @Test
+  public void putIn()
+  {
+    final Map<String, Object> data = new HashMap<>();
+
+    Maps.putIn(data, FieldPath.of("a.b.c"), 1);
+    Maps.putIn(data, FieldPath.of("a.b.c"), 2, false);
+    Maps.putIn(data, FieldPath.of("a.d"), 3, true);
+    Maps.putIn(data, FieldPath.of("e"), null);
+
+    Assert.assertEquals(Json5Parser.to("{a: {b: {c: 1}, d: 3}}"), data);
+  }
+
+  @Test
+  public void removeIn()
+  {
+    final Map<String, Object> data = Json5Parser.to("{a: {b: {c: 1}}, 'x.y': 2}");
+
+    Assert.assertEquals(1, Maps.removeIn(data, FieldPath.of("a.b.c")));
+    Assert.assertEquals(2, Maps.removeIn(data, FieldPath.of("x.y")));
+    Assert.assertNull(Maps.removeIn(data, FieldPath.of("a.b.c")));
+  }
+}
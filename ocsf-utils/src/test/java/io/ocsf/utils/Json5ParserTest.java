@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.utils;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import io.ocsf.utils.parsers.ParserException;
+import io.ocsf.utils.parsers.Projection;
+import io.ocsf.utils.parsers.RawJson;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class Json5ParserTest
+{
+  private static final String Text =
+    "// comment\n" +
+    "{ name = 'café', \"id\": 12, big: 12345678901, hex: 0x1F, pi: 3.14,\n" +
+    "  /* multi\n line */ 'list': [1, -2, +3; true, null], tuple: ('a', 'b'),\n" +
+    "  nested: {\"escaped\": \"a\\tb\\u00e9\\\"ü€😀\"}, empty: {}}";
+
+  @Test
+  public void bytes()
+  {
+    final Map<String, Object> expected = Json5Parser.to(Text);
+    final byte[]              bytes    = Text.getBytes(StandardCharsets.UTF_8);
+
+    Assert.assertEquals(expected, Json5Parser.parse(bytes));
+    Assert.assertEquals("café", expected.get("name"));
+    Assert.assertEquals(12, expected.get("id"));
+    Assert.assertEquals(12345678901L, expected.get("big"));
+    Assert.assertEquals(31, expected.get("hex"));
+    Assert.assertEquals(3.14, expected.get("pi"));
+    Assert.assertEquals(Arrays.asList(1, -2, 3, true, null), expected.get("list"));
+    Assert.assertEquals(
+      "a\tbé\"ü€😀", Maps.getIn(expected, "nested.escaped"));
+  }
+
+  @Test
+  public void byteRange()
+  {
+    final byte[] bytes = ("xx[1, 'a']yy").getBytes(StandardCharsets.UTF_8);
+
+    Assert.assertEquals(Arrays.asList(1, "a"), Json5Parser.to(bytes, 2, 8));
+  }
+
+  @Test
+  public void byteBuffer()
+  {
+    final byte[]     bytes  = Text.getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+    direct.flip();
+
+    final Object expected = Json5Parser.to(Text);
+
+    Assert.assertEquals(expected, Json5Parser.to(ByteBuffer.wrap(bytes)));
+    Assert.assertEquals(expected, Json5Parser.to(direct));
+    Assert.assertEquals(0, direct.position());
+  }
+
+  @Test(expected = ParserException.class)
+  public void unterminated()
+  {
+    Json5Parser.parse("{name: 'value".getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = ParserException.class)
+  public void unterminatedRange()
+  {
+    final byte[] bytes = "{name: 'value'}".getBytes(StandardCharsets.UTF_8);
+
+    Json5Parser.to(bytes, 0, 12);
+  }
+
+  @Test
+  public void projection()
+  {
+    final Projection projection = Projection.of(Arrays.asList("id", "nested.escaped", "list"));
+
+    final Map<String, Object> expected  = Json5Parser.to(Text);
+    final Map<String, Object> projected = Json5Parser.to(Text, projection);
+
+    Assert.assertEquals(12, projected.get("id"));
+    Assert.assertEquals(expected.get("list"), projected.get("list"));
+    Assert.assertEquals(
+      "a\tbé\"ü€😀", Maps.getIn(projected, "nested.escaped"));
+
+    // the other fields are kept unparsed
+    Assert.assertTrue(projected.get("name") instanceof RawJson);
+    Assert.assertTrue(projected.get("tuple") instanceof RawJson);
+    Assert.assertEquals("'café'", projected.get("name").toString());
+
+    Assert.assertEquals(Json.toString(expected), Json.toString(projected));
+    Assert.assertEquals(expected, RawJson.resolve(projected));
+  }
+
+  @Test
+  public void projectionBytes()
+  {
+    final Projection projection = Projection.of(Collections.singletonList("nested"));
+    final byte[]     bytes      = Text.getBytes(StandardCharsets.UTF_8);
+
+    final Map<String, Object> expected  = Json5Parser.to(Text);
+    final Map<String, Object> projected = Json5Parser.to(bytes, 0, bytes.length, projection);
+
+    Assert.assertEquals(expected.get("nested"), projected.get("nested"));
+    Assert.assertTrue(projected.get("list") instanceof RawJson);
+    Assert.assertTrue(projected.get("empty") instanceof RawJson);
+
+    Assert.assertEquals(Json.toString(expected), new JsonWriter().write(projected).toString());
+    Assert.assertEquals(expected, RawJson.resolve(projected));
+  }
+
+  @Test
+  public void projectionArray()
+  {
+    final String text =
+      "{events: [{id: 1, data: {a: [1, {b: ']'}]}}, {id: 2, data: \"}\"}], other: 'x'}";
+
+    final Map<String, Object> projected =
+      Json5Parser.to(text, Projection.of(Collections.singletonList("events.id")));
+
+    final List<Map<String, Object>> events = Maps.typecast(projected.get("events"));
+    Assert.assertEquals(1, events.get(0).get("id"));
+    Assert.assertEquals(2, events.get(1).get("id"));
+    Assert.assertEquals("{a: [1, {b: ']'}]}", events.get(0).get("data").toString());
+    Assert.assertEquals("\"}\"", events.get(1).get("data").toString());
+    Assert.assertTrue(projected.get("other") instanceof RawJson);
+
+    Assert.assertEquals(Json5Parser.to(text), RawJson.resolve(projected));
+  }
+
+  @Test
+  public void projectionPaths()
+  {
+    final Projection projection =
+      Projection.of(Arrays.asList("a.b.c", "a.b", "a.d", "e", "e.f"));
+
+    Assert.assertEquals(
+      Arrays.asList("a.b", "a.d", "e"), new ArrayList<>(projection.paths()));
+    Assert.assertTrue(projection.field("e").isAll());
+    Assert.assertTrue(projection.field("a.b.c").isAll());
+    Assert.assertNull(projection.field("x"));
+    Assert.assertTrue(Projection.of(null).isAll());
+  }
+
+  @Test
+  public void projectionDottedKey()
+  {
+    final Map<String, Object> projected = Json5Parser.to(
+      "{'a.b': {c: 1}, a: {b: 2, x: 3}, 'a.x': 4}",
+      Projection.of(Collections.singletonList("a.b")));
+
+    Assert.assertEquals(Map.of("c", 1), Maps.getIn(projected, "a.b"));
+    Assert.assertEquals(2, Maps.getIn(projected, "a", "b"));
+    Assert.assertTrue(Maps.getIn(projected, "a", "x") instanceof RawJson);
+    Assert.assertTrue(projected.get("a.x") instanceof RawJson);
+  }
+
+  @Test(expected = ParserException.class)
+  public void projectionUnterminated()
+  {
+    final byte[] bytes = "{name: 'value', skipped: [1, 2}".getBytes(StandardCharsets.UTF_8);
+
+    Json5Parser.to(bytes, 0, bytes.length, Projection.of(Collections.singletonList("name")));
+  }
+}
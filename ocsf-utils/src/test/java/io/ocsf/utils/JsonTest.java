@@ -19,6 +19,8 @@ package io.ocsf.utils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 public class JsonTest
 {
   @Test
@@ -83,4 +85,37 @@ public class JsonTest
     final String s = Json.toString(v);
     Assert.assertEquals("1.68E7", s);
   }
+
+  @Test
+  public void encodeDoubleShortest()
+  {
+    Assert.assertEquals("0.30000000000000004", Json.toString(0.1 + 0.2));
+    Assert.assertEquals("-0.0", Json.toString(-0.0d));
+    Assert.assertEquals("100000000000000000000000.0", Json.toString(1e23));
+    final String max = Json.toString(Double.MAX_VALUE);
+    Assert.assertTrue(max.startsWith("17976931348623157000"));
+    Assert.assertEquals(309 + 2, max.length());
+  }
+
+  @Test
+  public void encodeDoubleRoundTrip()
+  {
+    final Random random = new Random(42);
+    for (int i = 0; i < 100_000; ++i)
+    {
+      final double v = Double.longBitsToDouble(random.nextLong());
+      if (Double.isFinite(v))
+      {
+        final String s = Json.toString(v);
+        Assert.assertEquals(s, v, Double.parseDouble(s), 0);
+        Assert.assertEquals(s, -1, s.indexOf('E'));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void encodeDoubleNaN()
+  {
+    Json.toString(Double.NaN);
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.ocsf.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class JsonWriterTest
+{
+  private static final Map<String, Object> Data = FMap.<String, Object>b()
+    .p("string", "tab\tquote\"slash\\ café € 😀 \u0085  ")
+    .p("int", -42)
+    .p("long", Long.MIN_VALUE)
+    .p("max", Long.MAX_VALUE)
+    .p("double", 1681419369.997d)
+    .p("bool", true)
+    .p("null", null)
+    .p("list", Arrays.asList(1, "a", Collections.emptyList(), Collections.emptyMap()))
+    .p("array", new int[]{1, 2})
+    .p("nested", FMap.<String, Object>b().p("char", '\n'));
+
+  @Test
+  public void sameAsJson()
+  {
+    Assert.assertEquals(Json.toString(Data), new JsonWriter().write(Data).toString());
+    Assert.assertEquals(Json.toString(0), new JsonWriter().write(0).toString());
+  }
+
+  @Test
+  public void ndjson() throws IOException
+  {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // the output is larger than the buffer, so the writer flushes in the middle of the values
+    try (final JsonWriter writer = new JsonWriter(out))
+    {
+      for (int i = 0; i < 100; ++i)
+        writer.writeLine(Data);
+    }
+
+    final String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+    Assert.assertEquals(100, lines.length);
+    Assert.assertEquals(Json.toString(Data), lines[99]);
+  }
+
+  @Test
+  public void plainRuns()
+  {
+    // the plain ASCII runs are copied at once, up to the escaped and non-ASCII chars
+    for (final String s : new String[]{
+      "", "a", "plain text", "\"quoted\"", "tab\tand\nnewline", "café au lait", "a\u2028b",
+      "emoji 😀 end", "\u0001x", String.join("", Collections.nCopies(3000, "abc\\"))})
+    {
+      Assert.assertEquals(s, Json.toString(s), new JsonWriter(16).write(s).toString());
+    }
+  }
+
+  @Test
+  public void reset()
+  {
+    final JsonWriter writer = new JsonWriter(16);
+    final String     large  = String.join("", Collections.nCopies(5000, "ü\""));
+
+    Assert.assertEquals(Json.toString(large), writer.write(large).toString());
+    Assert.assertEquals("[]", writer.reset().write(Collections.emptyList()).toString());
+    Assert.assertEquals(2, writer.buffer().remaining());
+  }
+
+  @Test
+  public void writeJson() throws IOException
+  {
+    final Path dir  = java.nio.file.Files.createTempDirectory("json");
+    final Path path = dir.resolve("data.json");
+
+    // an unrelated file named like a temporary file is left alone
+    final Path other = dir.resolve("data.json.tmp");
+    java.nio.file.Files.write(other, new byte[]{1});
+
+    Files.writeJson(path, Data, false);
+    Assert.assertEquals(Json.toString(Data), Files.readFile(path));
+
+    // a failed write leaves the previous file
+    try
+    {
+      Files.writeJson(path, Collections.singletonMap("nan", Double.NaN), false);
+      Assert.fail("non-finite numbers are not valid JSON");
+    }
+    catch (final IllegalArgumentException e)
+    {
+      Assert.assertEquals(Json.toString(Data), Files.readFile(path));
+    }
+
+    try (final Stream<Path> files = java.nio.file.Files.list(dir))
+    {
+      Assert.assertEquals(
+        Arrays.asList(path, other), files.sorted().collect(Collectors.toList()));
+    }
+  }
+}
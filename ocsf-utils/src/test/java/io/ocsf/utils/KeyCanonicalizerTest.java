@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023 Splunk Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package io.ocsf.utils;
+
+import io.ocsf.utils.parsers.Json5Parser;
+import io.ocsf.utils.parsers.KeyCanonicalizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class KeyCanonicalizerTest
+{
+  @Test
+  public void key()
+  {
+    final KeyCanonicalizer keys = KeyCanonicalizer.perThread(16, 8);
+    final char[]           buf  = "{name: 'name', names}".toCharArray();
+
+    final String name = keys.key(buf, 1, 4);
+    Assert.assertEquals("name", name);
+    Assert.assertSame(name, keys.key(buf, 8, 4));
+    Assert.assertSame(name, keys.key(new String(buf, 8, 4)));
+    Assert.assertEquals("names", keys.key(buf, 15, 5));
+
+    final byte[] bytes = "name/näme".getBytes(StandardCharsets.UTF_8);
+    Assert.assertSame(name, keys.key(bytes, 0, 4));
+    Assert.assertEquals("näme", keys.key(bytes, 5, 5));
+
+    // the long keys are not cached
+    final String s = "a_very_long_key";
+    Assert.assertNotSame(
+      keys.key(s.toCharArray(), 0, s.length()), keys.key(s.toCharArray(), 0, s.length()));
+  }
+
+  @Test
+  public void bounded()
+  {
+    final KeyCanonicalizer keys = KeyCanonicalizer.perThread(4, 8);
+
+    for (int i = 0; i < 1000; ++i)
+    {
+      final char[] buf = ("key" + i).toCharArray();
+      Assert.assertEquals("key" + i, keys.key(buf, 0, buf.length));
+    }
+
+    final char[] buf = "key".toCharArray();
+    Assert.assertSame(keys.key(buf, 0, buf.length), keys.key(buf, 0, buf.length));
+  }
+
+  @Test
+  public void parser()
+  {
+    final Map<String, Object> m1 = Json5Parser.to("{ name : 1, 'id': 2}");
+    final Map<String, Object> m2 = Json5Parser.to("{\"id\": 3, name: 4}");
+
+    Assert.assertEquals(2, m1.size());
+    Assert.assertEquals(1, m1.get("name"));
+    Assert.assertEquals(4, m2.get("name"));
+
+    Assert.assertSame(key(m1, "name"), key(m2, "name"));
+    Assert.assertSame(key(m1, "id"), key(m2, "id"));
+  }
+
+  private static String key(final Map<String, Object> map, final String name)
+  {
+    return map.keySet().stream().filter(name::equals).findFirst().orElse(null);
+  }
+}
@@ -18,6 +18,7 @@
 package io.ocsf.utils;
 
 import io.ocsf.utils.parsers.Parser;
+import io.ocsf.utils.parsers.ParserException;
 import io.ocsf.utils.parsers.RegexParser;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,4 +54,70 @@ public class RegexParserTest
     Assert.assertEquals("uid", "01:00:e0:4c:08:00:7e", data.get("uid"));
   }
 
+  @Test
+  public void typedGroups() throws Exception
+  {
+    final Parser parser = RegexParser.create(
+      "(?<time: datetime(yyyy-MM-dd HH:mm:ssZ)>.+?) (?<src.ip>\\S+):(?<src.port: integer>\\d+)" +
+      " (?<_ignored>\\w+) (?:size=(?<size:long>\\w+))? \\Q(x)\\E(?<![(])(?<msg>.*)");
+
+    final Map<String, Object> data =
+      parser.parse("2023-07-20 17:17:36+0000 10.0.0.1:443 skip size=5000000000 (x)done");
+
+    Assert.assertNotNull(data);
+    Assert.assertEquals(Json.format(data), 4, data.size());
+    Assert.assertEquals(1689873456000L, data.get("time"));
+    Assert.assertEquals("10.0.0.1", Maps.getIn(data, "src.ip"));
+    Assert.assertEquals(443, Maps.getIn(data, "src.port"));
+    Assert.assertEquals(5000000000L, data.get("size"));
+    Assert.assertEquals("done", data.get("msg"));
+
+    // a value that cannot be converted keeps its string value
+    Assert.assertEquals(
+      "big", parser.parse("2023-07-20 17:17:36+0000 h:1 x size=big (x)").get("size"));
+
+    Assert.assertNull(parser.parse("no match"));
+  }
+
+  @Test
+  public void concurrent() throws Exception
+  {
+    final Parser parser = RegexParser.create("(?<a>\\d+)-(?<b>\\d+)");
+
+    final Thread[] threads = new Thread[4];
+    final boolean[] failed = new boolean[1];
+
+    for (int t = 0; t < threads.length; ++t)
+    {
+      final int n = t;
+      threads[t] = new Thread(() -> {
+        try
+        {
+          for (int i = 0; i < 1000; ++i)
+          {
+            final Map<String, Object> data = parser.parse(n + "-" + i);
+            if (!String.valueOf(n).equals(data.get("a")) ||
+                !String.valueOf(i).equals(data.get("b")))
+              failed[0] = true;
+          }
+        }
+        catch (final Exception e)
+        {
+          failed[0] = true;
+        }
+      });
+      threads[t].start();
+    }
+
+    for (final Thread thread : threads)
+      thread.join();
+
+    Assert.assertFalse(failed[0]);
+  }
+
+  @Test(expected = ParserException.class)
+  public void invalid()
+  {
+    RegexParser.create("(?<a>\\d+");
+  }
 }
@@ -129,4 +129,50 @@ public class StringsTest extends TestCase
 
     Assert.assertEquals("\"foo\"", Strings.quote((Object)"foo"));
   }
-}
\ No newline at end of file
+
+  public void testSearch()
+  {
+    Assert.assertEquals(0, Strings.search("Hello World", "hello"));
+    Assert.assertEquals(6, Strings.search("Hello World", "WORLD"));
+    Assert.assertEquals(4, Strings.search("abababc", "abc"));
+    Assert.assertEquals(-1, Strings.search("Hello World", "worlds"));
+    Assert.assertEquals(-1, Strings.search("", "a"));
+    Assert.assertEquals(0, Strings.search("abc", ""));
+    Assert.assertEquals(3, Strings.search("Ünïcødé", "CØDÉ"));
+
+    // characters sharing the low byte of the shift table
+    Assert.assertEquals(2, Strings.search("\u0141\u0041\u0041\u0141", "\u0041\u0141"));
+    Assert.assertEquals(-1, Strings.search("\u0141\u0141\u0141", "\u0041\u0141"));
+  }
+
+  public void testStartsEndsWith()
+  {
+    Assert.assertTrue(Strings.startsWith("Hello World", "HELLO"));
+    Assert.assertFalse(Strings.startsWith("Hello World", "World"));
+    Assert.assertFalse(Strings.startsWith("Hi", "Hello"));
+    Assert.assertTrue(Strings.endsWith("Hello World", "world"));
+    Assert.assertFalse(Strings.endsWith("Hello World", "Hello"));
+    Assert.assertFalse(Strings.endsWith("Hi", "Hello"));
+
+    // an empty substring is not a prefix or a suffix
+    Assert.assertFalse(Strings.startsWith("Hello", ""));
+    Assert.assertFalse(Strings.endsWith("Hello", ""));
+    Assert.assertFalse(Strings.startsWith("", ""));
+    Assert.assertFalse(Strings.finder("", true).startsWith("Hello"));
+  }
+
+  public void testFinder()
+  {
+    final Strings.Finder finder = Strings.finder("needle");
+
+    Assert.assertEquals(10, finder.search("haystack, NeEdLe, haystack"));
+    Assert.assertEquals(-1, finder.search("haystack"));
+    Assert.assertTrue(finder.startsWith("Needles"));
+    Assert.assertTrue(finder.endsWith("pine needle"));
+
+    // the collation is an explicit opt-in: it ignores the accents
+    Assert.assertEquals(-1, Strings.finder("resume").search("my résumé"));
+    Assert.assertTrue(Strings.finder("resume", true).search("my résumé") > -1);
+    Assert.assertTrue(Strings.finder("RESUME", true).endsWith("résumé"));
+  }
+}